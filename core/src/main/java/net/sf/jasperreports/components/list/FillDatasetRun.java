@@ -39,6 +39,7 @@ import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRReport;
 import net.sf.jasperreports.engine.JRRewindableDataSource;
 import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.EagerDatasetInit;
 import net.sf.jasperreports.engine.fill.FillDatasetPosition;
 import net.sf.jasperreports.engine.fill.JRFillCloneFactory;
 import net.sf.jasperreports.engine.fill.JRFillDataset;
@@ -63,6 +64,8 @@ public class FillDatasetRun extends JRFillDatasetRun
 	private JRDataSource dataSource;
 	private Connection connection;
 	private boolean first;
+	private final boolean eagerDataInitAllowed;
+	private EagerDatasetInit eagerDataInit;
 	
 	public FillDatasetRun(JRDatasetRun datasetRun,
 			JRFillObjectFactory factory) throws JRException
@@ -73,11 +76,16 @@ public class FillDatasetRun extends JRFillDatasetRun
 		
 		initReturnValues(factory);
 		factory.registerDatasetRun(this);
+		
+		eagerDataInitAllowed = true;
 	}
 
 	public FillDatasetRun(FillDatasetRun datasetRun, JRFillCloneFactory factory)
 	{
 		super(datasetRun, factory);
+		
+		// clones share the fill dataset
+		eagerDataInitAllowed = false;
 	}
 
 	private static JRFillDataset createFillDataset(JRDatasetRun datasetRun,
@@ -100,6 +108,8 @@ public class FillDatasetRun extends JRFillDatasetRun
 			log.debug("Evaluating list dataset run parameters");
 		}
 		
+		discardEagerDataInit();
+		
 		saveReturnVariables();
 		
 		parameterValues = JRFillSubreport.getParameterValues(
@@ -138,6 +148,11 @@ public class FillDatasetRun extends JRFillDatasetRun
 			connection = (Connection) expressionEvaluator.evaluate(
 					connectionExpression, evaluation);
 		}
+		
+		if (eagerDataInitAllowed && EagerDatasetInit.isEnabled(filler, this))
+		{
+			eagerDataInit = EagerDatasetInit.start(filler, dataset, parameterValues, this::initDataset);
+		}
 	}
 	
 	public void start() throws JRException
@@ -147,6 +162,23 @@ public class FillDatasetRun extends JRFillDatasetRun
 			log.debug("Starting list dataset iteration");
 		}
 		
+		if (eagerDataInit == null)
+		{
+			initDataset();
+		}
+		else
+		{
+			EagerDatasetInit dataInit = eagerDataInit;
+			eagerDataInit = null;
+			dataInit.join();
+		}
+		
+		dataset.start();
+		first = true;
+	}
+	
+	protected void initDataset() throws JRException
+	{
 		if (dataSourceExpression != null)
 		{
 			dataset.setDatasourceParameterValue(parameterValues, dataSource);
@@ -165,9 +197,15 @@ public class FillDatasetRun extends JRFillDatasetRun
 		dataset.setParameterValues(parameterValues);
 		dataset.evaluateFieldProperties();
 		dataset.initDatasource();
-		
-		dataset.start();
-		first = true;
+	}
+	
+	protected void discardEagerDataInit()
+	{
+		if (eagerDataInit != null)
+		{
+			eagerDataInit.discard();
+			eagerDataInit = null;
+		}
 	}
 	
 	public boolean next() throws JRException
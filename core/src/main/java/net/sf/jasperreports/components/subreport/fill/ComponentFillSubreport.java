@@ -93,6 +93,13 @@ public class ComponentFillSubreport extends JRFillSubreport
 		return jasperReport;
 	}
 
+	@Override
+	protected boolean isEagerDataInitAllowed()
+	{
+		// components create a new fill subreport on each evaluation
+		return false;
+	}
+
 	@Override
 	protected FillerSubreportParent createFillerParent(DatasetExpressionEvaluator evaluator) throws JRException
 	{
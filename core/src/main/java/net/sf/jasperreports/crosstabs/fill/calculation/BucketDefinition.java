@@ -84,6 +84,8 @@ public class BucketDefinition
 	
 	private boolean computeTotal;
 	
+	private final boolean orderConsistentWithEquals;
+	
 	/**
 	 * Creates a bucket.
 	 * 
@@ -140,6 +142,25 @@ public class BucketDefinition
 		
 		this.totalPosition = totalPosition;
 		computeTotal = totalPosition != CrosstabTotalPositionEnum.NONE || orderer != null;
+		
+		orderConsistentWithEquals = bucketValueComparator == null 
+				|| bucketValueComparator instanceof ArbitraryRankComparator
+				|| (comparator == null && isNaturalOrderConsistentWithEquals(valueClass));
+	}
+
+	protected static boolean isNaturalOrderConsistentWithEquals(Class<?> valueClass)
+	{
+		// final classes whose compareTo returns 0 only for equal values.
+		// BigDecimal and the date classes are not included, 1.0 and 1.00 or a date and a timestamp can compare as equal
+		return String.class.equals(valueClass)
+				|| Integer.class.equals(valueClass)
+				|| Long.class.equals(valueClass)
+				|| Short.class.equals(valueClass)
+				|| Byte.class.equals(valueClass)
+				|| Character.class.equals(valueClass)
+				|| Boolean.class.equals(valueClass)
+				|| Double.class.equals(valueClass)
+				|| Float.class.equals(valueClass);
 	}
 
 	
@@ -187,6 +208,17 @@ public class BucketDefinition
 		return bucketValueComparator != null;
 	}
 	
+	/**
+	 * Whether the bucket values compare as equal only when they are equal according to their
+	 * <code>equals</code> method.
+	 * 
+	 * @return whether the bucket order is consistent with <code>equals</code>
+	 */
+	public boolean isOrderConsistentWithEquals()
+	{
+		return orderConsistentWithEquals;
+	}
+	
 	/**
 	 * Whether this bucket needs total calculation.
 	 * 
@@ -63,6 +63,32 @@ public abstract class BucketingService
 			)
 	public static final String PROPERTY_BUCKET_MEASURE_LIMIT = JRPropertiesUtil.PROPERTY_PREFIX + "crosstab.bucket.measure.limit";
 	
+	/**
+	 * Property that specifies whether the bucket values of sorted crosstab groups are collected in hash maps
+	 * and sorted once when the data is processed, instead of being kept in sorted maps while the data is collected.
+	 * <p/>
+	 * Only groups whose order is consistent with the <code>equals</code> method of the bucket values are collected
+	 * in hash maps, i.e. groups without a comparator and with <code>String</code>, <code>Integer</code>,
+	 * <code>Long</code>, <code>Short</code>, <code>Byte</code>, <code>Character</code>, <code>Boolean</code>,
+	 * <code>Double</code> or <code>Float</code> values.
+	 * The other groups keep using sorted maps, so that the measures of values that compare as equal are
+	 * calculated in the record order.
+	 * <p/>
+	 * This only changes how the bucket values are looked up while the data is collected.
+	 * The collected data is still kept in memory as objects, it is not spilled to disk and it is not keyed by
+	 * primitive values, and exceeding {@link #PROPERTY_BUCKET_MEASURE_LIMIT} still fails the fill.
+	 * When the property is not set, the buckets are collected exactly as in previous versions.
+	 * The property is disabled by default.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_CROSSTAB,
+			valueType = Boolean.class,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3
+			)
+	public static final String PROPERTY_BUCKET_HASH_AGGREGATION = JRPropertiesUtil.PROPERTY_PREFIX + "crosstab.bucket.hash.aggregation";
+	
 	protected static final byte DIMENSION_ROW = 0;
 
 	protected static final byte DIMENSION_COLUMN = 1;
@@ -100,6 +126,9 @@ public abstract class BucketingService
 	protected final int bucketMeasureLimit;
 	private int runningBucketMeasureCount;
 	
+	protected final boolean hashAggregation;
+	private boolean collecting;
+	
 	/**
 	 * Creates a crosstab bucketing engine.
 	 * 
@@ -156,6 +185,9 @@ public abstract class BucketingService
 		this.retrieveTotal = retrieveTotal;
 		checkTotals();
 		
+		hashAggregation = JRPropertiesUtil.getInstance(serviceContext.getJasperReportsContext()).getBooleanProperty(PROPERTY_BUCKET_HASH_AGGREGATION, false);
+		collecting = true;
+		
 		bucketValueMap = createBucketMap(0);
 		columnBucketMap = createBucketMapMap(rowBucketCount);
 		
@@ -246,6 +278,7 @@ public abstract class BucketingService
 		bucketValueMap.clear();
 		columnBucketMap.clear();
 		processed = false;
+		collecting = true;
 		dataCount = 0;
 		runningBucketMeasureCount = 0;
 	}
@@ -272,10 +305,16 @@ public abstract class BucketingService
 	
 	protected BucketMapMap createRowTotalsBucketMap()
 	{
-		BucketMapMap totalsBucketMap = new BucketMapMap(rowBucketCount, false);
+		BucketMapMap totalsBucketMap = createTotalsBucketMapMap(rowBucketCount);
 		totalsBucketMap.copyEntries(columnBucketMap);
 		return totalsBucketMap;
 	}
+	
+	protected BucketMapMap createTotalsBucketMapMap(int level)
+	{
+		// with hash aggregation, sorted groups use sorted maps so that the lookups use the group comparators
+		return hashAggregation ? createBucketMapMap(level) : new BucketMapMap(level, false);
+	}
 
 	protected void addMeasure(
 			MeasureDefinition measure, 
@@ -433,6 +472,11 @@ public abstract class BucketingService
 	{
 		if (!processed)
 		{
+			if (hashAggregation)
+			{
+				sortCollectedBuckets();
+			}
+			
 			if (dataCount > 0)
 			{
 				if (allBuckets[rowBucketCount - 1].computeTotal() || allBuckets[allBuckets.length - 1].computeTotal())
@@ -449,6 +493,23 @@ public abstract class BucketingService
 	}
 
 	
+	/**
+	 * Sorts the bucket values that were collected in hash maps.
+	 * 
+	 * @throws JRException
+	 */
+	protected void sortCollectedBuckets() throws JRException
+	{
+		collecting = false;
+		
+		if (bucketValueMap instanceof BucketMapMap)
+		{
+			((BucketMapMap) bucketValueMap).sortEntries();
+		}
+		((BucketMapMap) columnBucketMap).sortEntries();
+	}
+
+	
 	/**
 	 * Checks whether there is any data accumulated by the engine.
 	 * 
@@ -693,19 +754,100 @@ public abstract class BucketingService
 	
 	protected class BucketMapMap extends BucketMap
 	{
+		final boolean sortedMap;
 		Map<Bucket, Object> map;
 		
 		BucketMapMap(int level, boolean sortedMap)
 		{
 			super(level);
 			
-			this.map = sortedMap ? new TreeMap<>() : new LinkedHashMap<>();
+			this.sortedMap = sortedMap;
+			this.map = createLevelMap();
+		}
+		
+		protected Map<Bucket, Object> createLevelMap()
+		{
+			// while collecting data, the entries of sorted maps are kept in insertion order and sorted at the end
+			// when no entries need to be merged
+			return sortedMap && !(hashAggregation && collecting && allBuckets[level].isOrderConsistentWithEquals()) 
+					? new TreeMap<>() : new LinkedHashMap<>();
 		}
 		
 		@Override
 		void clear()
 		{
-			map.clear();
+			if (hashAggregation)
+			{
+				// the kind of map depends on whether data is being collected
+				map = createLevelMap();
+			}
+			else
+			{
+				map.clear();
+			}
+		}
+		
+		void sortEntries() throws JRException
+		{
+			if (!last)
+			{
+				for (Object value : map.values())
+				{
+					((BucketMapMap) value).sortEntries();
+				}
+			}
+			
+			if (sortedMap && !(map instanceof TreeMap))
+			{
+				// iterating in insertion order so that the first collected value is kept for equal buckets,
+				// and arbitrary ranks are assigned in the same order as during collection
+				TreeMap<Bucket, Object> sortedEntries = new TreeMap<>();
+				for (Map.Entry<Bucket, Object> entry : map.entrySet())
+				{
+					Object existingValue = sortedEntries.get(entry.getKey());
+					if (existingValue == null)
+					{
+						sortedEntries.put(entry.getKey(), entry.getValue());
+					}
+					else
+					{
+						mergeValues(existingValue, entry.getValue());
+					}
+				}
+				map = sortedEntries;
+			}
+		}
+		
+		void mergeEntries(BucketMapMap bucketMap) throws JRException
+		{
+			for (Map.Entry<Bucket, Object> entry : bucketMap.map.entrySet())
+			{
+				Object existingValue = map.get(entry.getKey());
+				if (existingValue == null)
+				{
+					map.put(entry.getKey(), entry.getValue());
+				}
+				else
+				{
+					mergeValues(existingValue, entry.getValue());
+				}
+			}
+		}
+		
+		void mergeValues(Object existingValue, Object value) throws JRException
+		{
+			if (last)
+			{
+				// column bucket maps only hold the zero values
+				if (existingValue != zeroMeasureValues)
+				{
+					sumVals((MeasureValue[]) existingValue, (MeasureValue[]) value);
+				}
+			}
+			else
+			{
+				((BucketMapMap) existingValue).mergeEntries((BucketMapMap) value);
+			}
 		}
 
 		@Override
@@ -795,7 +937,7 @@ public abstract class BucketingService
 				else
 				{
 					BucketMap bucketSubMap = (BucketMap) bucketEntry.getValue();
-					BucketMapMap copyBucketSubMap = new BucketMapMap(level + 1, false);
+					BucketMapMap copyBucketSubMap = createTotalsBucketMapMap(level + 1);
 					copyBucketSubMap.copyEntries(bucketSubMap);
 					copyBucketValue = copyBucketSubMap;
 				}
@@ -611,15 +611,19 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 		Integer startPageIndex = null;
 		Integer endPageIndex = null;
 		
+		ReportExportConfiguration configuration = getCurrentItemConfiguration();
+		
+		Integer start = configuration.getStartPageIndex();
+		Integer end = configuration.getEndPageIndex();
+		Integer pageIndex = configuration.getPageIndex();
+		
 		int lastPageIndex = -1;
-		if (jasperPrint.getPages() != null)
+		// only counting the pages when a range is specified, as streamed pages are counted at the end of the fill
+		if ((start != null || end != null || pageIndex != null) && jasperPrint.getPages() != null)
 		{
 			lastPageIndex = jasperPrint.getPages().size() - 1;
 		}
 
-		ReportExportConfiguration configuration = getCurrentItemConfiguration();
-		
-		Integer start = configuration.getStartPageIndex();
 		if (start != null)
 		{
 			startPageIndex = start;
@@ -633,7 +637,6 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 			}
 		}
 
-		Integer end = configuration.getEndPageIndex();
 		if (end != null)
 		{
 			endPageIndex = end;
@@ -648,7 +651,6 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 			}
 		}
 
-		Integer pageIndex = configuration.getPageIndex();
 		if (pageIndex != null)
 		{
 			if (pageIndex < -1 || pageIndex > lastPageIndex)
@@ -53,6 +53,7 @@ import org.apache.commons.logging.LogFactory;
 
 import net.sf.jasperreports.annotations.properties.Property;
 import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.data.FieldReaderCache;
 import net.sf.jasperreports.engine.query.JRJdbcQueryExecuterFactory;
 import net.sf.jasperreports.engine.util.JRImageLoader;
 import net.sf.jasperreports.properties.PropertyConstants;
@@ -128,6 +129,7 @@ public class JRResultSetDataSource implements JRDataSource
 	private JasperReportsContext jasperReportsContext;
 	private ResultSet resultSet;
 	private Map<String,Integer> columnIndexMap = new HashMap<>();
+	private final FieldReaderCache<FieldReader> fieldReaders = new FieldReaderCache<>(this::createFieldReader);
 
 	private TimeZone timeZone;
 	private boolean timeZoneOverride;
@@ -177,6 +179,7 @@ public class JRResultSetDataSource implements JRDataSource
 			try
 			{
 				hasNext = resultSet.next();
+				fieldReaders.reset();
 			}
 			catch (SQLException e)
 			{
@@ -208,248 +211,17 @@ public class JRResultSetDataSource implements JRDataSource
 
 		if (field != null && resultSet != null)
 		{
-			Integer columnIndex = getColumnIndex(field);
-			Class<?> clazz = field.getValueClass();
-
+			FieldReader reader = fieldReaders.get(field);
 			try
 			{
-				if (clazz.equals(java.lang.Boolean.class))
-				{
-					objValue = resultSet.getBoolean(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Byte.class))
-				{
-					objValue = resultSet.getByte(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (
-					clazz.equals(java.util.Date.class)
-					|| clazz.equals(java.sql.Date.class)
-					)
-				{
-					objValue = readDate(columnIndex, field);
-				}
-				else if (clazz.equals(java.sql.Timestamp.class))
-				{
-					objValue = readTimestamp(columnIndex, field);
-				}
-				else if (clazz.equals(java.sql.Time.class))
-				{
-					objValue = readTime(columnIndex, field);
-				}
-				else if (clazz.equals(java.lang.Double.class))
-				{
-					objValue = resultSet.getDouble(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Float.class))
-				{
-					objValue = resultSet.getFloat(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Integer.class))
-				{
-					objValue = resultSet.getInt(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.io.InputStream.class))
-				{
-					byte[] bytes = readBytes(columnIndex);
-					
-					if(bytes == null)
-					{
-						objValue = null;
-					}
-					else
-					{
-						objValue = new ByteArrayInputStream(bytes);
-					}					
-				}
-				else if (clazz.equals(java.lang.Long.class))
-				{
-					objValue = resultSet.getLong(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Short.class))
-				{
-					objValue = resultSet.getShort(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.math.BigDecimal.class))
-				{
-					objValue = resultSet.getBigDecimal(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.String.class))
-				{
-					int columnType = resultSet.getMetaData().getColumnType(columnIndex);
-					switch (columnType)
-					{
-						case Types.CLOB:
-							Clob clob = resultSet.getClob(columnIndex);
-							if (resultSet.wasNull())
-							{
-								objValue = null;
-							}
-							else
-							{
-								objValue = clobToString(clob);
-							}
-							break;
-							
-						default:
-							objValue = resultSet.getString(columnIndex);
-							if(resultSet.wasNull())
-							{
-								objValue = null;
-							}
-							break;
-					}
-				}
-				else if (clazz.equals(Clob.class))
-				{
-					objValue = resultSet.getClob(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(Reader.class))
-				{
-					Reader reader = null;
-					long size = -1;
-					
-					int columnType = resultSet.getMetaData().getColumnType(columnIndex);
-					switch (columnType)
-					{
-						case Types.CLOB:
-							Clob clob = resultSet.getClob(columnIndex);
-							if (!resultSet.wasNull())
-							{
-								reader = clob.getCharacterStream();
-								size = clob.length();
-							}
-							break;
-							
-						default:
-							reader = resultSet.getCharacterStream(columnIndex);
-							if (resultSet.wasNull())
-							{
-								reader = null; 
-							}
-					}
-					
-					if (reader == null)
-					{
-						objValue = null;
-					}
-					else
-					{
-						objValue = getArrayReader(reader, size);
-					}
-				}
-				else if (clazz.equals(Blob.class))
-				{
-					objValue = resultSet.getBlob(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(Image.class))
-				{
-					byte[] bytes = readBytes(columnIndex);
-					
-					if(bytes == null)
-					{
-						objValue = null;
-					}
-					else
-					{
-						objValue = JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(bytes);
-					}					
-				}
-				else if (clazz.equals(byte[].class))
-				{
-					objValue = readBytes(columnIndex);
-				}
-				else if (clazz.equals(Object.class))
-				{
-					// there is no point in getting typed value when class is java.lang.Object;
-					// some drivers even fail trying to convert to java.lang.Object, if typed getObject(int, Class)
-					// getter is used as in the next else block
-					objValue = resultSet.getObject(columnIndex);
-				}
-				else
-				{
-					if (supportsTypedGetObjectMethod == null)
-					{
-						try
-						{
-							objValue = resultSet.getObject(columnIndex, clazz);
-							supportsTypedGetObjectMethod = true;
-						}
-						catch (AbstractMethodError e)
-						{
-							supportsTypedGetObjectMethod = false;
-							objValue = resultSet.getObject(columnIndex);
-						}
-						catch (SQLException e)
-						{
-							// although implemented by the driver, the getObject(int, Class) might still fail for some other reason,
-							// so we fallback to getObject(int), but it does not mean we are not going to try it again next time
-							if (log.isDebugEnabled())
-							{
-								log.debug("ResultSet.getObject(int, Class) method call failed.", e);
-							}
-							
-							objValue = resultSet.getObject(columnIndex);
-						}
-					}
-					else
-					{
-						if (supportsTypedGetObjectMethod)
-						{
-							objValue = resultSet.getObject(columnIndex, clazz);
-						}
-						else
-						{
-							objValue = resultSet.getObject(columnIndex);
-						}
-					}
-				}
+				objValue = reader.read();
 			}
 			catch (Exception e)
 			{
 				throw 
 					new JRException(
 						EXCEPTION_MESSAGE_KEY_RESULT_SET_FIELD_VALUE_NOT_RETRIEVED,
-						new Object[]{field.getName(), clazz.getName()}, 
+						new Object[]{field.getName(), field.getValueClass().getName()}, 
 						e);
 			}
 		}
@@ -458,6 +230,276 @@ public class JRResultSetDataSource implements JRDataSource
 	}
 
 
+	/**
+	 * Reads the value of a field from the current row of the result set. 
+	 */
+	protected interface FieldReader
+	{
+		Object read() throws Exception;
+	}
+
+
+	/**
+	 * Readers are created when a field value is first requested, so column mapping errors surface
+	 * at the same point as before the readers were introduced.
+	 * Failures to read the column type are reported as failures to read the field value, 
+	 * as they were when the column type was read for each row.
+	 */
+	private FieldReader createFieldReader(JRField field) throws JRException
+	{
+		Integer columnIndex = getColumnIndex(field);
+		try
+		{
+			return createFieldReader(field, columnIndex);
+		}
+		catch (SQLException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_RESULT_SET_FIELD_VALUE_NOT_RETRIEVED,
+					new Object[]{field.getName(), field.getValueClass().getName()}, 
+					e);
+		}
+	}
+
+
+	/**
+	 * Creates the reader for a field, specialized by the field value class and, where relevant, 
+	 * by the type of the result set column.
+	 * The reader is created once per field and used for all the rows.
+	 */
+	protected FieldReader createFieldReader(JRField field, Integer columnIndex) throws SQLException
+	{
+		Class<?> clazz = field.getValueClass();
+		
+		if (clazz.equals(java.lang.Boolean.class))
+		{
+			return () -> 
+			{
+				boolean value = resultSet.getBoolean(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (clazz.equals(java.lang.Byte.class))
+		{
+			return () -> 
+			{
+				byte value = resultSet.getByte(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (
+			clazz.equals(java.util.Date.class)
+			|| clazz.equals(java.sql.Date.class)
+			)
+		{
+			return () -> readDate(columnIndex, field);
+		}
+		else if (clazz.equals(java.sql.Timestamp.class))
+		{
+			return () -> readTimestamp(columnIndex, field);
+		}
+		else if (clazz.equals(java.sql.Time.class))
+		{
+			return () -> readTime(columnIndex, field);
+		}
+		else if (clazz.equals(java.lang.Double.class))
+		{
+			return () -> 
+			{
+				double value = resultSet.getDouble(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (clazz.equals(java.lang.Float.class))
+		{
+			return () -> 
+			{
+				float value = resultSet.getFloat(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (clazz.equals(java.lang.Integer.class))
+		{
+			return () -> 
+			{
+				int value = resultSet.getInt(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (clazz.equals(java.io.InputStream.class))
+		{
+			int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+			return () -> 
+			{
+				byte[] bytes = readBytes(columnIndex, columnType);
+				return bytes == null ? null : new ByteArrayInputStream(bytes);
+			};
+		}
+		else if (clazz.equals(java.lang.Long.class))
+		{
+			return () -> 
+			{
+				long value = resultSet.getLong(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (clazz.equals(java.lang.Short.class))
+		{
+			return () -> 
+			{
+				short value = resultSet.getShort(columnIndex);
+				return resultSet.wasNull() ? null : (Object) value;
+			};
+		}
+		else if (clazz.equals(java.math.BigDecimal.class))
+		{
+			return () -> 
+			{
+				java.math.BigDecimal value = resultSet.getBigDecimal(columnIndex);
+				return resultSet.wasNull() ? null : value;
+			};
+		}
+		else if (clazz.equals(java.lang.String.class))
+		{
+			int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+			switch (columnType)
+			{
+				case Types.CLOB:
+					return () -> 
+					{
+						Clob clob = resultSet.getClob(columnIndex);
+						return resultSet.wasNull() ? null : clobToString(clob);
+					};
+					
+				default:
+					return () -> 
+					{
+						String value = resultSet.getString(columnIndex);
+						return resultSet.wasNull() ? null : value;
+					};
+			}
+		}
+		else if (clazz.equals(Clob.class))
+		{
+			return () -> 
+			{
+				Clob value = resultSet.getClob(columnIndex);
+				return resultSet.wasNull() ? null : value;
+			};
+		}
+		else if (clazz.equals(Reader.class))
+		{
+			int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+			return () -> readReader(columnIndex, columnType);
+		}
+		else if (clazz.equals(Blob.class))
+		{
+			return () -> 
+			{
+				Blob value = resultSet.getBlob(columnIndex);
+				return resultSet.wasNull() ? null : value;
+			};
+		}
+		else if (clazz.equals(Image.class))
+		{
+			int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+			return () -> 
+			{
+				byte[] bytes = readBytes(columnIndex, columnType);
+				return bytes == null ? null 
+						: JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(bytes);
+			};
+		}
+		else if (clazz.equals(byte[].class))
+		{
+			int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+			return () -> readBytes(columnIndex, columnType);
+		}
+		else if (clazz.equals(Object.class))
+		{
+			// there is no point in getting typed value when class is java.lang.Object;
+			// some drivers even fail trying to convert to java.lang.Object, if typed getObject(int, Class)
+			// getter is used as in readObject(Integer, Class)
+			return () -> resultSet.getObject(columnIndex);
+		}
+		else
+		{
+			return () -> readObject(columnIndex, clazz);
+		}
+	}
+
+
+	protected Object readObject(Integer columnIndex, Class<?> clazz) throws SQLException
+	{
+		Object objValue;
+		if (supportsTypedGetObjectMethod == null)
+		{
+			try
+			{
+				objValue = resultSet.getObject(columnIndex, clazz);
+				supportsTypedGetObjectMethod = true;
+			}
+			catch (AbstractMethodError e)
+			{
+				supportsTypedGetObjectMethod = false;
+				objValue = resultSet.getObject(columnIndex);
+			}
+			catch (SQLException e)
+			{
+				// although implemented by the driver, the getObject(int, Class) might still fail for some other reason,
+				// so we fallback to getObject(int), but it does not mean we are not going to try it again next time
+				if (log.isDebugEnabled())
+				{
+					log.debug("ResultSet.getObject(int, Class) method call failed.", e);
+				}
+				
+				objValue = resultSet.getObject(columnIndex);
+			}
+		}
+		else
+		{
+			if (supportsTypedGetObjectMethod)
+			{
+				objValue = resultSet.getObject(columnIndex, clazz);
+			}
+			else
+			{
+				objValue = resultSet.getObject(columnIndex);
+			}
+		}
+		return objValue;
+	}
+
+
+	protected Object readReader(Integer columnIndex, int columnType) throws SQLException, IOException
+	{
+		Reader reader = null;
+		long size = -1;
+		
+		switch (columnType)
+		{
+			case Types.CLOB:
+				Clob clob = resultSet.getClob(columnIndex);
+				if (!resultSet.wasNull())
+				{
+					reader = clob.getCharacterStream();
+					size = clob.length();
+				}
+				break;
+				
+			default:
+				reader = resultSet.getCharacterStream(columnIndex);
+				if (resultSet.wasNull())
+				{
+					reader = null; 
+				}
+		}
+		
+		return reader == null ? null : getArrayReader(reader, size);
+	}
+
+
 	protected Object readDate(Integer columnIndex, JRField field) throws SQLException
 	{
 		Calendar calendar = getFieldCalendar(field);
@@ -751,11 +793,15 @@ public class JRResultSetDataSource implements JRDataSource
 	}
 
 	protected byte[] readBytes(Integer columnIndex) throws SQLException, IOException
+	{
+		return readBytes(columnIndex, resultSet.getMetaData().getColumnType(columnIndex));
+	}
+
+	protected byte[] readBytes(Integer columnIndex, int columnType) throws SQLException, IOException
 	{
 		InputStream is = null;
 		long size = -1;
 		
-		int columnType = resultSet.getMetaData().getColumnType(columnIndex);
 		switch (columnType)
 		{
 			case Types.BLOB:
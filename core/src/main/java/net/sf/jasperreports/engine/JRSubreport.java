@@ -219,10 +219,13 @@ import net.sf.jasperreports.engine.xml.JRXmlConstants;
  * should point to a
  * {@link net.sf.jasperreports.engine.fill.JRSubreportRunnerFactory}
  * implementation able to produce the needed {@link net.sf.jasperreports.engine.fill.JRSubreportRunnable} 
- * objects at runtime. That could be one of the following two:
+ * objects at runtime. That could be one of the following:
  * <ul>
  * <li>{@link net.sf.jasperreports.engine.fill.JRContinuationSubreportRunnerFactory}</li>
  * <li>{@link net.sf.jasperreports.engine.fill.JRThreadSubreportRunnerFactory}</li>
+ * <li>{@link net.sf.jasperreports.engine.fill.ThreadPoolSubreportRunnerFactory}</li>
+ * <li>{@link net.sf.jasperreports.engine.fill.VirtualThreadSubreportRunnerFactory}, which runs subreports
+ * on virtual threads when available (Java 21 and later)</li>
  * </ul>
  * <p/>
  * The default value for the factory configuration property is
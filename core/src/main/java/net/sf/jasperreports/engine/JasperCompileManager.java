@@ -23,11 +23,13 @@
  */
 package net.sf.jasperreports.engine;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 import net.sf.jasperreports.crosstabs.JRCrosstab;
@@ -36,6 +38,8 @@ import net.sf.jasperreports.engine.design.JRJavacCompiler;
 import net.sf.jasperreports.engine.design.JRJdk13Compiler;
 import net.sf.jasperreports.engine.design.JRValidationFault;
 import net.sf.jasperreports.engine.design.JRVerifier;
+import net.sf.jasperreports.engine.design.ReportCompileCache;
+import net.sf.jasperreports.engine.design.ReportCompileCacheUtil;
 import net.sf.jasperreports.engine.design.JasperDesign;
 import net.sf.jasperreports.engine.fill.JREvaluator;
 import net.sf.jasperreports.engine.fill.JasperReportsContextAware;
@@ -141,6 +145,15 @@ import net.sf.jasperreports.engine.xml.JRXmlWriter;
  * generated script in order to fix compilation problems related to report expressions. By
  * default, the engine deletes this file after report compilation, along with its corresponding
  * <code>*.class</code> file. To keep it, however, set this configuration property to true.</dd>
+ * <dt>{@link net.sf.jasperreports.engine.design.JRCompiler#COMPILER_CACHE_DIR net.sf.jasperreports.compiler.cache.dir}<dt>
+ * <dd>Compiling a large number of report templates at application startup can take a long time. When this 
+ * property is set, the compiled reports are stored in the specified directory, and subsequent compilations
+ * of identical report sources with the same compiler and compiler configuration load the compiled reports 
+ * from the directory. The directory can be shared by several processes or application instances.
+ * Other storage means can be plugged in by registering a 
+ * {@link net.sf.jasperreports.engine.design.ReportCompileCache} extension, such as 
+ * {@link net.sf.jasperreports.engine.design.RepositoryReportCompileCache} which stores compiled reports in a 
+ * repository service.</dd>
  * </dl>
  * <h3>JDT Compiler-Specific Configuration Properties</h3>
  * The JRJdtCompiler report compiler can use special JasperReports configuration
@@ -331,9 +344,18 @@ public final class JasperCompileManager
 	 */
 	public JasperReport compile(InputStream inputStream) throws JRException
 	{
-		JasperDesign jasperDesign = JRXmlLoader.load(inputStream);
+		ReportCompileCache compileCache = ReportCompileCacheUtil.getInstance(jasperReportsContext).getCompileCache();
+		if (compileCache == null)
+		{
+			JasperDesign jasperDesign = JRXmlLoader.load(inputStream);
 
-		return compile(jasperDesign);
+			return compile(jasperDesign);
+		}
+		
+		byte[] source = JRLoader.loadBytes(inputStream);
+		JasperDesign jasperDesign = JRXmlLoader.load(new ByteArrayInputStream(source));
+		
+		return compile(jasperDesign, compileCache, source);
 	}
 
 
@@ -347,7 +369,35 @@ public final class JasperCompileManager
 	 */
 	public JasperReport compile(JasperDesign jasperDesign) throws JRException
 	{
-		return getCompiler(jasperDesign).compileReport(jasperDesign);
+		ReportCompileCache compileCache = ReportCompileCacheUtil.getInstance(jasperReportsContext).getCompileCache();
+		if (compileCache == null)
+		{
+			return getCompiler(jasperDesign).compileReport(jasperDesign);
+		}
+		
+		byte[] source = new JRXmlWriter(jasperReportsContext).write(jasperDesign, "UTF-8").getBytes(StandardCharsets.UTF_8);
+		
+		return compile(jasperDesign, compileCache, source);
+	}
+
+
+	/**
+	 * Compiles a report design using the compile cache, 
+	 * with the key computed from the report design source.
+	 */
+	private JasperReport compile(JasperDesign jasperDesign, ReportCompileCache compileCache, byte[] source) throws JRException
+	{
+		JRCompiler compiler = getCompiler(jasperDesign);
+		
+		ReportCompileCacheUtil compileCacheUtil = ReportCompileCacheUtil.getInstance(jasperReportsContext);
+		String cacheKey = compileCacheUtil.getCacheKey(source, compiler);
+		JasperReport jasperReport = compileCacheUtil.getCachedReport(compileCache, cacheKey);
+		if (jasperReport == null)
+		{
+			jasperReport = compiler.compileReport(jasperDesign);
+			compileCacheUtil.cacheReport(compileCache, cacheKey, jasperReport);
+		}
+		return jasperReport;
 	}
 
 
@@ -0,0 +1,142 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+
+/**
+ * Holds the field value readers created by a data source, so that the work of resolving
+ * the field mapping and the value type is done once per field instead of once per record.
+ * <p/>
+ * Besides the lookup by field name, the readers are also kept in an array in the order in which
+ * the fields are first requested.
+ * Since the fill engine asks for the field values in the same order for every record,
+ * the reader of a field is normally found by a simple identity check at the next array position,
+ * without any map lookup.
+ * Data sources should call {@link #reset()} when moving to a new record; if they do not,
+ * a new record is detected when the first field is requested again.
+ * 
+ * @param <R> the field value reader type
+ */
+public class FieldReaderCache<R>
+{
+	
+	/**
+	 * Creates the value reader for a field.
+	 */
+	public interface ReaderFactory<R>
+	{
+		R createReader(JRField field) throws JRException;
+	}
+
+	private static final int MAX_ORDERED_FIELDS = 4096;
+
+	private final ReaderFactory<R> factory;
+	private final Map<String, R> readers = new HashMap<>();
+	
+	private JRField[] orderedFields = new JRField[16];
+	private Object[] orderedReaders = new Object[16];
+	private int orderedCount;
+	private int position;
+
+	public FieldReaderCache(ReaderFactory<R> factory)
+	{
+		this.factory = factory;
+	}
+
+	/**
+	 * Resets the position of the expected field, called when the data source moves to a new record.
+	 */
+	public void reset()
+	{
+		position = 0;
+	}
+
+	/**
+	 * Returns the value reader for a field, creating it if necessary.
+	 * 
+	 * @param field the field
+	 * @return the value reader for the field
+	 * @throws JRException
+	 */
+	@SuppressWarnings("unchecked")
+	public R get(JRField field) throws JRException
+	{
+		int idx = position;
+		if (idx < orderedCount && orderedFields[idx] == field)
+		{
+			position = idx + 1;
+			return (R) orderedReaders[idx];
+		}
+		
+		if (orderedCount > 0 && orderedFields[0] == field)
+		{
+			// a new record has been started without a reset
+			position = 1;
+			return (R) orderedReaders[0];
+		}
+		
+		String fieldName = field.getName();
+		R reader = readers.get(fieldName);
+		if (reader == null)
+		{
+			reader = factory.createReader(field);
+			readers.put(fieldName, reader);
+		}
+		
+		if (idx == orderedCount && orderedCount < MAX_ORDERED_FIELDS)
+		{
+			// still collecting the field order from the first record
+			if (orderedCount == orderedFields.length)
+			{
+				orderedFields = Arrays.copyOf(orderedFields, orderedCount * 2);
+				orderedReaders = Arrays.copyOf(orderedReaders, orderedCount * 2);
+			}
+			orderedFields[orderedCount] = field;
+			orderedReaders[orderedCount] = reader;
+			++orderedCount;
+			position = idx + 1;
+		}
+		
+		return reader;
+	}
+
+	/**
+	 * Discards all the readers, to be called when the field mapping might have changed.
+	 */
+	public void clear()
+	{
+		readers.clear();
+		Arrays.fill(orderedFields, 0, orderedCount, null);
+		Arrays.fill(orderedReaders, 0, orderedCount, null);
+		orderedCount = 0;
+		position = 0;
+	}
+}
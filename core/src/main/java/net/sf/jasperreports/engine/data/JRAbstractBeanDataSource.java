@@ -23,10 +23,15 @@
  */
 package net.sf.jasperreports.engine.data;
 
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MethodUtils;
 import org.apache.commons.beanutils.NestedNullException;
 import org.apache.commons.beanutils.PropertyUtils;
 
@@ -72,6 +77,8 @@ public abstract class JRAbstractBeanDataSource implements JRRewindableDataSource
 	 *
 	 */
 	protected PropertyNameProvider propertyNameProvider;
+	
+	private final FieldReaderCache<BeanPropertyReader> fieldReaders = new FieldReaderCache<>(this::createFieldReader);
 
 	public static class DefaultPropertyNameProvider implements PropertyNameProvider
 	{
@@ -137,7 +144,104 @@ public abstract class JRAbstractBeanDataSource implements JRRewindableDataSource
 
 	protected Object getFieldValue(Object bean, JRField field) throws JRException
 	{
-		return getBeanProperty(bean, getPropertyName(field));
+		return fieldReaders.get(field).getValue(bean);
+	}
+	
+	protected BeanPropertyReader createFieldReader(JRField field)
+	{
+		return new BeanPropertyReader(getPropertyName(field));
+	}
+	
+	/**
+	 * Reads a bean property for a field.
+	 * <p/>
+	 * For simple property names, the property read method is resolved once per bean class
+	 * and invoked directly. 
+	 * Nested, indexed and mapped properties, as well as map and dyna beans, are read via 
+	 * {@link #getBeanProperty(Object, String)}.
+	 */
+	protected static class BeanPropertyReader
+	{
+		private final String propertyName;
+		private final boolean simpleProperty;
+		
+		private Class<?> beanClass;
+		private Method readMethod;
+		
+		public BeanPropertyReader(String propertyName)
+		{
+			this.propertyName = propertyName;
+			this.simpleProperty = isSimpleProperty(propertyName);
+		}
+		
+		public Object getValue(Object bean) throws JRException
+		{
+			if (simpleProperty && bean != null 
+					&& !(bean instanceof Map) && !(bean instanceof DynaBean))
+			{
+				Class<?> currentClass = bean.getClass();
+				if (currentClass != beanClass)
+				{
+					readMethod = resolveReadMethod(bean);
+					beanClass = currentClass;
+				}
+				
+				if (readMethod != null)
+				{
+					try
+					{
+						return readMethod.invoke(bean);
+					}
+					catch (IllegalAccessException | InvocationTargetException e)
+					{
+						throw 
+							new JRException(
+								EXCEPTION_MESSAGE_KEY_BEAN_FIELD_VALUE_NOT_RETRIEVED,
+								new Object[]{propertyName}, 
+								e);
+					}
+				}
+			}
+			
+			return getBeanProperty(bean, propertyName);
+		}
+		
+		protected Method resolveReadMethod(Object bean)
+		{
+			try
+			{
+				PropertyDescriptor descriptor = PropertyUtils.getPropertyDescriptor(bean, propertyName);
+				if (descriptor == null || descriptor instanceof IndexedPropertyDescriptor
+						|| descriptor.getReadMethod() == null)
+				{
+					return null;
+				}
+				return MethodUtils.getAccessibleMethod(bean.getClass(), descriptor.getReadMethod());
+			}
+			catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException 
+					| IllegalArgumentException e)
+			{
+				// falling back to PropertyUtils, which will report the error
+				return null;
+			}
+		}
+		
+		protected static boolean isSimpleProperty(String propertyName)
+		{
+			if (propertyName == null || propertyName.isEmpty() || isCurrentBeanMapping(propertyName))
+			{
+				return false;
+			}
+			
+			for (int i = 0; i < propertyName.length(); i++)
+			{
+				if (!Character.isJavaIdentifierPart(propertyName.charAt(i)))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
 	}
 	
 	public static Object getBeanProperty(Object bean, String propertyName) throws JRException
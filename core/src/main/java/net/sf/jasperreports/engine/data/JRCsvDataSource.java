@@ -117,6 +117,7 @@ public class JRCsvDataSource extends JRAbstractTextDataSource// implements JRDat
 	private String recordDelimiter = "\n";
 	private Map<String, Integer> columnNames = new LinkedHashMap<>();
 	private Map<String,Integer> columnIndexMap = new HashMap<>();
+	private final FieldReaderCache<FieldReader> fieldReaders = new FieldReaderCache<>(this::createFieldReader);
 	private boolean useFirstRowAsHeader;
 
 	private List<String> crtRecordColumnValues;
@@ -278,6 +279,7 @@ public class JRCsvDataSource extends JRAbstractTextDataSource// implements JRDat
 				processingStarted = true;
 			}
 
+			fieldReaders.reset();
 			return parseRow();
 		} catch (IOException e) {
 			throw new JRException(e);
@@ -323,68 +325,123 @@ public class JRCsvDataSource extends JRAbstractTextDataSource// implements JRDat
 	@Override
 	public Object getFieldValue(JRField jrField) throws JRException
 	{
-		Integer columnIndex = getColumnIndex(jrField);
+		return fieldReaders.get(jrField).read();
+	}
 
-		if (crtRecordColumnValues.size() > columnIndex) 
-		{
-			String fieldValue = crtRecordColumnValues.get(columnIndex);
-			Class<?> valueClass = jrField.getValueClass();
-			
-			if (valueClass.equals(String.class))
-			{
-				return fieldValue;
-			}
 
-			fieldValue = fieldValue.trim();
-			
-			if (fieldValue.length() == 0)
+	/**
+	 * Converts the trimmed, non empty text of a CSV column to the field value.
+	 */
+	protected interface ValueConverter
+	{
+		Object convert(String text) throws Exception;
+	}
+	
+	
+	/**
+	 * Reader created once per field, holding the resolved column index and value converter.
+	 */
+	protected class FieldReader
+	{
+		private final JRField field;
+		private final int columnIndex;
+		private final ValueConverter converter;
+		
+		protected FieldReader(JRField field, int columnIndex, ValueConverter converter)
+		{
+			this.field = field;
+			this.columnIndex = columnIndex;
+			this.converter = converter;
+		}
+		
+		public Object read() throws JRException
+		{
+			if (crtRecordColumnValues.size() > columnIndex) 
 			{
-				return null;
-			}
-			
-			try {
-				if (valueClass.equals(Boolean.class)) 
+				String fieldValue = crtRecordColumnValues.get(columnIndex);
+				if (converter == null)
 				{
-					return fieldValue.equalsIgnoreCase("true");
+					// String field
+					return fieldValue;
 				}
-				else if (Number.class.isAssignableFrom(valueClass))
+
+				fieldValue = fieldValue.trim();
+				
+				if (fieldValue.length() == 0)
 				{
-					if (numberFormat != null)
-					{
-						return FormatUtils.getFormattedNumber(numberFormat, fieldValue, valueClass);
-					}
-					else 
-					{
-						return convertStringValue(fieldValue, valueClass);
-					}
+					return null;
 				}
-				else if (Date.class.isAssignableFrom(valueClass)){
-					if (dateFormat != null)
-					{
-						return FormatUtils.getFormattedDate(dateFormat, fieldValue, valueClass);
-					} 
-					else
-					{
-						return convertStringValue(fieldValue, valueClass);
-					}
+				
+				try
+				{
+					return converter.convert(fieldValue);
 				}
-				else
+				catch (Exception e)
 				{
 					throw 
 						new JRException(
-							EXCEPTION_MESSAGE_KEY_CANNOT_CONVERT_FIELD_TYPE,
-							new Object[]{jrField.getName(), valueClass.getName()});
+							EXCEPTION_MESSAGE_KEY_CSV_FIELD_VALUE_NOT_RETRIEVED,
+							new Object[]{field.getName(), field.getValueClass().getName()}, 
+							e);
 				}
-			} catch (Exception e) {
-				throw 
-					new JRException(
-						EXCEPTION_MESSAGE_KEY_CSV_FIELD_VALUE_NOT_RETRIEVED,
-						new Object[]{jrField.getName(), valueClass.getName()}, 
-						e);
 			}
+
+			return null;
 		}
+	}
+	
+	
+	protected FieldReader createFieldReader(JRField jrField) throws JRException
+	{
+		Integer columnIndex = getColumnIndex(jrField);
+		return new FieldReader(jrField, columnIndex, createValueConverter(jrField));
+	}
+
 
-		return null;
+	protected ValueConverter createValueConverter(JRField jrField)
+	{
+		Class<?> valueClass = jrField.getValueClass();
+		
+		if (valueClass.equals(String.class))
+		{
+			return null;
+		}
+		else if (valueClass.equals(Boolean.class)) 
+		{
+			return text -> text.equalsIgnoreCase("true");
+		}
+		else if (Number.class.isAssignableFrom(valueClass))
+		{
+			if (numberFormat != null)
+			{
+				return text -> FormatUtils.getFormattedNumber(numberFormat, text, valueClass);
+			}
+			else 
+			{
+				return text -> convertStringValue(text, valueClass);
+			}
+		}
+		else if (Date.class.isAssignableFrom(valueClass))
+		{
+			if (dateFormat != null)
+			{
+				return text -> FormatUtils.getFormattedDate(dateFormat, text, valueClass);
+			} 
+			else
+			{
+				return text -> convertStringValue(text, valueClass);
+			}
+		}
+		else
+		{
+			return text -> 
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_CANNOT_CONVERT_FIELD_TYPE,
+						new Object[]{jrField.getName(), valueClass.getName()});
+			};
+		}
 	}
 
 
@@ -0,0 +1,707 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.JRXmlUtils;
+import net.sf.jasperreports.repo.RepositoryContext;
+import net.sf.jasperreports.repo.RepositoryUtil;
+import net.sf.jasperreports.repo.SimpleRepositoryContext;
+
+/**
+ * XML data source that reads the records from a StAX stream, without loading the whole document in memory.
+ * <p>
+ * Unlike {@link JRXmlDataSource}, which builds a DOM document and evaluates XPath expressions against it,
+ * this data source only supports a restricted set of path expressions, which are parsed once and evaluated
+ * against a lightweight copy of the current record element:
+ * <ul>
+ * <li>record select expressions are absolute element paths such as <code>/A/B</code> or descendant paths such 
+ * as <code>//B</code>, where a step is an element name or <code>*</code></li>
+ * <li>field expressions are relative paths such as <code>C</code>, <code>C/D</code>, <code>@id</code>, 
+ * <code>C/@id</code>, <code>text()</code>, <code>C/text()</code> or <code>.</code></li>
+ * </ul>
+ * Predicates, axes, functions and namespace prefixes resolved through a namespace map are not supported; 
+ * {@link #isSupportedSelectExpression(String)} and {@link #isSupportedFieldExpression(String)} can be used
+ * to check whether an expression can be evaluated by this data source.
+ * </p>
+ * <p>
+ * The value of an element is the concatenation of its text children, as with {@link AbstractXmlDataSource#getText(org.w3c.dom.Node)},
+ * and field values are converted from text to the field value class. As with XPath, a descendant select expression
+ * also selects the matching elements nested inside a record, which are returned after the enclosing record.
+ * Repeated elements of the current record are accessible via {@link #subDataSource(String)}, which creates a data 
+ * source for them without reading the input again.
+ * </p>
+ * 
+ * @see net.sf.jasperreports.engine.query.JRXPathQueryExecuterFactory#PROPERTY_XML_STREAMING
+ */
+public class StaxXmlDataSource extends JRAbstractTextDataSource implements HierarchicalDataSource<StaxXmlDataSource>
+{
+	public static final String EXCEPTION_MESSAGE_KEY_UNSUPPORTED_EXPRESSION = "data.xml.streaming.unsupported.expression";
+	public static final String EXCEPTION_MESSAGE_KEY_READ_ERROR = "data.xml.streaming.read.error";
+	
+	// optionally prefixed names, excluding XPath axes, operators, literals and functions
+	private static final String NCNAME = "[^\\s/@\\[\\]()*|=<>!'\",$:.\\-0-9][^\\s/@\\[\\]()*|=<>!'\",$:]*";
+	private static final String NAME = NCNAME + "(?::" + NCNAME + ")?";
+	private static final String ELEMENT_STEP = "(?:" + NAME + "|\\*)";
+	private static final Pattern SELECT_PATTERN = Pattern.compile(
+			"/{1,2}" + ELEMENT_STEP + "(?:/" + ELEMENT_STEP + ")*");
+	private static final Pattern FIELD_PATTERN = Pattern.compile(
+			"\\.|(?:\\./)?(?:" + ELEMENT_STEP + "/)*(?:" + ELEMENT_STEP + "|@" + NAME + "|text\\(\\))");
+	private static final Pattern SUB_SELECT_PATTERN = Pattern.compile(
+			"\\.|(?:/|\\./)?" + ELEMENT_STEP + "(?:/" + ELEMENT_STEP + ")*");
+	
+	/**
+	 * Decides whether a record select expression is supported by this data source.
+	 * 
+	 * @param selectExpression the select expression
+	 * @return whether the expression can be used to create a streaming data source
+	 */
+	public static boolean isSupportedSelectExpression(String selectExpression)
+	{
+		return selectExpression != null && SELECT_PATTERN.matcher(selectExpression.trim()).matches();
+	}
+	
+	/**
+	 * Decides whether a field expression is supported by this data source.
+	 * 
+	 * @param fieldExpression the field expression
+	 * @return whether the expression can be evaluated by this data source
+	 */
+	public static boolean isSupportedFieldExpression(String fieldExpression)
+	{
+		return fieldExpression != null && FIELD_PATTERN.matcher(fieldExpression.trim()).matches();
+	}
+	
+	private final InputStream inputStream;
+	private final boolean closeInputStream;
+	private final XMLStreamReader reader;
+	private final String[] selectSteps;
+	private final boolean selectDescendants;
+	private final List<String> openElements;
+	private final Deque<Element> nestedRecords;
+	
+	private final List<Element> records;
+	private int recordIndex;
+	
+	private final Map<String, ValuePath> fieldPaths = new HashMap<>();
+	private Element currentRecord;
+
+	/**
+	 * Creates a data source that reads records from an input stream.
+	 * The stream is not closed by the data source.
+	 * 
+	 * @param in the XML input stream
+	 * @param selectExpression the record select expression
+	 * @throws JRException if the expression is not supported or the stream cannot be read
+	 */
+	public StaxXmlDataSource(InputStream in, String selectExpression) throws JRException
+	{
+		this(in, false, selectExpression);
+	}
+
+	/**
+	 * Creates a data source that reads records from a file.
+	 * 
+	 * @param file the XML file
+	 * @param selectExpression the record select expression
+	 * @throws JRException if the expression is not supported or the file cannot be read
+	 */
+	public StaxXmlDataSource(File file, String selectExpression) throws JRException
+	{
+		this(openFile(file), true, selectExpression);
+	}
+
+	/**
+	 * Creates a data source that reads records from a repository location.
+	 * 
+	 * @param context the repository context
+	 * @param location the location of the XML resource
+	 * @param selectExpression the record select expression
+	 * @throws JRException if the expression is not supported or the resource cannot be read
+	 */
+	public StaxXmlDataSource(RepositoryContext context, String location, String selectExpression) throws JRException
+	{
+		this(RepositoryUtil.getInstance(context).getInputStreamFromLocation(location), true, selectExpression);
+	}
+
+	/**
+	 * Creates a data source that reads records from a repository location.
+	 * 
+	 * @param jasperReportsContext the JasperReports context
+	 * @param location the location of the XML resource
+	 * @param selectExpression the record select expression
+	 * @throws JRException if the expression is not supported or the resource cannot be read
+	 */
+	public StaxXmlDataSource(JasperReportsContext jasperReportsContext, String location, String selectExpression) throws JRException
+	{
+		this(SimpleRepositoryContext.of(jasperReportsContext), location, selectExpression);
+	}
+	
+	protected StaxXmlDataSource(InputStream in, boolean closeInputStream, String selectExpression) throws JRException
+	{
+		if (!isSupportedSelectExpression(selectExpression))
+		{
+			if (closeInputStream)
+			{
+				closeQuietly(in);
+			}
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_UNSUPPORTED_EXPRESSION,
+					new Object[]{selectExpression});
+		}
+		
+		String select = selectExpression.trim();
+		this.selectDescendants = select.startsWith("//");
+		this.selectSteps = select.substring(selectDescendants ? 2 : 1).split("/");
+		this.openElements = new ArrayList<>();
+		this.nestedRecords = new ArrayDeque<>();
+		this.records = null;
+		
+		this.inputStream = in;
+		this.closeInputStream = closeInputStream;
+		try
+		{
+			this.reader = createInputFactory().createXMLStreamReader(in);
+		}
+		catch (XMLStreamException e)
+		{
+			close();
+			throw new JRException(EXCEPTION_MESSAGE_KEY_READ_ERROR, null, e);
+		}
+	}
+	
+	protected StaxXmlDataSource(List<Element> records)
+	{
+		this.inputStream = null;
+		this.closeInputStream = false;
+		this.reader = null;
+		this.selectSteps = null;
+		this.selectDescendants = false;
+		this.openElements = null;
+		this.nestedRecords = null;
+		this.records = records;
+		this.recordIndex = -1;
+	}
+	
+	protected static InputStream openFile(File file) throws JRException
+	{
+		try
+		{
+			return new FileInputStream(file);
+		}
+		catch (IOException e)
+		{
+			throw new JRException(EXCEPTION_MESSAGE_KEY_READ_ERROR, null, e);
+		}
+	}
+	
+	protected XMLInputFactory createInputFactory()
+	{
+		XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+		// element and attribute names are matched as qualified names, same as for JRXmlDataSource
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		boolean allowDoctype = JRPropertiesUtil.getInstance(DefaultJasperReportsContext.getInstance()).getBooleanProperty(
+				JRXmlUtils.PROPERTY_ALLOW_DOCTYPE, false);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, allowDoctype);
+		return inputFactory;
+	}
+
+	@Override
+	public boolean next() throws JRException
+	{
+		if (reader == null)
+		{
+			if (recordIndex + 1 >= records.size())
+			{
+				currentRecord = null;
+				return false;
+			}
+			
+			currentRecord = records.get(++recordIndex);
+			return true;
+		}
+		
+		try
+		{
+			currentRecord = readNextRecord();
+		}
+		catch (XMLStreamException e)
+		{
+			throw new JRException(EXCEPTION_MESSAGE_KEY_READ_ERROR, null, e);
+		}
+		return currentRecord != null;
+	}
+	
+	protected Element readNextRecord() throws XMLStreamException
+	{
+		if (!nestedRecords.isEmpty())
+		{
+			return nestedRecords.poll();
+		}
+		
+		while (reader.hasNext())
+		{
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				openElements.add(reader.getLocalName());
+				if (isRecordPath(openElements))
+				{
+					Element record = readElement();
+					if (selectDescendants)
+					{
+						collectNestedRecords(record, openElements);
+					}
+					openElements.remove(openElements.size() - 1);
+					return record;
+				}
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				openElements.remove(openElements.size() - 1);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Collects the records nested inside a record in document order, for descendant select expressions.
+	 */
+	protected void collectNestedRecords(Element element, List<String> path)
+	{
+		for (Element child : element.getChildren())
+		{
+			path.add(child.getName());
+			if (isRecordPath(path))
+			{
+				nestedRecords.add(child);
+			}
+			collectNestedRecords(child, path);
+			path.remove(path.size() - 1);
+		}
+	}
+	
+	protected boolean isRecordPath(List<String> path)
+	{
+		int depth = path.size();
+		if (selectDescendants ? depth < selectSteps.length : depth != selectSteps.length)
+		{
+			return false;
+		}
+		
+		int offset = depth - selectSteps.length;
+		for (int i = 0; i < selectSteps.length; i++)
+		{
+			if (!matches(selectSteps[i], path.get(offset + i)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	protected static boolean matches(String step, String name)
+	{
+		return "*".equals(step) || step.equals(name);
+	}
+	
+	/**
+	 * Reads the element at the current position of the reader, including its attributes, text and child elements.
+	 */
+	protected Element readElement() throws XMLStreamException
+	{
+		Element element = new Element(reader.getLocalName());
+		int attributeCount = reader.getAttributeCount();
+		for (int i = 0; i < attributeCount; i++)
+		{
+			String prefix = reader.getAttributePrefix(i);
+			String localName = reader.getAttributeLocalName(i);
+			element.setAttribute(prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName, 
+					reader.getAttributeValue(i));
+		}
+		
+		while (true)
+		{
+			int event = reader.next();
+			switch (event)
+			{
+				case XMLStreamConstants.START_ELEMENT:
+					element.addChild(readElement());
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					element.appendText(reader.getText());
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					return element;
+				default:
+					// ignoring comments and processing instructions
+					break;
+			}
+		}
+	}
+
+	@Override
+	public Object getFieldValue(JRField jrField) throws JRException
+	{
+		if (currentRecord == null)
+		{
+			return null;
+		}
+		
+		ValuePath path = fieldPaths.get(jrField.getName());
+		if (path == null)
+		{
+			String expression = getFieldExpression(jrField);
+			if (!isSupportedFieldExpression(expression))
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_UNSUPPORTED_EXPRESSION,
+						new Object[]{expression});
+			}
+			
+			path = new ValuePath(expression.trim());
+			fieldPaths.put(jrField.getName(), path);
+		}
+		
+		String text = path.evaluate(currentRecord);
+		if (text == null)
+		{
+			return null;
+		}
+		
+		Class<?> valueClass = jrField.getValueClass();
+		return Object.class.equals(valueClass) ? text : convertStringValue(text, valueClass);
+	}
+	
+	/**
+	 * Returns the expression used to select the value of a field, 
+	 * determined in the same way as by {@link AbstractXmlDataSource}.
+	 * 
+	 * @param field the field
+	 * @return the field expression
+	 */
+	public static String getFieldExpression(JRField field)
+	{
+		String fieldExpression = null;
+		if (field.hasProperties())
+		{
+			fieldExpression = field.getPropertiesMap().getProperty(AbstractXmlDataSource.PROPERTY_FIELD_EXPRESSION);
+		}
+		if (fieldExpression == null || fieldExpression.length() == 0)
+		{
+			fieldExpression = field.getDescription();
+			if (fieldExpression == null || fieldExpression.length() == 0)
+			{
+				fieldExpression = field.getName();
+			}
+		}
+		return fieldExpression;
+	}
+
+	/**
+	 * Creates a data source for the elements selected by a path in a document that has the current record
+	 * as root element, for instance <code>/B/C</code> for the repeated <code>C</code> children of a <code>B</code> record.
+	 * As with {@link JRXmlDataSource#subDataSource(String)}, the path is evaluated against the document node, 
+	 * and <code>.</code> selects the document node itself.
+	 * 
+	 * @param selectExpr the element path
+	 * @return the sub data source
+	 * @throws JRException if the expression is not supported or there is no current record
+	 */
+	@Override
+	public StaxXmlDataSource subDataSource(String selectExpr) throws JRException
+	{
+		if (currentRecord == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_NODE_NOT_AVAILABLE,
+					(Object[])null);
+		}
+		
+		if (selectExpr == null || !SUB_SELECT_PATTERN.matcher(selectExpr.trim()).matches())
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_UNSUPPORTED_EXPRESSION,
+					new Object[]{selectExpr});
+		}
+		
+		String select = selectExpr.trim();
+		String[] steps = ValuePath.steps(select.startsWith("/") ? select.substring(1) : select);
+		
+		// the document node of the sub document
+		Element document = new Element(null);
+		document.addChild(currentRecord);
+		
+		List<Element> subRecords = new ArrayList<>();
+		document.collect(steps, 0, subRecords);
+		
+		StaxXmlDataSource subDataSource = new StaxXmlDataSource(subRecords);
+		subDataSource.setTextAttributes(this);
+		return subDataSource;
+	}
+
+	@Override
+	public StaxXmlDataSource subDataSource() throws JRException
+	{
+		return subDataSource(".");
+	}
+
+	public void close()
+	{
+		try
+		{
+			if (reader != null)
+			{
+				reader.close();
+			}
+		}
+		catch (XMLStreamException e)
+		{
+			//nothing to do
+		}
+		
+		if (closeInputStream)
+		{
+			closeQuietly(inputStream);
+		}
+	}
+	
+	private static void closeQuietly(InputStream in)
+	{
+		try
+		{
+			in.close();
+		}
+		catch (IOException e)
+		{
+			//nothing to do
+		}
+	}
+
+	/**
+	 * Lightweight copy of a record element.
+	 */
+	protected static class Element
+	{
+		private final String name;
+		private Map<String, String> attributes;
+		private List<Element> children;
+		private StringBuilder text;
+		
+		protected Element(String name)
+		{
+			this.name = name;
+		}
+		
+		protected void setAttribute(String name, String value)
+		{
+			if (attributes == null)
+			{
+				attributes = new LinkedHashMap<>(4);
+			}
+			attributes.put(name, value);
+		}
+		
+		protected void addChild(Element child)
+		{
+			if (children == null)
+			{
+				children = new ArrayList<>(4);
+			}
+			children.add(child);
+		}
+		
+		protected void appendText(String value)
+		{
+			if (text == null)
+			{
+				text = new StringBuilder(value.length());
+			}
+			text.append(value);
+		}
+		
+		public String getName()
+		{
+			return name;
+		}
+		
+		public String getAttribute(String name)
+		{
+			return attributes == null ? null : attributes.get(name);
+		}
+		
+		public List<Element> getChildren()
+		{
+			return children == null ? Collections.emptyList() : children;
+		}
+		
+		/**
+		 * Returns the concatenated text children, <code>null</code> if the element is empty.
+		 */
+		public String getText()
+		{
+			if (text != null)
+			{
+				return text.toString();
+			}
+			// an element with only child elements has empty text
+			return children == null ? null : "";
+		}
+		
+		protected Element first(String[] steps, int stepIndex, String attribute, boolean text)
+		{
+			if (stepIndex == steps.length)
+			{
+				boolean match = attribute != null ? getAttribute(attribute) != null 
+						: (!text || this.text != null);
+				return match ? this : null;
+			}
+			
+			if (children != null)
+			{
+				for (Element child : children)
+				{
+					if (matches(steps[stepIndex], child.name))
+					{
+						Element match = child.first(steps, stepIndex + 1, attribute, text);
+						if (match != null)
+						{
+							return match;
+						}
+					}
+				}
+			}
+			return null;
+		}
+		
+		protected void collect(String[] steps, int stepIndex, List<Element> result)
+		{
+			if (stepIndex == steps.length)
+			{
+				result.add(this);
+				return;
+			}
+			
+			if (children != null)
+			{
+				for (Element child : children)
+				{
+					if (matches(steps[stepIndex], child.name))
+					{
+						child.collect(steps, stepIndex + 1, result);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Parsed field expression.
+	 */
+	protected static class ValuePath
+	{
+		private final String[] elementSteps;
+		private final String attribute;
+		private final boolean text;
+		
+		protected ValuePath(String expression)
+		{
+			String[] steps = steps(expression);
+			String last = steps.length == 0 ? null : steps[steps.length - 1];
+			if (last != null && last.startsWith("@"))
+			{
+				attribute = last.substring(1);
+				text = false;
+				elementSteps = new String[steps.length - 1];
+				System.arraycopy(steps, 0, elementSteps, 0, elementSteps.length);
+			}
+			else if ("text()".equals(last))
+			{
+				attribute = null;
+				text = true;
+				elementSteps = new String[steps.length - 1];
+				System.arraycopy(steps, 0, elementSteps, 0, elementSteps.length);
+			}
+			else
+			{
+				attribute = null;
+				text = false;
+				elementSteps = steps;
+			}
+		}
+		
+		protected static String[] steps(String expression)
+		{
+			if (".".equals(expression))
+			{
+				return new String[0];
+			}
+			String path = expression.startsWith("./") ? expression.substring(2) : expression;
+			return path.split("/");
+		}
+		
+		protected String evaluate(Element record)
+		{
+			// same as XPath, the first matching element in document order is used
+			Element element = record.first(elementSteps, 0, attribute, text);
+			if (element == null)
+			{
+				return null;
+			}
+			
+			return attribute == null ? element.getText() : element.getAttribute(attribute);
+		}
+	}
+}
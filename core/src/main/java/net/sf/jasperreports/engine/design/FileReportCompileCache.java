@@ -0,0 +1,120 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+
+/**
+ * Report compile cache that stores serialized compiled reports as files in a directory.
+ * <p>
+ * Entries are first written to temporary files and then moved in place, so that the directory 
+ * can be shared by several processes.
+ */
+public class FileReportCompileCache implements ReportCompileCache
+{
+	public static final String EXCEPTION_MESSAGE_KEY_CACHE_WRITE_ERROR = "compilers.cache.write.error";
+	
+	public static final String FILE_EXTENSION = ".jasper";
+	
+	private final JasperReportsContext jasperReportsContext;
+	private final File directory;
+
+	public FileReportCompileCache(JasperReportsContext jasperReportsContext, File directory)
+	{
+		this.jasperReportsContext = jasperReportsContext;
+		this.directory = directory;
+	}
+	
+	public File getDirectory()
+	{
+		return directory;
+	}
+
+	@Override
+	public JasperReport getReport(String key) throws JRException
+	{
+		File file = new File(directory, key + FILE_EXTENSION);
+		if (!file.isFile())
+		{
+			return null;
+		}
+		
+		return (JasperReport) JRLoader.loadObject(jasperReportsContext, file);
+	}
+
+	@Override
+	public void putReport(String key, JasperReport report) throws JRException
+	{
+		Path file = new File(directory, key + FILE_EXTENSION).toPath();
+		try
+		{
+			Files.createDirectories(directory.toPath());
+			
+			Path tempFile = Files.createTempFile(directory.toPath(), key, ".tmp");
+			try
+			{
+				JRSaver.saveObject(report, tempFile.toFile());
+				
+				try
+				{
+					Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException e)
+				{
+					Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+				}
+				catch (FileAlreadyExistsException e)
+				{
+					//written in the meantime by someone else, the content is the same
+				}
+			}
+			finally
+			{
+				Files.deleteIfExists(tempFile);
+			}
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_CACHE_WRITE_ERROR,
+					new Object[]{file},
+					e);
+		}
+	}
+
+}
@@ -169,6 +169,24 @@ public interface JRCompiler
 			sinceVersion = PropertyConstants.VERSION_1_0_0
 			)
 	public static final String COMPILER_CLASSPATH = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.classpath";
+	
+	/**
+	 * The directory in which compiled reports are cached by {@link net.sf.jasperreports.engine.JasperCompileManager}.
+	 * <p>
+	 * When set, compiled reports are stored in the directory using keys that depend on the report design source,
+	 * the report compiler and the compiler properties, and reports having identical sources are loaded from 
+	 * the directory instead of being compiled again. 
+	 * The directory can be shared by several processes.
+	 * <p>
+	 * The property is ignored when a {@link ReportCompileCache} extension is registered.
+	 * No default value, compiled reports are not cached by default.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3
+			)
+	public static final String COMPILER_CACHE_DIR = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.cache.dir";
 
 	
 	/**
@@ -0,0 +1,62 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+
+
+/**
+ * Storage for compiled reports, used by {@link net.sf.jasperreports.engine.JasperCompileManager} to avoid 
+ * compiling the same report design more than once.
+ * <p>
+ * Compiled reports are stored under keys computed by {@link ReportCompileCacheUtil#getCacheKey(byte[], JRCompiler)} 
+ * from the report design source, the report compiler and the compiler configuration.
+ * Implementations can be registered as extensions; if no extension is registered, the compile manager uses 
+ * a {@link FileReportCompileCache} when the {@link JRCompiler#COMPILER_CACHE_DIR} property is set.
+ * 
+ * @see RepositoryReportCompileCache
+ */
+public interface ReportCompileCache
+{
+
+	/**
+	 * Returns a compiled report from the cache.
+	 * 
+	 * @param key the cache key
+	 * @return the cached compiled report, or <code>null</code> if no report was found for the key
+	 * @throws JRException
+	 */
+	JasperReport getReport(String key) throws JRException;
+
+	/**
+	 * Stores a compiled report in the cache.
+	 * 
+	 * @param key the cache key
+	 * @param report the compiled report
+	 * @throws JRException
+	 */
+	void putReport(String key, JasperReport report) throws JRException;
+
+}
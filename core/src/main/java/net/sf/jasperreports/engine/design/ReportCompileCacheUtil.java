@@ -0,0 +1,188 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRPropertiesUtil.PropertySuffix;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.DigestUtils;
+
+
+/**
+ * Utility methods for the report compile cache.
+ * 
+ * @see ReportCompileCache
+ */
+public final class ReportCompileCacheUtil
+{
+	private static final Log log = LogFactory.getLog(ReportCompileCacheUtil.class);
+	
+	/**
+	 * Prefixes of the properties that can change the compiled report and thus take part in the cache key.
+	 * <code>org.eclipse.jdt.core.</code> properties are passed to the JDT compiler.
+	 */
+	private static final String[] KEY_PROPERTY_PREFIXES = {JRCompiler.COMPILER_PREFIX, "org.eclipse.jdt.core."};
+	
+	private static final Set<String> KEY_EXCLUDED_PROPERTIES = new HashSet<>(Arrays.asList(
+			JRCompiler.COMPILER_CACHE_DIR, JRCompiler.COMPILER_KEEP_JAVA_FILE, JRCompiler.COMPILER_TEMP_DIR));
+	
+	private final JasperReportsContext jasperReportsContext;
+
+	private ReportCompileCacheUtil(JasperReportsContext jasperReportsContext)
+	{
+		this.jasperReportsContext = jasperReportsContext;
+	}
+	
+	public static ReportCompileCacheUtil getInstance(JasperReportsContext jasperReportsContext)
+	{
+		return new ReportCompileCacheUtil(jasperReportsContext);
+	}
+	
+	/**
+	 * Returns the compile cache to be used in the context.
+	 * <p>
+	 * The first {@link ReportCompileCache} extension is returned if present, otherwise a {@link FileReportCompileCache}
+	 * is created if {@link JRCompiler#COMPILER_CACHE_DIR} is set.
+	 * 
+	 * @return the compile cache, or <code>null</code> if caching is not enabled
+	 */
+	public ReportCompileCache getCompileCache()
+	{
+		List<ReportCompileCache> caches = jasperReportsContext.getExtensions(ReportCompileCache.class);
+		if (caches != null && !caches.isEmpty())
+		{
+			return caches.get(0);
+		}
+		
+		String cacheDir = JRPropertiesUtil.getInstance(jasperReportsContext).getProperty(JRCompiler.COMPILER_CACHE_DIR);
+		if (cacheDir == null || cacheDir.trim().isEmpty())
+		{
+			return null;
+		}
+		return new FileReportCompileCache(jasperReportsContext, new File(cacheDir));
+	}
+	
+	/**
+	 * Computes the cache key of a report design.
+	 * <p>
+	 * The key is a digest of the report design source, the compiler class and version, 
+	 * the library and Java versions and the properties that configure the compilers.
+	 * 
+	 * @param source the report design source, usually the JRXML content
+	 * @param compiler the compiler used for the report design
+	 * @return the cache key
+	 */
+	public String getCacheKey(byte[] source, JRCompiler compiler)
+	{
+		DigestUtils digestUtils = DigestUtils.instance();
+		
+		StringBuilder keyData = new StringBuilder();
+		keyData.append(digestUtils.sha256(source)).append('\n');
+		keyData.append(compiler.getClass().getName()).append('\n');
+		keyData.append(getVersion(compiler.getClass())).append('\n');
+		keyData.append(getVersion(JasperReport.class)).append('\n');
+		keyData.append(JRConstants.SERIAL_VERSION_UID).append('\n');
+		keyData.append(System.getProperty("java.specification.version")).append('\n');
+		
+		Map<String, String> properties = new TreeMap<>();
+		JRPropertiesUtil propertiesUtil = JRPropertiesUtil.getInstance(jasperReportsContext);
+		for (String prefix : KEY_PROPERTY_PREFIXES)
+		{
+			for (PropertySuffix property : propertiesUtil.getProperties(prefix))
+			{
+				if (!KEY_EXCLUDED_PROPERTIES.contains(property.getKey()))
+				{
+					properties.put(property.getKey(), property.getValue());
+				}
+			}
+		}
+		for (Map.Entry<String, String> property : properties.entrySet())
+		{
+			keyData.append(property.getKey()).append('=').append(property.getValue()).append('\n');
+		}
+		
+		return digestUtils.sha256(keyData.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static String getVersion(Class<?> type)
+	{
+		Package typePackage = type.getPackage();
+		return typePackage == null ? null : typePackage.getImplementationVersion();
+	}
+
+	/**
+	 * Looks up a compiled report in the cache.
+	 * Cache errors are logged and reported as cache misses.
+	 * 
+	 * @return the cached report, or <code>null</code> if not found
+	 */
+	public JasperReport getCachedReport(ReportCompileCache cache, String key)
+	{
+		try
+		{
+			JasperReport report = cache.getReport(key);
+			if (log.isDebugEnabled())
+			{
+				log.debug("compile cache " + (report == null ? "miss" : "hit") + " for " + key);
+			}
+			return report;
+		}
+		catch (JRException | RuntimeException e)
+		{
+			log.warn("Failed to read compiled report " + key + " from cache", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a compiled report in the cache.
+	 * Cache errors are logged, as the report has been compiled anyway.
+	 */
+	public void cacheReport(ReportCompileCache cache, String key, JasperReport report)
+	{
+		try
+		{
+			cache.putReport(key, report);
+		}
+		catch (JRException | RuntimeException e)
+		{
+			log.warn("Failed to write compiled report " + key + " to cache", e);
+		}
+	}
+}
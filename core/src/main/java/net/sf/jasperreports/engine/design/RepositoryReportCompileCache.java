@@ -0,0 +1,78 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.repo.ReportResource;
+import net.sf.jasperreports.repo.RepositoryService;
+
+
+/**
+ * Report compile cache that stores compiled reports as {@link ReportResource report resources}
+ * in a repository service, which needs to support saving resources.
+ * <p>
+ * The cache needs to be registered as extension in order to be used by the compile manager.
+ */
+public class RepositoryReportCompileCache implements ReportCompileCache
+{
+	private final RepositoryService repositoryService;
+	private final String folder;
+
+	/**
+	 * @param repositoryService the repository service used to load and save compiled reports
+	 * @param folder the repository folder in which the compiled reports are stored, can be <code>null</code> 
+	 */
+	public RepositoryReportCompileCache(RepositoryService repositoryService, String folder)
+	{
+		this.repositoryService = repositoryService;
+		this.folder = folder;
+	}
+
+	@Override
+	public JasperReport getReport(String key) throws JRException
+	{
+		ReportResource resource = repositoryService.getResource(getLocation(key), ReportResource.class);
+		return resource == null ? null : resource.getReport();
+	}
+
+	@Override
+	public void putReport(String key, JasperReport report) throws JRException
+	{
+		ReportResource resource = new ReportResource();
+		resource.setReport(report);
+		repositoryService.saveResource(getLocation(key), resource);
+	}
+	
+	protected String getLocation(String key)
+	{
+		String name = key + FileReportCompileCache.FILE_EXTENSION;
+		if (folder == null || folder.isEmpty())
+		{
+			return name;
+		}
+		return folder.endsWith("/") ? folder + name : folder + "/" + name;
+	}
+
+}
@@ -50,6 +50,7 @@ import net.sf.jasperreports.export.CsvExporterConfiguration;
 import net.sf.jasperreports.export.CsvReportConfiguration;
 import net.sf.jasperreports.export.ExporterInputItem;
 import net.sf.jasperreports.export.WriterExporterOutput;
+import net.sf.jasperreports.export.StreamedPages;
 
 
 /**
@@ -162,13 +163,13 @@ public abstract class JRAbstractCsvExporter<RC extends CsvReportConfiguration, C
 			setCurrentExporterInputItem(item);
 
 			List<JRPrintPage> pages = jasperPrint.getPages();
-			if (pages != null && pages.size() > 0)
+			if (pages != null && StreamedPages.hasPage(pages, 0))
 			{
 				PageRange pageRange = getPageRange();
 				int startPageIndex = (pageRange == null || pageRange.getStartPageIndex() == null) ? 0 : pageRange.getStartPageIndex();
-				int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? (pages.size() - 1) : pageRange.getEndPageIndex();
+				int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? StreamedPages.getLastPageIndex(pages) : pageRange.getEndPageIndex();
 
-				for(pageIndex = startPageIndex; pageIndex <= endPageIndex; pageIndex++)
+				for(pageIndex = startPageIndex; pageIndex <= endPageIndex && StreamedPages.hasPage(pages, pageIndex); pageIndex++)
 				{
 					checkInterrupted();
 				
@@ -336,6 +336,7 @@ public class JROdtExporter extends JRAbstractExporter<OdtReportConfiguration, Od
 	protected void exportReportToOasisZip(OutputStream os) throws JRException, IOException
 	{
 		OasisZip oasisZip = new OdtZip();
+		oasisZip.setDeflateThreads(getPropertiesUtil(), jasperPrint);
 
 		ExportZipEntry tempBodyEntry = new FileBufferedZipEntry(null);
 		ExportZipEntry tempStyleEntry = new FileBufferedZipEntry(null);
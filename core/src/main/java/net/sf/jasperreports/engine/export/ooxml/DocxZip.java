@@ -53,7 +53,7 @@ public class DocxZip extends FileBufferedZip
 	 */
 	public DocxZip() throws IOException
 	{
-		documentEntry = createEntry("word/document.xml");
+		documentEntry = createStreamingEntry("word/document.xml");
 		
 		stylesEntry = createEntry("word/styles.xml");
 		
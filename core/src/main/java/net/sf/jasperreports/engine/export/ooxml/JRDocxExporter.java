@@ -81,6 +81,7 @@ import net.sf.jasperreports.engine.export.JRHyperlinkProducer;
 import net.sf.jasperreports.engine.export.JRXmlExporter;
 import net.sf.jasperreports.engine.export.LengthUtil;
 import net.sf.jasperreports.engine.export.OccupiedGridCell;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
 import net.sf.jasperreports.engine.export.zip.ExportZipEntry;
 import net.sf.jasperreports.engine.export.zip.FileBufferedZipEntry;
 import net.sf.jasperreports.engine.type.BandTypeEnum;
@@ -368,6 +369,11 @@ public class JRDocxExporter extends JRAbstractExporter<DocxReportConfiguration,
 	protected void exportReportToStream(OutputStream os) throws JRException, IOException
 	{
 		docxZip = new DocxZip();
+		docxZip.setDeflateThreads(getPropertiesUtil(), jasperPrint);
+		if (AbstractZip.isStreamingEnabled(getPropertiesUtil(), jasperPrint, getCurrentConfiguration().getEncryptionPassword()))
+		{
+			docxZip.setStreamingOutput(os);
+		}
 
 		docWriter = docxZip.getDocumentEntry().getWriter();
 		
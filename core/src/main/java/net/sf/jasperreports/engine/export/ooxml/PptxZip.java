@@ -130,7 +130,7 @@ public class PptxZip extends FileBufferedZip
 	 */
 	public ExportZipEntry addSlide(int index)
 	{
-		return createEntry("ppt/slides/slide" + index + ".xml");
+		return createStreamingEntry("ppt/slides/slide" + index + ".xml");
 	}
 	
 	/**
@@ -89,6 +89,7 @@ import net.sf.jasperreports.engine.export.data.TextValue;
 import net.sf.jasperreports.engine.export.data.TextValueHandler;
 import net.sf.jasperreports.engine.export.type.CellEdgeEnum;
 import net.sf.jasperreports.engine.export.type.ImageAnchorTypeEnum;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
 import net.sf.jasperreports.engine.export.zip.ExportZipEntry;
 import net.sf.jasperreports.engine.export.zip.FileBufferedZipEntry;
 import net.sf.jasperreports.engine.type.HyperlinkTypeEnum;
@@ -2206,6 +2207,11 @@ public class XlsxMetadataExporter extends ExcelAbstractExporter<XlsxMetadataRepo
 			String memoryThreshold = jasperPrint.getPropertiesMap().getProperty(FileBufferedOutputStream.PROPERTY_MEMORY_THRESHOLD);
 			xlsxZip = new XlsxZip(jasperReportsContext, getRepository(), 
 					memoryThreshold == null ? null : JRPropertiesUtil.asInteger(memoryThreshold));
+			xlsxZip.setDeflateThreads(getPropertiesUtil(), jasperPrint);
+			if (AbstractZip.isStreamingEnabled(getPropertiesUtil(), jasperPrint, getCurrentConfiguration().getEncryptionPassword()))
+			{
+				xlsxZip.setStreamingOutput(os);
+			}
 
 			wbHelper = new XlsxWorkbookHelper(jasperReportsContext, xlsxZip.getWorkbookEntry().getWriter(), definedNames);
 			wbHelper.exportHeader();
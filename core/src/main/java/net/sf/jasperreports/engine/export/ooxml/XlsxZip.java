@@ -157,7 +157,7 @@ public class XlsxZip extends FileBufferedZip
 	 */
 	public ExportZipEntry addSheet(int index)
 	{
-		return createEntry("xl/worksheets/sheet" + index + ".xml");
+		return createStreamingEntry("xl/worksheets/sheet" + index + ".xml");
 	}
 	
 	/**
@@ -26,10 +26,18 @@ package net.sf.jasperreports.engine.export.zip;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.properties.PropertyConstants;
+
 
 /**
  * @author Teodor Danciu (teodord@users.sourceforge.net)
@@ -37,10 +45,51 @@ import java.util.zip.ZipOutputStream;
 public abstract class AbstractZip
 {
 
+	/**
+	 * Flag that specifies whether the large parts of a compressed export document, such as worksheets, slides 
+	 * or the main document part, are written directly into the output ZIP stream as they are produced, 
+	 * instead of being buffered until the end of the export.
+	 * The parts that can only be completed at the end of the export, such as styles, shared strings and relationships, 
+	 * are still buffered.
+	 * <p/>
+	 * Streaming applies to the DOCX, PPTX and XLSX exporters, and does not apply to encrypted documents.
+	 * The ODF exporters always buffer the document content, as the styles collected while exporting 
+	 * the content need to be written before it.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_STREAMING = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.streaming";
+
+	/**
+	 * Property that specifies the number of threads used to compress the entries of a compressed export document.
+	 * When set to a positive value, the content of each entry is split into blocks that are deflated in parallel.
+	 * A value of 0 (the default) means that the entries are compressed sequentially.
+	 * 
+	 * @see ParallelDeflateZipOutputStream
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_DEFLATE_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.deflate.threads";
+
 	/**
 	 * 
 	 */
 	protected Map<String, ExportZipEntry> exportZipEntries = new HashMap<>();
+	
+	private int deflateThreads;
+	private ZipOutputStream streamingZipos;
+	private final Set<String> streamedEntryNames = new HashSet<>();
+	private StreamingZipEntry currentStreamingEntry;
 
 	/**
 	 *
@@ -56,16 +105,132 @@ public abstract class AbstractZip
 		exportZipEntries.put(entry.getName(), entry);
 	}
 	
+	/**
+	 * Tells whether the large document parts of an export are written directly into the output stream.
+	 * Streaming is not possible for encrypted documents.
+	 * 
+	 * @param propertiesUtil the properties utility of the exporter
+	 * @param jasperPrint the exported report
+	 * @param encryptionPassword the document encryption password, if any
+	 * @return whether streaming is enabled for the export
+	 * @see #PROPERTY_STREAMING
+	 */
+	public static boolean isStreamingEnabled(JRPropertiesUtil propertiesUtil, JRPropertiesHolder jasperPrint, 
+			String encryptionPassword)
+	{
+		return 
+			(encryptionPassword == null || encryptionPassword.trim().length() == 0)
+			&& propertiesUtil.getBooleanProperty(jasperPrint, PROPERTY_STREAMING, false);
+	}
+	
+	/**
+	 * Sets the number of threads used to compress the entries, 0 for sequential compression.
+	 * 
+	 * @see #PROPERTY_DEFLATE_THREADS
+	 */
+	public void setDeflateThreads(int deflateThreads)
+	{
+		this.deflateThreads = deflateThreads;
+	}
+	
+	/**
+	 * Sets the number of threads used to compress the entries from the {@link #PROPERTY_DEFLATE_THREADS} 
+	 * property value for an exported report.
+	 * 
+	 * @param propertiesUtil the properties utility of the exporter
+	 * @param jasperPrint the exported report
+	 */
+	public void setDeflateThreads(JRPropertiesUtil propertiesUtil, JRPropertiesHolder jasperPrint)
+	{
+		setDeflateThreads(propertiesUtil.getIntegerProperty(jasperPrint, PROPERTY_DEFLATE_THREADS, 0));
+	}
+	
 	/**
 	 *
 	 */
-	public void zipEntries(OutputStream os) throws IOException
+	protected ZipOutputStream createZipOutputStream(OutputStream os)
 	{
-		ZipOutputStream zipos = new ZipOutputStream(os);
+		ZipOutputStream zipos = deflateThreads > 0 ? new ParallelDeflateZipOutputStream(os, deflateThreads) : new ZipOutputStream(os);
 		zipos.setMethod(ZipOutputStream.DEFLATED);
+		return zipos;
+	}
+	
+	/**
+	 * Sets the stream into which streaming entries are written as soon as their content is produced.
+	 * The same stream needs to be passed to {@link #zipEntries(OutputStream)} at the end of the export.
+	 * 
+	 * @see #PROPERTY_STREAMING
+	 */
+	public void setStreamingOutput(OutputStream os)
+	{
+		streamingZipos = createZipOutputStream(os);
+	}
+	
+	/**
+	 *
+	 */
+	public boolean isStreaming()
+	{
+		return streamingZipos != null;
+	}
+	
+	/**
+	 * Returns the ZIP stream positioned on a new entry for the streaming entry, or <code>null</code> 
+	 * if the entry needs to be buffered because streaming is not enabled or another entry is currently being streamed.
+	 */
+	protected OutputStream openStreamingEntry(StreamingZipEntry entry) throws IOException
+	{
+		if (streamingZipos == null || currentStreamingEntry != null)
+		{
+			return null;
+		}
+		
+		streamingZipos.putNextEntry(new ZipEntry(entry.getName()));
+		streamedEntryNames.add(entry.getName());
+		currentStreamingEntry = entry;
+		
+		return streamingZipos;
+	}
+	
+	/**
+	 *
+	 */
+	protected void closeStreamingEntry(StreamingZipEntry entry) throws IOException
+	{
+		if (currentStreamingEntry == entry)
+		{
+			currentStreamingEntry = null;
+			streamingZipos.closeEntry();
+		}
+	}
+	
+	/**
+	 *
+	 */
+	public void zipEntries(OutputStream os) throws IOException
+	{
+		ZipOutputStream zipos;
+		if (streamingZipos == null)
+		{
+			zipos = createZipOutputStream(os);
+		}
+		else
+		{
+			if (currentStreamingEntry != null)
+			{
+				currentStreamingEntry.close();
+			}
+			zipos = streamingZipos;
+		}
 		
 		for (ExportZipEntry exportZipEntry : exportZipEntries.values()) 
 		{
+			if (streamedEntryNames.contains(exportZipEntry.getName()))
+			{
+				// already written to the output
+				continue;
+			}
+			
 			ZipEntry zipEntry = new ZipEntry(exportZipEntry.getName());
 			zipos.putNextEntry(zipEntry);
 			exportZipEntry.writeData(zipos);
@@ -84,6 +249,11 @@ public abstract class AbstractZip
 		{
 			exportZipEntry.dispose();
 		}
+		
+		if (streamingZipos instanceof ParallelDeflateZipOutputStream)
+		{
+			((ParallelDeflateZipOutputStream) streamingZipos).dispose();
+		}
 	}
 	
 }
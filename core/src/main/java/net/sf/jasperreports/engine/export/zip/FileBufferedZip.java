@@ -64,6 +64,22 @@ public class FileBufferedZip extends AbstractZip
 		return entry;
 	}
 	
+	/**
+	 * Creates an entry that is written directly into the output ZIP stream when the zip is streaming,
+	 * falling back to a file buffered entry otherwise.
+	 * 
+	 * @see #setStreamingOutput(java.io.OutputStream)
+	 */
+	public ExportZipEntry createStreamingEntry(String name)
+	{
+		ExportZipEntry bufferedEntry = memoryThreshold == null ? new FileBufferedZipEntry(name) : new FileBufferedZipEntry(name, memoryThreshold);
+		ExportZipEntry entry = new StreamingZipEntry(this, bufferedEntry);
+
+		addEntry(entry);
+		
+		return entry;
+	}
+	
 	/**
 	 *
 	 */
@@ -0,0 +1,470 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * ZIP output stream that compresses the data of each entry in parallel.
+ * <p/>
+ * The entry data is split into fixed size blocks which are deflated on a pool of threads, 
+ * each block using the last 32K of the previous block as preset dictionary.
+ * All blocks except the last one are ended with a sync flush, so that the compressed blocks
+ * concatenated in order form a single valid deflate stream.
+ * <p/>
+ * Only deflated entries are supported, and the archive is limited to 4GB and 65535 entries (no ZIP64).
+ * 
+ * @see AbstractZip#PROPERTY_DEFLATE_THREADS
+ */
+public class ParallelDeflateZipOutputStream extends ZipOutputStream
+{
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 17;
+	
+	private static final int DICTIONARY_SIZE = 1 << 15;
+	private static final long MAX_SIZE = 0xFFFFFFFFL;
+	private static final int MAX_ENTRIES = 0xFFFF;
+	
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int VERSION = 20;
+	private static final int FLAGS = 0x0808;// data descriptor, UTF-8 names
+	
+	private final ThreadPoolExecutor executor;
+	private final int blockSize;
+	private final int maxPendingBlocks;
+	private int level = Deflater.DEFAULT_COMPRESSION;
+	
+	private final List<EntryInfo> entries = new ArrayList<>();
+	private long written;
+	private boolean finished;
+	
+	private EntryInfo currentEntry;
+	private final CRC32 crc = new CRC32();
+	private byte[] block;
+	private int blockLength;
+	private byte[] dictionary;
+	private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+	
+	/**
+	 * 
+	 */
+	public ParallelDeflateZipOutputStream(OutputStream out, int threads)
+	{
+		this(out, threads, DEFAULT_BLOCK_SIZE);
+	}
+	
+	/**
+	 * 
+	 */
+	public ParallelDeflateZipOutputStream(OutputStream out, int threads, int blockSize)
+	{
+		super(out);
+		
+		this.blockSize = Math.max(blockSize, DICTIONARY_SIZE);
+		this.maxPendingBlocks = 2 * threads;
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<>(), 
+				runnable -> 
+				{
+					Thread thread = new Thread(runnable, "JR zip deflate " + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void setMethod(int method)
+	{
+		if (method != DEFLATED)
+		{
+			throw new IllegalArgumentException("Only deflated entries are supported");
+		}
+	}
+
+	@Override
+	public void setLevel(int level)
+	{
+		if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+		{
+			throw new IllegalArgumentException("invalid compression level");
+		}
+		this.level = level;
+	}
+
+	@Override
+	public void putNextEntry(ZipEntry e) throws IOException
+	{
+		ensureOpen();
+		
+		if (currentEntry != null)
+		{
+			closeEntry();
+		}
+		
+		if (entries.size() >= MAX_ENTRIES)
+		{
+			throw new ZipException("Too many entries");
+		}
+		
+		EntryInfo entry = new EntryInfo();
+		entry.name = e.getName().getBytes(StandardCharsets.UTF_8);
+		entry.dosTime = dosTime(e.getTime() == -1 ? System.currentTimeMillis() : e.getTime());
+		entry.offset = written;
+		
+		writeInt(LOCAL_HEADER_SIGNATURE);
+		writeShort(VERSION);
+		writeShort(FLAGS);
+		writeShort(DEFLATED);
+		writeInt(entry.dosTime);
+		writeInt(0);// crc, compressed and uncompressed sizes are in the data descriptor
+		writeInt(0);
+		writeInt(0);
+		writeShort(entry.name.length);
+		writeShort(0);
+		writeBytes(entry.name, 0, entry.name.length);
+		
+		currentEntry = entry;
+		crc.reset();
+		block = new byte[blockSize];
+		blockLength = 0;
+		dictionary = null;
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		write(new byte[]{(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		ensureOpen();
+		
+		if (currentEntry == null)
+		{
+			throw new ZipException("no current ZIP entry");
+		}
+		
+		while (len > 0)
+		{
+			int count = Math.min(len, blockSize - blockLength);
+			System.arraycopy(b, off, block, blockLength, count);
+			blockLength += count;
+			off += count;
+			len -= count;
+			
+			if (blockLength == blockSize)
+			{
+				submitBlock(false);
+			}
+		}
+	}
+
+	@Override
+	public void closeEntry() throws IOException
+	{
+		ensureOpen();
+		
+		if (currentEntry != null)
+		{
+			submitBlock(true);
+			while (!pendingBlocks.isEmpty())
+			{
+				writeNextBlock();
+			}
+			
+			currentEntry.crc = crc.getValue();
+			checkSize(currentEntry.compressedSize);
+			checkSize(currentEntry.size);
+			
+			writeInt(DATA_DESCRIPTOR_SIGNATURE);
+			writeInt(currentEntry.crc);
+			writeInt(currentEntry.compressedSize);
+			writeInt(currentEntry.size);
+			
+			entries.add(currentEntry);
+			currentEntry = null;
+			block = null;
+			dictionary = null;
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException
+	{
+		out.flush();
+	}
+
+	@Override
+	public void finish() throws IOException
+	{
+		ensureOpen();
+
+		try
+		{
+			closeEntry();
+			
+			long centralOffset = written;
+			for (EntryInfo entry : entries)
+			{
+				checkSize(entry.offset);
+				
+				writeInt(CENTRAL_HEADER_SIGNATURE);
+				writeShort(VERSION);
+				writeShort(VERSION);
+				writeShort(FLAGS);
+				writeShort(DEFLATED);
+				writeInt(entry.dosTime);
+				writeInt(entry.crc);
+				writeInt(entry.compressedSize);
+				writeInt(entry.size);
+				writeShort(entry.name.length);
+				writeShort(0);// extra
+				writeShort(0);// comment
+				writeShort(0);// disk
+				writeShort(0);// internal attributes
+				writeInt(0);// external attributes
+				writeInt(entry.offset);
+				writeBytes(entry.name, 0, entry.name.length);
+			}
+			long centralSize = written - centralOffset;
+			checkSize(centralOffset);
+			
+			writeInt(END_SIGNATURE);
+			writeShort(0);
+			writeShort(0);
+			writeShort(entries.size());
+			writeShort(entries.size());
+			writeInt(centralSize);
+			writeInt(centralOffset);
+			writeShort(0);// comment
+			
+			out.flush();
+		}
+		finally
+		{
+			finished = true;
+			dispose();
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			if (!finished)
+			{
+				finish();
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Releases the compression threads without completing the archive.
+	 */
+	public void dispose()
+	{
+		executor.shutdownNow();
+		def.end();
+	}
+	
+	private void ensureOpen() throws IOException
+	{
+		if (finished)
+		{
+			throw new IOException("Stream closed");
+		}
+	}
+	
+	private void submitBlock(boolean last) throws IOException
+	{
+		final byte[] data = blockLength == blockSize ? block : Arrays.copyOf(block, blockLength);
+		final byte[] blockDictionary = dictionary;
+		final int blockLevel = level;
+		
+		crc.update(data, 0, data.length);
+		currentEntry.size += data.length;
+		
+		if (!last)
+		{
+			dictionary = Arrays.copyOfRange(data, data.length - DICTIONARY_SIZE, data.length);
+			block = new byte[blockSize];
+			blockLength = 0;
+		}
+		
+		pendingBlocks.add(executor.submit(() -> deflate(data, blockDictionary, blockLevel, last)));
+		
+		while (pendingBlocks.size() > maxPendingBlocks)
+		{
+			writeNextBlock();
+		}
+	}
+	
+	private void writeNextBlock() throws IOException
+	{
+		byte[] compressed;
+		try
+		{
+			compressed = pendingBlocks.poll().get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException(e.getCause());
+		}
+		
+		writeBytes(compressed, 0, compressed.length);
+		currentEntry.compressedSize += compressed.length;
+	}
+	
+	protected static byte[] deflate(byte[] data, byte[] dictionary, int level, boolean last)
+	{
+		Deflater deflater = new Deflater(level, true);
+		try
+		{
+			if (dictionary != null)
+			{
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(data);
+			
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+			byte[] buffer = new byte[8192];
+			if (last)
+			{
+				deflater.finish();
+				while (!deflater.finished())
+				{
+					int count = deflater.deflate(buffer);
+					compressed.write(buffer, 0, count);
+				}
+			}
+			else
+			{
+				int count;
+				do
+				{
+					count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressed.write(buffer, 0, count);
+				}
+				while (count == buffer.length);
+			}
+			return compressed.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+	
+	private void checkSize(long size) throws ZipException
+	{
+		if (size > MAX_SIZE)
+		{
+			throw new ZipException("ZIP64 archives are not supported by the parallel deflate output");
+		}
+	}
+	
+	private static long dosTime(long time)
+	{
+		LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+		int year = dateTime.getYear();
+		if (year < 1980)
+		{
+			return (1 << 21) | (1 << 16);
+		}
+		return (year - 1980) << 25 | dateTime.getMonthValue() << 21 | dateTime.getDayOfMonth() << 16
+				| dateTime.getHour() << 11 | dateTime.getMinute() << 5 | dateTime.getSecond() >> 1;
+	}
+	
+	private void writeShort(int value) throws IOException
+	{
+		out.write(value & 0xff);
+		out.write((value >>> 8) & 0xff);
+		written += 2;
+	}
+	
+	private void writeInt(long value) throws IOException
+	{
+		out.write((int) (value & 0xff));
+		out.write((int) ((value >>> 8) & 0xff));
+		out.write((int) ((value >>> 16) & 0xff));
+		out.write((int) ((value >>> 24) & 0xff));
+		written += 4;
+	}
+	
+	private void writeBytes(byte[] b, int off, int len) throws IOException
+	{
+		out.write(b, off, len);
+		written += len;
+	}
+	
+	private static class EntryInfo
+	{
+		byte[] name;
+		long dosTime;
+		long offset;
+		long crc;
+		long size;
+		long compressedSize;
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.util.FileBufferedOutputStream;
+
+
+/**
+ * Zip entry that writes its content directly into the output ZIP stream of a streaming {@link AbstractZip}.
+ * If the zip is not streaming or if another entry is being streamed when the content of this entry 
+ * starts to be written, the entry falls back to the buffered entry that it was created with.
+ * 
+ * @see AbstractZip#PROPERTY_STREAMING
+ */
+public class StreamingZipEntry implements ExportZipEntry 
+{
+	/**
+	 * 
+	 */
+	private final AbstractZip zip;
+	private final ExportZipEntry bufferedEntry;
+	private OutputStream os;
+	private Writer writer;
+	private boolean streamed;
+	private boolean closed;
+	
+	/**
+	 * 
+	 */
+	public StreamingZipEntry(AbstractZip zip, ExportZipEntry bufferedEntry)
+	{
+		this.zip = zip;
+		this.bufferedEntry = bufferedEntry;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return bufferedEntry.getName();
+	}
+	
+	@Override
+	public Writer getWriter()
+	{
+		if (writer == null)
+		{
+			try
+			{
+				writer = new BufferedWriter(new OutputStreamWriter(getOutputStream(), "UTF-8"));
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+		}
+		
+		return writer;
+	}
+
+	@Override
+	public OutputStream getOutputStream()
+	{
+		if (os == null)
+		{
+			OutputStream zipos = null;
+			try
+			{
+				zipos = zip.openStreamingEntry(this);
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+			
+			if (zipos == null)
+			{
+				os = bufferedEntry.getOutputStream();
+			}
+			else
+			{
+				streamed = true;
+				os = new EntryOutputStream(zipos);
+			}
+		}
+		
+		return os;
+	}
+
+	/**
+	 * Tells whether the content of the entry has been written directly to the ZIP stream.
+	 */
+	public boolean isStreamed()
+	{
+		return streamed;
+	}
+
+	/**
+	 * Completes the ZIP entry of a streamed entry, flushing any content still held by its writer.
+	 */
+	protected void close() throws IOException
+	{
+		if (streamed && !closed)
+		{
+			if (writer != null)
+			{
+				writer.flush();
+			}
+			
+			closeEntry();
+		}
+	}
+
+	private void closeEntry() throws IOException
+	{
+		if (!closed)
+		{
+			closed = true;
+			zip.closeStreamingEntry(this);
+		}
+	}
+
+	@Override
+	public void writeData(OutputStream out) throws IOException
+	{
+		if (!streamed)
+		{
+			bufferedEntry.writeData(out);
+		}
+	}
+
+	@Override
+	public void dispose()
+	{
+		bufferedEntry.dispose();
+	}
+	
+	/**
+	 * 
+	 */
+	protected class EntryOutputStream extends OutputStream
+	{
+		private final OutputStream zipos;
+		
+		protected EntryOutputStream(OutputStream zipos)
+		{
+			this.zipos = zipos;
+		}
+		
+		@Override
+		public void write(int b) throws IOException
+		{
+			checkClosed();
+			zipos.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			checkClosed();
+			zipos.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			// the ZIP stream is flushed when the export completes
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			closeEntry();
+		}
+		
+		private void checkClosed()
+		{
+			if (closed)
+			{
+				throw 
+					new JRRuntimeException(
+						FileBufferedOutputStream.EXCEPTION_MESSAGE_KEY_OUTPUT_STREAM_ALREADY_CLOSED,
+						(Object[])null);
+			}
+		}
+	}
+}
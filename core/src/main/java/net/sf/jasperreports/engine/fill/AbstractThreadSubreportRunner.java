@@ -23,6 +23,10 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRRuntimeException;
 
@@ -31,6 +35,19 @@ import org.apache.commons.logging.LogFactory;
 
 
 /**
+ * Base class for subreport runners that fill subreports on separate threads.
+ * <p>
+ * The master filler and the subreport filling thread take turns, handing control to each other
+ * through a lock and a condition rather than through the monitor of the subreport filler, 
+ * so that a thread waiting for its turn does not pin the carrier of a virtual thread.
+ * </p>
+ * <p>
+ * This also applies to {@link JRThreadSubreportRunner}, the default runner. Previous versions used 
+ * <code>wait</code>/<code>notify</code> on the subreport filler, and the <code>fillReport</code> methods of
+ * {@link JRVerticalFiller} and {@link JRHorizontalFiller} were <code>synchronized</code>. Code that synchronizes
+ * on a filler no longer excludes the filling of the subreport.
+ * </p>
+ * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
 public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable implements JRSubreportRunner
@@ -42,15 +59,22 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 
 	protected final JRBaseFiller subreportFiller;
 	
+	private final Lock turnLock;
+	private final Condition turnCondition;
+	private boolean subreportTurn;
+	
 	public AbstractThreadSubreportRunner(JRFillSubreport fillSubreport, JRBaseFiller subreportFiller)
 	{
 		super(fillSubreport);
 		this.subreportFiller = subreportFiller;
+		this.turnLock = new ReentrantLock();
+		this.turnCondition = turnLock.newCondition();
 	}
 
 	@Override
 	public JRSubreportRunResult start()
 	{
+		giveTurn(true);
 		doStart();
 		return waitResult();
 	}
@@ -66,11 +90,52 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 		}
 		
 		//notifing the subreport fill thread that it can continue on the next page
-		subreportFiller.notifyAll();
+		giveTurn(true);
 
 		return waitResult();
 	}
 
+	/**
+	 * Hands control to the subreport filling thread or back to the master filler.
+	 * 
+	 * @param subreport whether the subreport filling thread gets the turn
+	 */
+	protected void giveTurn(boolean subreport)
+	{
+		turnLock.lock();
+		try
+		{
+			subreportTurn = subreport;
+			turnCondition.signalAll();
+		}
+		finally
+		{
+			turnLock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until the subreport filling thread or the master filler gets the turn.
+	 * 
+	 * @param subreport whether to wait for the subreport filling thread to get the turn
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	protected void awaitTurn(boolean subreport) throws InterruptedException
+	{
+		turnLock.lock();
+		try
+		{
+			while (subreportTurn != subreport)
+			{
+				turnCondition.await();
+			}
+		}
+		finally
+		{
+			turnLock.unlock();
+		}
+	}
+
 	protected JRSubreportRunResult waitResult()
 	{
 		if (log.isDebugEnabled())
@@ -81,9 +146,7 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 		try
 		{
 			// waiting for the subreport fill thread to fill the current page
-			subreportFiller.wait(); // FIXME maybe this is useless since you cannot enter 
-									// the synchornized bloc if the subreport filler hasn't 
-									// finished the page and passed to the wait state.
+			awaitTurn(false);
 		}
 		catch (InterruptedException e)
 		{
@@ -121,26 +184,21 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 	@Override
 	public void cancel() throws JRException
 	{
-		if (log.isDebugEnabled())
-		{
-			log.debug("Fill " + subreportFiller.fillerId + ": notifying to continue on cancel");
-		}
-
-		// notifying the subreport filling thread that it can continue.
-		// it will stop anyway when trying to fill the current band
-		subreportFiller.notifyAll();
-
 		if (isRunning())
 		{
 			if (log.isDebugEnabled())
 			{
-				log.debug("Fill " + subreportFiller.fillerId + ": still running, waiting");
+				log.debug("Fill " + subreportFiller.fillerId + ": still running, notifying to continue on cancel");
 			}
+
+			// notifying the subreport filling thread that it can continue.
+			// it will stop anyway when trying to fill the current band
+			giveTurn(true);
 			
 			try
 			{
-				//waits until the master filler notifies it that can continue with the next page
-				subreportFiller.wait();
+				//waits until the subreport filling thread stops
+				awaitTurn(false);
 			}
 			catch(InterruptedException e)
 			{
@@ -172,7 +230,7 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 		}
 		
 		//signals to the master filler that is has finished the page
-		subreportFiller.notifyAll();
+		giveTurn(false);
 		
 		if (log.isDebugEnabled())
 		{
@@ -182,7 +240,7 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 		try
 		{
 			//waits until the master filler notifies it that can continue with the next page
-			subreportFiller.wait();
+			awaitTurn(true);
 		}
 		catch(InterruptedException e)
 		{
@@ -225,22 +283,8 @@ public abstract class AbstractThreadSubreportRunner extends JRSubreportRunnable
 			log.debug("Fill " + subreportFiller.fillerId + ": notifying of completion");
 		}
 
-		synchronized (subreportFiller)
-		{
-			//main filler notified that the subreport has finished
-			subreportFiller.notifyAll();
-		}
-
-/*
-		if (error != null)
-		{
-			synchronized (subreportFiller)
-			{
-				//if an exception occured then we should notify the main filler that we have finished the subreport
-				subreportFiller.notifyAll();
-			}
-		}
-		*/
+		//main filler notified that the subreport has finished
+		giveTurn(false);
 	}
 
 	@Override
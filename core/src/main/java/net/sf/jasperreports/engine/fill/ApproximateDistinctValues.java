@@ -0,0 +1,209 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Arrays;
+import java.util.Map;
+
+
+/**
+ * Distinct values storage that estimates the number of distinct values using a HyperLogLog sketch.
+ * <p>
+ * The sketch uses 2<sup>precision</sup> one byte registers, and the relative standard error of the
+ * estimate is about 1.04 / sqrt(2<sup>precision</sup>).
+ * </p>
+ */
+class ApproximateDistinctValues extends DistinctValues
+{
+	
+	public static final int MIN_PRECISION = 4;
+	public static final int MAX_PRECISION = 18;
+
+	private final int precision;
+	private final byte[] registers;
+	private final double alpha;
+	
+	// kept up to date as registers change, so that estimates are not computed from all the registers
+	private double inverseSum;
+	private int zeroRegisters;
+	
+	public ApproximateDistinctValues(int precision)
+	{
+		if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+		{
+			throw new IllegalArgumentException("Invalid precision " + precision);
+		}
+		
+		this.precision = precision;
+		int count = 1 << precision;
+		this.registers = new byte[count];
+		this.alpha = count == 16 ? 0.673 : count == 32 ? 0.697 : count == 64 ? 0.709 : 0.7213 / (1 + 1.079 / count);
+		clear();
+	}
+
+	@Override
+	public void add(Object value)
+	{
+		addHash(hash(value));
+	}
+	
+	protected void addHash(long hash)
+	{
+		int index = index(hash);
+		byte rank = rank(hash);
+		if (rank > registers[index])
+		{
+			setRegister(index, rank);
+		}
+	}
+	
+	private void setRegister(int index, byte rank)
+	{
+		byte current = registers[index];
+		if (current == 0)
+		{
+			--zeroRegisters;
+		}
+		inverseSum += Math.scalb(1d, -rank) - Math.scalb(1d, -current);
+		registers[index] = rank;
+	}
+
+	@Override
+	public long countWith(Object value)
+	{
+		double sum = inverseSum;
+		int zeros = zeroRegisters;
+		if (value != null)
+		{
+			long hash = hash(value);
+			int index = index(hash);
+			byte rank = rank(hash);
+			byte current = registers[index];
+			if (rank > current)
+			{
+				if (current == 0)
+				{
+					--zeros;
+				}
+				sum += Math.scalb(1d, -rank) - Math.scalb(1d, -current);
+			}
+		}
+		return estimate(sum, zeros);
+	}
+	
+	private long estimate(double sum, int zeros)
+	{
+		int count = registers.length;
+		double estimate = alpha * count * count / sum;
+		if (estimate <= 2.5 * count && zeros > 0)
+		{
+			// linear counting for small cardinalities
+			estimate = count * Math.log((double) count / zeros);
+		}
+		return Math.round(estimate);
+	}
+	
+	private int index(long hash)
+	{
+		return (int) (hash >>> (64 - precision));
+	}
+	
+	private byte rank(long hash)
+	{
+		return (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+	}
+	
+	protected static long hash(Object value)
+	{
+		Class<?> keyClass = getKeyClass(value);
+		return keyClass == null ? mix(value.hashCode()) : hash(keyClass, getKey(value, keyClass));
+	}
+	
+	protected static long hash(Class<?> keyClass, long key)
+	{
+		return mix(key * 31 + keyClass.getName().hashCode());
+	}
+
+	@Override
+	public void clear()
+	{
+		Arrays.fill(registers, (byte) 0);
+		inverseSum = registers.length;
+		zeroRegisters = registers.length;
+	}
+
+	@Override
+	public DistinctValues createEmpty()
+	{
+		return new ApproximateDistinctValues(precision);
+	}
+
+	@Override
+	public void addAll(DistinctValues values)
+	{
+		if (values instanceof ApproximateDistinctValues
+				&& ((ApproximateDistinctValues) values).precision == precision)
+		{
+			byte[] otherRegisters = ((ApproximateDistinctValues) values).registers;
+			for (int i = 0; i < registers.length; i++)
+			{
+				if (otherRegisters[i] > registers[i])
+				{
+					setRegister(i, otherRegisters[i]);
+				}
+			}
+		}
+		else if (values instanceof ExactDistinctValues)
+		{
+			ExactDistinctValues exactValues = (ExactDistinctValues) values;
+			for (Map.Entry<Class<?>, ExactDistinctValues.LongHashSet> entry : exactValues.getKeys().entrySet())
+			{
+				Class<?> keyClass = entry.getKey();
+				entry.getValue().forEach(key -> addHash(hash(keyClass, key)));
+			}
+			if (exactValues.getObjects() != null)
+			{
+				for (Object value : exactValues.getObjects())
+				{
+					add(value);
+				}
+			}
+		}
+		else
+		{
+			throw incompatibleValues(values);
+		}
+	}
+	
+	@Override
+	protected String getDescription()
+	{
+		return "approximate values with precision " + precision;
+	}
+	
+	public int getPrecision()
+	{
+		return precision;
+	}
+}
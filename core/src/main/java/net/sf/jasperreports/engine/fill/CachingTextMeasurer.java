@@ -0,0 +1,285 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.awt.Color;
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRCommonText;
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.JRParagraph;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.TabStop;
+import net.sf.jasperreports.engine.util.JRStyledText;
+
+/**
+ * Text measurer that looks up measuring results in a {@link MeasuredTextCache} before
+ * delegating to another measurer.
+ * <p>
+ * Only texts that consist of a single style run with simple attribute values are cached,
+ * for elements that do not have dynamic properties.  The cache key contains the text, the
+ * style attributes, the element markup, font size, size, padding, rotation and paragraph 
+ * attributes, the element and report properties, and the measuring arguments.
+ * Different elements that display the same text with the same style share the results.
+ * </p>
+ * 
+ * @see CachingTextMeasurerFactory
+ */
+public class CachingTextMeasurer implements JRTextMeasurer
+{
+	
+	private final JRTextMeasurer measurer;
+	private final JRCommonText textElement;
+	private final MeasuredTextCache cache;
+	private final int maxTextLength;
+
+	public CachingTextMeasurer(JRTextMeasurer measurer, JRCommonText textElement, 
+			MeasuredTextCache cache, int maxTextLength)
+	{
+		this.measurer = measurer;
+		this.textElement = textElement;
+		this.cache = cache;
+		this.maxTextLength = maxTextLength;
+	}
+
+	@Override
+	public JRMeasuredText measure(JRStyledText styledText, int remainingTextStart, int availableStretchHeight,
+			boolean indentFirstLine, boolean canOverflow)
+	{
+		Object key = cacheKey(styledText, remainingTextStart, availableStretchHeight, indentFirstLine, canOverflow);
+		if (key == null)
+		{
+			return measurer.measure(styledText, remainingTextStart, availableStretchHeight, indentFirstLine, canOverflow);
+		}
+		
+		JRMeasuredText measuredText = cache.get(key);
+		if (measuredText == null)
+		{
+			measuredText = new CachedMeasuredText(
+					measurer.measure(styledText, remainingTextStart, availableStretchHeight, indentFirstLine, canOverflow));
+			cache.put(key, measuredText);
+		}
+		return measuredText;
+	}
+	
+	protected Object cacheKey(JRStyledText styledText, int remainingTextStart, int availableStretchHeight,
+			boolean indentFirstLine, boolean canOverflow)
+	{
+		String text = styledText.getText();
+		if (text.length() > maxTextLength)
+		{
+			return null;
+		}
+		
+		if (textElement instanceof DynamicPropertiesHolder 
+				&& ((DynamicPropertiesHolder) textElement).hasDynamicProperties())
+		{
+			return null;
+		}
+		
+		List<JRStyledText.Run> runs = styledText.getRuns();
+		if (runs.size() != 1)
+		{
+			return null;
+		}
+		
+		JRStyledText.Run run = runs.get(0);
+		if (run.startIndex != 0 || run.endIndex != text.length() || !isCacheable(run.attributes))
+		{
+			return null;
+		}
+		
+		JRLineBox lineBox = textElement.getLineBox();
+		JRParagraph paragraph = textElement.getParagraph();
+		
+		List<Object> key = new ArrayList<>(24);
+		key.add(text);
+		key.add(styledText.getLocale());
+		key.add(run.attributes);
+		key.add(textElement.getMarkup());
+		key.add(textElement.getFontSize());
+		key.add(textElement.getWidth());
+		key.add(textElement.getHeight());
+		key.add(lineBox.getTopPadding());
+		key.add(lineBox.getLeftPadding());
+		key.add(lineBox.getBottomPadding());
+		key.add(lineBox.getRightPadding());
+		key.add(textElement.getRotation());
+		key.add(paragraph.getLineSpacing());
+		key.add(paragraph.getLineSpacingSize());
+		key.add(paragraph.getFirstLineIndent());
+		key.add(paragraph.getLeftIndent());
+		key.add(paragraph.getRightIndent());
+		key.add(paragraph.getSpacingBefore());
+		key.add(paragraph.getSpacingAfter());
+		key.add(paragraph.getTabStopWidth());
+		TabStop[] tabStops = paragraph.getTabStops();
+		if (tabStops != null)
+		{
+			for (TabStop tabStop : tabStops)
+			{
+				key.add(tabStop.getPosition());
+				key.add(tabStop.getAlignment());
+			}
+		}
+		key.add(remainingTextStart);
+		key.add(availableStretchHeight);
+		key.add(indentFirstLine);
+		key.add(canOverflow);
+		
+		// the properties read by the measurer
+		addProperties(key, textElement instanceof JRPropertiesHolder ? (JRPropertiesHolder) textElement : null);
+		addProperties(key, textElement.getDefaultStyleProvider() instanceof JRPropertiesHolder 
+				? (JRPropertiesHolder) textElement.getDefaultStyleProvider() : null);
+		return key;
+	}
+	
+	protected void addProperties(List<Object> key, JRPropertiesHolder propertiesHolder)
+	{
+		if (propertiesHolder == null || !propertiesHolder.hasProperties())
+		{
+			key.add(0);
+			return;
+		}
+		
+		JRPropertiesMap properties = propertiesHolder.getPropertiesMap();
+		String[] names = properties.getPropertyNames();
+		key.add(names.length);
+		for (String name : names)
+		{
+			key.add(name);
+			key.add(properties.getProperty(name));
+		}
+	}
+	
+	protected boolean isCacheable(Map<Attribute, Object> attributes)
+	{
+		for (Object value : attributes.values())
+		{
+			if (!(value == null || value instanceof String || value instanceof Number 
+					|| value instanceof Boolean || value instanceof Color || value instanceof Locale
+					|| value instanceof Enum))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Immutable copy of measuring results.
+	 */
+	protected static class CachedMeasuredText implements JRMeasuredText
+	{
+		private final float leadingOffset;
+		private final float lineSpacingFactor;
+		private final float textWidth;
+		private final float averageCharWidth;
+		private final float textHeight;
+		private final int textOffset;
+		private final boolean leftToRight;
+		private final boolean paragraphCut;
+		private final String textSuffix;
+		private final short[] lineBreakOffsets;
+		
+		protected CachedMeasuredText(JRMeasuredText measuredText)
+		{
+			this.leadingOffset = measuredText.getLeadingOffset();
+			this.lineSpacingFactor = measuredText.getLineSpacingFactor();
+			this.textWidth = measuredText.getTextWidth();
+			this.averageCharWidth = measuredText.getAverageCharWidth();
+			this.textHeight = measuredText.getTextHeight();
+			this.textOffset = measuredText.getTextOffset();
+			this.leftToRight = measuredText.isLeftToRight();
+			this.paragraphCut = measuredText.isParagraphCut();
+			this.textSuffix = measuredText.getTextSuffix();
+			this.lineBreakOffsets = measuredText.getLineBreakOffsets();
+		}
+
+		@Override
+		public float getLeadingOffset()
+		{
+			return leadingOffset;
+		}
+
+		@Override
+		public float getLineSpacingFactor()
+		{
+			return lineSpacingFactor;
+		}
+
+		@Override
+		public float getTextWidth()
+		{
+			return textWidth;
+		}
+
+		@Override
+		public float getAverageCharWidth()
+		{
+			return averageCharWidth;
+		}
+
+		@Override
+		public float getTextHeight()
+		{
+			return textHeight;
+		}
+
+		@Override
+		public int getTextOffset()
+		{
+			return textOffset;
+		}
+
+		@Override
+		public boolean isLeftToRight()
+		{
+			return leftToRight;
+		}
+
+		@Override
+		public boolean isParagraphCut()
+		{
+			return paragraphCut;
+		}
+
+		@Override
+		public String getTextSuffix()
+		{
+			return textSuffix;
+		}
+
+		@Override
+		public short[] getLineBreakOffsets()
+		{
+			return lineBreakOffsets == null ? null : lineBreakOffsets.clone();
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRCommonText;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fonts.FontUtil;
+import net.sf.jasperreports.engine.util.AbstractTextMeasurerFactory;
+import net.sf.jasperreports.engine.util.ContextValues;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Text measurer factory that caches measuring results across fills.
+ * <p>
+ * The factory produces {@link TextMeasurer} instances wrapped in {@link CachingTextMeasurer}
+ * objects, which share a {@link MeasuredTextCache} for each JasperReports context.
+ * Enabling the cache is useful when the same reports are filled repeatedly, as texts
+ * with identical content and style are measured only once.
+ * </p>
+ * <p>
+ * The factory is used by setting the 
+ * {@link net.sf.jasperreports.engine.util.JRTextMeasurerUtil#PROPERTY_TEXT_MEASURER_FACTORY net.sf.jasperreports.text.measurer.factory}
+ * property to <code>cached</code> or to the name of this class.
+ * </p>
+ */
+public class CachingTextMeasurerFactory extends AbstractTextMeasurerFactory
+{
+	
+	/**
+	 * Property that specifies the maximum number of measuring results kept 
+	 * by {@link CachingTextMeasurerFactory}.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "10000",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_CACHE_SIZE = 
+			JRPropertiesUtil.PROPERTY_PREFIX + "text.measurer.cache.size";
+	
+	/**
+	 * Property that specifies the maximum length of texts whose measuring results are
+	 * cached by {@link CachingTextMeasurerFactory}.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "1000",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_CACHE_MAX_TEXT_LENGTH = 
+			JRPropertiesUtil.PROPERTY_PREFIX + "text.measurer.cache.max.text.length";
+	
+	private static final String CONTEXT_KEY_CACHE = "net.sf.jasperreports.text.measurer.cache";
+
+	/**
+	 * Returns the cache used for a JasperReports context, creating it if needed.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @return the measured text cache for the context
+	 */
+	public static MeasuredTextCache getCache(JasperReportsContext jasperReportsContext)
+	{
+		return ContextValues.getOwnValue(jasperReportsContext, CONTEXT_KEY_CACHE, MeasuredTextCache.class, 
+				() -> new MeasuredTextCache(JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+						PROPERTY_CACHE_SIZE, 10000)));
+	}
+
+	@Override
+	public JRTextMeasurer createMeasurer(JasperReportsContext jasperReportsContext, JRCommonText text)
+	{
+		return createMeasurer(FontUtil.getInstance(jasperReportsContext), text);
+	}
+
+	@Override
+	public JRTextMeasurer createMeasurer(FontUtil fontUtil, JRCommonText text)
+	{
+		JasperReportsContext jasperReportsContext = fontUtil.getJasperReportsContext();
+		int maxTextLength = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+				PROPERTY_CACHE_MAX_TEXT_LENGTH, 1000);
+		return new CachingTextMeasurer(new TextMeasurer(fontUtil, text), text, 
+				getCache(jasperReportsContext), maxTextLength);
+	}
+
+}
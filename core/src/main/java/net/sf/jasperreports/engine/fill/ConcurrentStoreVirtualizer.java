@@ -0,0 +1,787 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.util.LocalVirtualizationSerializer;
+import net.sf.jasperreports.engine.util.VirtualizationSerializer;
+
+
+/**
+ * LRU virtualizer that keeps paged out data in a {@link VirtualizerStore} and that can be
+ * shared by many concurrent fills.
+ * 
+ * <p>
+ * Unlike {@link StoreVirtualizer}, this virtualizer does not synchronize on a single monitor.
+ * The paged in objects are kept in a lock free queue in the order in which they were paged in,
+ * and touching an object only sets a reference flag on the object entry.
+ * When the number of paged in objects exceeds the configured size, objects are evicted
+ * from the head of the queue, giving objects that have been referenced since they were 
+ * queued a second chance at the tail of the queue (the CLOCK approximation of LRU).
+ * Each eviction only visits a few queue entries in the usual case, regardless of the 
+ * number of paged in objects.
+ * Objects are paged in and out while holding the lock of their virtualization context,
+ * so fills using different contexts do not wait for each other's I/O.
+ * </p>
+ * 
+ * <p>
+ * As with other virtualizers, the in-memory size is not strictly enforced when
+ * objects cannot be evicted, for instance when each context holds only its last used object.
+ * </p>
+ * 
+ * @see JRAbstractLRUVirtualizer
+ */
+public class ConcurrentStoreVirtualizer implements JRVirtualizer
+{
+	private static final Log log = LogFactory.getLog(ConcurrentStoreVirtualizer.class);
+	
+	private static final int STATE_PAGED_IN = 0;
+	private static final int STATE_EVICTING = 1;
+	private static final int STATE_PAGED_OUT = 2;
+	private static final int STATE_REMOVED = 3;
+	
+	private static final int SWEEP_MARGIN = 64;
+	
+	protected static class Entry extends WeakReference<JRVirtualizable<?>>
+	{
+		private static final AtomicIntegerFieldUpdater<Entry> STATE_UPDATER = 
+				AtomicIntegerFieldUpdater.newUpdater(Entry.class, "state");
+		private static final AtomicIntegerFieldUpdater<Entry> QUEUED_UPDATER = 
+				AtomicIntegerFieldUpdater.newUpdater(Entry.class, "queued");
+		
+		private final String id;
+		private volatile int state;
+		private volatile int queued;
+		private volatile boolean referenced;
+		private volatile Segment segment;
+
+		protected Entry(JRVirtualizable<?> o, ReferenceQueue<JRVirtualizable<?>> queue, int state)
+		{
+			super(o, queue);
+			this.id = o.getUID();
+			this.state = state;
+		}
+		
+		protected boolean changeState(int expected, int newState)
+		{
+			return STATE_UPDATER.compareAndSet(this, expected, newState);
+		}
+		
+		protected int removeState()
+		{
+			return STATE_UPDATER.getAndSet(this, STATE_REMOVED);
+		}
+		
+		protected boolean markQueued()
+		{
+			return QUEUED_UPDATER.compareAndSet(this, 0, 1);
+		}
+		
+		protected void unmarkQueued()
+		{
+			queued = 0;
+		}
+	}
+	
+	/**
+	 * Paged in objects of a virtualization context.
+	 */
+	protected static class Segment
+	{
+		private final JRVirtualizationContext context;
+		private final Set<Entry> pagedIn = ConcurrentHashMap.newKeySet();
+		private volatile WeakReference<JRVirtualizable<?>> lastObjectRef;
+		private boolean retired;
+		
+		protected Segment(JRVirtualizationContext context)
+		{
+			this.context = context;
+		}
+		
+		protected synchronized boolean add(Entry entry)
+		{
+			if (retired)
+			{
+				return false;
+			}
+			
+			pagedIn.add(entry);
+			entry.segment = this;
+			return true;
+		}
+		
+		protected boolean remove(Entry entry)
+		{
+			return pagedIn.remove(entry);
+		}
+		
+		protected synchronized boolean retireIfEmpty()
+		{
+			if (pagedIn.isEmpty())
+			{
+				retired = true;
+			}
+			return retired;
+		}
+		
+		protected JRVirtualizable<?> lastObject()
+		{
+			WeakReference<JRVirtualizable<?>> ref = lastObjectRef;
+			return ref == null ? null : ref.get();
+		}
+		
+		protected void setLastObject(JRVirtualizable<?> o)
+		{
+			if (lastObject() != o)
+			{
+				lastObjectRef = new WeakReference<JRVirtualizable<?>>(o);
+			}
+		}
+		
+		protected void clearLastObject(JRVirtualizable<?> o)
+		{
+			if (lastObject() == o)
+			{
+				lastObjectRef = null;
+			}
+		}
+	}
+	
+	protected final VirtualizationSerializer serializer;
+	
+	private final VirtualizerStore store;
+	private final int maxSize;
+	
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<JRVirtualizationContext, Segment> segments = new ConcurrentHashMap<>();
+	private final ReferenceQueue<JRVirtualizable<?>> referenceQueue = new ReferenceQueue<>();
+	private final AtomicInteger pagedInCount = new AtomicInteger();
+	private final ConcurrentLinkedQueue<Entry> evictionQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger evictionQueueSize = new AtomicInteger();
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+	
+	private volatile boolean readOnly;
+
+	/**
+	 * @param maxSize the maximum number of virtualizable objects kept in memory
+	 * @param store the store that keeps the paged out data
+	 */
+	public ConcurrentStoreVirtualizer(int maxSize, VirtualizerStore store)
+	{
+		this(new LocalVirtualizationSerializer(), maxSize, store);
+	}
+
+	public ConcurrentStoreVirtualizer(VirtualizationSerializer serializer, int maxSize, VirtualizerStore store)
+	{
+		this.serializer = serializer;
+		this.maxSize = maxSize;
+		this.store = store;
+	}
+
+	/**
+	 * Sets the read only mode for the virtualizer.
+	 * 
+	 * @see JRAbstractLRUVirtualizer#setReadOnly(boolean)
+	 */
+	public void setReadOnly(boolean ro)
+	{
+		this.readOnly = ro;
+	}
+
+	public boolean isReadOnly()
+	{
+		return readOnly;
+	}
+
+	protected final boolean isReadOnly(JRVirtualizable<?> o)
+	{
+		return readOnly || o.getContext().isReadOnly();
+	}
+	
+	/**
+	 * Returns the number of objects currently kept in memory.
+	 */
+	public int getPagedInCount()
+	{
+		return pagedInCount.get();
+	}
+
+	/**
+	 * Returns the number of paged in objects that are not evicted because they are
+	 * the last objects used in their virtualization contexts.
+	 * 
+	 * @return the number of paged in objects which are not eviction candidates
+	 */
+	public int getPinnedCount()
+	{
+		int count = 0;
+		for (Segment segment : segments.values())
+		{
+			JRVirtualizable<?> o = segment.lastObject();
+			if (o != null && !o.getContext().isDisposed())
+			{
+				Entry entry = entries.get(o.getUID());
+				if (entry != null && entry.state == STATE_PAGED_IN && entry.segment == segment)
+				{
+					++count;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void registerObject(JRVirtualizable o)
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("registering " + o.getUID() + " with context " + o.getContext());
+		}
+		
+		purge();
+		
+		Entry entry = new Entry(o, referenceQueue, STATE_PAGED_IN);
+		Entry existing = entries.putIfAbsent(o.getUID(), entry);
+		if (existing != null)
+		{
+			if (existing.get() != o)
+			{
+				throw new IllegalStateException("Wrong object stored with UID \"" + o.getUID() + "\"");
+			}
+			// already registered
+			return;
+		}
+		
+		pagedInCount.incrementAndGet();
+		addToSegment(entry, o);
+		enqueue(entry);
+		
+		evict();
+	}
+
+	protected void addToSegment(Entry entry, JRVirtualizable<?> o)
+	{
+		JRVirtualizationContext context = o.getContext();
+		while (true)
+		{
+			Segment segment = segments.get(context);
+			if (segment == null)
+			{
+				Segment newSegment = new Segment(context);
+				segment = segments.putIfAbsent(context, newSegment);
+				if (segment == null)
+				{
+					segment = newSegment;
+				}
+			}
+			
+			if (segment.add(entry))
+			{
+				segment.setLastObject(o);
+				break;
+			}
+			
+			// the segment was retired concurrently
+			segments.remove(context, segment);
+		}
+	}
+
+	protected void removeFromSegment(Entry entry)
+	{
+		Segment segment = entry.segment;
+		if (segment != null && segment.remove(entry) && segment.retireIfEmpty())
+		{
+			segments.remove(segment.context, segment);
+		}
+	}
+	
+	/**
+	 * Adds a paged in entry at the tail of the eviction queue, unless it is already queued.
+	 */
+	protected void enqueue(Entry entry)
+	{
+		if (entry.markQueued())
+		{
+			evictionQueue.offer(entry);
+			evictionQueueSize.incrementAndGet();
+		}
+	}
+	
+	protected Entry pollQueue()
+	{
+		Entry entry = evictionQueue.poll();
+		if (entry != null)
+		{
+			evictionQueueSize.decrementAndGet();
+			entry.unmarkQueued();
+		}
+		return entry;
+	}
+
+	protected boolean isEvictable(Entry entry, JRVirtualizable<?> o)
+	{
+		if (o.getContext().isDisposed())
+		{
+			return true;
+		}
+		
+		Segment segment = entry.segment;
+		return segment == null || segment.lastObject() != o;
+	}
+
+	protected void evict()
+	{
+		sweepQueue();
+		
+		// each paged in entry is visited at most twice, the first visit clears the reference flag
+		int visits = 2 * pagedInCount.get();
+		Entry entry;
+		while (pagedInCount.get() > maxSize && (entry = pollQueue()) != null)
+		{
+			if (entry.state != STATE_PAGED_IN)
+			{
+				// paged out or removed, the entry is queued again when paged in
+				continue;
+			}
+			
+			JRVirtualizable<?> o = entry.get();
+			if (o == null)
+			{
+				continue;
+			}
+			
+			if (visits <= 0)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("no more eviction candidates");
+				}
+				enqueue(entry);
+				break;
+			}
+			--visits;
+			
+			if (entry.referenced)
+			{
+				// second chance
+				entry.referenced = false;
+				enqueue(entry);
+				continue;
+			}
+			
+			if (!isEvictable(entry, o))
+			{
+				enqueue(entry);
+				continue;
+			}
+			
+			JRVirtualizationContext context = o.getContext();
+			if (!context.tryLock())
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("couldn't lock for eviction " + entry.id);
+				}
+				enqueue(entry);
+				continue;
+			}
+			
+			try
+			{
+				// check again now that we have the lock
+				if (!isEvictable(entry, o) || !entry.changeState(STATE_PAGED_IN, STATE_EVICTING))
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("no longer evictable: " + entry.id);
+					}
+					if (entry.state == STATE_PAGED_IN)
+					{
+						enqueue(entry);
+					}
+					continue;
+				}
+				
+				pagedInCount.decrementAndGet();
+				removeFromSegment(entry);
+				
+				if (context.isDisposed())
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("discarding " + entry.id + " of disposed context");
+					}
+					
+					entry.removeState();
+					entries.remove(entry.id, entry);
+				}
+				else
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("evicting " + entry.id);
+					}
+					
+					externalize(entry, o);
+				}
+			}
+			finally
+			{
+				context.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Drops the entries of paged out and removed objects from the eviction queue
+	 * when they outnumber the paged in objects.
+	 */
+	protected void sweepQueue()
+	{
+		int queueSize = evictionQueueSize.get();
+		if (queueSize <= 2 * pagedInCount.get() + SWEEP_MARGIN
+				|| !sweeping.compareAndSet(false, true))
+		{
+			return;
+		}
+		
+		try
+		{
+			for (int i = 0; i < queueSize; i++)
+			{
+				Entry entry = pollQueue();
+				if (entry == null)
+				{
+					break;
+				}
+				
+				if (entry.state == STATE_PAGED_IN && entry.get() != null)
+				{
+					enqueue(entry);
+				}
+			}
+		}
+		finally
+		{
+			sweeping.set(false);
+		}
+	}
+
+	/**
+	 * Pages out an object whose entry is in the evicting state.
+	 */
+	protected void externalize(Entry entry, JRVirtualizable<?> o)
+	{
+		boolean pagedOut = false;
+		try
+		{
+			o.beforeExternalization();
+			
+			pageOut(o);
+			
+			o.afterExternalization();
+			
+			// Wait until we know it worked before tossing the data.
+			o.removeVirtualData();
+			pagedOut = true;
+		}
+		finally
+		{
+			if (!pagedOut)
+			{
+				// back to memory
+				if (entry.changeState(STATE_EVICTING, STATE_PAGED_IN))
+				{
+					pagedInCount.incrementAndGet();
+					addToSegment(entry, o);
+					enqueue(entry);
+				}
+			}
+		}
+		
+		if (!entry.changeState(STATE_EVICTING, STATE_PAGED_OUT))
+		{
+			// deregistered meanwhile
+			dispose(entry.id);
+		}
+	}
+
+	protected void purge()
+	{
+		Entry entry;
+		while ((entry = (Entry) referenceQueue.poll()) != null)
+		{
+			entries.remove(entry.id, entry);
+			int state = entry.removeState();
+			if (state == STATE_PAGED_IN)
+			{
+				pagedInCount.decrementAndGet();
+			}
+			removeFromSegment(entry);
+		}
+	}
+
+	@Override
+	public void deregisterObject(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+
+		if (log.isDebugEnabled())
+		{
+			log.debug("deregistering " + uid);
+		}
+		
+		//try to remove virtual data
+		try
+		{
+			dispose(uid);
+		}
+		catch (Exception e)
+		{
+			log.error("Error removing virtual data", e);
+			//ignore
+		}
+		
+		Entry entry = entries.get(uid);
+		if (entry != null)
+		{
+			if (entry.get() != o)
+			{
+				throw new IllegalStateException("Wrong object stored with UID \"" + o.getUID() + "\"");
+			}
+			
+			entries.remove(uid, entry);
+			int state = entry.removeState();
+			if (state == STATE_PAGED_IN)
+			{
+				pagedInCount.decrementAndGet();
+			}
+			removeFromSegment(entry);
+			
+			Segment segment = entry.segment;
+			if (segment != null)
+			{
+				segment.clearLastObject(o);
+			}
+		}
+	}
+
+	@Override
+	public void touch(JRVirtualizable o)
+	{
+		Entry entry = entries.get(o.getUID());
+		if (entry != null)
+		{
+			if (!entry.referenced)
+			{
+				entry.referenced = true;
+			}
+			
+			Segment segment = entry.segment;
+			if (segment != null)
+			{
+				segment.setLastObject(o);
+			}
+		}
+	}
+
+	@Override
+	public void requestData(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		boolean evictRequired = false;
+		
+		JRVirtualizationContext context = o.getContext();
+		context.lock();
+		try
+		{
+			Entry entry = entries.get(uid);
+			if (entry != null && entry.state == STATE_PAGED_OUT)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("internalizing " + uid);
+				}
+				
+				try
+				{
+					pageIn(o);
+				}
+				catch (IOException e)
+				{
+					log.error("Error devirtualizing object", e);
+					throw new JRRuntimeException(e);
+				}
+				
+				if (entry.changeState(STATE_PAGED_OUT, STATE_PAGED_IN))
+				{
+					pagedInCount.incrementAndGet();
+					addToSegment(entry, o);
+					enqueue(entry);
+				}
+
+				o.afterInternalization();
+				
+				evictRequired = true;
+			}
+			else
+			{
+				touch(o);
+			}
+		}
+		finally
+		{
+			context.unlock();
+		}
+		
+		if (evictRequired)
+		{
+			evict();
+		}
+	}
+
+	@Override
+	public void clearData(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		Entry entry = entries.get(uid);
+		if (entry != null && entry.changeState(STATE_PAGED_OUT, STATE_REMOVED))
+		{
+			entries.remove(uid, entry);
+			
+			// remove virtual data
+			dispose(uid);
+		}
+		else
+		{
+			touch(o);
+		}
+	}
+
+	@Override
+	public void virtualizeData(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		Entry entry = entries.get(uid);
+		if (entry == null)
+		{
+			// not registered, tracking it as paged out
+			entry = new Entry(o, referenceQueue, STATE_EVICTING);
+			if (entries.putIfAbsent(uid, entry) != null)
+			{
+				// registered concurrently
+				return;
+			}
+		}
+		else if (entry.changeState(STATE_PAGED_IN, STATE_EVICTING))
+		{
+			pagedInCount.decrementAndGet();
+			removeFromSegment(entry);
+		}
+		else
+		{
+			// already paged out or being paged out
+			return;
+		}
+
+		if (log.isDebugEnabled())
+		{
+			log.debug("externalizing " + uid);
+		}
+		
+		externalize(entry, o);
+	}
+
+	@Override
+	public void contextChanged(JRVirtualizable<?> o, JRVirtualizationContext oldContext)
+	{
+		Entry entry = entries.get(o.getUID());
+		if (entry == null)
+		{
+			return;
+		}
+		
+		Segment segment = entry.segment;
+		if (segment != null)
+		{
+			segment.clearLastObject(o);
+			if (segment.remove(entry))
+			{
+				// move to the segment of the new context
+				addToSegment(entry, o);
+			}
+		}
+	}
+
+	@Override
+	public void cleanup()
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("disposing " + this);
+		}
+		
+		store.dispose();
+		
+		entries.clear();
+		segments.clear();
+		evictionQueue.clear();
+		evictionQueueSize.set(0);
+		pagedInCount.set(0);
+	}
+
+	protected void pageOut(JRVirtualizable<?> o)
+	{
+		boolean stored = store.store(o, serializer);
+		if (!stored && !isReadOnly(o))
+		{
+			throw new IllegalStateException("Cannot virtualize data because the data for object UID \"" + o.getUID() + "\" already exists.");
+		}
+	}
+
+	protected void pageIn(JRVirtualizable<?> o) throws IOException
+	{
+		store.retrieve(o, !isReadOnly(o), serializer);
+	}
+
+	protected void dispose(String id)
+	{
+		store.remove(id);
+	}
+}
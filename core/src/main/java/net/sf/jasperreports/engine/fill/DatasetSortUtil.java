@@ -23,7 +23,7 @@
  */
 package net.sf.jasperreports.engine.fill;
 
-import java.text.Collator;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -32,18 +32,24 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRField;
 import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRScriptletException;
 import net.sf.jasperreports.engine.JRSortField;
 import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.design.JRDesignDatasetRun;
 import net.sf.jasperreports.engine.fill.DatasetSortInfo.RecordField;
-import net.sf.jasperreports.engine.fill.DatasetSortInfo.SortFieldInfo;
 import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
 import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -51,6 +57,73 @@ import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
  */
 public class DatasetSortUtil
 {
+	private static final Log log = LogFactory.getLog(DatasetSortUtil.class);
+	
+	/**
+	 * Property that specifies the maximum number of records that are sorted in memory
+	 * for datasets that have sort fields.
+	 * 
+	 * <p>
+	 * When the number of records exceeds the threshold, the records are sorted in runs
+	 * of at most this size, each run is written to a temporary file and the runs are merged
+	 * while the dataset is iterated.
+	 * This keeps the memory used by large sorted datasets bounded, at the cost of
+	 * serializing and reading back the records.
+	 * </p>
+	 * 
+	 * <p>
+	 * A value of 0 or less (the default) means that all records are sorted in memory.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_SORT_SPILL_THRESHOLD = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.spill.threshold";
+	
+	/**
+	 * Flag property that specifies whether dataset records are sorted using primitive sort keys.
+	 * 
+	 * <p>
+	 * When set, the sort field values of numeric, boolean and date types are extracted 
+	 * into primitive arrays and the values of string sort fields are converted to collation keys
+	 * before sorting, which avoids repeated type checks and collator comparisons.
+	 * The resulting record order is the same as the default sort.
+	 * </p>
+	 * 
+	 * @see #PROPERTY_SORT_PARALLEL
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_SORT_PRIMITIVE_KEYS = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.primitive.keys";
+	
+	/**
+	 * Flag property that specifies whether large record sets can be sorted in parallel 
+	 * using the common fork/join pool.
+	 * 
+	 * <p>
+	 * The property only applies when primitive sort keys are used.
+	 * </p>
+	 * 
+	 * @see #PROPERTY_SORT_PRIMITIVE_KEYS
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_SORT_PARALLEL = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.parallel";
+	
 	public static final String EXCEPTION_MESSAGE_KEY_SORT_FIELD_NOT_FOUND = "fill.dataset.sort.field.not.found";
 	public static final String EXCEPTION_MESSAGE_KEY_SORT_VARIABLE_NOT_FOUND = "fill.dataset.sort.variable.not.found";
 
@@ -99,40 +172,123 @@ public class DatasetSortUtil
 	/**
 	 *
 	 */
-	public static SortedDataSource getSortedDataSource(
+	public static SortedRecordsDataSource getSortedDataSource(
 		BaseReportFiller filler, 
 		JRFillDataset dataset, 
 		Locale locale 
 		) throws JRException
 	{
 		DatasetSortInfo sortInfo = createSortInfo(dataset);
+		DataSourceComparator comparator = new DataSourceComparator(sortInfo, locale);
+		
+		JRPropertiesUtil propertiesUtil = filler.getPropertiesUtil();
+		int spillThreshold = propertiesUtil.getIntegerProperty(dataset, PROPERTY_SORT_SPILL_THRESHOLD, 0);
+		boolean primitiveKeys = propertiesUtil.getBooleanProperty(dataset, PROPERTY_SORT_PRIMITIVE_KEYS, false);
+		boolean parallel = primitiveKeys && propertiesUtil.getBooleanProperty(dataset, PROPERTY_SORT_PARALLEL, true);
+		
+		RecordsSorter sorter = primitiveKeys ? new PrimitiveKeysSorter(comparator, parallel) : new ComparatorSorter(comparator);
 		
-		SortFillDatasetRun sortDatasetRun = new SortFillDatasetRun(filler, dataset, sortInfo);
+		SortFillDatasetRun sortDatasetRun = new SortFillDatasetRun(filler, dataset, sortInfo, 
+				sorter, spillThreshold);
 		
 		List<SortedDataSource.SortRecord> records = sortDatasetRun.sort();
 		
-		// using indirect sorting in order to also preserve the original record order for data caching
-		int recordCount = records.size();
-		// we need wrapper objects for Arrays.sort with comparator
-		Integer[] indexes = new Integer[recordCount];
-		for (int i = 0; i < recordCount; i++) {
-			indexes[i] = i;
+		List<SortRunFile> runs = sortDatasetRun.getSpilledRuns();
+		if (!runs.isEmpty())
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("merging " + runs.size() + " sorted runs for dataset " + dataset.getName());
+			}
+			
+			return new ExternalSortedDataSource(sortInfo, comparator, 
+					sortDatasetRun.getVirtualizationContext(), runs);
 		}
 		
-		/*   */
-		Arrays.sort(
-			indexes, 
-			new DataSourceComparator(
-				sortInfo, 
-				locale,
-				records
-				)
-			);
-		
+		int[] indexes = sorter.sort(records);
 		return new SortedDataSource(sortInfo, records, indexes);
 	}
 
 
+	/**
+	 * Sorts a list of records, returning the sorted record indexes.
+	 */
+	interface RecordsSorter
+	{
+		int[] sort(List<SortedDataSource.SortRecord> records);
+	}
+
+
+	/**
+	 * 
+	 */
+	static class ComparatorSorter implements RecordsSorter
+	{
+		private final DataSourceComparator comparator;
+		
+		public ComparatorSorter(DataSourceComparator comparator)
+		{
+			this.comparator = comparator;
+		}
+
+		@Override
+		public int[] sort(List<SortedDataSource.SortRecord> records)
+		{
+			// using indirect sorting in order to also preserve the original record order for data caching
+			int recordCount = records.size();
+			// we need wrapper objects for Arrays.sort with comparator
+			Integer[] indexes = new Integer[recordCount];
+			for (int i = 0; i < recordCount; i++) {
+				indexes[i] = i;
+			}
+			
+			/*   */
+			Arrays.sort(
+				indexes, 
+				new Comparator<Integer>()
+				{
+					@Override
+					public int compare(Integer idx1, Integer idx2)
+					{
+						// assuming random access records list
+						return comparator.compareRecords(records.get(idx1).getValues(), records.get(idx2).getValues());
+					}
+				}
+				);
+			
+			int[] sortedIndexes = new int[recordCount];
+			for (int i = 0; i < recordCount; i++) {
+				sortedIndexes[i] = indexes[i];
+			}
+			return sortedIndexes;
+		}
+	}
+
+
+	/**
+	 * 
+	 */
+	static class PrimitiveKeysSorter implements RecordsSorter
+	{
+		private final DataSourceComparator comparator;
+		private final boolean parallel;
+		
+		public PrimitiveKeysSorter(DataSourceComparator comparator, boolean parallel)
+		{
+			this.comparator = comparator;
+			this.parallel = parallel;
+		}
+
+		@Override
+		public int[] sort(List<SortedDataSource.SortRecord> records)
+		{
+			PrimitiveSortKeys sortKeys = new PrimitiveSortKeys(records, 
+					comparator.getSortFields(), comparator.getCollator());
+			return sortKeys.sort(parallel);
+		}
+	}
+
+
 	/**
 	 *
 	 */
@@ -215,74 +371,6 @@ public class DatasetSortUtil
 }
 
 
-/**
- *
- */
-class DataSourceComparator implements Comparator<Integer>
-{
-	private final Collator collator;
-	private final List<SortFieldInfo> sortFields;
-	private final List<SortedDataSource.SortRecord> records;
-
-	public DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
-			List<SortedDataSource.SortRecord> records)
-	{
-		this.collator = Collator.getInstance(locale);
-		this.sortFields = sortFieldInfo.getSortFields();
-		this.records = records;
-	}
-
-	@Override
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	public int compare(Integer idx1, Integer idx2)
-	{
-		// assuming random access records list
-		Object[] record1 = records.get(idx1).getValues();
-		Object[] record2 = records.get(idx2).getValues();
-		
-		int ret = 0;
-
-		for (SortFieldInfo info : sortFields)
-		{
-			Comparable field1 = (Comparable)record1[info.getRecordIndex()];
-			Comparable field2 = (Comparable)record2[info.getRecordIndex()];
-
-			if (field1 == null)
-			{
-				ret = (field2 == null) ? 0 : -1;
-			}
-			else if (field2 == null)
-			{
-				ret = 1;
-			}
-			else
-			{
-				if (info.useCollator())
-				{
-					ret = collator.compare(field1, field2);
-				}
-				else
-				{
-					ret = field1.compareTo(field2);
-				}
-			}
-
-			if (ret != 0)
-			{
-				if (info.isDescending())
-				{
-					ret = -ret;
-				}
-				
-				return ret;
-			}
-		}
-
-		return ret;
-	}
-}
-
-
 /**
  * Used to iterate on a subdataset and create a sorted data source.
  * 
@@ -292,11 +380,16 @@ class SortFillDatasetRun extends JRFillDatasetRun
 {
 
 	private DatasetSortInfo sortInfo;
+	private DatasetSortUtil.RecordsSorter sorter;
+	private int spillThreshold;
 	private int recordIndex;
 	private List<SortedDataSource.SortRecord> records;
+	private List<SortRunFile> spilledRuns;
+	private JRVirtualizationContext virtualizationContext;
 
 	
-	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo) throws JRException
+	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo,
+			DatasetSortUtil.RecordsSorter sorter, int spillThreshold) throws JRException
 	{
 		super(
 			filler, 
@@ -305,30 +398,98 @@ class SortFillDatasetRun extends JRFillDatasetRun
 			);
 
 		this.sortInfo = sortInfo;
+		this.sorter = sorter;
+		this.spillThreshold = spillThreshold;
 	}
 
 	
+	/**
+	 * Iterates the dataset and collects the records.
+	 * 
+	 * @return the records collected in memory, in the original order.
+	 * If runs were spilled to temporary files, the last run is also spilled
+	 * and the returned list is empty.
+	 * @see #getSpilledRuns()
+	 */
 	public List<SortedDataSource.SortRecord> sort() throws JRException
 	{
 		recordIndex = 0;
 		records = new ArrayList<>();
+		spilledRuns = new ArrayList<>();
 
+		boolean sorted = false;
 		try
 		{
 			//all parameters are already set onto the dataset by the main fill process
 
 			iterate();
+			
+			if (!spilledRuns.isEmpty() && !records.isEmpty())
+			{
+				spillRun();
+			}
+			
+			sorted = true;
 		}
 		finally
 		{
 			dataset.closeQueryExecuter();
 			dataset.reset();
+			
+			if (!sorted)
+			{
+				disposeSpilledRuns();
+			}
 		}
 		
 		return records;
 	}
 
 	
+	public List<SortRunFile> getSpilledRuns()
+	{
+		return spilledRuns;
+	}
+
+	
+	public JRVirtualizationContext getVirtualizationContext()
+	{
+		return virtualizationContext;
+	}
+
+	
+	protected void spillRun() throws JRException
+	{
+		if (virtualizationContext == null)
+		{
+			virtualizationContext = new JRVirtualizationContext(filler.getJasperReportsContext());
+		}
+		
+		int[] order = sorter.sort(records);
+		try
+		{
+			spilledRuns.add(SortRunFile.write(virtualizationContext, records, order));
+		}
+		catch (IOException e)
+		{
+			throw new JRException(e);
+		}
+		
+		// new list instead of clear() so that the previous backing array can be collected
+		records = new ArrayList<>();
+	}
+
+	
+	protected void disposeSpilledRuns()
+	{
+		for (SortRunFile run : spilledRuns)
+		{
+			run.dispose();
+		}
+		spilledRuns.clear();
+	}
+
+	
 	@Override
 	protected void detail() throws JRScriptletException, JRException 
 	{
@@ -361,6 +522,11 @@ class SortFillDatasetRun extends JRFillDatasetRun
 		++recordIndex;
 		
 		records.add(sortRecord);
+		
+		if (spillThreshold > 0 && records.size() >= spillThreshold)
+		{
+			spillRun();
+		}
 	}
 
 
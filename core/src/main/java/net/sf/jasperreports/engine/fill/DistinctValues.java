@@ -0,0 +1,152 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Date;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * Storage for the distinct values collected by distinct count variables.
+ * 
+ * @see ExactDistinctValues
+ * @see ApproximateDistinctValues
+ */
+abstract class DistinctValues
+{
+	
+	public static final String EXCEPTION_MESSAGE_KEY_INCOMPATIBLE_DISTINCT_VALUES = "fill.distinct.values.incompatible";
+
+	/**
+	 * Adds a value.
+	 * 
+	 * @param value the value, not <code>null</code>
+	 */
+	public abstract void add(Object value);
+
+	/**
+	 * Returns the number of distinct values, including a value that has not been added yet.
+	 * 
+	 * @param value a value that is to be counted if not already present, can be <code>null</code>
+	 * @return the number of distinct values
+	 */
+	public abstract long countWith(Object value);
+
+	public long count()
+	{
+		return countWith(null);
+	}
+
+	/**
+	 * Removes all values, reusing the storage for the values to be added next.
+	 */
+	public abstract void clear();
+
+	/**
+	 * Creates an empty storage of the same kind.
+	 */
+	public abstract DistinctValues createEmpty();
+
+	/**
+	 * Adds all the values from another storage.
+	 * 
+	 * @throws JRRuntimeException if the values of the storage cannot be added to this storage
+	 */
+	public abstract void addAll(DistinctValues values);
+	
+	/**
+	 * Returns a description of the storage, used in error messages.
+	 */
+	protected abstract String getDescription();
+	
+	protected JRRuntimeException incompatibleValues(DistinctValues values)
+	{
+		return 
+			new JRRuntimeException(
+				EXCEPTION_MESSAGE_KEY_INCOMPATIBLE_DISTINCT_VALUES,
+				new Object[]{values.getDescription(), getDescription()});
+	}
+	
+	/**
+	 * Returns the class under which a value is kept as a primitive key, 
+	 * such that the keys of values of the same class are equal if and only if the values are equal.
+	 * 
+	 * @param value the value
+	 * @return the key class, or <code>null</code> if the value cannot be kept as a primitive key 
+	 */
+	protected static Class<?> getKeyClass(Object value)
+	{
+		Class<?> valueClass = value.getClass();
+		if (valueClass == Long.class || valueClass == Integer.class 
+				|| valueClass == Short.class || valueClass == Byte.class
+				|| valueClass == Double.class || valueClass == Float.class
+				|| valueClass == Character.class)
+		{
+			return valueClass;
+		}
+		
+		// java.sql.Date and java.sql.Time instances are equal to java.util.Date instances with the same time
+		if (valueClass == Date.class || valueClass == java.sql.Date.class || valueClass == java.sql.Time.class)
+		{
+			return Date.class;
+		}
+		
+		return null;
+	}
+
+	protected static long getKey(Object value, Class<?> keyClass)
+	{
+		if (keyClass == Double.class)
+		{
+			return Double.doubleToLongBits((Double) value);
+		}
+		if (keyClass == Float.class)
+		{
+			return Float.floatToIntBits((Float) value);
+		}
+		if (keyClass == Character.class)
+		{
+			return (Character) value;
+		}
+		if (keyClass == Date.class)
+		{
+			return ((Date) value).getTime();
+		}
+		return ((Number) value).longValue();
+	}
+	
+	protected static long mix(long hash)
+	{
+		// MurmurHash3 finalizer
+		long h = hash;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+	
+}
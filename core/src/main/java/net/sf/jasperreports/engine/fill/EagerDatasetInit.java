@@ -0,0 +1,363 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Eager initialization of the data of a subreport or of a list component dataset run.
+ * <p>
+ * The layout of subreports and lists depends on the space left by the preceding elements, so their fills 
+ * always run in band order. Their parameter evaluation and data source creation (which includes executing 
+ * the dataset query) only depend on the parameter values, and for elements that set 
+ * {@link #PROPERTY_EAGER_DATA_INIT} this part is started on a bounded per fill executor as soon as the 
+ * parameter values are evaluated. The filler joins the initialization when it reaches the element, so that 
+ * slow queries of independent subreports and lists in a band run concurrently.
+ * </p>
+ * <p>
+ * Eager initialization is not used when the fill records or replays a data snapshot.
+ * </p>
+ */
+public class EagerDatasetInit
+{
+	private static final Log log = LogFactory.getLog(EagerDatasetInit.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_INTERRUPTED = "fill.eager.dataset.init.interrupted";
+	
+	/**
+	 * Element property that specifies whether the parameters and the data source of a subreport or of a list 
+	 * component dataset run are initialized eagerly, on a separate thread, when the element is evaluated.
+	 * <p>
+	 * The option should only be used for elements whose data does not depend on side effects of the fill
+	 * of other elements, for instance subreports that use their own connections.
+	 * </p>
+	 * <p>
+	 * Table components are not covered, the property is ignored for tables and their dataset runs.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.SUBREPORT, PropertyScope.SUBDATASET_RUN},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_EAGER_DATA_INIT = JRPropertiesUtil.PROPERTY_PREFIX + "fill.eager.data.init";
+	
+	/**
+	 * Property that specifies the maximum number of threads used by a report fill to eagerly initialize data.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "4",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_THREAD_COUNT = JRPropertiesUtil.PROPERTY_PREFIX + "fill.eager.data.init.threads";
+	
+	private static final String EXECUTOR_KEY = EagerDatasetInit.class.getName() + ".Executor";
+	
+	/**
+	 * Initialization performed on the eager initialization thread.
+	 */
+	@FunctionalInterface
+	public interface Initializer
+	{
+		void initialize() throws JRException;
+	}
+	
+	/**
+	 * Decides whether an element has eager data initialization enabled.
+	 * 
+	 * @param filler the filler of the element
+	 * @param element the subreport or dataset run
+	 * @return whether the data of the element is to be initialized eagerly
+	 */
+	public static boolean isEnabled(BaseReportFiller filler, JRPropertiesHolder element)
+	{
+		boolean enabled = JRPropertiesUtil.asBoolean(
+				JRPropertiesUtil.getOwnProperty(element, PROPERTY_EAGER_DATA_INIT), false);
+		if (!enabled)
+		{
+			return false;
+		}
+		
+		JRFillContext fillContext = filler.getFillContext();
+		if (fillContext.hasDataSnapshot() || fillContext.getDataRecorder() != null)
+		{
+			// data snapshots are not meant for concurrent access
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill " + filler.fillerId + ": not using eager data initialization with data snapshots");
+			}
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Starts the eager initialization of a dataset.
+	 * 
+	 * @param filler the filler of the element
+	 * @param dataset the dataset that is initialized, closed if the initialization is discarded
+	 * @param parameterValues the parameter values, used to set the fill resources context
+	 * @param initializer the initialization to perform
+	 * @return the started initialization, which is to be either joined or discarded
+	 */
+	public static EagerDatasetInit start(BaseReportFiller filler, JRFillDataset dataset, 
+			Map<String, Object> parameterValues, Initializer initializer)
+	{
+		InitExecutor executor = getExecutor(filler);
+		AtomicBoolean started = new AtomicBoolean();
+		Future<Void> future = executor.submit(() -> 
+		{
+			if (!started.compareAndSet(false, true))
+			{
+				// discarded before starting
+				return null;
+			}
+			
+			JRResourcesFillUtil.ResourcesFillContext resourcesContext = 
+					JRResourcesFillUtil.setResourcesFillContext(parameterValues);
+			try
+			{
+				initializer.initialize();
+			}
+			finally
+			{
+				JRResourcesFillUtil.revertResourcesFillContext(resourcesContext);
+			}
+			return null;
+		});
+		EagerDatasetInit init = new EagerDatasetInit(executor, dataset, started, future);
+		executor.add(init);
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("Fill " + filler.fillerId + ": started eager data initialization for dataset " + dataset.getName());
+		}
+		
+		return init;
+	}
+	
+	protected static InitExecutor getExecutor(BaseReportFiller filler)
+	{
+		JRFillContext fillContext = filler.getFillContext();
+		InitExecutor executor = (InitExecutor) fillContext.getFillCache(EXECUTOR_KEY);
+		if (executor == null)
+		{
+			int threadCount = JRPropertiesUtil.getInstance(filler.getJasperReportsContext()).getIntegerProperty(
+					fillContext.getMasterFiller().getJasperReport(), PROPERTY_THREAD_COUNT, 4);
+			executor = new InitExecutor(fillContext, Math.max(1, threadCount));
+			fillContext.setFillCache(EXECUTOR_KEY, executor);
+		}
+		return executor;
+	}
+	
+	private final InitExecutor executor;
+	private final JRFillDataset dataset;
+	private final AtomicBoolean started;
+	private final Future<Void> future;
+	
+	protected EagerDatasetInit(InitExecutor executor, JRFillDataset dataset, AtomicBoolean started, Future<Void> future)
+	{
+		this.executor = executor;
+		this.dataset = dataset;
+		this.started = started;
+		this.future = future;
+	}
+	
+	/**
+	 * Waits for the initialization to complete.
+	 * 
+	 * @throws JRException if the initialization has failed
+	 */
+	public void join() throws JRException
+	{
+		executor.remove(this);
+		
+		try
+		{
+			future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_INTERRUPTED, null, e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof JRException)
+			{
+				throw (JRException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new JRException(cause);
+		}
+	}
+	
+	/**
+	 * Discards an initialization that is not going to be used, closing the data source if it was created.
+	 */
+	public void discard()
+	{
+		executor.remove(this);
+		
+		if (started.compareAndSet(false, true))
+		{
+			// the initialization did not start, Future.cancel would not tell us if it was running
+			future.cancel(false);
+			return;
+		}
+		
+		try
+		{
+			future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("discarded eager data initialization has failed", e.getCause());
+			}
+		}
+		finally
+		{
+			dataset.closeDatasource();
+			dataset.disposeParameterContributors();
+		}
+	}
+	
+	protected static class InitExecutor implements JRFillContext.FillCacheDisposable
+	{
+		private final ExecutorService executorService;
+		private final Set<EagerDatasetInit> pending;
+		
+		public InitExecutor(JRFillContext fillContext, int threadCount)
+		{
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threadCount, threadCount, 
+					30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new InitThreadFactory(fillContext));
+			threadPool.allowCoreThreadTimeOut(true);
+			this.executorService = threadPool;
+			this.pending = Collections.synchronizedSet(new LinkedHashSet<>());
+		}
+		
+		protected Future<Void> submit(Callable<Void> task)
+		{
+			return executorService.submit(task);
+		}
+		
+		protected void add(EagerDatasetInit init)
+		{
+			pending.add(init);
+		}
+		
+		protected void remove(EagerDatasetInit init)
+		{
+			pending.remove(init);
+		}
+
+		@Override
+		public void dispose()
+		{
+			EagerDatasetInit[] unused;
+			synchronized (pending)
+			{
+				unused = pending.toArray(new EagerDatasetInit[pending.size()]);
+			}
+			
+			for (EagerDatasetInit init : unused)
+			{
+				init.discard();
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("shutting down " + executorService);
+			}
+			
+			executorService.shutdownNow();
+		}
+	}
+	
+	protected static class InitThreadFactory implements ThreadFactory
+	{
+		private final JRFillContext fillContext;
+		private final AtomicInteger threadCount;
+		
+		public InitThreadFactory(JRFillContext fillContext)
+		{
+			this.fillContext = fillContext;
+			this.threadCount = new AtomicInteger();
+		}
+
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			String threadName = fillContext.getMasterFiller().getJasperReport().getName() 
+					+ " eager data #" + threadCount.incrementAndGet();
+			Thread thread = new Thread(r, threadName);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
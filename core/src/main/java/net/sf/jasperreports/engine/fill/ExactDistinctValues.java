@@ -0,0 +1,304 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+
+/**
+ * Distinct values storage that keeps numeric, character and date values as primitive keys 
+ * in open addressing hash sets, and other values in a regular hash set.
+ */
+class ExactDistinctValues extends DistinctValues
+{
+	
+	private final Map<Class<?>, LongHashSet> keys = new HashMap<>(4);
+	private Class<?> lastKeyClass;
+	private LongHashSet lastKeys;
+	private Set<Object> objects;
+	private long size;
+
+	@Override
+	public void add(Object value)
+	{
+		Class<?> keyClass = getKeyClass(value);
+		boolean added;
+		if (keyClass == null)
+		{
+			if (objects == null)
+			{
+				objects = new HashSet<>();
+			}
+			added = objects.add(value);
+		}
+		else
+		{
+			added = getKeys(keyClass).add(getKey(value, keyClass));
+		}
+		
+		if (added)
+		{
+			++size;
+		}
+	}
+
+	@Override
+	public long countWith(Object value)
+	{
+		return size + (value == null || contains(value) ? 0 : 1);
+	}
+	
+	protected boolean contains(Object value)
+	{
+		Class<?> keyClass = getKeyClass(value);
+		if (keyClass == null)
+		{
+			return objects != null && objects.contains(value);
+		}
+		
+		LongHashSet classKeys = keyClass == lastKeyClass ? lastKeys : keys.get(keyClass);
+		return classKeys != null && classKeys.contains(getKey(value, keyClass));
+	}
+	
+	protected LongHashSet getKeys(Class<?> keyClass)
+	{
+		if (keyClass != lastKeyClass)
+		{
+			lastKeys = keys.get(keyClass);
+			if (lastKeys == null)
+			{
+				lastKeys = new LongHashSet();
+				keys.put(keyClass, lastKeys);
+			}
+			lastKeyClass = keyClass;
+		}
+		return lastKeys;
+	}
+
+	@Override
+	public void clear()
+	{
+		for (LongHashSet classKeys : keys.values())
+		{
+			classKeys.clear();
+		}
+		if (objects != null)
+		{
+			objects.clear();
+		}
+		size = 0;
+	}
+
+	@Override
+	public DistinctValues createEmpty()
+	{
+		return new ExactDistinctValues();
+	}
+
+	@Override
+	public void addAll(DistinctValues values)
+	{
+		if (!(values instanceof ExactDistinctValues))
+		{
+			throw incompatibleValues(values);
+		}
+		
+		ExactDistinctValues exactValues = (ExactDistinctValues) values;
+		for (Map.Entry<Class<?>, LongHashSet> entry : exactValues.keys.entrySet())
+		{
+			LongHashSet classKeys = getKeys(entry.getKey());
+			entry.getValue().forEach(key -> 
+			{
+				if (classKeys.add(key))
+				{
+					++size;
+				}
+			});
+		}
+		
+		if (exactValues.objects != null)
+		{
+			for (Object value : exactValues.objects)
+			{
+				add(value);
+			}
+		}
+	}
+	
+	@Override
+	protected String getDescription()
+	{
+		return "exact values";
+	}
+	
+	protected Map<Class<?>, LongHashSet> getKeys()
+	{
+		return keys;
+	}
+
+	protected Set<Object> getObjects()
+	{
+		return objects;
+	}
+
+	
+	/**
+	 * Open addressing hash set of <code>long</code> values, using linear probing.
+	 */
+	protected static class LongHashSet
+	{
+		private static final int INITIAL_CAPACITY = 16;
+		private static final int SHRINK_CAPACITY = 1 << 12;
+		
+		private long[] table;
+		private int mask;
+		private int size;
+		private boolean hasZero;
+		
+		public LongHashSet()
+		{
+			allocate(INITIAL_CAPACITY);
+		}
+		
+		private void allocate(int capacity)
+		{
+			table = new long[capacity];
+			mask = capacity - 1;
+		}
+		
+		public boolean add(long key)
+		{
+			if (key == 0)
+			{
+				if (hasZero)
+				{
+					return false;
+				}
+				hasZero = true;
+				++size;
+				return true;
+			}
+			
+			int index = index(key);
+			while (table[index] != 0)
+			{
+				if (table[index] == key)
+				{
+					return false;
+				}
+				index = (index + 1) & mask;
+			}
+			
+			table[index] = key;
+			++size;
+			if (2 * size > table.length)
+			{
+				rehash();
+			}
+			return true;
+		}
+		
+		public boolean contains(long key)
+		{
+			if (key == 0)
+			{
+				return hasZero;
+			}
+			
+			int index = index(key);
+			while (table[index] != 0)
+			{
+				if (table[index] == key)
+				{
+					return true;
+				}
+				index = (index + 1) & mask;
+			}
+			return false;
+		}
+		
+		private int index(long key)
+		{
+			return (int) mix(key) & mask;
+		}
+		
+		private void rehash()
+		{
+			long[] oldTable = table;
+			allocate(2 * oldTable.length);
+			for (long key : oldTable)
+			{
+				if (key != 0)
+				{
+					int index = index(key);
+					while (table[index] != 0)
+					{
+						index = (index + 1) & mask;
+					}
+					table[index] = key;
+				}
+			}
+		}
+		
+		public void clear()
+		{
+			if (table.length > SHRINK_CAPACITY && 8 * size < table.length)
+			{
+				// not keeping large tables that are mostly empty
+				allocate(INITIAL_CAPACITY);
+			}
+			else
+			{
+				Arrays.fill(table, 0);
+			}
+			size = 0;
+			hasZero = false;
+		}
+		
+		public int size()
+		{
+			return size;
+		}
+		
+		public void forEach(LongConsumer consumer)
+		{
+			if (hasZero)
+			{
+				consumer.accept(0);
+			}
+			for (long key : table)
+			{
+				if (key != 0)
+				{
+					consumer.accept(key);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,365 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.data.RandomAccessDataSource;
+import net.sf.jasperreports.engine.fill.DatasetSortInfo.RecordField;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+
+/**
+ * Sorted data source that merges sorted runs of records spilled to temporary files.
+ * 
+ * <p>
+ * Only the current record of each run is kept in memory while iterating, 
+ * along with the indexes of the records included by the dataset filter.
+ * </p>
+ * 
+ * @see DatasetSortUtil#PROPERTY_SORT_SPILL_THRESHOLD
+ */
+public class ExternalSortedDataSource implements SortedRecordsDataSource
+{
+	
+	private static final Log log = LogFactory.getLog(ExternalSortedDataSource.class);
+	
+	private final JRDataSource originalDataSource;
+	private final JRVirtualizationContext virtualizationContext;
+	private final DataSourceComparator comparator;
+	private final List<SortRunFile> runs;
+	private final int fieldCount;
+	private final int recordCount;
+	private final Map<String, Integer> columnNamesMap = new HashMap<>();
+	
+	private int[] filteredIndexes;
+	
+	private List<SortRunFile.Reader> readers;
+	private PriorityQueue<RunCursor> mergeQueue;
+	private RunCursor currentCursor;
+	private SortRecord currentRecord;
+	
+	protected ExternalSortedDataSource(DatasetSortInfo sortInfo, DataSourceComparator comparator,
+			JRVirtualizationContext virtualizationContext, List<SortRunFile> runs)
+	{
+		this.originalDataSource = sortInfo.getOriginalDataSource();
+		this.virtualizationContext = virtualizationContext;
+		this.comparator = comparator;
+		this.runs = runs;
+		this.fieldCount = sortInfo.getRecordFields().size();
+		
+		int count = 0;
+		for (SortRunFile run : runs)
+		{
+			count += run.getRecordCount();
+		}
+		this.recordCount = count;
+		
+		for (ListIterator<RecordField> it = sortInfo.getRecordFields().listIterator(); it.hasNext();)
+		{
+			RecordField recordField = it.next();
+			if (!recordField.isVariable())
+			{
+				columnNamesMap.put(recordField.getName(), it.previousIndex());
+			}
+		}
+	}
+
+	@Override
+	public JRDataSource getOriginalDataSource() throws JRException
+	{
+		if (currentRecord != null && originalDataSource instanceof RandomAccessDataSource)
+		{
+			RandomAccessDataSource dataSource = (RandomAccessDataSource) originalDataSource;
+			if (dataSource.currentIndex() != currentRecord.getOriginalRecordIndex())
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("moving original data source to record " + currentRecord.getOriginalRecordIndex());
+				}
+				dataSource.moveToRecord(currentRecord.getOriginalRecordIndex());
+			}
+		}
+		
+		return originalDataSource;
+	}
+
+	@Override
+	public boolean next() throws JRException
+	{
+		try
+		{
+			if (mergeQueue == null)
+			{
+				openReaders();
+			}
+			else if (currentCursor != null && currentCursor.advance())
+			{
+				mergeQueue.add(currentCursor);
+			}
+			
+			currentCursor = mergeQueue.poll();
+			if (currentCursor == null)
+			{
+				currentRecord = null;
+				return false;
+			}
+			
+			currentRecord = currentCursor.record;
+			applyFilteredIndex(currentRecord);
+			return true;
+		}
+		catch (IOException e)
+		{
+			throw new JRException(e);
+		}
+	}
+
+	protected void openReaders() throws IOException
+	{
+		readers = new ArrayList<>(runs.size());
+		mergeQueue = new PriorityQueue<>(Math.max(runs.size(), 1), new RunCursorComparator());
+		for (int i = 0; i < runs.size(); i++)
+		{
+			SortRunFile.Reader reader = runs.get(i).openReader(virtualizationContext, fieldCount);
+			readers.add(reader);
+			
+			RunCursor cursor = new RunCursor(i, reader);
+			if (cursor.advance())
+			{
+				mergeQueue.add(cursor);
+			}
+		}
+		currentCursor = null;
+	}
+
+	protected void closeReaders()
+	{
+		if (readers != null)
+		{
+			for (SortRunFile.Reader reader : readers)
+			{
+				reader.close();
+			}
+			readers = null;
+		}
+		mergeQueue = null;
+		currentCursor = null;
+		currentRecord = null;
+	}
+	
+	protected void applyFilteredIndex(SortRecord record)
+	{
+		if (filteredIndexes != null)
+		{
+			int filteredIndex = filteredIndexes[record.getOriginalRecordIndex()];
+			if (filteredIndex >= 0)
+			{
+				record.markFiltered();
+				record.setRecordIndex(filteredIndex);
+			}
+		}
+	}
+
+	@Override
+	public void setRecordFilteredIndex(int index)
+	{
+		if (filteredIndexes == null)
+		{
+			filteredIndexes = new int[recordCount];
+			Arrays.fill(filteredIndexes, -1);
+		}
+		
+		filteredIndexes[currentRecord.getOriginalRecordIndex()] = index;
+		currentRecord.markFiltered();
+		currentRecord.setRecordIndex(index);
+	}
+
+	@Override
+	public Object getFieldValue(JRField jrField)
+	{
+		Integer fieldIndex = columnNamesMap.get(jrField.getName());
+		if (fieldIndex == null)
+		{
+			throw 
+				new JRRuntimeException(
+					SortedDataSource.EXCEPTION_MESSAGE_KEY_FIELD_NOT_FOUND,
+					new Object[]{jrField.getName()});
+		}
+		return currentRecord.fieldValue(fieldIndex);
+	}
+
+	@Override
+	public void moveFirst()
+	{
+		closeReaders();
+	}
+
+	@Override
+	public int getRecordIndex()
+	{
+		return currentRecord.getRecordIndex();
+	}
+
+	public int getRecordCount()
+	{
+		return recordCount;
+	}
+
+	@Override
+	public Iterator<SortRecord> originalOrderRecords()
+	{
+		return new OriginalOrderIterator();
+	}
+
+	@Override
+	public void dispose()
+	{
+		closeReaders();
+		
+		for (SortRunFile run : runs)
+		{
+			run.dispose();
+		}
+	}
+	
+	protected static class RunCursor
+	{
+		private final int runIndex;
+		private final SortRunFile.Reader reader;
+		private SortRecord record;
+		
+		protected RunCursor(int runIndex, SortRunFile.Reader reader)
+		{
+			this.runIndex = runIndex;
+			this.reader = reader;
+		}
+		
+		protected boolean advance() throws IOException
+		{
+			record = reader.next();
+			return record != null;
+		}
+	}
+	
+	protected class RunCursorComparator implements Comparator<RunCursor>
+	{
+		@Override
+		public int compare(RunCursor cursor1, RunCursor cursor2)
+		{
+			int ret = comparator.compareRecords(cursor1.record.getValues(), cursor2.record.getValues());
+			if (ret == 0)
+			{
+				// runs follow the original record order, this keeps the merge stable
+				ret = Integer.compare(cursor1.runIndex, cursor2.runIndex);
+			}
+			return ret;
+		}
+	}
+	
+	/**
+	 * Iterates the records run by run, reordering each run in memory.
+	 */
+	protected class OriginalOrderIterator implements Iterator<SortRecord>
+	{
+		private int runIndex;
+		private SortRecord[] runRecords;
+		private int recordIndex;
+		
+		@Override
+		public boolean hasNext()
+		{
+			while (runRecords == null || recordIndex >= runRecords.length)
+			{
+				if (runIndex >= runs.size())
+				{
+					runRecords = null;
+					return false;
+				}
+				
+				readRun(runs.get(runIndex));
+				++runIndex;
+			}
+			return true;
+		}
+		
+		protected void readRun(SortRunFile run)
+		{
+			runRecords = new SortRecord[run.getRecordCount()];
+			recordIndex = 0;
+			
+			try
+			{
+				SortRunFile.Reader reader = run.openReader(virtualizationContext, fieldCount);
+				try
+				{
+					SortRecord record;
+					while ((record = reader.next()) != null)
+					{
+						applyFilteredIndex(record);
+						runRecords[record.getOriginalRecordIndex() - run.getStartIndex()] = record;
+					}
+				}
+				finally
+				{
+					reader.close();
+				}
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+		}
+
+		@Override
+		public SortRecord next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			
+			SortRecord record = runRecords[recordIndex];
+			runRecords[recordIndex] = null;
+			++recordIndex;
+			return record;
+		}
+	}
+}
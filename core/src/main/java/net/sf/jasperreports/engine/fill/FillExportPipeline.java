@@ -0,0 +1,676 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.export.Exporter;
+import net.sf.jasperreports.export.ExporterInput;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.StreamedPages;
+import net.sf.jasperreports.export.StreamingJasperPrint;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Exports a report while it is being filled.
+ * <p>
+ * The report is filled by an asynchronous {@link FillHandle} and the exporter runs on the calling thread.
+ * Each page is handed to the exporter as soon as the filler reports it as final 
+ * (see {@link FillHandle#isPageFinal(int)}), so that exporting overlaps with filling.
+ * Pages that have been exported are released from the filled report, and the fill waits when it gets too far 
+ * ahead of the export (see {@link #PROPERTY_MAX_PAGES_AHEAD}), so that the memory
+ * used by the report does not grow with the number of pages.
+ * </p>
+ * <p>
+ * Exporters that iterate the pages using {@link StreamedPages#hasPage(List, int)} export the pages
+ * as they become available. Other exporters first wait for the fill to end, as they need the total number of pages.
+ * Pages are released assuming that the exporter reads them in order; 
+ * see {@link #PROPERTY_PAGE_RELEASE_DISTANCE}.
+ * </p>
+ * <p>
+ * The filled report is not usable after the export, as its pages have been released.
+ * </p>
+ */
+public class FillExportPipeline implements AsynchronousFilllListener, FillListener
+{
+	private static final Log log = LogFactory.getLog(FillExportPipeline.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_FILL_CANCELLED = "fill.export.pipeline.fill.cancelled";
+	public static final String EXCEPTION_MESSAGE_KEY_FILL_ERROR = "fill.export.pipeline.fill.error";
+	public static final String EXCEPTION_MESSAGE_KEY_INTERRUPTED = "fill.export.pipeline.interrupted";
+	public static final String EXCEPTION_MESSAGE_KEY_PAGE_RELEASED = "fill.export.pipeline.page.released";
+	
+	/**
+	 * Property that specifies how many pages before the last page requested by the exporter are retained 
+	 * by the fill to export pipeline.
+	 * <p>
+	 * A page is released when the exporter has requested a page that is at least this number of pages after it.
+	 * The value should be larger than the number of pages the exporter reads ahead; 
+	 * a negative value disables releasing pages.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "32",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PAGE_RELEASE_DISTANCE = JRPropertiesUtil.PROPERTY_PREFIX + "fill.export.pipeline.page.release.distance";
+	
+	/**
+	 * Property that specifies how many pages the fill can generate ahead of the last page requested by the exporter.
+	 * <p>
+	 * When the fill gets further ahead, it waits for the exporter to request more pages, 
+	 * so that pages are not accumulated when the export is slower than the fill.
+	 * The fill does not wait while the exporter is itself waiting for the fill, 
+	 * for instance for a page that has elements evaluated at a later time to become final.
+	 * A zero or negative value disables the limit.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "32",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MAX_PAGES_AHEAD = JRPropertiesUtil.PROPERTY_PREFIX + "fill.export.pipeline.max.pages.ahead";
+	
+	private static final JRPrintPage RELEASED_PAGE = new JRBasePrintPage();
+	
+	private final FillHandle fillHandle;
+	private final int releaseDistance;
+	private final int maxPagesAhead;
+	
+	private final Lock lock;
+	private final Condition pageCondition;
+	
+	private JasperPrint fillingJasperPrint;
+	private int generatedPageCount;
+	private long updateCount;
+	private boolean done;
+	private boolean cancelled;
+	private Throwable error;
+	
+	private int requestedPageIndex = -1;
+	private int releasedPageCount;
+	private boolean exportWaiting;
+	private boolean exportEnded;
+	
+	/**
+	 * Creates a pipeline for a fill.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param fillHandle the handle of the fill, which should not have been started
+	 */
+	public FillExportPipeline(JasperReportsContext jasperReportsContext, FillHandle fillHandle)
+	{
+		this.fillHandle = fillHandle;
+		this.releaseDistance = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+				PROPERTY_PAGE_RELEASE_DISTANCE, 32);
+		this.maxPagesAhead = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+				PROPERTY_MAX_PAGES_AHEAD, 32);
+		this.lock = new ReentrantLock();
+		this.pageCondition = lock.newCondition();
+	}
+
+	/**
+	 * Starts the fill and exports the report while it is being filled.
+	 * <p>
+	 * The method returns after both the fill and the export have ended.
+	 * If the export fails, the fill is cancelled.
+	 * </p>
+	 * 
+	 * @param exporter the exporter, with its output and configuration already set
+	 * @throws JRException if the fill or the export fail
+	 */
+	public void export(Exporter<ExporterInput, ?, ?, ?> exporter) throws JRException
+	{
+		fillHandle.addListener(this);
+		fillHandle.addFillListener(this);
+		fillHandle.startFill();
+		
+		boolean exported = false;
+		try
+		{
+			JasperPrint jasperPrint = waitForReport();
+			exporter.setExporterInput(new SimpleExporterInput(new StreamingJasperPrint(jasperPrint, new PipelinePages())));
+			exporter.exportReport();
+			exported = true;
+		}
+		catch (JRRuntimeException e)
+		{
+			// the pages throw runtime exceptions when the fill fails
+			throw new JRException(e);
+		}
+		finally
+		{
+			endExport();
+			
+			if (!exported)
+			{
+				cancelFill();
+			}
+		}
+		
+		waitForFillEnd();
+	}
+	
+	protected JasperPrint waitForReport() throws JRException
+	{
+		lock();
+		try
+		{
+			// the report is available with the first generated page or at the end of the fill
+			while (fillingJasperPrint == null && !done)
+			{
+				awaitFill();
+			}
+			
+			checkFillStatus();
+			return fillingJasperPrint;
+		}
+		catch (JRRuntimeException e)
+		{
+			throw new JRException(e);
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+	
+	protected void waitForFillEnd() throws JRException
+	{
+		lock();
+		try
+		{
+			while (!done)
+			{
+				awaitFill();
+			}
+			
+			checkFillStatus();
+		}
+		catch (JRRuntimeException e)
+		{
+			throw new JRException(e);
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+	
+	protected void endExport()
+	{
+		lock.lock();
+		try
+		{
+			// the fill no longer waits for the exporter
+			exportEnded = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	protected void cancelFill()
+	{
+		boolean fillDone;
+		lock();
+		try
+		{
+			fillDone = done;
+		}
+		finally
+		{
+			unlock();
+		}
+		
+		if (!fillDone)
+		{
+			try
+			{
+				fillHandle.cancellFill();
+			}
+			catch (JRException | IllegalStateException e)
+			{
+				// ignore, including the fill having ended meanwhile, let the export exception propagate
+				if (log.isDebugEnabled())
+				{
+					log.debug("Failed to cancel fill", e);
+				}
+			}
+		}
+	}
+	
+	protected void checkFillStatus()
+	{
+		if (cancelled)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_FILL_CANCELLED,
+					(Object[])null);
+		}
+		
+		if (error != null)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_FILL_ERROR,
+					(Object[])null,
+					error);
+		}
+	}
+
+	protected void lock()
+	{
+		try
+		{
+			lock.lockInterruptibly();
+		}
+		catch (InterruptedException e)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_INTERRUPTED,
+					(Object[])null,
+					e);
+		}
+	}
+
+	protected void unlock()
+	{
+		lock.unlock();
+	}
+	
+	protected void await()
+	{
+		try
+		{
+			pageCondition.await();
+		}
+		catch (InterruptedException e)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_INTERRUPTED,
+					(Object[])null,
+					e);
+		}
+	}
+	
+	/**
+	 * Called by the exporter to wait for the fill, letting the fill proceed even if it is ahead of the export.
+	 */
+	protected void awaitFill()
+	{
+		exportWaiting = true;
+		// wake up the fill if it waits for the exporter
+		pageCondition.signalAll();
+		try
+		{
+			await();
+		}
+		finally
+		{
+			exportWaiting = false;
+		}
+	}
+	
+	protected void fillProgressed()
+	{
+		++updateCount;
+		// the exporter checks again whether it needs to wait for the fill
+		exportWaiting = false;
+		pageCondition.signalAll();
+	}
+	
+	protected boolean isFillAhead(int pageIndex)
+	{
+		return maxPagesAhead > 0 && !exportWaiting && !exportEnded 
+				&& pageIndex - requestedPageIndex > maxPagesAhead;
+	}
+	
+	protected boolean waitForPage(int pageIndex)
+	{
+		lock();
+		try
+		{
+			while (!done && pageIndex >= generatedPageCount)
+			{
+				awaitFill();
+			}
+			
+			checkFillStatus();
+			return pageIndex < getPageCount();
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+	
+	protected int getPageCount()
+	{
+		// at the end of the fill the last page is also available, as it does not get a pageGenerated notification
+		return done ? fillingJasperPrint.getPages().size() : generatedPageCount;
+	}
+	
+	protected void waitForFinalPage(int pageIndex)
+	{
+		while (true)
+		{
+			long pageUpdateCount;
+			lock();
+			try
+			{
+				if (pageIndex < releasedPageCount)
+				{
+					throw 
+						new JRRuntimeException(
+							EXCEPTION_MESSAGE_KEY_PAGE_RELEASED,
+							new Object[]{pageIndex});
+				}
+				
+				while (!done && pageIndex >= generatedPageCount)
+				{
+					awaitFill();
+				}
+				
+				checkFillStatus();
+				if (done)
+				{
+					return;
+				}
+				
+				pageUpdateCount = updateCount;
+			}
+			finally
+			{
+				unlock();
+			}
+			
+			// not calling the filler while holding the lock, 
+			// because the filler calls the listener while holding the virtualization context lock
+			if (fillHandle.isPageFinal(pageIndex))
+			{
+				return;
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("waiting for page " + pageIndex + " to be final");
+			}
+			
+			lock();
+			try
+			{
+				while (!done && updateCount == pageUpdateCount)
+				{
+					awaitFill();
+				}
+			}
+			finally
+			{
+				unlock();
+			}
+		}
+	}
+	
+	protected JRPrintPage getPage(int pageIndex)
+	{
+		waitForFinalPage(pageIndex);
+		
+		JRPrintPage page;
+		synchronized (fillingJasperPrint)
+		{
+			page = fillingJasperPrint.getPages().get(pageIndex);
+		}
+		
+		if (pageIndex > requestedPageIndex)
+		{
+			lock();
+			try
+			{
+				requestedPageIndex = pageIndex;
+				// let the fill continue if it waits for the exporter
+				pageCondition.signalAll();
+			}
+			finally
+			{
+				unlock();
+			}
+			
+			releasePages(pageIndex - releaseDistance);
+		}
+		
+		return page;
+	}
+	
+	protected void releasePages(int endPageIndex)
+	{
+		if (releaseDistance < 0)
+		{
+			return;
+		}
+		
+		while (releasedPageCount < endPageIndex)
+		{
+			int pageIndex;
+			lock();
+			try
+			{
+				pageIndex = releasedPageCount++;
+			}
+			finally
+			{
+				unlock();
+			}
+			
+			JRPrintPage page;
+			synchronized (fillingJasperPrint)
+			{
+				page = fillingJasperPrint.getPages().set(pageIndex, RELEASED_PAGE);
+			}
+			
+			if (page instanceof JRVirtualPrintPage)
+			{
+				((JRVirtualPrintPage) page).dispose();
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("released page " + pageIndex);
+			}
+		}
+	}
+
+	@Override
+	public void pageGenerated(JasperPrint jasperPrint, int pageIndex)
+	{
+		lock();
+		try
+		{
+			if (fillingJasperPrint == null)
+			{
+				fillingJasperPrint = jasperPrint;
+			}
+			
+			generatedPageCount = pageIndex + 1;
+			fillProgressed();
+			
+			// the filler does not hold the virtualization context lock when it reports a generated page,
+			// so waiting here does not keep the exporter from checking whether pages are final.
+			// page updates are reported under the lock and never wait.
+			while (isFillAhead(pageIndex))
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("page " + pageIndex + " is ahead of exported page " + requestedPageIndex + ", waiting");
+				}
+				
+				await();
+			}
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+
+	@Override
+	public void pageUpdated(JasperPrint jasperPrint, int pageIndex)
+	{
+		lock();
+		try
+		{
+			fillProgressed();
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+
+	@Override
+	public void reportFinished(JasperPrint jasperPrint)
+	{
+		lock();
+		try
+		{
+			if (fillingJasperPrint == null)
+			{
+				fillingJasperPrint = jasperPrint;
+			}
+			
+			done = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+
+	@Override
+	public void reportCancelled()
+	{
+		lock();
+		try
+		{
+			cancelled = true;
+			done = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+
+	@Override
+	public void reportFillError(Throwable t)
+	{
+		lock();
+		try
+		{
+			error = t;
+			done = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			unlock();
+		}
+	}
+	
+	protected class PipelinePages extends AbstractList<JRPrintPage> implements StreamedPages
+	{
+		@Override
+		public boolean waitForPage(int pageIndex)
+		{
+			return FillExportPipeline.this.waitForPage(pageIndex);
+		}
+
+		@Override
+		public JRPrintPage get(int index)
+		{
+			if (!waitForPage(index))
+			{
+				throw new IndexOutOfBoundsException("Page index: " + index);
+			}
+			
+			return getPage(index);
+		}
+
+		@Override
+		public int size()
+		{
+			lock();
+			try
+			{
+				while (!done)
+				{
+					awaitFill();
+				}
+				
+				checkFillStatus();
+				return getPageCount();
+			}
+			finally
+			{
+				unlock();
+			}
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return !waitForPage(0);
+		}
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.ContextValues;
+import net.sf.jasperreports.properties.PropertyConstants;
+import net.sf.jasperreports.repo.ResourceInfo;
+import net.sf.jasperreports.repo.ResourcePathKey;
+
+/**
+ * Size bounded cache of subreports and style templates loaded from the repository, shared by the fills 
+ * that run in a JasperReports context.
+ * <p>
+ * Within a fill, loaded resources are kept by {@link JRFillContext}. This cache keeps them across fills,
+ * so that the same compiled reports and templates are not deserialized and parsed again by every fill.
+ * Entries are keyed by the resource key reported by the repository (see {@link ResourceInfo#getResourceKey()}),
+ * which identifies the resource across repository roots, and are validated against the resource version 
+ * (see {@link ResourceInfo#getResourceVersion()}) every time they are used;
+ * resources for which the repository does not provide a key and a version are not cached.
+ * </p>
+ * <p>
+ * The cache is disabled by default and is enabled by setting {@link #PROPERTY_CACHE_SIZE} to a positive value.
+ * </p>
+ */
+public class FillResourceCache
+{
+	private static final Log log = LogFactory.getLog(FillResourceCache.class);
+	
+	/**
+	 * Property that specifies the maximum number of subreports and templates kept by the cache shared by fills.
+	 * <p>
+	 * The default value is 0, which means that resources are only cached for the duration of a fill.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_CACHE_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "fill.resource.cache.size";
+	
+	/**
+	 * Loads a resource that is not found in the cache.
+	 */
+	@FunctionalInterface
+	public interface ResourceLoader<T>
+	{
+		T load() throws JRException;
+	}
+	
+	private static final String CONTEXT_KEY_CACHE = "net.sf.jasperreports.fill.resource.cache";
+
+	/**
+	 * Returns the cache used for a JasperReports context, or <code>null</code> if the cache is not enabled.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @return the cache for the context, or <code>null</code>
+	 */
+	public static FillResourceCache getInstance(JasperReportsContext jasperReportsContext)
+	{
+		int cacheSize = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(PROPERTY_CACHE_SIZE, 0);
+		if (cacheSize <= 0)
+		{
+			return null;
+		}
+		
+		return ContextValues.getOwnValue(jasperReportsContext, CONTEXT_KEY_CACHE, FillResourceCache.class, 
+				() -> new FillResourceCache(cacheSize));
+	}
+	
+	private final Map<ResourcePathKey, CachedResource> resources;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder loadTime = new LongAdder();
+	
+	public FillResourceCache(final int maxSize)
+	{
+		resources = new LinkedHashMap<ResourcePathKey, CachedResource>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ResourcePathKey, CachedResource> eldest)
+			{
+				return size() > maxSize;
+			}
+		};
+	}
+	
+	/**
+	 * Returns a cached resource, loading it if not found in the cache or if the cached version is outdated.
+	 * 
+	 * @param key the key of the resource, see {@link ResourceInfo#getResourceKey()}
+	 * @param version the current version of the resource as reported by the repository
+	 * @param type the type of the resource
+	 * @param loader loads the resource when not cached
+	 * @return the resource
+	 * @throws JRException if the resource fails to load
+	 */
+	public <T> T get(ResourcePathKey key, String version, Class<T> type, ResourceLoader<T> loader) throws JRException
+	{
+		CachedResource cached;
+		synchronized (resources)
+		{
+			cached = resources.get(key);
+			if (cached != null && !(cached.version.equals(version) && type.isInstance(cached.resource)))
+			{
+				resources.remove(key);
+				invalidations.increment();
+				cached = null;
+			}
+		}
+		
+		if (cached != null)
+		{
+			hits.increment();
+			if (log.isDebugEnabled())
+			{
+				log.debug("found cached resource " + key + ", version " + version);
+			}
+			return type.cast(cached.resource);
+		}
+		
+		misses.increment();
+		long start = System.nanoTime();
+		T resource = loader.load();
+		loadTime.add(System.nanoTime() - start);
+		
+		if (resource != null)
+		{
+			synchronized (resources)
+			{
+				resources.put(key, new CachedResource(version, resource));
+			}
+		}
+		return resource;
+	}
+
+	/**
+	 * Removes a resource from the cache.
+	 */
+	public void invalidate(ResourcePathKey key)
+	{
+		synchronized (resources)
+		{
+			resources.remove(key);
+		}
+	}
+
+	/**
+	 * Removes all resources from the cache.
+	 */
+	public void clear()
+	{
+		synchronized (resources)
+		{
+			resources.clear();
+		}
+	}
+	
+	public int size()
+	{
+		synchronized (resources)
+		{
+			return resources.size();
+		}
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of cached resources that were discarded because the repository reported a different version.
+	 */
+	public long getInvalidationCount()
+	{
+		return invalidations.sum();
+	}
+
+	/**
+	 * Returns the total time in nanoseconds spent loading resources on cache misses.
+	 */
+	public long getLoadTime()
+	{
+		return loadTime.sum();
+	}
+
+	/**
+	 * Estimates the loading time in nanoseconds saved by the cache, based on the average loading time of cache misses.
+	 */
+	public long getSavedLoadTime()
+	{
+		long missCount = getMissCount();
+		return missCount == 0 ? 0 : getLoadTime() / missCount * getHitCount();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "FillResourceCache{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() 
+				+ ", invalidations=" + getInvalidationCount() + ", loadTime=" + getLoadTime() / 1000000 + "ms"
+				+ ", savedLoadTime=" + getSavedLoadTime() / 1000000 + "ms}";
+	}
+	
+	private static class CachedResource
+	{
+		final String version;
+		final Object resource;
+		
+		CachedResource(String version, Object resource)
+		{
+			this.version = version;
+			this.resource = resource;
+		}
+	}
+}
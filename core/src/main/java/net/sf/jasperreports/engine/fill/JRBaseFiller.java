@@ -202,6 +202,8 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 	 * Collection of subfillers
 	 */
 	protected Map<Integer, JRBaseFiller> subfillers;
+	
+	private volatile EagerDatasetInit eagerDataInit;
 
 	private boolean bandOverFlowAllowed;
 
@@ -566,7 +568,12 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 			log.debug("Fill " + fillerId + ": filling report");
 		}
 
-		setParametersToContext(parameterValues);
+		EagerDatasetInit dataInit = eagerDataInit;
+		eagerDataInit = null;
+		if (dataInit == null)
+		{
+			setParametersToContext(parameterValues);
+		}
 
 		fillingThread = Thread.currentThread();
 		
@@ -583,7 +590,15 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 				getBandReportParent().registerSubfiller(this);
 			}
 
-			setParameters(parameterValues);
+			if (dataInit == null)
+			{
+				setParameters(parameterValues);
+			}
+			else
+			{
+				// parameters and data source initialized by startEagerDataInit
+				dataInit.join();
+			}
 
 			setBookmarkHelper();
 			
@@ -988,6 +1003,37 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 	@continuable
 	protected abstract void fillReport() throws JRException;
 
+	/**
+	 * Starts setting the parameter values and initializing the data source of this subreport filler
+	 * on a separate thread, ahead of the fill.
+	 * <p>
+	 * The subsequent call of {@link #fill(Map)} waits for the initialization to complete.
+	 * </p>
+	 * 
+	 * @param parameterValues the parameter values that will be passed to the fill
+	 * @see EagerDatasetInit
+	 */
+	protected void startEagerDataInit(Map<String,Object> parameterValues)
+	{
+		setParametersToContext(parameterValues);
+		
+		eagerDataInit = EagerDatasetInit.start(this, mainDataset, parameterValues, 
+				() -> setParameters(parameterValues));
+	}
+
+	/**
+	 * Discards an eager data initialization if the fill has not been started.
+	 */
+	protected void discardEagerDataInit()
+	{
+		EagerDatasetInit dataInit = eagerDataInit;
+		if (dataInit != null)
+		{
+			eagerDataInit = null;
+			dataInit.discard();
+		}
+	}
+
 	@Override
 	protected void ignorePaginationSet(Map<String, Object> parameterValues)
 	{
@@ -30,14 +30,18 @@ package net.sf.jasperreports.engine.fill;
 
 import java.util.Map;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.type.CalculationEnum;
 import net.sf.jasperreports.engine.type.DatasetResetTypeEnum;
 import net.sf.jasperreports.engine.type.IncrementTypeEnum;
 import net.sf.jasperreports.engine.type.ResetTypeEnum;
 import net.sf.jasperreports.engine.type.WhenResourceMissingTypeEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -66,6 +70,49 @@ import net.sf.jasperreports.engine.type.WhenResourceMissingTypeEnum;
 public class JRCalculator implements JRFillExpressionEvaluator
 {
 
+	/**
+	 * Property that specifies whether the values of count, sum, average, variance and standard deviation variables
+	 * of type <code>java.lang.Double</code>, <code>java.lang.Long</code> or <code>java.lang.Integer</code> 
+	 * (count and sum only) are accumulated as primitive values, instead of creating a new object
+	 * for each record.
+	 * The objects holding the variable values are created only when the values are read.
+	 * <p>
+	 * Only variables that use the default incrementers and are incremented on each record are affected.
+	 * Values are computed with the same arithmetic as the default incrementers, so the results are identical.
+	 * The default value is false.
+	 * </p>
+	 * The property can be set globally, at report or at dataset level. 
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_PRIMITIVE_ACCUMULATORS = JRPropertiesUtil.PROPERTY_PREFIX + "calculator.primitive.accumulators";
+
+	/**
+	 * Property that specifies whether the sums and averages of <code>java.lang.Double</code> variables 
+	 * that are accumulated as primitive values use compensated (Kahan-Babuska-Neumaier) summation,
+	 * which reduces the rounding errors of sums over large numbers of values.
+	 * <p>
+	 * The property only applies when {@link #PROPERTY_PRIMITIVE_ACCUMULATORS} is set.
+	 * The default value is false, in which case values are added exactly as done by the default incrementers.
+	 * </p>
+	 * The property can be set globally, at report or at dataset level. 
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_COMPENSATED_SUM = JRPropertiesUtil.PROPERTY_PREFIX + "calculator.compensated.sum";
+	
+	public static final String EXCEPTION_MESSAGE_KEY_INVALID_DISTINCT_COUNT_PRECISION = "fill.calculator.invalid.distinct.count.precision";
+
 	/**
 	 *
 	 */
@@ -138,6 +185,52 @@ public class JRCalculator implements JRFillExpressionEvaluator
 					true
 					);
 		evaluator.init(parsm, fldsm,varsm, whenResourceMissingType, ignoreNPE);
+
+		JRPropertiesUtil propertiesUtil = JRPropertiesUtil.getInstance(getFillDataset().getJasperReportsContext());
+		if (variables != null && propertiesUtil.getBooleanProperty(getFillDataset(), PROPERTY_PRIMITIVE_ACCUMULATORS, false))
+		{
+			boolean compensatedSum = propertiesUtil.getBooleanProperty(getFillDataset(), PROPERTY_COMPENSATED_SUM, false);
+			for (JRFillVariable variable : variables)
+			{
+				variable.setAccumulator(VariableAccumulator.createAccumulator(variable, compensatedSum));
+			}
+		}
+		
+		if (variables != null)
+		{
+			initApproximateDistinctCounts(propertiesUtil);
+		}
+	}
+
+
+	private void initApproximateDistinctCounts(JRPropertiesUtil propertiesUtil) throws JRException
+	{
+		for (JRFillVariable variable : variables)
+		{
+			if (propertiesUtil.getBooleanProperty(getFillDataset(), 
+					JRDistinctCountIncrementerFactory.PROPERTY_PREFIX_APPROXIMATE + variable.getName(), false))
+			{
+				JRFillVariable countVariable = variable.getCalculation() == CalculationEnum.DISTINCT_COUNT
+					? (JRFillVariable) variable.getHelperVariable(JRCalculable.HELPER_COUNT)
+					: variable;
+				JRIncrementer incrementer = countVariable.getIncrementer();
+				if (incrementer instanceof DistinctValuesIncrementer)
+				{
+					int precision = propertiesUtil.getIntegerProperty(getFillDataset(), 
+							JRDistinctCountIncrementerFactory.PROPERTY_APPROXIMATE_PRECISION, 
+							JRDistinctCountIncrementerFactory.DEFAULT_APPROXIMATE_PRECISION);
+					if (precision < ApproximateDistinctValues.MIN_PRECISION || precision > ApproximateDistinctValues.MAX_PRECISION)
+					{
+						throw 
+							new JRException(
+								EXCEPTION_MESSAGE_KEY_INVALID_DISTINCT_COUNT_PRECISION,
+								new Object[]{precision, ApproximateDistinctValues.MIN_PRECISION, ApproximateDistinctValues.MAX_PRECISION});
+					}
+					
+					((DistinctValuesIncrementer) incrementer).setDistinctValues(new ApproximateDistinctValues(precision));
+				}
+			}
+		}
 	}
 
 
@@ -170,14 +263,17 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			{
 				JRFillVariable variable = variables[i];
 				Object expressionValue = evaluate(variable.getExpression());
-				Object newValue = variable.getIncrementer().increment(variable, expressionValue, AbstractValueProvider.getCurrentValueProvider());
-				variable.setValue(newValue);
+				if (!variable.accumulate(expressionValue, false))
+				{
+					Object newValue = variable.getIncrementer().increment(variable, expressionValue, AbstractValueProvider.getCurrentValueProvider());
+					variable.setValue(newValue);
+				}
 				variable.setInitialized(false);
-				variable.setPreviousIncrementedValue(variable.getIncrementedValue());
+				variable.copySlot(VariableAccumulator.SLOT_INCREMENTED, VariableAccumulator.SLOT_PREVIOUS_INCREMENTED);
 
 				if (variable.getIncrementType() == IncrementTypeEnum.NONE)
 				{
-					variable.setIncrementedValue(variable.getValue());
+					variable.copySlot(VariableAccumulator.SLOT_VALUE, VariableAccumulator.SLOT_INCREMENTED);
 				}
 			}
 		}
@@ -204,7 +300,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 		{
 			for (JRFillVariable variable : variables)
 			{
-				variable.setIncrementedValue(variable.getPreviousIncrementedValue());
+				variable.copySlot(VariableAccumulator.SLOT_PREVIOUS_INCREMENTED, VariableAccumulator.SLOT_INCREMENTED);
 			}
 		}
 		
@@ -223,8 +319,11 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			{
 				JRFillVariable variable = variables[i];
 				Object expressionValue = evaluateEstimated(variable.getExpression());
-				Object newValue = variable.getIncrementer().increment(variable, expressionValue,  AbstractValueProvider.getEstimatedValueProvider());
-				variable.setEstimatedValue(newValue);
+				if (!variable.accumulate(expressionValue, true))
+				{
+					Object newValue = variable.getIncrementer().increment(variable, expressionValue,  AbstractValueProvider.getEstimatedValueProvider());
+					variable.setEstimatedValue(newValue);
+				}
 				//variable.setInitialized(false);
 			}
 		}
@@ -404,7 +503,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 		}
 		else
 		{
-			variable.setIncrementedValue(variable.getValue());
+			variable.copySlot(VariableAccumulator.SLOT_VALUE, VariableAccumulator.SLOT_INCREMENTED);
 //			variable.setValue(
 //				evaluate(variable.getExpression())
 //				);
@@ -23,9 +23,6 @@
  */
 package net.sf.jasperreports.engine.fill;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import net.sf.jasperreports.engine.type.CalculationEnum;
 
 
@@ -76,7 +73,7 @@ public class JRDistinctCountExtendedIncrementerFactory extends JRAbstractExtende
 /**
  *
  */
-class JRDistinctCountExtendedIncrementer extends JRAbstractExtendedIncrementer
+class JRDistinctCountExtendedIncrementer extends JRAbstractExtendedIncrementer implements DistinctValuesIncrementer
 {
 
 	private DistinctCountHolder lastHolder = new DistinctCountHolder();
@@ -117,29 +114,41 @@ class JRDistinctCountExtendedIncrementer extends JRAbstractExtendedIncrementer
 	@Override
 	public Object combine(JRCalculable calculable1, JRCalculable calculable2, AbstractValueProvider valueProvider)
 	{
-		Set<Object> distinctValues = new HashSet<>();
-		
 		DistinctCountHolder holder1  = (DistinctCountHolder)calculable1.getValue();
-		if (holder1 != null)
+		DistinctCountHolder holder2  = (DistinctCountHolder)calculable2.getValue();
+
+		// the combined values are kept after the measures are reset, so they are copied;
+		// approximate values can only be combined into approximate values
+		DistinctCountHolder combined;
+		if (holder1 != null && (holder2 == null || holder1.getDistinctValues() instanceof ApproximateDistinctValues))
 		{
-			distinctValues.addAll(holder1.getDistinctValues());
-			if (holder1.getLastValue() != null)
-			{
-				distinctValues.add(holder1.getLastValue());
-			}
+			combined = holder1.copy();
+			addValues(combined.getDistinctValues(), holder2);
+		}
+		else if (holder2 != null)
+		{
+			combined = holder2.copy();
+			addValues(combined.getDistinctValues(), holder1);
+		}
+		else
+		{
+			combined = new DistinctCountHolder();
 		}
 		
-		DistinctCountHolder holder2  = (DistinctCountHolder)calculable2.getValue();
-		if (holder2 != null)
+		return combined;
+	}
+	
+	
+	private void addValues(DistinctValues distinctValues, DistinctCountHolder holder)
+	{
+		if (holder != null)
 		{
-			distinctValues.addAll(holder2.getDistinctValues());
-			if (holder2.getLastValue() != null)
+			distinctValues.addAll(holder.getDistinctValues());
+			if (holder.getLastValue() != null)
 			{
-				distinctValues.add(holder2.getLastValue());
+				distinctValues.add(holder.getLastValue());
 			}
 		}
-		
-		return new DistinctCountHolder(distinctValues);
 	}
 
 
@@ -150,4 +159,11 @@ class JRDistinctCountExtendedIncrementer extends JRAbstractExtendedIncrementer
 	}
 
 
+	@Override
+	public void setDistinctValues(DistinctValues distinctValues)
+	{
+		lastHolder = new DistinctCountHolder(distinctValues);
+	}
+
+
 }
@@ -23,11 +23,12 @@
  */
 package net.sf.jasperreports.engine.fill;
 
-import java.util.HashSet;
-import java.util.Set;
-
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.type.CalculationEnum;
 import net.sf.jasperreports.engine.type.ResetTypeEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -36,6 +37,48 @@ import net.sf.jasperreports.engine.type.ResetTypeEnum;
 public class JRDistinctCountIncrementerFactory implements JRIncrementerFactory
 {
 
+	/**
+	 * Prefix of the properties that specify whether distinct count variables compute an approximate count
+	 * using a HyperLogLog sketch, instead of keeping all the distinct values.
+	 * <p>
+	 * The name of the variable is appended to the prefix to obtain the property name.
+	 * The approximate count uses a fixed amount of memory regardless of the number of distinct values,
+	 * at the cost of a relative error that depends on {@link #PROPERTY_APPROXIMATE_PRECISION}.
+	 * </p>
+	 * The property can be set globally, at report or at dataset level.
+	 */
+	@Property(
+			name = "net.sf.jasperreports.distinct.count.approximate.{variable_name}",
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_PREFIX_APPROXIMATE = JRPropertiesUtil.PROPERTY_PREFIX + "distinct.count.approximate.";
+
+	/**
+	 * Property that specifies the precision of the HyperLogLog sketches used by approximate distinct counts.
+	 * <p>
+	 * A sketch uses 2<sup>precision</sup> bytes and the relative standard error of the count
+	 * is about 1.04 / sqrt(2<sup>precision</sup>), that is 0.81% for the default precision of 14.
+	 * Allowed values are between 4 and 18.
+	 * </p>
+	 * The property can be set globally, at report or at dataset level.
+	 * 
+	 * @see #PROPERTY_PREFIX_APPROXIMATE
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "14",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_APPROXIMATE_PRECISION = JRPropertiesUtil.PROPERTY_PREFIX + "distinct.count.approximate.precision";
+	
+	public static final int DEFAULT_APPROXIMATE_PRECISION = 14;
+
 
 	/**
 	 *
@@ -71,7 +114,7 @@ public class JRDistinctCountIncrementerFactory implements JRIncrementerFactory
 /**
  *
  */
-class JRDistinctCountIncrementer implements JRIncrementer
+class JRDistinctCountIncrementer implements JRIncrementer, DistinctValuesIncrementer
 {
 
 	private DistinctCountHolder lastHolder = new DistinctCountHolder();
@@ -112,6 +155,24 @@ class JRDistinctCountIncrementer implements JRIncrementer
 	}
 
 
+	@Override
+	public void setDistinctValues(DistinctValues distinctValues)
+	{
+		lastHolder = new DistinctCountHolder(distinctValues);
+	}
+
+
+}
+
+
+/**
+ * Distinct count incrementer that can be configured to keep the distinct values in a specific storage.
+ */
+interface DistinctValuesIncrementer
+{
+	
+	void setDistinctValues(DistinctValues distinctValues);
+	
 }
 
 
@@ -120,15 +181,15 @@ class JRDistinctCountIncrementer implements JRIncrementer
  */
 class DistinctCountHolder
 {
-	private Set<Object> distinctValues;
+	private DistinctValues distinctValues;
 	private Object lastValue;
 
 	public DistinctCountHolder()
 	{
-		distinctValues = new HashSet<>();
+		distinctValues = new ExactDistinctValues();
 	}
 
-	public DistinctCountHolder(Set<Object> distinctValues)
+	public DistinctCountHolder(DistinctValues distinctValues)
 	{
 		this.distinctValues = distinctValues;
 	}
@@ -139,12 +200,33 @@ class DistinctCountHolder
 		this.lastValue = lastValue;
 	}
 
+	/**
+	 * Starts a new count, reusing the storage of the values.
+	 * <p>
+	 * The holders created before the reset share the storage and are no longer read once
+	 * the variable is reset. Holders whose values escape the reset need to be copied, see {@link #copy()}.
+	 * </p>
+	 */
 	public void init()
 	{
-		distinctValues = new HashSet<>();
+		distinctValues.clear();
+	}
+
+	/**
+	 * Creates a holder with its own storage that contains the values of this holder.
+	 */
+	public DistinctCountHolder copy()
+	{
+		DistinctValues values = distinctValues.createEmpty();
+		values.addAll(distinctValues);
+		if (lastValue != null)
+		{
+			values.add(lastValue);
+		}
+		return new DistinctCountHolder(values);
 	}
 
-	public Set<Object> getDistinctValues()
+	public DistinctValues getDistinctValues()
 	{
 		return distinctValues;
 	}
@@ -165,6 +247,6 @@ class DistinctCountHolder
 
 	public long getCount()
 	{
-		return distinctValues.size() + (lastValue == null || distinctValues.contains(lastValue) ? 0 : 1);
+		return distinctValues.countWith(lastValue);
 	}
 }
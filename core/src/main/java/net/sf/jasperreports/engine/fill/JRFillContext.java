@@ -88,7 +88,7 @@ public class JRFillContext
 	private DeduplicableRegistry deduplicableRegistry;
 	private boolean usingVirtualizer;
 	private JRPrintPage printPage;
-	private JRQueryExecuter queryExecuter;
+	private final Map<Thread, JRQueryExecuter> queryExecuters = new HashMap<>();
 	
 	private JasperReportsContext jasperReportsContext;
 	private JRStyledTextUtil styledTextUtil;
@@ -330,7 +330,8 @@ public class JRFillContext
 	 */
 	public synchronized void setRunningQueryExecuter(JRQueryExecuter queryExecuter)
 	{
-		this.queryExecuter = queryExecuter;
+		// queries can run concurrently on eager data initialization threads
+		queryExecuters.put(Thread.currentThread(), queryExecuter);
 	}
 	
 	
@@ -342,7 +343,7 @@ public class JRFillContext
 	 */
 	public synchronized void clearRunningQueryExecuter()
 	{
-		this.queryExecuter = null;
+		queryExecuters.remove(Thread.currentThread());
 	}
 	
 	
@@ -350,16 +351,17 @@ public class JRFillContext
 	 * Cancels the running query.
 	 * 
 	 * @return <code>true</code> if and only if there is a running query and it has been canceled.
+	 * If several queries are running, all of them are canceled.
 	 * @throws JRException
 	 */
 	public synchronized boolean cancelRunningQuery() throws JRException
 	{
-		if (queryExecuter != null)
+		boolean canceled = false;
+		for (JRQueryExecuter queryExecuter : queryExecuters.values())
 		{
-			return queryExecuter.cancelQuery();
+			canceled |= queryExecuter.cancelQuery();
 		}
-		
-		return false;
+		return canceled;
 	}
 	
 	
@@ -1014,9 +1014,10 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 				
 				int recordIndex = 0;
 				// ugly cast
-				List<SortedDataSource.SortRecord> sortRecords = ((SortedDataSource) dataSource).getRecords();
-				for (SortedDataSource.SortRecord sortRecord : sortRecords)
+				Iterator<SortedDataSource.SortRecord> sortRecords = ((SortedRecordsDataSource) dataSource).originalOrderRecords();
+				while (sortRecords.hasNext())
 				{
+					SortedDataSource.SortRecord sortRecord = sortRecords.next();
 					if (sortRecord.isFiltered())
 					{
 						Object[] recordValues = sortRecord.getValues();
@@ -1383,6 +1384,12 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			// if the whole data source was iterated, submit the recorded data
 			cacheEnd();
 		}
+		
+		if (sortedDataSource && dataSource instanceof SortedRecordsDataSource)
+		{
+			// release temporary sort files
+			((SortedRecordsDataSource) dataSource).dispose();
+		}
 	}
 
 	protected void closeQueryExecuter()
@@ -1488,7 +1495,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 							{
 								// mark the record as filtered in the sorted data source
 								// ugly cast
-								((SortedDataSource) dataSource).setRecordFilteredIndex(cacheRecordCount - 1);
+								((SortedRecordsDataSource) dataSource).setRecordFilteredIndex(cacheRecordCount - 1);
 							}
 							else
 							{
@@ -1570,8 +1577,8 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			for (int i = 0; i < variables.length; i++)
 			{
 				JRFillVariable variable = variables[i];
-				variable.setPreviousOldValue(variable.getOldValue());
-				variable.setOldValue(variable.getValue());
+				variable.copySlot(VariableAccumulator.SLOT_OLD, VariableAccumulator.SLOT_PREVIOUS_OLD);
+				variable.copySlot(VariableAccumulator.SLOT_VALUE, VariableAccumulator.SLOT_OLD);
 			}
 		}
 	}
@@ -1600,8 +1607,8 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			for (int i = 0; i < variables.length; i++)
 			{
 				JRFillVariable variable = variables[i];
-				variable.setValue(variable.getOldValue());
-				variable.setOldValue(variable.getPreviousOldValue());
+				variable.copySlot(VariableAccumulator.SLOT_OLD, VariableAccumulator.SLOT_VALUE);
+				variable.copySlot(VariableAccumulator.SLOT_PREVIOUS_OLD, VariableAccumulator.SLOT_OLD);
 			}
 		}
 	}
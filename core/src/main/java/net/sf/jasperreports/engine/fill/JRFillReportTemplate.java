@@ -135,7 +135,7 @@ public class JRFillReportTemplate implements JRReportTemplate
 					}
 					else
 					{
-						JRTemplate template = JRXmlTemplateLoader.getInstance(repositoryContext).loadTemplate(resourceLocation);
+						JRTemplate template = loadCachedTemplate(resourceLocation, resourceInfo, filler, repositoryContext);
 						templateSource = ReportTemplateSource.of(template, resourceInfo);
 						filler.fillContext.registerLoadedTemplate(absoluteKey, templateSource);
 					}
@@ -170,4 +170,25 @@ public class JRFillReportTemplate implements JRReportTemplate
 		return templateSource;
 	}
 	
+	/**
+	 * Loads a template resolved in the repository, using the resource cache shared by fills when enabled.
+	 * 
+	 * @see FillResourceCache
+	 */
+	protected static JRTemplate loadCachedTemplate(String resourceLocation, ResourceInfo resourceInfo,
+			JRBaseFiller filler, RepositoryContext repositoryContext) throws JRException
+	{
+		String version = resourceInfo.getResourceVersion();
+		String resourceKey = resourceInfo.getResourceKey();
+		FillResourceCache resourceCache = version == null || resourceKey == null ? null 
+				: FillResourceCache.getInstance(filler.getJasperReportsContext());
+		if (resourceCache == null)
+		{
+			return JRXmlTemplateLoader.getInstance(repositoryContext).loadTemplate(resourceLocation);
+		}
+		
+		return resourceCache.get(ResourcePathKey.absolute(resourceKey), version, JRTemplate.class, 
+				() -> JRXmlTemplateLoader.getInstance(repositoryContext).loadTemplate(resourceLocation));
+	}
+	
 }
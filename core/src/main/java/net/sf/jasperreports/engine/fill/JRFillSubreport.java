@@ -417,7 +417,9 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 						}
 						else
 						{
-							report = loadReportSource(reportLocation, contextLocation, filler);
+							report = isUsingCache 
+									? loadCachedReportSource(reportLocation, contextLocation, resourceInfo, filler)
+									: loadReportSource(reportLocation, contextLocation, filler);
 							if (isUsingCache)
 							{
 								filler.fillContext.registerLoadedSubreport(absolutePathKey, report);
@@ -444,6 +446,36 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 			BaseReportFiller filler) throws JRException
 	{
 		JasperReport jasperReport = loadReport(reportSource, filler);
+		return createReportSource(jasperReport, reportSource, contextLocation, filler);
+	}
+	
+	/**
+	 * Loads a subreport resolved in the repository, using the resource cache shared by fills when enabled.
+	 * 
+	 * @see FillResourceCache
+	 */
+	protected static JasperReportSource loadCachedReportSource(String reportLocation, String contextLocation, 
+			ResourceInfo resourceInfo, BaseReportFiller filler) throws JRException
+	{
+		String version = resourceInfo.getResourceVersion();
+		String resourceKey = resourceInfo.getResourceKey();
+		// report contexts can hold modified reports in the design cache
+		FillResourceCache resourceCache = version == null || resourceKey == null 
+				|| filler.getFillContext().getReportContext() != null 
+				? null : FillResourceCache.getInstance(filler.getJasperReportsContext());
+		if (resourceCache == null)
+		{
+			return loadReportSource(reportLocation, contextLocation, filler);
+		}
+		
+		JasperReport jasperReport = resourceCache.get(ResourcePathKey.absolute(resourceKey), version, 
+				JasperReport.class, () -> loadReport(reportLocation, filler));
+		return createReportSource(jasperReport, reportLocation, contextLocation, filler);
+	}
+	
+	protected static JasperReportSource createReportSource(JasperReport jasperReport, Object reportSource, 
+			String contextLocation, BaseReportFiller filler)
+	{
 		JasperReportSource report = null;
 		if (jasperReport != null)
 		{
@@ -536,6 +568,7 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 
 			if (subreportFiller != null)
 			{
+				subreportFiller.discardEagerDataInit();
 				filler.unregisterSubfiller(subreportFiller);
 			}
 
@@ -546,7 +579,42 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 			validateReport();
 			
 			returnValues.saveReturnVariables();
+			
+			if (isEagerDataInitAllowed() && EagerDatasetInit.isEnabled(filler, this))
+			{
+				startEagerDataInit();
+			}
+		}
+	}
+
+	/**
+	 * Decides whether the subreport supports eager data initialization.
+	 * 
+	 * @return whether {@link EagerDatasetInit#PROPERTY_EAGER_DATA_INIT} is honored for the subreport
+	 */
+	protected boolean isEagerDataInitAllowed()
+	{
+		return true;
+	}
+
+	/**
+	 * Starts the eager initialization of the subreport parameters and data source.
+	 * 
+	 * @see EagerDatasetInit#PROPERTY_EAGER_DATA_INIT
+	 */
+	protected void startEagerDataInit()
+	{
+		// same as in fillSubreport()
+		if (getConnectionExpression() != null)
+		{
+			subreportFiller.setConnectionParameterValue(parameterValues, connection);
+		}
+		else if (getDataSourceExpression() != null)
+		{
+			subreportFiller.setDatasourceParameterValue(parameterValues, dataSource);
 		}
+		
+		subreportFiller.startEagerDataInit(parameterValues);
 	}
 
 	protected JasperReport getReport()
@@ -920,87 +988,84 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 		}
 		subreportFiller.setPageHeight(pageHeight);
 
-		synchronized (subreportFiller)
+		JRSubreportRunResult result;
+		if (filling)
 		{
-			JRSubreportRunResult result;
-			if (filling)
+			if (log.isDebugEnabled())
 			{
-				if (log.isDebugEnabled())
-				{
-					log.debug("Fill " + filler.fillerId + ": resuming " + subreportFiller.fillerId);
-				}
-
-				result = runner.resume();
+				log.debug("Fill " + filler.fillerId + ": resuming " + subreportFiller.fillerId);
 			}
-			else if (toPrint)
-			{
-				setReprinted(reprinted);
 
-				if (log.isDebugEnabled())
-				{
-					log.debug("Fill " + filler.fillerId + ": starting " + subreportFiller.fillerId);
-				}
+			result = runner.resume();
+		}
+		else if (toPrint)
+		{
+			setReprinted(reprinted);
 
-				result = runner.start();
-			}
-			else
+			if (log.isDebugEnabled())
 			{
-				printPage = null;
-				printPageContentsWidth = 0;
-				setPrepareHeight(getHeight());
-				setToPrint(false);
-
-				return willOverflow;
+				log.debug("Fill " + filler.fillerId + ": starting " + subreportFiller.fillerId);
 			}
-			
-			if (result.getException() != null)
-			{
-				Throwable error = result.getException();
-				
-				if (log.isErrorEnabled())
-				{
-					log.error("Fill " + filler.fillerId + ": exception", error);
-				}
-				
-				if (error instanceof RuntimeException)
-				{
-					throw (RuntimeException) error;
-				}
 
-				throw new JRRuntimeException(error);
-			}
+			result = runner.start();
+		}
+		else
+		{
+			printPage = null;
+			printPageContentsWidth = 0;
+			setPrepareHeight(getHeight());
+			setToPrint(false);
 
-			if (result.hasFinished())
+			return willOverflow;
+		}
+		
+		if (result.getException() != null)
+		{
+			Throwable error = result.getException();
+			
+			if (log.isErrorEnabled())
 			{
-				if (log.isDebugEnabled())
-				{
-					log.debug("Fill " + filler.fillerId + ": subreport " + subreportFiller.fillerId + " finished");
-				}
-				
-				returnValues.copyValues(returnValuesContext);
+				log.error("Fill " + filler.fillerId + ": exception", error);
 			}
-			else
+			
+			if (error instanceof RuntimeException)
 			{
-				if (log.isDebugEnabled())
-				{
-					log.debug("Fill " + filler.fillerId + ": subreport " + subreportFiller.fillerId + " to continue");
-				}
+				throw (RuntimeException) error;
 			}
 
-			printPage = subreportFiller.getCurrentPage();
-			printPageContentsWidth = subreportFiller.getCurrentPageContentsWidth();
-			setPrepareHeight(result.hasFinished() ? subFillerParent.getCurrentPageStretchHeight() : pageHeight);
+			throw new JRRuntimeException(error);
+		}
 
-			//if the subreport fill thread has not finished, 
-			// it means that the subreport will overflow on the next page
-			willOverflow = !result.hasFinished();
+		if (result.hasFinished())
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill " + filler.fillerId + ": subreport " + subreportFiller.fillerId + " finished");
+			}
 			
-			if (!willOverflow)
+			returnValues.copyValues(returnValuesContext);
+		}
+		else
+		{
+			if (log.isDebugEnabled())
 			{
-				//the subreport fill thread has finished and the next time we shall create a new one
-				runner.reset();
+				log.debug("Fill " + filler.fillerId + ": subreport " + subreportFiller.fillerId + " to continue");
 			}
-		}// synchronized
+		}
+
+		printPage = subreportFiller.getCurrentPage();
+		printPageContentsWidth = subreportFiller.getCurrentPageContentsWidth();
+		setPrepareHeight(result.hasFinished() ? subFillerParent.getCurrentPageStretchHeight() : pageHeight);
+
+		//if the subreport fill thread has not finished, 
+		// it means that the subreport will overflow on the next page
+		willOverflow = !result.hasFinished();
+		
+		if (!willOverflow)
+		{
+			//the subreport fill thread has finished and the next time we shall create a new one
+			runner.reset();
+		}
 		
 		Collection<JRPrintElement> printElements = getPrintElements();
 		if (
@@ -1023,6 +1088,7 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 			return;
 		}
 		
+		subreportFiller.discardEagerDataInit();
 		cancelSubreportFill();
 		
 		initSubreportFiller(null);//FIXME used cached evaluator
@@ -1057,12 +1123,9 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 		// marking the subreport filler for interruption
 		subreportFiller.setInterrupted(true);
 		
-		synchronized (subreportFiller)
-		{
-			// forcing the creation of a new thread and a new subreport filler
-			runner.cancel();
-			runner.reset();
-		}
+		// forcing the creation of a new thread and a new subreport filler
+		runner.cancel();
+		runner.reset();
 
 		filler.unregisterSubfiller(subreportFiller);
 	}
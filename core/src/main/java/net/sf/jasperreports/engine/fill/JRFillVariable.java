@@ -23,6 +23,8 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import java.util.Arrays;
+
 import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.type.CalculationEnum;
@@ -51,14 +53,9 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	/**
 	 *
 	 */
-	private Object previousIncrementedValue;
-	private Object previousOldValue;
-	private Object oldValue;
-	private Object estimatedValue;
-	private Object incrementedValue;
-	private Object value;
+	private final Object[] values = new Object[VariableAccumulator.SLOT_COUNT];
+	private VariableAccumulator accumulator;
 	private boolean isInitialized;
-	private Object savedValue;
 	
 	private JRFillVariable[] helperVariables;
 
@@ -93,13 +90,12 @@ public class JRFillVariable implements JRVariable, JRCalculable
 
 	protected void reset()
 	{
-		previousOldValue = null;
-		oldValue = null;
-		estimatedValue = null;
-		incrementedValue = null;
-		value = null;
+		Arrays.fill(values, null);
+		if (accumulator != null)
+		{
+			accumulator.reset();
+		}
 		isInitialized = false;
-		savedValue = null;
 	}
 
 
@@ -197,7 +193,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getOldValue()
 	{
-		return oldValue;
+		return getSlotValue(VariableAccumulator.SLOT_OLD);
 	}
 		
 	/**
@@ -205,7 +201,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setOldValue(Object oldValue)
 	{
-		this.oldValue = oldValue;
+		setSlotValue(VariableAccumulator.SLOT_OLD, oldValue);
 	}
 
 	/**
@@ -213,7 +209,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getEstimatedValue()
 	{
-		return estimatedValue;
+		return getSlotValue(VariableAccumulator.SLOT_ESTIMATED);
 	}
 		
 	/**
@@ -221,13 +217,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setEstimatedValue(Object estimatedValue)
 	{
-		this.estimatedValue = estimatedValue;
+		setSlotValue(VariableAccumulator.SLOT_ESTIMATED, estimatedValue);
 	}
 
 	@Override
 	public Object getIncrementedValue()
 	{
-		return incrementedValue;
+		return getSlotValue(VariableAccumulator.SLOT_INCREMENTED);
 	}
 		
 	/**
@@ -235,7 +231,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setIncrementedValue(Object incrementedValue)
 	{
-		this.incrementedValue = incrementedValue;
+		setSlotValue(VariableAccumulator.SLOT_INCREMENTED, incrementedValue);
 	}
 
 	/**
@@ -243,7 +239,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getPreviousIncrementedValue()
 	{
-		return previousIncrementedValue;
+		return getSlotValue(VariableAccumulator.SLOT_PREVIOUS_INCREMENTED);
 	}
 		
 	/**
@@ -251,13 +247,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setPreviousIncrementedValue(Object previousIncrementedValue)
 	{
-		this.previousIncrementedValue = previousIncrementedValue;
+		setSlotValue(VariableAccumulator.SLOT_PREVIOUS_INCREMENTED, previousIncrementedValue);
 	}
 
 	@Override
 	public Object getValue()
 	{
-		return value;
+		return getSlotValue(VariableAccumulator.SLOT_VALUE);
 	}
 		
 	/**
@@ -265,7 +261,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setValue(Object value)
 	{
-		this.value = value;
+		setSlotValue(VariableAccumulator.SLOT_VALUE, value);
 	}
 
 	@Override
@@ -337,70 +333,151 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	
 	public Object getValue(byte evaluation)
 	{
-		Object returnValue;
+		return getSlotValue(evaluationSlot(evaluation));
+	}
+	
+	public void overwriteValue(Object newValue, byte evaluation)
+	{
+		int slot = evaluationSlot(evaluation);
+		copySlot(slot, VariableAccumulator.SLOT_SAVED);
+		setSlotValue(slot, newValue);
+	}
+	
+	public void restoreValue(byte evaluation)
+	{
+		copySlot(VariableAccumulator.SLOT_SAVED, evaluationSlot(evaluation));
+		setSlotValue(VariableAccumulator.SLOT_SAVED, null);
+	}
+	
+	private static int evaluationSlot(byte evaluation)
+	{
+		int slot;
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				returnValue = oldValue;
+				slot = VariableAccumulator.SLOT_OLD;
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				returnValue = estimatedValue;
+				slot = VariableAccumulator.SLOT_ESTIMATED;
 				break;
 			default:
-				returnValue = value;
+				slot = VariableAccumulator.SLOT_VALUE;
 				break;
 		}
-		return returnValue;
+		return slot;
+	}
+
+
+	/**
+	 * Sets the accumulator that keeps the values of the variable as primitive states.
+	 * 
+	 * @param accumulator the accumulator, or <code>null</code> if the variable values are kept as objects
+	 */
+	protected void setAccumulator(VariableAccumulator accumulator)
+	{
+		if (this.accumulator != null)
+		{
+			materializeAccumulator();
+		}
+		
+		if (accumulator != null)
+		{
+			for (int slot = 0; slot < values.length; slot++)
+			{
+				accumulator.setValue(slot, values[slot]);
+			}
+		}
+		this.accumulator = accumulator;
 	}
 	
-	public void overwriteValue(Object newValue, byte evaluation)
+	private void materializeAccumulator()
 	{
-		switch (evaluation)
+		for (int slot = 0; slot < values.length; slot++)
 		{
-			case JRExpression.EVALUATION_OLD:
-				savedValue = oldValue;
-				oldValue = newValue;
-				break;
-			case JRExpression.EVALUATION_ESTIMATED:
-				savedValue = estimatedValue;
-				estimatedValue = newValue;
-				break;
-			default:
-				savedValue = value;
-				value = newValue;
-				break;
+			values[slot] = accumulator.getValue(slot);
 		}
+		accumulator = null;
 	}
 	
-	public void restoreValue(byte evaluation)
+	/**
+	 * Increments the variable using its primitive accumulator, if there is one.
+	 * 
+	 * @param expressionValue the value of the variable expression
+	 * @param estimated whether the estimated value of the variable is to be calculated
+	 * @return <code>false</code> if the variable needs to be incremented using its incrementer
+	 */
+	protected boolean accumulate(Object expressionValue, boolean estimated)
 	{
-		switch (evaluation)
+		if (accumulator == null)
 		{
-			case JRExpression.EVALUATION_OLD:
-				oldValue = savedValue;
-				break;
-			case JRExpression.EVALUATION_ESTIMATED:
-				estimatedValue = savedValue;
-				break;
-			default:
-				value = savedValue;
-				break;
+			return false;
+		}
+		
+		if (
+			(expressionValue != null && !(expressionValue instanceof Number))
+			|| !accumulator.increment(
+				VariableAccumulator.SLOT_INCREMENTED, 
+				estimated ? VariableAccumulator.SLOT_ESTIMATED : VariableAccumulator.SLOT_VALUE, 
+				(Number) expressionValue, 
+				isInitialized
+				)
+			)
+		{
+			// continuing with the incrementer, which has the helper variables to rely on
+			materializeAccumulator();
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Copies one of the variable values to another, without creating objects for accumulated values.
+	 * 
+	 * @param fromSlot the value to copy, one of the <code>VariableAccumulator.SLOT_*</code> constants
+	 * @param toSlot the value to overwrite
+	 */
+	protected void copySlot(int fromSlot, int toSlot)
+	{
+		if (accumulator == null)
+		{
+			values[toSlot] = values[fromSlot];
+		}
+		else
+		{
+			accumulator.copy(fromSlot, toSlot);
+		}
+	}
+	
+	private Object getSlotValue(int slot)
+	{
+		return accumulator == null ? values[slot] : accumulator.getValue(slot);
+	}
+	
+	private void setSlotValue(int slot, Object value)
+	{
+		if (accumulator == null)
+		{
+			values[slot] = value;
+		}
+		else
+		{
+			accumulator.setValue(slot, value);
 		}
-		savedValue = null;
 	}
 
 
 	
 	public Object getPreviousOldValue()
 	{
-		return previousOldValue;
+		return getSlotValue(VariableAccumulator.SLOT_PREVIOUS_OLD);
 	}
 
 
 	
 	public void setPreviousOldValue(Object previousOldValue)
 	{
-		this.previousOldValue = previousOldValue;
+		setSlotValue(VariableAccumulator.SLOT_PREVIOUS_OLD, previousOldValue);
 	}
 
 	@Override
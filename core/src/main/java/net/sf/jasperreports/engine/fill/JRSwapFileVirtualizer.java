@@ -26,6 +26,7 @@ package net.sf.jasperreports.engine.fill;
 import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.engine.util.StreamCompression;
 import net.sf.jasperreports.engine.util.SwapFileVirtualizerStore;
+import net.sf.jasperreports.engine.util.WriteBehindSwapFileVirtualizerStore;
 
 
 /**
@@ -79,4 +80,22 @@ public class JRSwapFileVirtualizer extends StoreVirtualizer
 	{
 		super(maxSize, new SwapFileVirtualizerStore(swap, swapOwner, compression));
 	}
+	
+	/**
+	 * Creates a virtualizer that writes to a swap file asynchronously.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * @param swap the swap file to use for data virtualization
+	 * @param swapOwner whether the virtualizer is the owner (single user) of the swap file.
+	 * If <code>true</code>, the virtualizer will dispose the swap file on
+	 * {@link #cleanup() cleanup}.
+	 * @param compression stream compression to apply to serialized data, can be <code>null</code>
+	 * @param writeBehindQueueSize the maximum number of objects waiting to be written to the swap file
+	 * @see WriteBehindSwapFileVirtualizerStore
+	 */
+	public JRSwapFileVirtualizer(int maxSize, JRSwapFile swap, boolean swapOwner,
+			StreamCompression compression, int writeBehindQueueSize)
+	{
+		super(maxSize, new WriteBehindSwapFileVirtualizerStore(swap, swapOwner, compression, writeBehindQueueSize));
+	}
 }
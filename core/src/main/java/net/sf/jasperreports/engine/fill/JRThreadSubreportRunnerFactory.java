@@ -29,6 +29,7 @@ package net.sf.jasperreports.engine.fill;
  * subreport runners factory.
  * <p>
  * This factory is used by default if no other factory class is specified.
+ * The master filler and the subreport threads take turns as described in {@link AbstractThreadSubreportRunner}.
  * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
@@ -110,7 +110,7 @@ public class JRVerticalFiller extends JRBaseFiller
 
 	@Override
 	@continuable
-	protected synchronized void fillReport() throws JRException
+	protected void fillReport() throws JRException
 	{
 		setLastPageFooter(false);
 
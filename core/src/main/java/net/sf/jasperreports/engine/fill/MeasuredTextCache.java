@@ -0,0 +1,155 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded cache of text measuring results shared by fills.
+ * <p>
+ * The cache is split into a fixed number of LRU segments, each guarded by its own lock,
+ * so that concurrent fills do not contend on a single monitor.
+ * Hit and miss counts are kept for monitoring the cache efficiency.
+ * </p>
+ * 
+ * @see CachingTextMeasurerFactory
+ */
+public class MeasuredTextCache
+{
+	private static final int SEGMENT_COUNT = 16;
+	
+	private final Segment[] segments;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	
+	public MeasuredTextCache(int maxSize)
+	{
+		int segmentSize = Math.max(1, maxSize / SEGMENT_COUNT);
+		segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; i++)
+		{
+			segments[i] = new Segment(segmentSize);
+		}
+	}
+	
+	protected Segment segment(Object key)
+	{
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return segments[hash & (SEGMENT_COUNT - 1)];
+	}
+
+	public JRMeasuredText get(Object key)
+	{
+		Segment segment = segment(key);
+		JRMeasuredText measuredText;
+		synchronized (segment)
+		{
+			measuredText = segment.get(key);
+		}
+		
+		if (measuredText == null)
+		{
+			misses.increment();
+		}
+		else
+		{
+			hits.increment();
+		}
+		return measuredText;
+	}
+	
+	public void put(Object key, JRMeasuredText measuredText)
+	{
+		Segment segment = segment(key);
+		synchronized (segment)
+		{
+			segment.put(key, measuredText);
+		}
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public int size()
+	{
+		int size = 0;
+		for (Segment segment : segments)
+		{
+			synchronized (segment)
+			{
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	
+	public void clear()
+	{
+		for (Segment segment : segments)
+		{
+			synchronized (segment)
+			{
+				segment.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "MeasuredTextCache size " + size() + ", hits " + getHitCount() + ", misses " + getMissCount();
+	}
+	
+	protected static class Segment extends LinkedHashMap<Object, JRMeasuredText>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final int maxSize;
+		
+		protected Segment(int maxSize)
+		{
+			super(64, 0.75f, true);
+			
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, JRMeasuredText> eldest)
+		{
+			return size() > maxSize;
+		}
+	}
+}
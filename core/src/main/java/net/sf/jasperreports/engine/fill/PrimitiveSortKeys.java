@@ -0,0 +1,463 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.sf.jasperreports.engine.fill.DatasetSortInfo.SortFieldInfo;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+
+/**
+ * Sort keys extracted from dataset records into primitive columns.
+ * 
+ * <p>
+ * Integral numbers, characters, booleans and dates are stored as <code>long</code> values
+ * (dates as milliseconds, the same way {@link net.sf.jasperreports.data.cache.DateStore} does),
+ * floating point numbers as <code>double</code> values and collated strings as precomputed
+ * {@link CollationKey collation keys}.
+ * Sort fields with other value types are compared as {@link Comparable} objects.
+ * The records are then sorted by a stable merge sort of an <code>int</code> index array,
+ * which produces the same order as {@link DataSourceComparator}.
+ * </p>
+ */
+class PrimitiveSortKeys
+{
+	
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+	private static final int INSERTION_SORT_THRESHOLD = 32;
+
+	private final KeyColumn[] columns;
+	private final int recordCount;
+	
+	public PrimitiveSortKeys(List<SortRecord> records, List<SortFieldInfo> sortFields, Collator collator)
+	{
+		this.recordCount = records.size();
+		this.columns = new KeyColumn[sortFields.size()];
+		for (int i = 0; i < columns.length; i++)
+		{
+			columns[i] = createColumn(records, sortFields.get(i), collator);
+		}
+	}
+
+	protected static KeyColumn createColumn(List<SortRecord> records, SortFieldInfo sortField, Collator collator)
+	{
+		int recordIndex = sortField.getRecordIndex();
+		int count = records.size();
+		Object[] values = new Object[count];
+		boolean[] nulls = null;
+		KeyType type = null;
+		Class<?> valueClass = null;
+		for (int i = 0; i < count; i++)
+		{
+			Object value = records.get(i).fieldValue(recordIndex);
+			values[i] = value;
+			
+			if (value == null)
+			{
+				if (nulls == null)
+				{
+					nulls = new boolean[count];
+				}
+				nulls[i] = true;
+			}
+			else if (valueClass == null)
+			{
+				valueClass = value.getClass();
+				type = keyType(value, sortField.useCollator());
+			}
+			else if (valueClass != value.getClass())
+			{
+				// mixed value types are compared as in DataSourceComparator
+				type = KeyType.OBJECT;
+			}
+		}
+		
+		boolean descending = sortField.isDescending();
+		KeyColumn column;
+		if (type == null)
+		{
+			// all values are null
+			column = new LongKeyColumn(descending, nulls, new long[count]);
+		}
+		else
+		{
+			switch (type)
+			{
+			case LONG:
+				long[] longValues = new long[count];
+				for (int i = 0; i < count; i++)
+				{
+					if (values[i] != null)
+					{
+						longValues[i] = toLong(values[i]);
+					}
+				}
+				column = new LongKeyColumn(descending, nulls, longValues);
+				break;
+			case DOUBLE:
+				double[] doubleValues = new double[count];
+				for (int i = 0; i < count; i++)
+				{
+					if (values[i] != null)
+					{
+						doubleValues[i] = ((Number) values[i]).doubleValue();
+					}
+				}
+				column = new DoubleKeyColumn(descending, nulls, doubleValues);
+				break;
+			case COLLATION_KEY:
+				CollationKey[] keys = new CollationKey[count];
+				for (int i = 0; i < count; i++)
+				{
+					if (values[i] != null)
+					{
+						keys[i] = collator.getCollationKey((String) values[i]);
+					}
+				}
+				column = new CollationKeyColumn(descending, nulls, keys);
+				break;
+			case OBJECT:
+			default:
+				column = new ObjectKeyColumn(descending, nulls, values, 
+						sortField.useCollator() ? collator : null);
+				break;
+			}
+		}
+		return column;
+	}
+	
+	protected static KeyType keyType(Object value, boolean useCollator)
+	{
+		if (useCollator)
+		{
+			return value instanceof String ? KeyType.COLLATION_KEY : KeyType.OBJECT;
+		}
+		
+		if (value instanceof Integer
+				|| value instanceof Long
+				|| value instanceof Short
+				|| value instanceof Byte
+				|| value instanceof Character
+				|| value instanceof Boolean)
+		{
+			return KeyType.LONG;
+		}
+		
+		if (value instanceof Double
+				|| value instanceof Float)
+		{
+			return KeyType.DOUBLE;
+		}
+		
+		// subclasses such as java.sql.Timestamp have more precise comparisons
+		Class<?> valueClass = value.getClass();
+		if (valueClass == Date.class
+				|| valueClass == java.sql.Date.class
+				|| valueClass == java.sql.Time.class)
+		{
+			return KeyType.LONG;
+		}
+		
+		return KeyType.OBJECT;
+	}
+	
+	protected static long toLong(Object value)
+	{
+		if (value instanceof Number)
+		{
+			return ((Number) value).longValue();
+		}
+		
+		if (value instanceof Character)
+		{
+			return ((Character) value).charValue();
+		}
+		
+		if (value instanceof Boolean)
+		{
+			return ((Boolean) value) ? 1 : 0;
+		}
+		
+		return ((Date) value).getTime();
+	}
+	
+	/**
+	 * Sorts the records.
+	 * 
+	 * @param parallel whether the sort is allowed to use the common fork/join pool
+	 * @return the record indexes in sort order
+	 */
+	public int[] sort(boolean parallel)
+	{
+		int[] indexes = new int[recordCount];
+		for (int i = 0; i < recordCount; i++)
+		{
+			indexes[i] = i;
+		}
+		
+		int[] buffer = new int[recordCount];
+		if (parallel && recordCount > PARALLEL_THRESHOLD 
+				&& ForkJoinPool.getCommonPoolParallelism() > 1)
+		{
+			ForkJoinPool.commonPool().invoke(new SortTask(indexes, buffer, 0, recordCount));
+		}
+		else
+		{
+			mergeSort(indexes, buffer, 0, recordCount);
+		}
+		return indexes;
+	}
+	
+	protected int compare(int idx1, int idx2)
+	{
+		for (KeyColumn column : columns)
+		{
+			int ret = column.compare(idx1, idx2);
+			if (ret != 0)
+			{
+				return ret;
+			}
+		}
+		return 0;
+	}
+	
+	protected void mergeSort(int[] indexes, int[] buffer, int from, int to)
+	{
+		if (to - from <= INSERTION_SORT_THRESHOLD)
+		{
+			insertionSort(indexes, from, to);
+			return;
+		}
+		
+		int mid = (from + to) >>> 1;
+		mergeSort(indexes, buffer, from, mid);
+		mergeSort(indexes, buffer, mid, to);
+		merge(indexes, buffer, from, mid, to);
+	}
+	
+	protected void insertionSort(int[] indexes, int from, int to)
+	{
+		for (int i = from + 1; i < to; i++)
+		{
+			int index = indexes[i];
+			int j = i - 1;
+			while (j >= from && compare(indexes[j], index) > 0)
+			{
+				indexes[j + 1] = indexes[j];
+				--j;
+			}
+			indexes[j + 1] = index;
+		}
+	}
+	
+	protected void merge(int[] indexes, int[] buffer, int from, int mid, int to)
+	{
+		if (compare(indexes[mid - 1], indexes[mid]) <= 0)
+		{
+			// already in order
+			return;
+		}
+		
+		System.arraycopy(indexes, from, buffer, from, to - from);
+		int left = from;
+		int right = mid;
+		int dest = from;
+		while (left < mid && right < to)
+		{
+			// taking from the left on equal keys keeps the sort stable
+			if (compare(buffer[right], buffer[left]) < 0)
+			{
+				indexes[dest++] = buffer[right++];
+			}
+			else
+			{
+				indexes[dest++] = buffer[left++];
+			}
+		}
+		
+		if (left < mid)
+		{
+			System.arraycopy(buffer, left, indexes, dest, mid - left);
+		}
+		if (right < to)
+		{
+			System.arraycopy(buffer, right, indexes, dest, to - right);
+		}
+	}
+	
+	protected class SortTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final int[] indexes;
+		private final int[] buffer;
+		private final int from;
+		private final int to;
+
+		protected SortTask(int[] indexes, int[] buffer, int from, int to)
+		{
+			this.indexes = indexes;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= PARALLEL_THRESHOLD)
+			{
+				mergeSort(indexes, buffer, from, to);
+				return;
+			}
+			
+			int mid = (from + to) >>> 1;
+			invokeAll(
+					new SortTask(indexes, buffer, from, mid), 
+					new SortTask(indexes, buffer, mid, to));
+			merge(indexes, buffer, from, mid, to);
+		}
+	}
+	
+	protected static enum KeyType
+	{
+		LONG,
+		DOUBLE,
+		COLLATION_KEY,
+		OBJECT
+	}
+	
+	protected static abstract class KeyColumn
+	{
+		private final boolean descending;
+		private final boolean[] nulls;
+		
+		protected KeyColumn(boolean descending, boolean[] nulls)
+		{
+			this.descending = descending;
+			this.nulls = nulls;
+		}
+		
+		public int compare(int idx1, int idx2)
+		{
+			int ret;
+			if (nulls != null && (nulls[idx1] || nulls[idx2]))
+			{
+				// nulls come first, as in DataSourceComparator
+				ret = nulls[idx1] ? (nulls[idx2] ? 0 : -1) : 1;
+			}
+			else
+			{
+				ret = compareValues(idx1, idx2);
+			}
+			return descending ? -ret : ret;
+		}
+		
+		protected abstract int compareValues(int idx1, int idx2);
+	}
+	
+	protected static class LongKeyColumn extends KeyColumn
+	{
+		private final long[] values;
+		
+		protected LongKeyColumn(boolean descending, boolean[] nulls, long[] values)
+		{
+			super(descending, nulls);
+			this.values = values;
+		}
+
+		@Override
+		protected int compareValues(int idx1, int idx2)
+		{
+			return Long.compare(values[idx1], values[idx2]);
+		}
+	}
+	
+	protected static class DoubleKeyColumn extends KeyColumn
+	{
+		private final double[] values;
+		
+		protected DoubleKeyColumn(boolean descending, boolean[] nulls, double[] values)
+		{
+			super(descending, nulls);
+			this.values = values;
+		}
+
+		@Override
+		protected int compareValues(int idx1, int idx2)
+		{
+			return Double.compare(values[idx1], values[idx2]);
+		}
+	}
+	
+	protected static class CollationKeyColumn extends KeyColumn
+	{
+		private final CollationKey[] keys;
+		
+		protected CollationKeyColumn(boolean descending, boolean[] nulls, CollationKey[] keys)
+		{
+			super(descending, nulls);
+			this.keys = keys;
+		}
+
+		@Override
+		protected int compareValues(int idx1, int idx2)
+		{
+			return keys[idx1].compareTo(keys[idx2]);
+		}
+	}
+	
+	protected static class ObjectKeyColumn extends KeyColumn
+	{
+		private final Object[] values;
+		private final Collator collator;
+		
+		protected ObjectKeyColumn(boolean descending, boolean[] nulls, Object[] values, Collator collator)
+		{
+			super(descending, nulls);
+			this.values = values;
+			this.collator = collator;
+		}
+
+		@Override
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		protected int compareValues(int idx1, int idx2)
+		{
+			if (collator != null)
+			{
+				// collators are not thread safe
+				synchronized (collator)
+				{
+					return collator.compare(values[idx1], values[idx2]);
+				}
+			}
+			return ((Comparable) values[idx1]).compareTo(values[idx2]);
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+/**
+ * Temporary file holding a sorted run of dataset records.
+ * 
+ * <p>
+ * The records of a run are consecutive in the original data source order,
+ * and are written to the file in sort order.
+ * </p>
+ */
+class SortRunFile
+{
+	
+	private static final Log log = LogFactory.getLog(SortRunFile.class);
+	
+	private static final int BUFFER_SIZE = 1 << 14;
+	
+	// resetting the object stream from time to time so that handles of arbitrary objects do not accumulate
+	private static final int RESET_INTERVAL = 1 << 10;
+	
+	private final File file;
+	private final int startIndex;
+	private final int recordCount;
+	
+	private SortRunFile(File file, int startIndex, int recordCount)
+	{
+		this.file = file;
+		this.startIndex = startIndex;
+		this.recordCount = recordCount;
+	}
+	
+	public static SortRunFile write(JRVirtualizationContext virtualizationContext, 
+			List<SortRecord> records, int[] order) throws IOException
+	{
+		File file = File.createTempFile("jr.sort.run.", ".tmp");
+		boolean written = false;
+		try
+		{
+			int startIndex = records.isEmpty() ? 0 : records.get(0).getOriginalRecordIndex();
+			try (VirtualizationOutput out = new VirtualizationOutput(
+					new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), 
+					virtualizationContext))
+			{
+				for (int i = 0; i < order.length; i++)
+				{
+					SortRecord record = records.get(order[i]);
+					out.writeIntCompressed(record.getOriginalRecordIndex() - startIndex);
+					
+					Object[] values = record.getValues();
+					for (int j = 0; j < values.length; j++)
+					{
+						// not keeping references, the values would be retained until the end of the run
+						out.writeJRObject(values[j], false, false);
+					}
+					
+					if ((i + 1) % RESET_INTERVAL == 0)
+					{
+						out.reset();
+					}
+				}
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("wrote sort run of " + records.size() + " records starting at " + startIndex 
+						+ " to " + file + ", size " + file.length());
+			}
+			
+			written = true;
+			return new SortRunFile(file, startIndex, records.size());
+		}
+		finally
+		{
+			if (!written)
+			{
+				file.delete();
+			}
+		}
+	}
+
+	public int getStartIndex()
+	{
+		return startIndex;
+	}
+
+	public int getRecordCount()
+	{
+		return recordCount;
+	}
+	
+	public Reader openReader(JRVirtualizationContext virtualizationContext, int fieldCount) throws IOException
+	{
+		VirtualizationInput input = new VirtualizationInput(
+				new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), 
+				virtualizationContext);
+		return new Reader(input, fieldCount);
+	}
+	
+	public void dispose()
+	{
+		if (!file.delete() && file.exists())
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("could not delete sort run file " + file);
+			}
+			
+			file.deleteOnExit();
+		}
+	}
+	
+	/**
+	 * Sequential reader of the records in a run file.
+	 */
+	class Reader
+	{
+		private final VirtualizationInput input;
+		private final int fieldCount;
+		private int readCount;
+		
+		protected Reader(VirtualizationInput input, int fieldCount)
+		{
+			this.input = input;
+			this.fieldCount = fieldCount;
+			this.readCount = 0;
+		}
+		
+		public SortRunFile getRunFile()
+		{
+			return SortRunFile.this;
+		}
+		
+		/**
+		 * Reads the next record from the run.
+		 * 
+		 * @return the next record, or <code>null</code> if all the records have been read
+		 */
+		public SortRecord next() throws IOException
+		{
+			if (readCount >= recordCount)
+			{
+				return null;
+			}
+			
+			int recordIndex = startIndex + input.readIntCompressed();
+			Object[] values = new Object[fieldCount];
+			for (int i = 0; i < fieldCount; i++)
+			{
+				values[i] = input.readJRObject(false);
+			}
+			
+			++readCount;
+			return new SortRecord(values, recordIndex);
+		}
+		
+		public void close()
+		{
+			try
+			{
+				input.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Error closing sort run file " + file, e);
+			}
+		}
+	}
+}
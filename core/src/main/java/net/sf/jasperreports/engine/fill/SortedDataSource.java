@@ -24,6 +24,7 @@
 package net.sf.jasperreports.engine.fill;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -34,16 +35,14 @@ import org.apache.commons.logging.LogFactory;
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRField;
-import net.sf.jasperreports.engine.JRRewindableDataSource;
 import net.sf.jasperreports.engine.JRRuntimeException;
-import net.sf.jasperreports.engine.data.IndexedDataSource;
 import net.sf.jasperreports.engine.data.RandomAccessDataSource;
 import net.sf.jasperreports.engine.fill.DatasetSortInfo.RecordField;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
-public class SortedDataSource implements JRRewindableDataSource, IndexedDataSource
+public class SortedDataSource implements SortedRecordsDataSource
 {
 	
 	private static final Log log = LogFactory.getLog(SortedDataSource.class);
@@ -90,6 +89,11 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 			return recordIndex;
 		}
 
+		public int getOriginalRecordIndex()
+		{
+			return originalRecordIndex;
+		}
+
 		public boolean isFiltered()
 		{
 			return filtered;
@@ -98,7 +102,7 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 	
 	private final JRDataSource originalDataSource;
 	private final List<SortRecord> records;
-	private final Integer[] recordIndexes;
+	private final int[] recordIndexes;
 	private final Map<String, Integer> columnNamesMap = new HashMap<>();
 	
 	private int currentIndex;
@@ -106,6 +110,12 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 	
 	public SortedDataSource(DatasetSortInfo sortInfo, 
 			List<SortRecord> records, Integer[] recordIndexes)
+	{
+		this(sortInfo, records, toPrimitive(recordIndexes));
+	}
+	
+	public SortedDataSource(DatasetSortInfo sortInfo, 
+			List<SortRecord> records, int[] recordIndexes)
 	{
 		if (records.size() != recordIndexes.length)
 		{
@@ -129,6 +139,17 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 		this.currentIndex = 0;
 	}
 
+	private static int[] toPrimitive(Integer[] indexes)
+	{
+		int[] primitiveIndexes = new int[indexes.length];
+		for (int i = 0; i < indexes.length; i++)
+		{
+			primitiveIndexes[i] = indexes[i];
+		}
+		return primitiveIndexes;
+	}
+
+	@Override
 	public JRDataSource getOriginalDataSource() throws JRException
 	{
 		if (currentRecord != null && originalDataSource instanceof RandomAccessDataSource)
@@ -162,6 +183,7 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 		return true;
 	}
 
+	@Override
 	public void setRecordFilteredIndex(int index)
 	{
 		currentRecord.markFiltered();
@@ -198,4 +220,16 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 	{
 		return records;
 	}
+
+	@Override
+	public Iterator<SortRecord> originalOrderRecords()
+	{
+		return records.iterator();
+	}
+
+	@Override
+	public void dispose()
+	{
+		//nothing to release
+	}
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Iterator;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRewindableDataSource;
+import net.sf.jasperreports.engine.data.IndexedDataSource;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+
+/**
+ * Data source that iterates the records of a dataset in the order given by its sort fields.
+ * 
+ * @see SortedDataSource
+ * @see ExternalSortedDataSource
+ */
+public interface SortedRecordsDataSource extends JRRewindableDataSource, IndexedDataSource
+{
+
+	/**
+	 * Returns the data source from which the sorted records were read,
+	 * positioned if possible at the current record.
+	 */
+	JRDataSource getOriginalDataSource() throws JRException;
+
+	/**
+	 * Marks the current record as included by the dataset filter.
+	 * 
+	 * @param index the index of the record among the filtered records
+	 */
+	void setRecordFilteredIndex(int index);
+
+	/**
+	 * Returns the sort records in the order in which they were read from the original data source.
+	 * 
+	 * <p>
+	 * This is used when recording data snapshots for sorted datasets.
+	 * </p>
+	 */
+	Iterator<SortRecord> originalOrderRecords();
+
+	/**
+	 * Releases the resources held by the data source.
+	 */
+	void dispose();
+
+}
@@ -0,0 +1,445 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Arrays;
+
+import net.sf.jasperreports.engine.type.CalculationEnum;
+import net.sf.jasperreports.engine.type.IncrementTypeEnum;
+import net.sf.jasperreports.engine.type.ResetTypeEnum;
+
+
+/**
+ * Keeps the values of a {@link JRFillVariable} as primitive accumulator states.
+ * <p>
+ * The accumulator holds a state for each of the values kept by the variable (current, old, estimated, etc.)
+ * and creates the boxed value of a state only when the value is requested.
+ * Values set from outside the accumulator are kept as they are and the accumulation continues
+ * from them when possible.
+ * </p>
+ * 
+ * @see JRCalculator#PROPERTY_PRIMITIVE_ACCUMULATORS
+ */
+abstract class VariableAccumulator
+{
+	
+	public static final int SLOT_VALUE = 0;
+	public static final int SLOT_OLD = 1;
+	public static final int SLOT_PREVIOUS_OLD = 2;
+	public static final int SLOT_INCREMENTED = 3;
+	public static final int SLOT_PREVIOUS_INCREMENTED = 4;
+	public static final int SLOT_ESTIMATED = 5;
+	public static final int SLOT_SAVED = 6;
+	
+	public static final int SLOT_COUNT = 7;
+	
+	/**
+	 * Creates an accumulator for a variable, if the variable calculation can be performed on primitive values.
+	 * 
+	 * @param variable the variable
+	 * @param compensatedSum whether double sums should use compensated summation
+	 * @return an accumulator for the variable, or <code>null</code> if the variable needs to use its incrementer
+	 */
+	public static VariableAccumulator createAccumulator(JRFillVariable variable, boolean compensatedSum)
+	{
+		if (variable.getIncrementerFactoryClassName() != null
+				|| variable.getIncrementType() != IncrementTypeEnum.NONE
+				|| variable.getResetType() == ResetTypeEnum.NONE)
+		{
+			return null;
+		}
+		
+		Class<?> valueClass = variable.getValueClass();
+		CalculationEnum calculation = variable.getCalculation();
+		if (Double.class.equals(valueClass) || Number.class.equals(valueClass))
+		{
+			switch (calculation)
+			{
+				case COUNT:
+					return new DoubleSumAccumulator(true, false);
+				case SUM:
+					return new DoubleSumAccumulator(false, compensatedSum);
+				case AVERAGE:
+				case VARIANCE:
+				case STANDARD_DEVIATION:
+					return new DoubleMomentsAccumulator(calculation, compensatedSum);
+				default:
+					return null;
+			}
+		}
+		
+		if (Long.class.equals(valueClass) || Integer.class.equals(valueClass))
+		{
+			switch (calculation)
+			{
+				case COUNT:
+					return new LongSumAccumulator(true, Integer.class.equals(valueClass));
+				case SUM:
+					return new LongSumAccumulator(false, Integer.class.equals(valueClass));
+				default:
+					return null;
+			}
+		}
+		
+		return null;
+	}
+
+	private final Object[] values = new Object[SLOT_COUNT];
+	private final boolean[] boxed = new boolean[SLOT_COUNT];
+	private final boolean[] accumulated = new boolean[SLOT_COUNT];
+
+	protected VariableAccumulator()
+	{
+		reset();
+	}
+	
+	public void reset()
+	{
+		Arrays.fill(values, null);
+		Arrays.fill(boxed, true);
+		Arrays.fill(accumulated, false);
+	}
+	
+	public Object getValue(int slot)
+	{
+		if (!boxed[slot])
+		{
+			values[slot] = boxState(slot);
+			boxed[slot] = true;
+		}
+		return values[slot];
+	}
+	
+	public void setValue(int slot, Object value)
+	{
+		values[slot] = value;
+		boxed[slot] = true;
+		accumulated[slot] = false;
+	}
+	
+	public void copy(int fromSlot, int toSlot)
+	{
+		values[toSlot] = values[fromSlot];
+		boxed[toSlot] = boxed[fromSlot];
+		accumulated[toSlot] = accumulated[fromSlot];
+		if (accumulated[fromSlot])
+		{
+			copyState(fromSlot, toSlot);
+		}
+	}
+	
+	protected boolean isAccumulated(int slot)
+	{
+		return accumulated[slot];
+	}
+	
+	protected void setAccumulated(int slot)
+	{
+		values[slot] = null;
+		boxed[slot] = false;
+		accumulated[slot] = true;
+	}
+	
+	/**
+	 * Determines whether the accumulation needs to start over instead of continuing from a slot.
+	 */
+	protected boolean isRestart(int baseSlot, boolean initialized)
+	{
+		return initialized || (!accumulated[baseSlot] && values[baseSlot] == null);
+	}
+	
+	/**
+	 * Increments the state of a base slot with a value and stores the result in a slot.
+	 * 
+	 * @param baseSlot the slot that holds the state to increment
+	 * @param slot the slot to store the result in
+	 * @param value the value to increment with
+	 * @param initialized whether the variable has been initialized since the last increment
+	 * @return <code>false</code> if the base slot holds a value from which the accumulation cannot continue,
+	 * in which case the variable incrementer needs to be used instead
+	 */
+	public abstract boolean increment(int baseSlot, int slot, Number value, boolean initialized);
+
+	protected abstract void copyState(int fromSlot, int toSlot);
+
+	protected abstract Object boxState(int slot);
+
+	
+	protected static class LongSumAccumulator extends VariableAccumulator
+	{
+		private final boolean count;
+		private final boolean integer;
+		private final long[] sums = new long[SLOT_COUNT];
+		
+		protected LongSumAccumulator(boolean count, boolean integer)
+		{
+			this.count = count;
+			this.integer = integer;
+		}
+
+		@Override
+		public boolean increment(int baseSlot, int slot, Number value, boolean initialized)
+		{
+			if (value == null && !count)
+			{
+				if (initialized)
+				{
+					setValue(slot, null);
+				}
+				else
+				{
+					copy(baseSlot, slot);
+				}
+				return true;
+			}
+			
+			long base;
+			if (isRestart(baseSlot, initialized))
+			{
+				base = 0;
+			}
+			else if (isAccumulated(baseSlot))
+			{
+				base = sums[baseSlot];
+			}
+			else
+			{
+				base = ((Number) getValue(baseSlot)).longValue();
+			}
+			
+			if (count)
+			{
+				sums[slot] = value == null ? base : base + 1;
+			}
+			else
+			{
+				sums[slot] = base + value.longValue();
+			}
+			setAccumulated(slot);
+			return true;
+		}
+
+		@Override
+		protected void copyState(int fromSlot, int toSlot)
+		{
+			sums[toSlot] = sums[fromSlot];
+		}
+
+		@Override
+		protected Object boxState(int slot)
+		{
+			return integer ? (Object) (int) sums[slot] : (Object) sums[slot];
+		}
+	}
+
+	
+	protected static class DoubleSumAccumulator extends VariableAccumulator
+	{
+		private final boolean count;
+		private final boolean compensated;
+		private final double[] sums = new double[SLOT_COUNT];
+		private final double[] compensations = new double[SLOT_COUNT];
+		
+		protected DoubleSumAccumulator(boolean count, boolean compensated)
+		{
+			this.count = count;
+			this.compensated = compensated;
+		}
+
+		@Override
+		public boolean increment(int baseSlot, int slot, Number value, boolean initialized)
+		{
+			if (value == null && !count)
+			{
+				if (initialized)
+				{
+					setValue(slot, null);
+				}
+				else
+				{
+					copy(baseSlot, slot);
+				}
+				return true;
+			}
+			
+			double sum;
+			double compensation;
+			if (isRestart(baseSlot, initialized))
+			{
+				sum = 0;
+				compensation = 0;
+			}
+			else if (isAccumulated(baseSlot))
+			{
+				sum = sums[baseSlot];
+				compensation = compensations[baseSlot];
+			}
+			else
+			{
+				sum = ((Number) getValue(baseSlot)).doubleValue();
+				compensation = 0;
+			}
+			
+			if (count)
+			{
+				sums[slot] = value == null ? sum : sum + 1;
+				compensations[slot] = 0;
+			}
+			else if (compensated)
+			{
+				double x = value.doubleValue();
+				double total = sum + x;
+				// Neumaier's variant of the Kahan summation
+				compensations[slot] = compensation 
+						+ (Math.abs(sum) >= Math.abs(x) ? (sum - total) + x : (x - total) + sum);
+				sums[slot] = total;
+			}
+			else
+			{
+				sums[slot] = sum + value.doubleValue();
+				compensations[slot] = 0;
+			}
+			setAccumulated(slot);
+			return true;
+		}
+
+		@Override
+		protected void copyState(int fromSlot, int toSlot)
+		{
+			sums[toSlot] = sums[fromSlot];
+			compensations[toSlot] = compensations[fromSlot];
+		}
+
+		@Override
+		protected Object boxState(int slot)
+		{
+			return sums[slot] + compensations[slot];
+		}
+	}
+
+	
+	/**
+	 * Computes averages as sums divided by counts, and variances using the same recurrence 
+	 * as the default incrementers, keeping the count and sum that are otherwise held by helper variables.
+	 */
+	protected static class DoubleMomentsAccumulator extends VariableAccumulator
+	{
+		private final CalculationEnum calculation;
+		private final boolean compensated;
+		private final double[] counts = new double[SLOT_COUNT];
+		private final double[] sums = new double[SLOT_COUNT];
+		private final double[] compensations = new double[SLOT_COUNT];
+		private final double[] variances = new double[SLOT_COUNT];
+		
+		protected DoubleMomentsAccumulator(CalculationEnum calculation, boolean compensated)
+		{
+			this.calculation = calculation;
+			this.compensated = compensated;
+		}
+
+		@Override
+		public boolean increment(int baseSlot, int slot, Number value, boolean initialized)
+		{
+			if (value == null)
+			{
+				if (initialized)
+				{
+					setValue(slot, null);
+				}
+				else
+				{
+					copy(baseSlot, slot);
+				}
+				return true;
+			}
+			
+			double x = value.doubleValue();
+			if (isRestart(baseSlot, initialized))
+			{
+				counts[slot] = 1;
+				sums[slot] = x;
+				compensations[slot] = 0;
+				variances[slot] = 0;
+			}
+			else if (isAccumulated(baseSlot))
+			{
+				double count = counts[baseSlot] + 1;
+				double sum = sums[baseSlot];
+				double compensation = compensations[baseSlot];
+				double total = sum + x;
+				if (compensated)
+				{
+					compensation += Math.abs(sum) >= Math.abs(x) ? (sum - total) + x : (x - total) + sum;
+				}
+				
+				if (calculation != CalculationEnum.AVERAGE)
+				{
+					// same expression as JRDoubleVarianceIncrementer, for identical rounding
+					double s = compensated ? total + compensation : total;
+					double variance = variances[baseSlot];
+					variances[slot] = 
+							(count - 1) * variance / count +
+							(s / count - x) *
+							(s / count - x) /
+							(count - 1);
+				}
+				
+				counts[slot] = count;
+				sums[slot] = total;
+				compensations[slot] = compensation;
+			}
+			else
+			{
+				// the count of the values is not known
+				return false;
+			}
+			setAccumulated(slot);
+			return true;
+		}
+
+		@Override
+		protected void copyState(int fromSlot, int toSlot)
+		{
+			counts[toSlot] = counts[fromSlot];
+			sums[toSlot] = sums[fromSlot];
+			compensations[toSlot] = compensations[fromSlot];
+			variances[toSlot] = variances[fromSlot];
+		}
+
+		@Override
+		protected Object boxState(int slot)
+		{
+			switch (calculation)
+			{
+				case AVERAGE:
+					return (compensated ? sums[slot] + compensations[slot] : sums[slot]) / counts[slot];
+				case STANDARD_DEVIATION:
+					return Math.sqrt(variances[slot]);
+				case VARIANCE:
+				default:
+					return variances[slot];
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Subreport runners factory that fills subreports on virtual threads.
+ * <p>
+ * Like {@link ThreadPoolSubreportRunnerFactory}, subreport fills run on separate threads which hand control
+ * back and forth with the master filler, but each subreport fill gets a new virtual thread instead of a platform thread.
+ * Virtual threads are cheap to create and, while a subreport filler is suspended waiting for the master
+ * to create a new page, do not necessarily hold an OS thread, so reports with many active nested subreports
+ * no longer pin an OS thread for each subreport filler.
+ * The master filler and the subreport threads hand control to each other through a lock and a condition
+ * (see {@link AbstractThreadSubreportRunner}), so a suspended subreport thread does not pin its carrier thread.
+ * </p>
+ * <p>
+ * Virtual threads are available starting with Java 21 and are looked up at runtime.
+ * On older Java versions the factory falls back to the cached thread pool used by {@link ThreadPoolSubreportRunnerFactory}.
+ * </p>
+ * <p>
+ * The factory is used by setting {@link JRSubreportRunnerFactory#SUBREPORT_RUNNER_FACTORY} to the name of this class.
+ * </p>
+ */
+public class VirtualThreadSubreportRunnerFactory extends ThreadPoolSubreportRunnerFactory
+{
+	private static final Log log = LogFactory.getLog(VirtualThreadSubreportRunnerFactory.class);
+	
+	private static final VirtualThreads VIRTUAL_THREADS = VirtualThreads.lookup();
+
+	/**
+	 * Determines whether subreports are filled on virtual threads in the current Java runtime.
+	 */
+	public static boolean isVirtualThreadsAvailable()
+	{
+		return VIRTUAL_THREADS != null;
+	}
+	
+	@Override
+	protected ExecutorService createThreadExecutor(JRFillContext fillContext)
+	{
+		if (VIRTUAL_THREADS != null)
+		{
+			String threadNamePrefix = fillContext.getMasterFiller().getJasperReport().getName() + " subreports #";
+			try
+			{
+				ExecutorService threadExecutor = VIRTUAL_THREADS.createExecutor(threadNamePrefix);
+				if (log.isDebugEnabled())
+				{
+					log.debug("created subreports virtual thread executor " + threadExecutor 
+							+ " for " + fillContext.getMasterFiller().getJasperReport().getName());
+				}
+				return threadExecutor;
+			}
+			catch (Exception e)
+			{
+				// virtual threads are a preview feature on Java 19 and 20
+				log.warn("Failed to create virtual thread executor, using platform threads", e);
+			}
+		}
+		
+		return super.createThreadExecutor(fillContext);
+	}
+	
+	protected static class VirtualThreads
+	{
+		private final Method ofVirtual;
+		private final Method name;
+		private final Method factory;
+		private final Method newThreadPerTaskExecutor;
+		
+		protected static VirtualThreads lookup()
+		{
+			try
+			{
+				Method ofVirtual = Thread.class.getMethod("ofVirtual");
+				Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+				Method name = builderClass.getMethod("name", String.class, long.class);
+				Method factory = builderClass.getMethod("factory");
+				Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+				return new VirtualThreads(ofVirtual, name, factory, newThreadPerTaskExecutor);
+			}
+			catch (ClassNotFoundException | NoSuchMethodException | SecurityException e)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("virtual threads not available: " + e);
+				}
+				return null;
+			}
+		}
+		
+		private VirtualThreads(Method ofVirtual, Method name, Method factory, Method newThreadPerTaskExecutor)
+		{
+			this.ofVirtual = ofVirtual;
+			this.name = name;
+			this.factory = factory;
+			this.newThreadPerTaskExecutor = newThreadPerTaskExecutor;
+		}
+		
+		protected ExecutorService createExecutor(String threadNamePrefix) throws Exception
+		{
+			Object builder = ofVirtual.invoke(null);
+			builder = name.invoke(builder, threadNamePrefix, 1L);
+			ThreadFactory threadFactory = (ThreadFactory) factory.invoke(builder);
+			return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+		}
+	}
+}
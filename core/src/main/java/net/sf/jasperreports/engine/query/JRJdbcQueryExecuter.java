@@ -118,6 +118,9 @@ public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
 	protected ResultSet resultSet;
 	
 	private boolean isCachedRowSet;
+	
+	private int prefetchBlockSize;
+	private PrefetchResultSetDataSource prefetchDataSource;
 
 	private TimeZone parametersTimeZone;
 	private boolean parametersTimeZoneOverride;
@@ -170,6 +173,7 @@ public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
 		}
 		
 		isCachedRowSet = getBooleanParameterOrProperty(JRJdbcQueryExecuterFactory.PROPERTY_CACHED_ROWSET, false);
+		prefetchBlockSize = getIntegerParameterOrProperty(JRJdbcQueryExecuterFactory.PROPERTY_JDBC_PREFETCH_BLOCK_SIZE, 0);
 		
 		setTimeZone();
 
@@ -350,6 +354,26 @@ public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
 				
 				TimeZone reportTimeZone = (TimeZone) getParameterValue(JRParameter.REPORT_TIME_ZONE, true);
 				dataSource.setReportTimeZone(reportTimeZone);
+				
+				if (prefetchBlockSize > 0 && !isCachedRowSet 
+						&& dataset.getFields() != null && dataset.getFields().length > 0)
+				{
+					if (PrefetchResultSetDataSource.isPrefetchSupported(dataset.getFields()))
+					{
+						if (log.isDebugEnabled())
+						{
+							log.debug("prefetching result set in blocks of " + prefetchBlockSize + " rows");
+						}
+						
+						prefetchDataSource = new PrefetchResultSetDataSource(dataSource, dataset.getFields(), prefetchBlockSize);
+						return prefetchDataSource;
+					}
+					
+					if (log.isDebugEnabled())
+					{
+						log.debug("not prefetching result set because of connection bound field types");
+					}
+				}
 			}
 			catch (SQLTimeoutException e)
 			{
@@ -932,6 +956,13 @@ public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
 	@Override
 	public synchronized void close()
 	{
+		if (prefetchDataSource != null)
+		{
+			// stop reading from the result set before closing it
+			prefetchDataSource.close();
+			prefetchDataSource = null;
+		}
+		
 		if (resultSet != null)
 		{
 			try
@@ -137,6 +137,31 @@ public class JRJdbcQueryExecuterFactory extends AbstractQueryExecuterFactory imp
 			)
 	public static final String PROPERTY_CACHED_ROWSET = JRPropertiesUtil.PROPERTY_PREFIX + "jdbc.cached.rowset";
 
+	/**
+	 * Property specifying the number of rows in the blocks read in advance from the result set
+	 * by a background thread, while the report filler consumes the previously read rows.
+	 * <p/>
+	 * A positive value enables prefetching; by default prefetching is disabled.
+	 * Prefetching is not used when the data is stored in a cached rowset.
+	 * <p/>
+	 * The background thread reads from the result set while the filler can run other queries
+	 * on the same connection, for instance for subreports, charts or tables.
+	 * Enabling prefetching is therefore unsafe with JDBC drivers that do not support concurrent use
+	 * of a connection from several threads, unless the report connection is not used by other 
+	 * queries during the fill.
+	 * 
+	 * @see PrefetchResultSetDataSource
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			scopeQualifications = {QUERY_EXECUTER_NAME},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_JDBC_PREFETCH_BLOCK_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "jdbc.prefetch.block.size";
+
 	/**
 	 * Property specifying the default time zone to be used for sending and retrieving 
 	 * date/time values to and from the database.
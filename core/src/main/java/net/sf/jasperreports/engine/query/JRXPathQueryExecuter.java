@@ -25,6 +25,7 @@ package net.sf.jasperreports.engine.query;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
@@ -36,9 +37,12 @@ import org.w3c.dom.Document;
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRDataset;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
 import net.sf.jasperreports.engine.JRValueParameter;
 import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.data.JRAbstractTextDataSource;
 import net.sf.jasperreports.engine.data.JRXmlDataSource;
+import net.sf.jasperreports.engine.data.StaxXmlDataSource;
 
 /**
  * XPath query executer implementation.
@@ -49,6 +53,9 @@ import net.sf.jasperreports.engine.data.JRXmlDataSource;
  * <p/>
  * All the parameters in the XPath query are replaced by calling <code>String.valueOf(Object)</code>
  * on the parameter value.
+ * <p/>
+ * When {@link JRXPathQueryExecuterFactory#PROPERTY_XML_STREAMING} is set and the query and field expressions 
+ * are simple paths, the XML data is read by a streaming {@link StaxXmlDataSource}.
  * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
@@ -59,6 +66,7 @@ public class JRXPathQueryExecuter extends JRAbstractQueryExecuter
 	public static final String CANONICAL_LANGUAGE = "XPath";
 	
 	private JRXmlDataSource datasource;
+	private StaxXmlDataSource streamingDatasource;
 
 	/**
 	 * 
@@ -108,6 +116,19 @@ public class JRXPathQueryExecuter extends JRAbstractQueryExecuter
 			log.debug("XPath query: " + xPath);
 		}
 		
+		if (xPath != null//FIXME maybe we should create data source with no select expression too
+				&& getBooleanParameterOrProperty(JRXPathQueryExecuterFactory.PROPERTY_XML_STREAMING, false)
+				&& getParameterValue(JRXPathQueryExecuterFactory.PARAMETER_XML_DATA_DOCUMENT) == null
+				&& isStreamingSupported(xPath))
+		{
+			streamingDatasource = createStreamingDatasource(xPath);
+			if (streamingDatasource != null)
+			{
+				setTextAttributes(streamingDatasource);
+				return streamingDatasource;
+			}
+		}
+		
 		if (xPath != null)//FIXME maybe we should create data source with no select expression too
 		{
 			Document document = (Document) getParameterValue(JRXPathQueryExecuterFactory.PARAMETER_XML_DATA_DOCUMENT);
@@ -136,15 +157,89 @@ public class JRXPathQueryExecuter extends JRAbstractQueryExecuter
 
 			if (datasource != null)
 			{
-				datasource.setLocale((Locale)getParameterValue(JRXPathQueryExecuterFactory.XML_LOCALE, true));
-				datasource.setDatePattern(getStringParameter(JRXPathQueryExecuterFactory.XML_DATE_PATTERN, JRXPathQueryExecuterFactory.PROPERTY_XML_DATE_PATTERN));
-				datasource.setNumberPattern(getStringParameter(JRXPathQueryExecuterFactory.XML_NUMBER_PATTERN, JRXPathQueryExecuterFactory.PROPERTY_XML_NUMBER_PATTERN));
-				datasource.setTimeZone((TimeZone)getParameterValue(JRXPathQueryExecuterFactory.XML_TIME_ZONE, true));
+				setTextAttributes(datasource);
 			}
 		}
 		
 		return datasource;
 	}
+	
+	protected void setTextAttributes(JRAbstractTextDataSource datasource)
+	{
+		datasource.setLocale((Locale)getParameterValue(JRXPathQueryExecuterFactory.XML_LOCALE, true));
+		datasource.setDatePattern(getStringParameter(JRXPathQueryExecuterFactory.XML_DATE_PATTERN, JRXPathQueryExecuterFactory.PROPERTY_XML_DATE_PATTERN));
+		datasource.setNumberPattern(getStringParameter(JRXPathQueryExecuterFactory.XML_NUMBER_PATTERN, JRXPathQueryExecuterFactory.PROPERTY_XML_NUMBER_PATTERN));
+		datasource.setTimeZone((TimeZone)getParameterValue(JRXPathQueryExecuterFactory.XML_TIME_ZONE, true));
+	}
+	
+	/**
+	 * Decides whether the query and the dataset fields can be evaluated by {@link StaxXmlDataSource}.
+	 * 
+	 * @param xPath the query
+	 * @return whether the streaming data source can be used
+	 */
+	protected boolean isStreamingSupported(String xPath)
+	{
+		if (!StaxXmlDataSource.isSupportedSelectExpression(xPath))
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("XPath query " + xPath + " not supported by the streaming data source");
+			}
+			return false;
+		}
+		
+		JRField[] fields = dataset.getFields();
+		if (fields != null)
+		{
+			for (JRField field : fields)
+			{
+				String fieldExpression = StaxXmlDataSource.getFieldExpression(field);
+				if (!StaxXmlDataSource.isSupportedFieldExpression(fieldExpression)
+						|| !isStreamingValueClass(field.getValueClass()))
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("Field " + field.getName() + " with expression " + fieldExpression 
+								+ " not supported by the streaming data source");
+					}
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	protected boolean isStreamingValueClass(Class<?> valueClass)
+	{
+		// the DOM data source returns nodes for other classes
+		return String.class.equals(valueClass) || Boolean.class.equals(valueClass)
+				|| Number.class.isAssignableFrom(valueClass) || Date.class.isAssignableFrom(valueClass);
+	}
+	
+	protected StaxXmlDataSource createStreamingDatasource(String xPath) throws JRException
+	{
+		InputStream xmlInputStream = (InputStream) getParameterValue(JRXPathQueryExecuterFactory.XML_INPUT_STREAM);
+		if (xmlInputStream != null)
+		{
+			return new StaxXmlDataSource(xmlInputStream, xPath);
+		}
+		
+		File xmlFile = (File) getParameterValue(JRXPathQueryExecuterFactory.XML_FILE);
+		if (xmlFile != null)
+		{
+			return new StaxXmlDataSource(xmlFile, xPath);
+		}
+		
+		String xmlSource = getStringParameterOrProperty(JRXPathQueryExecuterFactory.XML_SOURCE);
+		if (xmlSource != null)
+		{
+			return new StaxXmlDataSource(getRepositoryContext(), xmlSource, xPath);
+		}
+		
+		return null;
+	}
 
 	@Override
 	public void close()
@@ -152,6 +247,11 @@ public class JRXPathQueryExecuter extends JRAbstractQueryExecuter
 		if(datasource != null){
 			datasource.close();
 		}
+		if (streamingDatasource != null)
+		{
+			streamingDatasource.close();
+			streamingDatasource = null;
+		}
 	}
 
 	@Override
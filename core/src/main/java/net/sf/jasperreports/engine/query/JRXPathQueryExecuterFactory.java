@@ -105,6 +105,27 @@ public class JRXPathQueryExecuterFactory extends AbstractQueryExecuterFactory im
 	
 	public static final String QUERY_EXECUTER_NAME = "net.sf.jasperreports.query.executer:XPATH";
 	
+	/**
+	 * Property that specifies whether the XPath query executer should read the XML data with a streaming 
+	 * {@link net.sf.jasperreports.engine.data.StaxXmlDataSource} instead of parsing the whole document
+	 * into a {@link net.sf.jasperreports.engine.data.JRXmlDataSource}.
+	 * <p>
+	 * The streaming data source is only used when the XML data is provided as an input stream, file or source location,
+	 * and when the query and all the field expressions are supported by it; otherwise the executer falls back to
+	 * the DOM based data source. Report expressions that cast the report data source to 
+	 * {@link net.sf.jasperreports.engine.data.JRXmlDataSource} do not work with the streaming data source.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			scopeQualifications = {QUERY_EXECUTER_NAME},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_XML_STREAMING = JRPropertiesUtil.PROPERTY_PREFIX + "xml.streaming";
+	
 	/**
 	 * Built-in parameter holding the value of the org.w3c.dom.Document used to run the XPath query.
 	 */
@@ -0,0 +1,438 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.query;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Struct;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.rowset.serial.SerialArray;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.data.cache.ColumnDataCacheHandler;
+import net.sf.jasperreports.data.cache.ColumnStore;
+import net.sf.jasperreports.data.cache.ColumnValuesIterator;
+import net.sf.jasperreports.data.cache.TypedColumnStore;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.data.FieldReaderCache;
+
+
+/**
+ * Data source that reads the rows of a result set data source in blocks, on a background thread.
+ * <p/>
+ * While the filler consumes the rows of a block, the next block is read from the result set,
+ * so that the database and network latency overlaps with the report fill work.
+ * The values of each block are kept in column stores; columns of numeric, boolean and string
+ * types use the compact stores from the {@link net.sf.jasperreports.data.cache} package,
+ * the other columns keep the values in plain object arrays.
+ * <p/>
+ * The result set is only accessed by the prefetch thread after the first call to {@link #next()}.
+ * Other queries that run on the same JDBC connection during the fill, e.g. subreport queries, 
+ * use the connection concurrently with the prefetch thread.
+ * This is not safe with JDBC drivers that do not support using a connection from several threads.
+ * <p/>
+ * <code>java.sql.Blob</code>, <code>java.sql.Clob</code> and <code>java.sql.Array</code> values are copied 
+ * on the prefetch thread, as they can be tied to the current row of the result set.
+ * Prefetching is not supported for fields of other connection bound types, 
+ * see {@link #isPrefetchSupported(JRField[])}.
+ * 
+ * @see JRJdbcQueryExecuterFactory#PROPERTY_JDBC_PREFETCH_BLOCK_SIZE
+ */
+public class PrefetchResultSetDataSource implements JRDataSource
+{
+	
+	private static final Log log = LogFactory.getLog(PrefetchResultSetDataSource.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_PREFETCH_INTERRUPTED = "query.jdbc.prefetch.interrupted";
+	
+	private static final long PUT_WAIT_MILLIS = 100;
+	
+	private static final Set<Class<?>> STORE_TYPES = new HashSet<>(Arrays.<Class<?>>asList(
+			Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class, 
+			Boolean.class, String.class, BigDecimal.class));
+	
+	private static final Set<Class<?>> UNSUPPORTED_TYPES = new HashSet<>(Arrays.<Class<?>>asList(
+			NClob.class, Ref.class, Struct.class, SQLXML.class));
+	
+	private static final AtomicInteger threadCount = new AtomicInteger();
+	
+	/**
+	 * Determines whether the values of a set of fields can be read in advance.
+	 * 
+	 * @param fields the fields
+	 * @return <code>false</code> if there are fields of connection bound types that are not copied,
+	 * such as <code>java.sql.NClob</code>, <code>java.sql.Ref</code>, <code>java.sql.Struct</code> 
+	 * or <code>java.sql.SQLXML</code>
+	 */
+	public static boolean isPrefetchSupported(JRField[] fields)
+	{
+		for (JRField field : fields)
+		{
+			if (UNSUPPORTED_TYPES.contains(field.getValueClass()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final JRResultSetDataSource dataSource;
+	private final JRField[] fields;
+	private final int blockSize;
+	private final boolean[] storeColumns;
+	private final Map<String, Integer> fieldIndexes;
+	private final FieldReaderCache<Integer> fieldColumns;
+	private final ColumnDataCacheHandler storeHandler;
+	
+	private final BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(1);
+	private Thread prefetchThread;
+	private volatile boolean closed;
+	
+	private Block currentBlock;
+	private int currentRow;
+	private boolean finished;
+
+	/**
+	 * @param dataSource the result set data source to read rows from
+	 * @param fields the fields to read for each row
+	 * @param blockSize the number of rows in a block
+	 */
+	public PrefetchResultSetDataSource(JRResultSetDataSource dataSource, JRField[] fields, int blockSize)
+	{
+		this.dataSource = dataSource;
+		this.fields = fields;
+		this.blockSize = blockSize;
+		
+		this.storeColumns = new boolean[fields.length];
+		this.fieldIndexes = new HashMap<>();
+		for (int i = 0; i < fields.length; i++)
+		{
+			storeColumns[i] = STORE_TYPES.contains(fields[i].getValueClass());
+			fieldIndexes.put(fields[i].getName(), i);
+		}
+		
+		this.fieldColumns = new FieldReaderCache<>(this::getFieldIndex);
+		this.storeHandler = new ColumnDataCacheHandler();
+	}
+	
+	protected Integer getFieldIndex(JRField field) throws JRException
+	{
+		Integer index = fieldIndexes.get(field.getName());
+		if (index == null)
+		{
+			throw 
+				new JRException(
+					JRResultSetDataSource.EXCEPTION_MESSAGE_KEY_RESULT_SET_UNKNOWN_COLUMN_NAME,
+					new Object[]{field.getName()});
+		}
+		return index;
+	}
+
+	@Override
+	public boolean next() throws JRException
+	{
+		if (finished)
+		{
+			return false;
+		}
+		
+		if (prefetchThread == null)
+		{
+			startPrefetch();
+		}
+		
+		while (currentBlock == null || currentRow + 1 >= currentBlock.size)
+		{
+			if (currentBlock != null && currentBlock.last)
+			{
+				finished = true;
+				currentBlock = null;
+				return false;
+			}
+			
+			currentBlock = takeBlock();
+			currentRow = -1;
+		}
+		
+		++currentRow;
+		for (ColumnValuesIterator iterator : currentBlock.storeValues)
+		{
+			if (iterator != null)
+			{
+				iterator.next();
+			}
+		}
+		fieldColumns.reset();
+		return true;
+	}
+
+	@Override
+	public Object getFieldValue(JRField field) throws JRException
+	{
+		if (currentBlock == null)
+		{
+			return null;
+		}
+		
+		int column = fieldColumns.get(field);
+		Object[] values = currentBlock.objectValues[column];
+		return values == null ? currentBlock.storeValues[column].get() : values[currentRow];
+	}
+	
+	protected void startPrefetch()
+	{
+		prefetchThread = new Thread(this::prefetch, "JR JDBC prefetch " + threadCount.incrementAndGet());
+		prefetchThread.setDaemon(true);
+		prefetchThread.start();
+	}
+	
+	protected Block takeBlock() throws JRException
+	{
+		Block block;
+		try
+		{
+			block = blocks.take();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_PREFETCH_INTERRUPTED,
+					null, 
+					e);
+		}
+		
+		if (block.error != null)
+		{
+			finished = true;
+			throw block.error;
+		}
+		return block;
+	}
+
+	protected void prefetch()
+	{
+		try
+		{
+			boolean last = false;
+			while (!last && !closed)
+			{
+				Block block = readBlock();
+				last = block.last;
+				putBlock(block);
+			}
+		}
+		catch (JRException e)
+		{
+			putBlock(new Block(e));
+		}
+		catch (RuntimeException e)
+		{
+			putBlock(new Block(new JRException(e)));
+		}
+		catch (Error e)
+		{
+			putBlock(new Block(new JRException(e)));
+			throw e;
+		}
+	}
+	
+	protected Block readBlock() throws JRException
+	{
+		ColumnStore[] stores = new ColumnStore[fields.length];
+		Object[][] objectValues = new Object[fields.length][];
+		for (int i = 0; i < fields.length; i++)
+		{
+			if (storeColumns[i])
+			{
+				stores[i] = new TypedColumnStore(storeHandler, fields[i].getValueClass());
+			}
+			else
+			{
+				objectValues[i] = new Object[blockSize];
+			}
+		}
+		
+		int count = 0;
+		boolean last = false;
+		while (count < blockSize && !closed)
+		{
+			if (!dataSource.next())
+			{
+				last = true;
+				break;
+			}
+			
+			for (int i = 0; i < fields.length; i++)
+			{
+				Object value = dataSource.getFieldValue(fields[i]);
+				if (stores[i] == null)
+				{
+					objectValues[i][count] = copyValue(value);
+				}
+				else
+				{
+					stores[i].addValue(value);
+				}
+			}
+			++count;
+		}
+		
+		ColumnValuesIterator[] storeValues = new ColumnValuesIterator[fields.length];
+		for (int i = 0; i < fields.length; i++)
+		{
+			if (stores[i] != null)
+			{
+				storeValues[i] = stores[i].createValues().iterator();
+			}
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("prefetched block of " + count + " rows" + (last ? ", last block" : ""));
+		}
+		
+		return new Block(count, last, storeValues, objectValues);
+	}
+	
+	/**
+	 * Copies values that can be tied to the current row of the result set.
+	 */
+	protected Object copyValue(Object value) throws JRException
+	{
+		try
+		{
+			if (value instanceof Blob)
+			{
+				return new SerialBlob((Blob) value);
+			}
+			if (value instanceof Clob && !(value instanceof NClob))
+			{
+				return new SerialClob((Clob) value);
+			}
+			if (value instanceof Array)
+			{
+				return new SerialArray((Array) value);
+			}
+			return value;
+		}
+		catch (SQLException e)
+		{
+			throw new JRException(e);
+		}
+	}
+	
+	protected void putBlock(Block block)
+	{
+		try
+		{
+			while (!closed)
+			{
+				if (blocks.offer(block, PUT_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+				{
+					break;
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("prefetch interrupted", e);
+			}
+		}
+	}
+
+	/**
+	 * Stops the prefetch thread, waiting for the current row to be read.
+	 * This needs to be called before closing the result set.
+	 */
+	public void close()
+	{
+		closed = true;
+		if (prefetchThread != null)
+		{
+			try
+			{
+				prefetchThread.join();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		blocks.clear();
+		currentBlock = null;
+	}
+	
+	protected static class Block
+	{
+		private final int size;
+		private final boolean last;
+		private final ColumnValuesIterator[] storeValues;
+		private final Object[][] objectValues;
+		private final JRException error;
+		
+		protected Block(int size, boolean last, ColumnValuesIterator[] storeValues, Object[][] objectValues)
+		{
+			this.size = size;
+			this.last = last;
+			this.storeValues = storeValues;
+			this.objectValues = objectValues;
+			this.error = null;
+		}
+		
+		protected Block(JRException error)
+		{
+			this.size = 0;
+			this.last = true;
+			this.storeValues = null;
+			this.objectValues = null;
+			this.error = error;
+		}
+	}
+}
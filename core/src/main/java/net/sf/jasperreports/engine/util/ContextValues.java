@@ -0,0 +1,74 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.util.function.Supplier;
+
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+
+/**
+ * Keeps objects shared by the operations that run in a {@link JasperReportsContext}, such as caches,
+ * as values of the context.
+ * 
+ * @see JasperReportsContext#getOwnValue(String)
+ */
+public final class ContextValues
+{
+	
+	private static final Object LOCK = new Object();
+	
+	private ContextValues()
+	{
+	}
+
+	/**
+	 * Returns the value set for a key on a context, creating and setting it if the context does not have one.
+	 * <p>
+	 * The value is set on the context itself and it is not inherited from parent contexts,
+	 * so that it is kept for as long as the context is used.
+	 * </p>
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param key the value key
+	 * @param type the value type
+	 * @param factory creates the value when the context does not have one
+	 * @param <T> the value type
+	 * @return the value of the context
+	 */
+	public static <T> T getOwnValue(JasperReportsContext jasperReportsContext, String key, Class<T> type, Supplier<T> factory)
+	{
+		synchronized (LOCK)
+		{
+			Object value = jasperReportsContext.getOwnValue(key);
+			if (!type.isInstance(value))
+			{
+				value = factory.get();
+				jasperReportsContext.setValue(key, value);
+			}
+			return type.cast(value);
+		}
+	}
+	
+}
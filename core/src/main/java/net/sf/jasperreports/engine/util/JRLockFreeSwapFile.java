@@ -0,0 +1,141 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+
+/**
+ * {@link JRConcurrentSwapFile} derived class that also allocates and frees blocks
+ * without locking.
+ * <p>
+ * Free blocks are kept in a lock-free stack, and new blocks are allocated by atomically
+ * advancing the end of the swap file.  The file grows as blocks are written via positional
+ * writes, so no synchronized file resizing is required.
+ * Fill threads that page objects in and out of the same swap file do not contend on
+ * a common monitor.
+ * </p>
+ */
+public class JRLockFreeSwapFile extends JRConcurrentSwapFile
+{
+	private final long blockSize;
+	private final AtomicLong fileEnd;
+	private final AtomicReference<FreeBlock> freeBlocks;
+
+	/**
+	 * Creates a swap file.
+	 * 
+	 * The file name is generated automatically.
+	 * 
+	 * @param directory the directory where the file should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 */
+	public JRLockFreeSwapFile(String directory, int blockSize)
+	{
+		this(DefaultJasperReportsContext.getInstance(), directory, blockSize);
+	}
+
+	/**
+	 * Creates a swap file.
+	 * 
+	 * The file name is generated automatically.
+	 * 
+	 * @param jasperReportsContext the JasperReportsContext to read configuration from.
+	 * @param directory the directory where the file should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 */
+	public JRLockFreeSwapFile(JasperReportsContext jasperReportsContext, String directory, int blockSize)
+	{
+		// the free blocks queue of the superclass is not used
+		super(jasperReportsContext, directory, blockSize, 1);
+		
+		this.blockSize = blockSize;
+		this.fileEnd = new AtomicLong();
+		this.freeBlocks = new AtomicReference<>();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "JRLockFreeSwapFile " + swapFile.getAbsolutePath();
+	}
+
+	@Override
+	protected long[] reserveFreeBlocks(int blockCount) throws IOException
+	{
+		long[] offsets = new long[blockCount];
+		for (int i = 0; i < blockCount; i++)
+		{
+			offsets[i] = reserveBlock();
+		}
+		return offsets;
+	}
+
+	protected long reserveBlock()
+	{
+		FreeBlock top;
+		do
+		{
+			top = freeBlocks.get();
+			if (top == null)
+			{
+				return fileEnd.getAndAdd(blockSize);
+			}
+		}
+		while (!freeBlocks.compareAndSet(top, top.next));
+		
+		return top.offset;
+	}
+
+	@Override
+	protected void freeBlocks(long[] offsets)
+	{
+		// pushing in reverse order so that the blocks are reused in the same order
+		for (int i = offsets.length - 1; i >= 0; --i)
+		{
+			FreeBlock block = new FreeBlock(offsets[i]);
+			do
+			{
+				block.next = freeBlocks.get();
+			}
+			while (!freeBlocks.compareAndSet(block.next, block));
+		}
+	}
+	
+	protected static class FreeBlock
+	{
+		private final long offset;
+		private FreeBlock next;
+		
+		protected FreeBlock(long offset)
+		{
+			this.offset = offset;
+		}
+	}
+}
@@ -32,16 +32,19 @@ import java.lang.ref.SoftReference;
 import java.text.AttributedCharacterIterator;
 import java.text.AttributedCharacterIterator.Attribute;
 import java.text.AttributedString;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.StringTokenizer;
+import java.util.function.Function;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -58,15 +61,21 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRConstants;
 import net.sf.jasperreports.engine.JRPrintHyperlink;
 import net.sf.jasperreports.engine.JRPrintHyperlinkParameter;
 import net.sf.jasperreports.engine.JRPrintHyperlinkParameters;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.base.JRBasePrintHyperlink;
 import net.sf.jasperreports.engine.fonts.FontFamily;
 import net.sf.jasperreports.engine.type.HyperlinkTypeEnum;
 import net.sf.jasperreports.engine.util.JRStyledText.Run;
 import net.sf.jasperreports.extensions.ExtensionsEnvironment;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -76,6 +85,28 @@ public class JRStyledTextParser implements ErrorHandler
 {
 	private static final Log log = LogFactory.getLog(JRStyledTextParser.class);
 
+	/**
+	 * Property that specifies the number of parsed styled texts cached by each styled text parser instance.
+	 * <p>
+	 * Parsers are kept per thread, and texts that are found in the cache are not parsed again.
+	 * Texts that contain hyperlinks or lists are not cached.
+	 * Setting the property to 0 disables the cache.
+	 * </p>
+	 * The property is read when the parser instance of a thread is created.
+	 */
+	@Property(
+			valueType = Integer.class,
+			defaultValue = "100",
+			scopes = {PropertyScope.GLOBAL},
+			sinceVersion = PropertyConstants.VERSION_7_0_3
+			)
+	public static final String PROPERTY_PARSE_CACHE_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "styled.text.parse.cache.size";
+	
+	/**
+	 * Texts longer than this are not cached.
+	 */
+	private static final int PARSE_CACHE_MAX_TEXT_LENGTH = 4096;
+
 	private static final Set<String> AVAILABLE_FONT_FACE_NAMES = new HashSet<>();
 	static
 	{
@@ -216,12 +247,33 @@ public class JRStyledTextParser implements ErrorHandler
 	private boolean insideLi;
 	private boolean liStart;
 	private StyledTextListInfo justClosedList;
+	private boolean textAppended;
+	
+	/**
+	 * State of the markup parser.
+	 */
+	private final StringBuilder markupText = new StringBuilder();
+	private final List<MarkupElement> markupElements = new ArrayList<>();
+	private final List<String> markupAttributeNames = new ArrayList<>();
+	private final List<String> markupAttributeValues = new ArrayList<>();
+	private final Function<String,String> markupAttributes = this::getMarkupAttribute;
+	
+	private final Map<String, ParsedText> parseCache;
 
 
 	/**
 	 *
 	 */
 	private JRStyledTextParser()
+	{
+		this(JRPropertiesUtil.getInstance(DefaultJasperReportsContext.getInstance()).getIntegerProperty(PROPERTY_PARSE_CACHE_SIZE, 100));
+	}
+
+
+	/**
+	 *
+	 */
+	JRStyledTextParser(int parseCacheSize)
 	{
 		try
 		{
@@ -235,6 +287,17 @@ public class JRStyledTextParser implements ErrorHandler
 		{
 			throw new JRRuntimeException(e);
 		}
+		
+		parseCache = parseCacheSize > 0 ? new LinkedHashMap<String, ParsedText>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedText> eldest)
+			{
+				return size() > parseCacheSize;
+			}
+		} : null;
 	}
 
 
@@ -242,9 +305,76 @@ public class JRStyledTextParser implements ErrorHandler
 	 *
 	 */
 	public JRStyledText parse(Map<Attribute,Object> attributes, String text, Locale locale) throws SAXException
+	{
+		boolean cacheable = parseCache != null && text.length() <= PARSE_CACHE_MAX_TEXT_LENGTH;
+		ParsedText parsedText = cacheable ? parseCache.get(text) : null;
+		
+		JRStyledText styledText;
+		if (parsedText == null)
+		{
+			textAppended = false;
+			
+			styledText = new JRStyledText(locale);
+			
+			hyperlink = null;
+			htmlListStack = new Stack<>();
+			
+			boolean parsedMarkup;
+			boolean oldInsideLi = insideLi;
+			boolean oldLiStart = liStart;
+			StyledTextListInfo oldJustClosedList = justClosedList;
+			try
+			{
+				parsedMarkup = parseMarkup(styledText, text);
+			}
+			catch (RuntimeException e)
+			{
+				// letting the XML parser handle it
+				parsedMarkup = false;
+			}
+			
+			if (!parsedMarkup)
+			{
+				insideLi = oldInsideLi;
+				liStart = oldLiStart;
+				justClosedList = oldJustClosedList;
+				textAppended = false;
+				
+				styledText = parseXml(text, locale);
+			}
+			
+			if (cacheable && ParsedText.isCacheable(styledText))
+			{
+				parseCache.put(text, new ParsedText(styledText, textAppended));
+			}
+		}
+		else
+		{
+			styledText = parsedText.createStyledText(locale);
+			
+			if (parsedText.textAppended)
+			{
+				// the list state changes that parsing the text would have made
+				liStart = false;
+				justClosedList = null;
+			}
+		}
+		
+		styledText.setGlobalAttributes(attributes);
+		
+		return styledText;
+	}
+
+	/**
+	 * Parses a styled text using the XML parser, without the single pass markup parsing and without caching.
+	 */
+	JRStyledText parseXml(String text, Locale locale) throws SAXException
 	{
 		JRStyledText styledText = new JRStyledText(locale);
 		
+		hyperlink = null;
+		htmlListStack = new Stack<>();
+		
 		Document document = null;
 
 		try
@@ -256,13 +386,8 @@ public class JRStyledTextParser implements ErrorHandler
 			throw new JRRuntimeException(e);
 		}
 		
-		hyperlink = null;
-		htmlListStack = new Stack<>();
-		
 		parseStyle(styledText, document.getDocumentElement());
 		
-		styledText.setGlobalAttributes(attributes);
-		
 		return styledText;
 	}
 
@@ -533,131 +658,527 @@ public class JRStyledTextParser implements ErrorHandler
 	}
 
 	/**
-	 *
+	 * Parses styled text markup that only contains the most common styled text tags, 
+	 * building the styled text while the markup is being read.
+	 * 
+	 * @return <code>false</code> if the markup contains other tags or XML constructs, 
+	 * or is not well formed, in which case it needs to be parsed by the XML parser 
 	 */
-	private void parseStyle(JRStyledText styledText, Node parentNode) throws SAXException
+	private boolean parseMarkup(JRStyledText styledText, String text)
 	{
-		NodeList nodeList = parentNode.getChildNodes();
-		for(int i = 0; i < nodeList.getLength(); i++)
+		markupText.setLength(0);
+		markupElements.clear();
+		
+		int length = text.length();
+		int index = 0;
+		while (index < length)
 		{
-			Node node = nodeList.item(i);
-			if (node.getNodeType() == Node.TEXT_NODE)
+			char c = text.charAt(index);
+			if (c == '<')
 			{
-				liStart = false;
-				justClosedList = null;
-
-				styledText.append(node.getNodeValue());
+				appendMarkupText(styledText);
+				
+				index = index + 1 < length && text.charAt(index + 1) == '/'
+					? parseMarkupEndTag(styledText, text, index + 2)
+					: parseMarkupStartTag(styledText, text, index + 1);
+				if (index < 0)
+				{
+					return false;
+				}
 			}
-			else if (
-				node.getNodeType() == Node.ELEMENT_NODE
-				&& NODE_style.equals(node.getNodeName())
+			else if (c == '&')
+			{
+				index = parseMarkupReference(text, index + 1, markupText);
+				if (index < 0)
+				{
+					return false;
+				}
+			}
+			else if (c == '\r')
+			{
+				// XML line end normalization
+				markupText.append('\n');
+				index = index + 1 < length && text.charAt(index + 1) == '\n' ? index + 2 : index + 1;
+			}
+			else if (c == '>' && index >= 2 && text.charAt(index - 1) == ']' && text.charAt(index - 2) == ']')
+			{
+				// ]]> is not allowed in XML text
+				return false;
+			}
+			else
+			{
+				index = appendMarkupChar(text, index, markupText);
+				if (index < 0)
+				{
+					return false;
+				}
+			}
+		}
+		
+		appendMarkupText(styledText);
+		return markupElements.isEmpty();
+	}
+	
+	private void appendMarkupText(JRStyledText styledText)
+	{
+		if (markupText.length() > 0)
+		{
+			liStart = false;
+			justClosedList = null;
+			textAppended = true;
+			
+			styledText.append(markupText.toString());
+			markupText.setLength(0);
+		}
+	}
+	
+	private static int appendMarkupChar(String text, int index, StringBuilder sb)
+	{
+		char c = text.charAt(index);
+		if (Character.isHighSurrogate(c))
+		{
+			if (index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1)))
+			{
+				sb.append(c).append(text.charAt(index + 1));
+				return index + 2;
+			}
+			return -1;
+		}
+		
+		if (!isXmlChar(c))
+		{
+			return -1;
+		}
+		
+		sb.append(c);
+		return index + 1;
+	}
+	
+	private static boolean isXmlChar(int c)
+	{
+		return c == '\t' || c == '\n' || c == '\r'
+			|| (c >= 0x20 && c <= 0xD7FF)
+			|| (c >= 0xE000 && c <= 0xFFFD)
+			|| (c >= 0x10000 && c <= 0x10FFFF);
+	}
+	
+	private static boolean isXmlSpace(char c)
+	{
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+	
+	private static int skipXmlSpace(String text, int index)
+	{
+		int length = text.length();
+		int idx = index;
+		while (idx < length && isXmlSpace(text.charAt(idx)))
+		{
+			++idx;
+		}
+		return idx;
+	}
+	
+	/**
+	 * Reads a name made of ASCII characters, which are always allowed in XML names.
+	 */
+	private static int parseMarkupName(String text, int index)
+	{
+		int length = text.length();
+		int idx = index;
+		while (idx < length)
+		{
+			char c = text.charAt(idx);
+			if (
+				(c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+				|| (idx > index && ((c >= '0' && c <= '9') || c == '-' || c == '.'))
 				)
 			{
-				NamedNodeMap nodeAttrs = node.getAttributes();
-
-				Map<Attribute,Object> styleAttrs = new HashMap<>();
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_fontName) != null)
+				++idx;
+			}
+			else
+			{
+				break;
+			}
+		}
+		return idx;
+	}
+	
+	/**
+	 * Decodes an entity or character reference.
+	 * 
+	 * @return the index after the reference, or -1 if the reference is not recognized 
+	 */
+	private static int parseMarkupReference(String text, int index, StringBuilder sb)
+	{
+		int end = text.indexOf(';', index);
+		if (end < 0)
+		{
+			return -1;
+		}
+		
+		int refLength = end - index;
+		if (refLength == 2 && text.startsWith("lt", index))
+		{
+			sb.append('<');
+		}
+		else if (refLength == 2 && text.startsWith("gt", index))
+		{
+			sb.append('>');
+		}
+		else if (refLength == 3 && text.startsWith("amp", index))
+		{
+			sb.append('&');
+		}
+		else if (refLength == 4 && text.startsWith("quot", index))
+		{
+			sb.append('"');
+		}
+		else if (refLength == 4 && text.startsWith("apos", index))
+		{
+			sb.append('\'');
+		}
+		else if (refLength > 1 && text.charAt(index) == '#')
+		{
+			boolean hex = text.charAt(index + 1) == 'x';
+			int digitsStart = hex ? index + 2 : index + 1;
+			if (digitsStart == end || end - digitsStart > 8)
+			{
+				return -1;
+			}
+			
+			int codePoint = 0;
+			for (int idx = digitsStart; idx < end; idx++)
+			{
+				int digit = Character.digit(text.charAt(idx), hex ? 16 : 10);
+				if (digit < 0 || text.charAt(idx) > 'f')
 				{
-					styleAttrs.put(
-						TextAttribute.FAMILY,
-						nodeAttrs.getNamedItem(ATTRIBUTE_fontName).getNodeValue()
-						);
+					return -1;
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_isBold) != null)
+				codePoint = codePoint * (hex ? 16 : 10) + digit;
+			}
+			
+			if (!isXmlChar(codePoint))
+			{
+				return -1;
+			}
+			sb.appendCodePoint(codePoint);
+		}
+		else
+		{
+			return -1;
+		}
+		return end + 1;
+	}
+	
+	private int parseMarkupStartTag(JRStyledText styledText, String text, int index)
+	{
+		int nameEnd = parseMarkupName(text, index);
+		byte type = getMarkupElementType(text, index, nameEnd);
+		if (type == MARKUP_UNKNOWN)
+		{
+			return -1;
+		}
+		
+		markupAttributeNames.clear();
+		markupAttributeValues.clear();
+		
+		int length = text.length();
+		int idx = nameEnd;
+		boolean empty = false;
+		while (true)
+		{
+			int attrStart = skipXmlSpace(text, idx);
+			if (attrStart >= length)
+			{
+				return -1;
+			}
+			
+			char c = text.charAt(attrStart);
+			if (c == '>')
+			{
+				idx = attrStart + 1;
+				break;
+			}
+			if (c == '/')
+			{
+				if (attrStart + 1 < length && text.charAt(attrStart + 1) == '>')
 				{
-					styleAttrs.put(
-						TextAttribute.WEIGHT,
-						Boolean.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_isBold).getNodeValue())
-						? TextAttribute.WEIGHT_BOLD : TextAttribute.WEIGHT_REGULAR
-						);
+					empty = true;
+					idx = attrStart + 2;
+					break;
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_isItalic) != null)
+				return -1;
+			}
+			
+			int attrEnd = parseMarkupName(text, attrStart);
+			if (attrStart == idx || attrEnd == attrStart)
+			{
+				// attributes need to be preceded by white space
+				return -1;
+			}
+			
+			String attrName = text.substring(attrStart, attrEnd);
+			if (markupAttributeNames.contains(attrName))
+			{
+				return -1;
+			}
+			
+			int eq = skipXmlSpace(text, attrEnd);
+			if (eq >= length || text.charAt(eq) != '=')
+			{
+				return -1;
+			}
+			
+			int quote = skipXmlSpace(text, eq + 1);
+			if (quote >= length || (text.charAt(quote) != '"' && text.charAt(quote) != '\''))
+			{
+				return -1;
+			}
+			
+			char quoteChar = text.charAt(quote);
+			StringBuilder value = new StringBuilder();
+			int valueIdx = quote + 1;
+			while (true)
+			{
+				if (valueIdx >= length)
 				{
-					styleAttrs.put(
-						TextAttribute.POSTURE,
-						Boolean.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_isItalic).getNodeValue())
-						? TextAttribute.POSTURE_OBLIQUE : TextAttribute.POSTURE_REGULAR
-						);
+					return -1;
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_isUnderline) != null)
+				
+				char vc = text.charAt(valueIdx);
+				if (vc == quoteChar)
 				{
-					styleAttrs.put(
-						TextAttribute.UNDERLINE,
-						Boolean.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_isUnderline).getNodeValue())
-						? TextAttribute.UNDERLINE_ON : null
-						);
+					break;
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_isStrikeThrough) != null)
+				
+				if (vc == '<')
 				{
-					styleAttrs.put(
-						TextAttribute.STRIKETHROUGH,
-						Boolean.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_isStrikeThrough).getNodeValue())
-						? TextAttribute.STRIKETHROUGH_ON : null
-						);
+					return -1;
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_size) != null)
+				
+				if (vc == '&')
 				{
-					styleAttrs.put(
-						TextAttribute.SIZE,
-						Float.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_size).getNodeValue())
-						);
+					valueIdx = parseMarkupReference(text, valueIdx + 1, value);
+					if (valueIdx < 0)
+					{
+						return -1;
+					}
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_pdfFontName) != null)
+				else if (vc == '\r' || vc == '\n' || vc == '\t')
 				{
-					styleAttrs.put(
-						JRTextAttribute.PDF_FONT_NAME,
-						nodeAttrs.getNamedItem(ATTRIBUTE_pdfFontName).getNodeValue()
-						);
+					// XML attribute value normalization
+					value.append(' ');
+					valueIdx = vc == '\r' && valueIdx + 1 < length && text.charAt(valueIdx + 1) == '\n' ? valueIdx + 2 : valueIdx + 1;
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_pdfEncoding) != null)
+				else
 				{
-					styleAttrs.put(
-						JRTextAttribute.PDF_ENCODING,
-						nodeAttrs.getNamedItem(ATTRIBUTE_pdfEncoding).getNodeValue()
-						);
+					valueIdx = appendMarkupChar(text, valueIdx, value);
+					if (valueIdx < 0)
+					{
+						return -1;
+					}
 				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_isPdfEmbedded) != null)
+			}
+			
+			markupAttributeNames.add(attrName);
+			markupAttributeValues.add(value.toString());
+			idx = valueIdx + 1;
+		}
+		
+		MarkupElement element = new MarkupElement(type, text.substring(index, nameEnd));
+		switch (type)
+		{
+			case MARKUP_STYLE:
+				element.styleAttrs = getStyleAttributes(markupAttributes);
+				break;
+			case MARKUP_BOLD:
+				element.styleAttrs = new HashMap<>();
+				element.styleAttrs.put(TextAttribute.WEIGHT, TextAttribute.WEIGHT_BOLD);
+				break;
+			case MARKUP_ITALIC:
+				element.styleAttrs = new HashMap<>();
+				element.styleAttrs.put(TextAttribute.POSTURE, TextAttribute.POSTURE_OBLIQUE);
+				break;
+			case MARKUP_UNDERLINE:
+				element.styleAttrs = new HashMap<>();
+				element.styleAttrs.put(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_ON);
+				break;
+			case MARKUP_SUP:
+				element.styleAttrs = new HashMap<>();
+				element.styleAttrs.put(TextAttribute.SUPERSCRIPT, TextAttribute.SUPERSCRIPT_SUPER);
+				break;
+			case MARKUP_SUB:
+				element.styleAttrs = new HashMap<>();
+				element.styleAttrs.put(TextAttribute.SUPERSCRIPT, TextAttribute.SUPERSCRIPT_SUB);
+				break;
+			case MARKUP_FONT:
+				element.styleAttrs = getFontAttributes(markupAttributes);
+				break;
+			case MARKUP_BR:
+				styledText.append("\n");
+				element.styleAttrs = new HashMap<>();
+				resizeRuns(styledText.getRuns(), styledText.length(), 1);
+				break;
+			case MARKUP_LI:
+				element.listAdded = htmlListStack.size() == 0;
+				element.styleAttrs = startListItem(markupAttributes);
+				break;
+			case MARKUP_A:
+				if (hyperlink != null)
 				{
-					styleAttrs.put(
-						JRTextAttribute.IS_PDF_EMBEDDED,
-						Boolean.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_isPdfEmbedded).getNodeValue())
-						);
+					// nested hyperlinks are reported by the XML parsing
+					return -1;
 				}
+				element.styleAttrs = startHyperlink(markupAttributes);
+				break;
+			default:
+				return -1;
+		}
+		element.startIndex = styledText.length();
+		
+		if (empty)
+		{
+			endMarkupElement(styledText, element);
+		}
+		else
+		{
+			markupElements.add(element);
+		}
+		return idx;
+	}
+	
+	private int parseMarkupEndTag(JRStyledText styledText, String text, int index)
+	{
+		if (markupElements.isEmpty())
+		{
+			return -1;
+		}
+		
+		MarkupElement element = markupElements.remove(markupElements.size() - 1);
+		int nameEnd = index + element.name.length();
+		if (!text.startsWith(element.name, index) || parseMarkupName(text, index) != nameEnd)
+		{
+			return -1;
+		}
+		
+		int end = skipXmlSpace(text, nameEnd);
+		if (end >= text.length() || text.charAt(end) != '>')
+		{
+			return -1;
+		}
+		
+		endMarkupElement(styledText, element);
+		return end + 1;
+	}
+	
+	private void endMarkupElement(JRStyledText styledText, MarkupElement element)
+	{
+		styledText.addRun(new JRStyledText.Run(element.styleAttrs, element.startIndex, styledText.length()));
+		
+		switch (element.type)
+		{
+			case MARKUP_BR:
+				if (element.startIndex < styledText.length())
+				{
+					styledText.append("\n");
+					resizeRuns(styledText.getRuns(), element.startIndex, 1);
+				}
+				break;
+			case MARKUP_LI:
+				endListItem(element.listAdded);
+				break;
+			case MARKUP_A:
+				hyperlink = null;
+				break;
+			default:
+				break;
+		}
+	}
+	
+	private String getMarkupAttribute(String name)
+	{
+		int index = markupAttributeNames.indexOf(name);
+		return index < 0 ? null : markupAttributeValues.get(index);
+	}
+	
+	/**
+	 * Matches tag names in the same way as {@link #parseStyle(JRStyledText, Node)}:
+	 * the <code>style</code> tag name is case sensitive, the other tag names are not.
+	 */
+	private static byte getMarkupElementType(String text, int start, int end)
+	{
+		int length = end - start;
+		if (isMarkupName(text, start, length, NODE_style, false))
+		{
+			return MARKUP_STYLE;
+		}
+		if (isMarkupName(text, start, length, NODE_bold, true))
+		{
+			return MARKUP_BOLD;
+		}
+		if (isMarkupName(text, start, length, NODE_italic, true))
+		{
+			return MARKUP_ITALIC;
+		}
+		if (isMarkupName(text, start, length, NODE_underline, true))
+		{
+			return MARKUP_UNDERLINE;
+		}
+		if (isMarkupName(text, start, length, NODE_sup, true))
+		{
+			return MARKUP_SUP;
+		}
+		if (isMarkupName(text, start, length, NODE_sub, true))
+		{
+			return MARKUP_SUB;
+		}
+		if (isMarkupName(text, start, length, NODE_font, true))
+		{
+			return MARKUP_FONT;
+		}
+		if (isMarkupName(text, start, length, NODE_br, true))
+		{
+			return MARKUP_BR;
+		}
+		if (isMarkupName(text, start, length, NODE_li, true))
+		{
+			return MARKUP_LI;
+		}
+		if (isMarkupName(text, start, length, NODE_a, true))
+		{
+			return MARKUP_A;
+		}
+		return MARKUP_UNKNOWN;
+	}
+	
+	private static boolean isMarkupName(String text, int start, int length, String name, boolean ignoreCase)
+	{
+		return length == name.length() && text.regionMatches(ignoreCase, start, name, 0, length);
+	}
 
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_forecolor) != null)
-				{
-					Color color = 
-						JRColorUtil.getColor(
-							nodeAttrs.getNamedItem(ATTRIBUTE_forecolor).getNodeValue(),
-							Color.black
-							);
-					styleAttrs.put(
-						TextAttribute.FOREGROUND,
-						color
-						);
-				}
+	/**
+	 *
+	 */
+	private void parseStyle(JRStyledText styledText, Node parentNode) throws SAXException
+	{
+		NodeList nodeList = parentNode.getChildNodes();
+		for(int i = 0; i < nodeList.getLength(); i++)
+		{
+			Node node = nodeList.item(i);
+			if (node.getNodeType() == Node.TEXT_NODE)
+			{
+				liStart = false;
+				justClosedList = null;
+				textAppended = true;
 
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_backcolor) != null)
-				{
-					Color color = 
-						JRColorUtil.getColor(
-							nodeAttrs.getNamedItem(ATTRIBUTE_backcolor).getNodeValue(),
-							Color.black
-							);
-					styleAttrs.put(
-						TextAttribute.BACKGROUND,
-						color
-						);
-				}
+				styledText.append(node.getNodeValue());
+			}
+			else if (
+				node.getNodeType() == Node.ELEMENT_NODE
+				&& NODE_style.equals(node.getNodeName())
+				)
+			{
+				Map<Attribute,Object> styleAttrs = getStyleAttributes(getNodeAttributes(node));
 
 				int startIndex = styledText.length();
 
@@ -722,47 +1243,8 @@ public class JRStyledTextParser implements ErrorHandler
 			}
 			else if (node.getNodeType() == Node.ELEMENT_NODE && NODE_font.equalsIgnoreCase(node.getNodeName()))
 			{
-				NamedNodeMap nodeAttrs = node.getAttributes();
-
-				Map<Attribute,Object> styleAttrs = new HashMap<>();
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_size) != null)
-				{
-					styleAttrs.put(
-						TextAttribute.SIZE,
-						Float.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_size).getNodeValue())
-						);
-				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_color) != null)
-				{
-					Color color = 
-						JRColorUtil.getColor(
-							nodeAttrs.getNamedItem(ATTRIBUTE_color).getNodeValue(),
-							Color.black
-							);
-					styleAttrs.put(
-						TextAttribute.FOREGROUND,
-						color
-						);
-				}
-
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_fontFace) != null) 
-				{
-					String fontFaces = nodeAttrs.getNamedItem(ATTRIBUTE_fontFace).getNodeValue();
+				Map<Attribute,Object> styleAttrs = getFontAttributes(getNodeAttributes(node));
 
-					StringTokenizer t = new StringTokenizer(fontFaces, ",");
-					while (t.hasMoreTokens()) 
-					{
-						String face = t.nextToken().trim();
-						if (AVAILABLE_FONT_FACE_NAMES.contains(face)) 
-						{
-							styleAttrs.put(TextAttribute.FAMILY, face);
-							break;
-						}
-					}
-				}
-				
 				int startIndex = styledText.length();
 
 				parseStyle(styledText, node);
@@ -841,36 +1323,8 @@ public class JRStyledTextParser implements ErrorHandler
 			}
 			else if (node.getNodeType() == Node.ELEMENT_NODE && NODE_li.equalsIgnoreCase(node.getNodeName()))
 			{
-				Map<Attribute,Object> styleAttrs = new HashMap<>();
-
-				StyledTextListInfo htmlList = null;
-				
-				boolean ulAdded = false;
-				if (htmlListStack.size() == 0)
-				{
-					htmlList = new StyledTextListInfo(false, null, null, false);
-					htmlListStack.push(htmlList);
-					styleAttrs.put(JRTextAttribute.HTML_LIST, htmlListStack.toArray(new StyledTextListInfo[htmlListStack.size()]));
-					styleAttrs.put(JRTextAttribute.HTML_LIST_ITEM, StyledTextListItemInfo.NO_LIST_ITEM_FILLER);
-					ulAdded = true;
-				}
-				else
-				{
-					htmlList = htmlListStack.peek();
-				}
-				htmlList.setItemCount(htmlList.getItemCount() + 1);
-				insideLi = true;
-				liStart = true;
-				justClosedList = null;
-				
-				StyledTextListItemInfo listItem = new StyledTextListItemInfo(htmlList.getItemCount() - 1);
-				NamedNodeMap nodeAttrs = node.getAttributes();
-				if (nodeAttrs.getNamedItem(ATTRIBUTE_noBullet) != null)
-				{
-					listItem.setNoBullet(Boolean.valueOf(nodeAttrs.getNamedItem(ATTRIBUTE_noBullet).getNodeValue()));
-				}
-				
-				styleAttrs.put(JRTextAttribute.HTML_LIST_ITEM, listItem);
+				boolean ulAdded = htmlListStack.size() == 0;
+				Map<Attribute,Object> styleAttrs = startListItem(getNodeAttributes(node));
 				
 				int startIndex = styledText.length();
 
@@ -878,44 +1332,13 @@ public class JRStyledTextParser implements ErrorHandler
 
 				styledText.addRun(new JRStyledText.Run(styleAttrs, startIndex, styledText.length()));
 				
-				insideLi = false;
-				liStart = false;
-				if (justClosedList != null)
-				{
-					justClosedList.setAtLiEnd(true);
-				}
-
-				if (ulAdded)
-				{
-					htmlListStack.pop();
-				}
+				endListItem(ulAdded);
 			}
 			else if (node.getNodeType() == Node.ELEMENT_NODE && NODE_a.equalsIgnoreCase(node.getNodeName()))
 			{
 				if (hyperlink == null)
 				{
-					NamedNodeMap nodeAttrs = node.getAttributes();
-
-					Map<Attribute,Object> styleAttrs = new HashMap<>();
-
-					hyperlink = new JRBasePrintHyperlink();
-					hyperlink.setHyperlinkType(HyperlinkTypeEnum.REFERENCE);
-					styleAttrs.put(JRTextAttribute.HYPERLINK, hyperlink);
-					
-					if (nodeAttrs.getNamedItem(ATTRIBUTE_href) != null)
-					{
-						hyperlink.setHyperlinkReference( nodeAttrs.getNamedItem(ATTRIBUTE_href).getNodeValue());
-					}
-
-					if (nodeAttrs.getNamedItem(ATTRIBUTE_type) != null)
-					{
-						hyperlink.setLinkType(nodeAttrs.getNamedItem(ATTRIBUTE_type).getNodeValue());
-					}
-
-					if (nodeAttrs.getNamedItem(ATTRIBUTE_target) != null)
-					{
-						hyperlink.setLinkTarget(nodeAttrs.getNamedItem(ATTRIBUTE_target).getNodeValue());
-					}
+					Map<Attribute,Object> styleAttrs = startHyperlink(getNodeAttributes(node));
 
 					int startIndex = styledText.length();
 
@@ -992,6 +1415,263 @@ public class JRStyledTextParser implements ErrorHandler
 		}
 	}
 
+	/**
+	 *
+	 */
+	private Map<Attribute,Object> getStyleAttributes(Function<String,String> nodeAttrs)
+	{
+		Map<Attribute,Object> styleAttrs = new HashMap<>();
+
+		if (nodeAttrs.apply(ATTRIBUTE_fontName) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.FAMILY,
+				nodeAttrs.apply(ATTRIBUTE_fontName)
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_isBold) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.WEIGHT,
+				Boolean.valueOf(nodeAttrs.apply(ATTRIBUTE_isBold))
+				? TextAttribute.WEIGHT_BOLD : TextAttribute.WEIGHT_REGULAR
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_isItalic) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.POSTURE,
+				Boolean.valueOf(nodeAttrs.apply(ATTRIBUTE_isItalic))
+				? TextAttribute.POSTURE_OBLIQUE : TextAttribute.POSTURE_REGULAR
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_isUnderline) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.UNDERLINE,
+				Boolean.valueOf(nodeAttrs.apply(ATTRIBUTE_isUnderline))
+				? TextAttribute.UNDERLINE_ON : null
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_isStrikeThrough) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.STRIKETHROUGH,
+				Boolean.valueOf(nodeAttrs.apply(ATTRIBUTE_isStrikeThrough))
+				? TextAttribute.STRIKETHROUGH_ON : null
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_size) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.SIZE,
+				Float.valueOf(nodeAttrs.apply(ATTRIBUTE_size))
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_pdfFontName) != null)
+		{
+			styleAttrs.put(
+				JRTextAttribute.PDF_FONT_NAME,
+				nodeAttrs.apply(ATTRIBUTE_pdfFontName)
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_pdfEncoding) != null)
+		{
+			styleAttrs.put(
+				JRTextAttribute.PDF_ENCODING,
+				nodeAttrs.apply(ATTRIBUTE_pdfEncoding)
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_isPdfEmbedded) != null)
+		{
+			styleAttrs.put(
+				JRTextAttribute.IS_PDF_EMBEDDED,
+				Boolean.valueOf(nodeAttrs.apply(ATTRIBUTE_isPdfEmbedded))
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_forecolor) != null)
+		{
+			Color color = 
+				JRColorUtil.getColor(
+					nodeAttrs.apply(ATTRIBUTE_forecolor),
+					Color.black
+					);
+			styleAttrs.put(
+				TextAttribute.FOREGROUND,
+				color
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_backcolor) != null)
+		{
+			Color color = 
+				JRColorUtil.getColor(
+					nodeAttrs.apply(ATTRIBUTE_backcolor),
+					Color.black
+					);
+			styleAttrs.put(
+				TextAttribute.BACKGROUND,
+				color
+				);
+		}
+
+		return styleAttrs;
+	}
+
+	/**
+	 *
+	 */
+	private Map<Attribute,Object> getFontAttributes(Function<String,String> nodeAttrs)
+	{
+		Map<Attribute,Object> styleAttrs = new HashMap<>();
+
+		if (nodeAttrs.apply(ATTRIBUTE_size) != null)
+		{
+			styleAttrs.put(
+				TextAttribute.SIZE,
+				Float.valueOf(nodeAttrs.apply(ATTRIBUTE_size))
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_color) != null)
+		{
+			Color color = 
+				JRColorUtil.getColor(
+					nodeAttrs.apply(ATTRIBUTE_color),
+					Color.black
+					);
+			styleAttrs.put(
+				TextAttribute.FOREGROUND,
+				color
+				);
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_fontFace) != null) 
+		{
+			String fontFaces = nodeAttrs.apply(ATTRIBUTE_fontFace);
+
+			StringTokenizer t = new StringTokenizer(fontFaces, ",");
+			while (t.hasMoreTokens()) 
+			{
+				String face = t.nextToken().trim();
+				if (AVAILABLE_FONT_FACE_NAMES.contains(face)) 
+				{
+					styleAttrs.put(TextAttribute.FAMILY, face);
+					break;
+				}
+			}
+		}
+		
+
+		return styleAttrs;
+	}
+
+	/**
+	 *
+	 */
+	private Map<Attribute,Object> startListItem(Function<String,String> nodeAttrs)
+	{
+		Map<Attribute,Object> styleAttrs = new HashMap<>();
+
+		StyledTextListInfo htmlList = null;
+		
+		if (htmlListStack.size() == 0)
+		{
+			htmlList = new StyledTextListInfo(false, null, null, false);
+			htmlListStack.push(htmlList);
+			styleAttrs.put(JRTextAttribute.HTML_LIST, htmlListStack.toArray(new StyledTextListInfo[htmlListStack.size()]));
+			styleAttrs.put(JRTextAttribute.HTML_LIST_ITEM, StyledTextListItemInfo.NO_LIST_ITEM_FILLER);
+		}
+		else
+		{
+			htmlList = htmlListStack.peek();
+		}
+		htmlList.setItemCount(htmlList.getItemCount() + 1);
+		insideLi = true;
+		liStart = true;
+		justClosedList = null;
+		
+		StyledTextListItemInfo listItem = new StyledTextListItemInfo(htmlList.getItemCount() - 1);
+		if (nodeAttrs.apply(ATTRIBUTE_noBullet) != null)
+		{
+			listItem.setNoBullet(Boolean.valueOf(nodeAttrs.apply(ATTRIBUTE_noBullet)));
+		}
+		
+		styleAttrs.put(JRTextAttribute.HTML_LIST_ITEM, listItem);
+		
+
+		return styleAttrs;
+	}
+
+	/**
+	 *
+	 */
+	private void endListItem(boolean ulAdded)
+	{
+		insideLi = false;
+		liStart = false;
+		if (justClosedList != null)
+		{
+			justClosedList.setAtLiEnd(true);
+		}
+
+		if (ulAdded)
+		{
+			htmlListStack.pop();
+		}
+	}
+
+	/**
+	 *
+	 */
+	private Map<Attribute,Object> startHyperlink(Function<String,String> nodeAttrs)
+	{
+		Map<Attribute,Object> styleAttrs = new HashMap<>();
+
+		hyperlink = new JRBasePrintHyperlink();
+		hyperlink.setHyperlinkType(HyperlinkTypeEnum.REFERENCE);
+		styleAttrs.put(JRTextAttribute.HYPERLINK, hyperlink);
+		
+		if (nodeAttrs.apply(ATTRIBUTE_href) != null)
+		{
+			hyperlink.setHyperlinkReference( nodeAttrs.apply(ATTRIBUTE_href));
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_type) != null)
+		{
+			hyperlink.setLinkType(nodeAttrs.apply(ATTRIBUTE_type));
+		}
+
+		if (nodeAttrs.apply(ATTRIBUTE_target) != null)
+		{
+			hyperlink.setLinkTarget(nodeAttrs.apply(ATTRIBUTE_target));
+		}
+
+		return styleAttrs;
+	}
+
+	/**
+	 *
+	 */
+	private static Function<String,String> getNodeAttributes(Node node)
+	{
+		NamedNodeMap nodeAttrs = node.getAttributes();
+		return name -> 
+		{
+			Node attributeNode = nodeAttrs == null ? null : nodeAttrs.getNamedItem(name);
+			return attributeNode == null ? null : attributeNode.getNodeValue();
+		};
+	}
+
 	/**
 	 *
 	 */
@@ -1250,5 +1930,87 @@ public class JRStyledTextParser implements ErrorHandler
 			sb.append(GREATER);
 		}
 	}
-}
 
+
+	private static final byte MARKUP_UNKNOWN = 0;
+	private static final byte MARKUP_STYLE = 1;
+	private static final byte MARKUP_BOLD = 2;
+	private static final byte MARKUP_ITALIC = 3;
+	private static final byte MARKUP_UNDERLINE = 4;
+	private static final byte MARKUP_SUP = 5;
+	private static final byte MARKUP_SUB = 6;
+	private static final byte MARKUP_FONT = 7;
+	private static final byte MARKUP_BR = 8;
+	private static final byte MARKUP_LI = 9;
+	private static final byte MARKUP_A = 10;
+	
+	/**
+	 * An element opened in the styled text markup.
+	 */
+	private static class MarkupElement
+	{
+		private final byte type;
+		private final String name;
+		private Map<Attribute,Object> styleAttrs;
+		private int startIndex;
+		private boolean listAdded;
+		
+		private MarkupElement(byte type, String name)
+		{
+			this.type = type;
+			this.name = name;
+		}
+	}
+	
+	/**
+	 * The result of parsing a styled text, without the global attributes.
+	 */
+	private static class ParsedText
+	{
+		private final String text;
+		private final Run[] runs;
+		private final boolean textAppended;
+		
+		/**
+		 * Texts with hyperlinks and lists are not cached because the attribute values are mutable,
+		 * and the list attributes depend on the texts parsed before.
+		 */
+		private static boolean isCacheable(JRStyledText styledText)
+		{
+			for (Run run : styledText.getRuns())
+			{
+				if (run.attributes != null
+					&& (run.attributes.containsKey(JRTextAttribute.HYPERLINK)
+					|| run.attributes.containsKey(JRTextAttribute.HTML_LIST)
+					|| run.attributes.containsKey(JRTextAttribute.HTML_LIST_ITEM)))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		private ParsedText(JRStyledText styledText, boolean textAppended)
+		{
+			this.text = styledText.getText();
+			this.textAppended = textAppended;
+			
+			List<Run> styledTextRuns = styledText.getRuns();
+			this.runs = new Run[styledTextRuns.size()];
+			for (int i = 0; i < runs.length; i++)
+			{
+				runs[i] = styledTextRuns.get(i).cloneRun();
+			}
+		}
+		
+		private JRStyledText createStyledText(Locale locale)
+		{
+			List<Run> styledTextRuns = new ArrayList<>(runs.length + 1);
+			for (Run run : runs)
+			{
+				styledTextRuns.add(run.cloneRun());
+			}
+			return new JRStyledText(locale, text, null, styledTextRuns);
+		}
+	}
+}
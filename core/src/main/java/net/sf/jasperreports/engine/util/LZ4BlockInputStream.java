@@ -0,0 +1,273 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that reads data written by {@link LZ4BlockOutputStream}.
+ * 
+ * @see LZ4StreamCompression
+ */
+public class LZ4BlockInputStream extends FilterInputStream
+{
+	private byte[] buffer;
+	private byte[] compressed;
+	private int count;
+	private int position;
+	private boolean ended;
+
+	public LZ4BlockInputStream(InputStream in)
+	{
+		super(in);
+		
+		this.buffer = new byte[0];
+		this.compressed = new byte[0];
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		if (position == count && !readBlock())
+		{
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if (len == 0)
+		{
+			return 0;
+		}
+		
+		if (position == count && !readBlock())
+		{
+			return -1;
+		}
+		
+		int chunk = Math.min(len, count - position);
+		System.arraycopy(buffer, position, b, off, chunk);
+		position += chunk;
+		return chunk;
+	}
+
+	@Override
+	public long skip(long n) throws IOException
+	{
+		long skipped = 0;
+		while (skipped < n && (position < count || readBlock()))
+		{
+			int chunk = (int) Math.min(n - skipped, count - position);
+			position += chunk;
+			skipped += chunk;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException
+	{
+		return count - position;
+	}
+
+	@Override
+	public boolean markSupported()
+	{
+		return false;
+	}
+	
+	protected boolean readBlock() throws IOException
+	{
+		if (ended)
+		{
+			return false;
+		}
+		
+		int length = readInt();
+		if (length == 0)
+		{
+			ended = true;
+			return false;
+		}
+		
+		int compressedLength = readInt();
+		if (buffer.length < length)
+		{
+			buffer = new byte[length];
+		}
+		
+		if ((compressedLength & LZ4BlockOutputStream.STORED_FLAG) != 0)
+		{
+			readFully(buffer, compressedLength & ~LZ4BlockOutputStream.STORED_FLAG);
+		}
+		else
+		{
+			if (compressed.length < compressedLength)
+			{
+				compressed = new byte[compressedLength];
+			}
+			readFully(compressed, compressedLength);
+			
+			int decompressedLength = decompress(compressed, 0, compressedLength, buffer, 0, length);
+			if (decompressedLength != length)
+			{
+				throw new IOException("Corrupted LZ4 block, expected " + length + " bytes, got " + decompressedLength);
+			}
+		}
+		
+		count = length;
+		position = 0;
+		return true;
+	}
+	
+	private int readInt() throws IOException
+	{
+		int b1 = in.read();
+		int b2 = in.read();
+		int b3 = in.read();
+		int b4 = in.read();
+		if ((b1 | b2 | b3 | b4) < 0)
+		{
+			throw new EOFException();
+		}
+		return (b1 << 24) | (b2 << 16) | (b3 << 8) | b4;
+	}
+	
+	private void readFully(byte[] b, int length) throws IOException
+	{
+		int offset = 0;
+		while (offset < length)
+		{
+			int read = in.read(b, offset, length - offset);
+			if (read < 0)
+			{
+				throw new EOFException();
+			}
+			offset += read;
+		}
+	}
+
+	/**
+	 * Decompresses data in the LZ4 block format.
+	 * 
+	 * @param src the compressed data
+	 * @param srcOff the compressed data offset
+	 * @param srcLen the compressed data length
+	 * @param dst the buffer to write decompressed data to
+	 * @param dstOff the offset in the destination buffer
+	 * @param maxLength the maximum length of the decompressed data
+	 * @return the length of the decompressed data
+	 * @throws IOException if the compressed data is not valid
+	 */
+	public static int decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int maxLength) 
+			throws IOException
+	{
+		int srcEnd = srcOff + srcLen;
+		int dstEnd = dstOff + maxLength;
+		int sp = srcOff;
+		int dp = dstOff;
+		
+		try
+		{
+			while (sp < srcEnd)
+			{
+				int token = src[sp++] & 0xFF;
+				
+				int literalsLength = token >>> 4;
+				if (literalsLength == 15)
+				{
+					int b;
+					do
+					{
+						b = src[sp++] & 0xFF;
+						literalsLength += b;
+					}
+					while (b == 255);
+				}
+				
+				if (sp + literalsLength > srcEnd || dp + literalsLength > dstEnd)
+				{
+					throw new IOException("Corrupted LZ4 block, literals exceed bounds");
+				}
+				System.arraycopy(src, sp, dst, dp, literalsLength);
+				sp += literalsLength;
+				dp += literalsLength;
+				
+				if (sp == srcEnd)
+				{
+					// last sequence, no match
+					break;
+				}
+				
+				int offset = (src[sp] & 0xFF) | ((src[sp + 1] & 0xFF) << 8);
+				sp += 2;
+				
+				int matchLength = token & 0x0F;
+				if (matchLength == 15)
+				{
+					int b;
+					do
+					{
+						b = src[sp++] & 0xFF;
+						matchLength += b;
+					}
+					while (b == 255);
+				}
+				matchLength += 4;
+				
+				int ref = dp - offset;
+				if (offset == 0 || ref < dstOff || dp + matchLength > dstEnd)
+				{
+					throw new IOException("Corrupted LZ4 block, match exceeds bounds");
+				}
+				
+				if (offset >= matchLength)
+				{
+					System.arraycopy(dst, ref, dst, dp, matchLength);
+					dp += matchLength;
+				}
+				else
+				{
+					// overlapping copy
+					for (int i = 0; i < matchLength; i++)
+					{
+						dst[dp++] = dst[ref++];
+					}
+				}
+			}
+		}
+		catch (ArrayIndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupted LZ4 block", e);
+		}
+		
+		return dp - dstOff;
+	}
+}
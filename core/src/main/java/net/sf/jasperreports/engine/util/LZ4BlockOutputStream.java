@@ -0,0 +1,294 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream that compresses data in blocks using the LZ4 block format.
+ * <p>
+ * Each block is written as a header with the uncompressed and the compressed length
+ * followed by the compressed data.  Blocks that do not compress are stored as is.
+ * The stream ends with a block of length 0.
+ * </p>
+ * 
+ * @see LZ4BlockInputStream
+ * @see LZ4StreamCompression
+ */
+public class LZ4BlockOutputStream extends FilterOutputStream
+{
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+	
+	protected static final int STORED_FLAG = 0x80000000;
+	
+	private static final int MIN_MATCH = 4;
+	private static final int LAST_LITERALS = 5;
+	private static final int MATCH_FIND_LIMIT = 12;
+	private static final int MAX_OFFSET = 0xFFFF;
+	private static final int HASH_LOG = 12;
+	
+	private final byte[] buffer;
+	private final byte[] compressed;
+	private final int[] hashTable;
+	private int count;
+	private boolean finished;
+
+	public LZ4BlockOutputStream(OutputStream out)
+	{
+		this(out, DEFAULT_BLOCK_SIZE);
+	}
+
+	public LZ4BlockOutputStream(OutputStream out, int blockSize)
+	{
+		super(out);
+		
+		this.buffer = new byte[blockSize];
+		this.compressed = new byte[maxCompressedLength(blockSize)];
+		this.hashTable = new int[1 << HASH_LOG];
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		if (count == buffer.length)
+		{
+			writeBlock();
+		}
+		buffer[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		while (len > 0)
+		{
+			if (count == buffer.length)
+			{
+				writeBlock();
+			}
+			
+			int chunk = Math.min(len, buffer.length - count);
+			System.arraycopy(b, off, buffer, count, chunk);
+			count += chunk;
+			off += chunk;
+			len -= chunk;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		if (count > 0)
+		{
+			writeBlock();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes the remaining data and the end marker without closing the underlying stream.
+	 * 
+	 * @throws IOException
+	 */
+	public void finish() throws IOException
+	{
+		if (!finished)
+		{
+			if (count > 0)
+			{
+				writeBlock();
+			}
+			writeInt(0);
+			finished = true;
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		finish();
+		out.close();
+	}
+	
+	protected void writeBlock() throws IOException
+	{
+		int compressedLength = compress(buffer, 0, count, compressed, 0, hashTable);
+		writeInt(count);
+		if (compressedLength < count)
+		{
+			writeInt(compressedLength);
+			out.write(compressed, 0, compressedLength);
+		}
+		else
+		{
+			writeInt(count | STORED_FLAG);
+			out.write(buffer, 0, count);
+		}
+		count = 0;
+	}
+	
+	private void writeInt(int value) throws IOException
+	{
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	/**
+	 * Returns the maximum length of the compressed data for a given input length.
+	 */
+	public static int maxCompressedLength(int length)
+	{
+		return length + length / 255 + 16;
+	}
+	
+	/**
+	 * Compresses data using the LZ4 block format.
+	 * 
+	 * @param src the data to compress
+	 * @param srcOff the data offset
+	 * @param srcLen the data length
+	 * @param dst the buffer to write compressed data to, needs to be at least 
+	 * {@link #maxCompressedLength(int) maxCompressedLength(srcLen)} long 
+	 * @param dstOff the offset in the destination buffer
+	 * @param hashTable a table of size <code>2^12</code> used for finding matches
+	 * @return the length of the compressed data
+	 */
+	public static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int[] hashTable)
+	{
+		int srcEnd = srcOff + srcLen;
+		int matchLimit = srcEnd - LAST_LITERALS;
+		int findLimit = srcEnd - MATCH_FIND_LIMIT;
+		int anchor = srcOff;
+		int sp = srcOff;
+		int dp = dstOff;
+		
+		if (srcLen > MATCH_FIND_LIMIT)
+		{
+			// positions are stored as offset + 1 so that 0 means no entry
+			Arrays.fill(hashTable, 0);
+			
+			while (sp < findLimit)
+			{
+				int sequence = readInt(src, sp);
+				int hash = hash(sequence);
+				int ref = hashTable[hash] - 1;
+				hashTable[hash] = sp - srcOff + 1;
+				
+				if (ref < 0 || sp - (ref += srcOff) > MAX_OFFSET || readInt(src, ref) != sequence)
+				{
+					// skip faster through incompressible data
+					sp += 1 + ((sp - anchor) >>> 6);
+					continue;
+				}
+				
+				while (sp > anchor && ref > srcOff && src[sp - 1] == src[ref - 1])
+				{
+					--sp;
+					--ref;
+				}
+				
+				int matchLength = MIN_MATCH;
+				while (sp + matchLength < matchLimit && src[sp + matchLength] == src[ref + matchLength])
+				{
+					++matchLength;
+				}
+				
+				int tokenOffset = dp;
+				dp = writeLiterals(src, anchor, sp - anchor, dst, dp);
+				int offset = sp - ref;
+				dst[dp++] = (byte) offset;
+				dst[dp++] = (byte) (offset >>> 8);
+				dp = writeMatchLength(dst, dp, tokenOffset, matchLength - MIN_MATCH);
+				
+				sp += matchLength;
+				anchor = sp;
+			}
+		}
+		
+		// last literals, with an empty match
+		dp = writeLiterals(src, anchor, srcEnd - anchor, dst, dp);
+		return dp - dstOff;
+	}
+	
+	private static int hash(int sequence)
+	{
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+	
+	private static int readInt(byte[] src, int offset)
+	{
+		return (src[offset] & 0xFF) | ((src[offset + 1] & 0xFF) << 8) 
+				| ((src[offset + 2] & 0xFF) << 16) | ((src[offset + 3] & 0xFF) << 24);
+	}
+	
+	private static int writeLiterals(byte[] src, int literalsOffset, int literalsLength, byte[] dst, int dp)
+	{
+		int tokenOffset = dp++;
+		int token;
+		if (literalsLength >= 15)
+		{
+			token = 15 << 4;
+			int remaining = literalsLength - 15;
+			while (remaining >= 255)
+			{
+				dst[dp++] = (byte) 255;
+				remaining -= 255;
+			}
+			dst[dp++] = (byte) remaining;
+		}
+		else
+		{
+			token = literalsLength << 4;
+		}
+		dst[tokenOffset] = (byte) token;
+		
+		System.arraycopy(src, literalsOffset, dst, dp, literalsLength);
+		return dp + literalsLength;
+	}
+	
+	private static int writeMatchLength(byte[] dst, int dp, int tokenOffset, int length)
+	{
+		if (length >= 15)
+		{
+			dst[tokenOffset] |= 15;
+			int remaining = length - 15;
+			while (remaining >= 255)
+			{
+				dst[dp++] = (byte) 255;
+				remaining -= 255;
+			}
+			dst[dp++] = (byte) remaining;
+		}
+		else
+		{
+			dst[tokenOffset] |= length;
+		}
+		return dp;
+	}
+}
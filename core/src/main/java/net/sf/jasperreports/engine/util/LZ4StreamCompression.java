@@ -0,0 +1,66 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Stream compression that uses the LZ4 block format.
+ * <p>
+ * LZ4 trades compression ratio for speed, compressing and decompressing several times 
+ * faster than deflate.  This makes it suitable for virtualized data that is frequently 
+ * paged out and in.
+ * </p>
+ * 
+ * @see LZ4BlockOutputStream
+ */
+public class LZ4StreamCompression implements StreamCompression
+{
+
+	private final int blockSize;
+	
+	public LZ4StreamCompression()
+	{
+		this(LZ4BlockOutputStream.DEFAULT_BLOCK_SIZE);
+	}
+	
+	public LZ4StreamCompression(int blockSize)
+	{
+		this.blockSize = blockSize;
+	}
+
+	@Override
+	public OutputStream compressedOutput(OutputStream stream)
+	{
+		return new LZ4BlockOutputStream(stream, blockSize);
+	}
+
+	@Override
+	public InputStream uncompressedInput(InputStream stream)
+	{
+		return new LZ4BlockInputStream(stream);
+	}
+
+}
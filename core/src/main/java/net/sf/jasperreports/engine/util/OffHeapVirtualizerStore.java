@@ -0,0 +1,407 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+
+/**
+ * Virtualizer store that keeps serialized data in direct (off-heap) memory.
+ * <p>
+ * Data is compressed, by default using {@link LZ4StreamCompression}, and copied into 
+ * fixed-size blocks carved out of direct memory segments.  Segments are allocated as
+ * needed until the configured memory budget is reached; data that does not fit in the
+ * budget is written to a {@link JRSwapFile} created in the overflow directory.
+ * If no overflow directory is set, exceeding the budget results in an exception.
+ * </p>
+ * <p>
+ * Keeping the data off-heap avoids the garbage collection cost of retaining the objects
+ * of large reports, while still not requiring disk I/O for paging them in and out.
+ * </p>
+ * 
+ * @see StoreVirtualizer
+ */
+public class OffHeapVirtualizerStore implements VirtualizerStore
+{
+	private static final Log log = LogFactory.getLog(OffHeapVirtualizerStore.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_MEMORY_EXCEEDED = "util.off.heap.virtualizer.memory.exceeded";
+	
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+	
+	private final long maxMemory;
+	private final StreamCompression compression;
+	private final String overflowDirectory;
+	private final int blockSize;
+	private final int segmentBlockCount;
+	private final int maxSegmentCount;
+	
+	private final Map<String, Object> handles;
+	private final List<ByteBuffer> segments;
+	private int[] freeBlocks;
+	private int freeBlockCount;
+	private JRSwapFile overflowSwap;
+
+	/**
+	 * Creates an off-heap store that uses LZ4 compression and 1MB memory segments 
+	 * of 4KB blocks.
+	 * 
+	 * @param maxMemory the maximum amount of direct memory, in bytes, to use
+	 * @param overflowDirectory the directory in which to create a swap file when the
+	 * memory is exhausted, <code>null</code> to fail instead
+	 */
+	public OffHeapVirtualizerStore(long maxMemory, String overflowDirectory)
+	{
+		this(maxMemory, new LZ4StreamCompression(), overflowDirectory, DEFAULT_BLOCK_SIZE, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Creates an off-heap store.
+	 * 
+	 * @param maxMemory the maximum amount of direct memory, in bytes, to use
+	 * @param compression the compression to apply to the data, <code>null</code> for no compression
+	 * @param overflowDirectory the directory in which to create a swap file when the
+	 * memory is exhausted, <code>null</code> to fail instead
+	 * @param blockSize the size of the blocks allocated for data
+	 * @param segmentSize the size of the direct memory segments, rounded down to a multiple of the block size
+	 */
+	public OffHeapVirtualizerStore(long maxMemory, StreamCompression compression, 
+			String overflowDirectory, int blockSize, int segmentSize)
+	{
+		if (blockSize <= 0 || segmentSize < blockSize)
+		{
+			throw new IllegalArgumentException("Invalid block size " + blockSize + " or segment size " + segmentSize);
+		}
+		
+		this.maxMemory = maxMemory;
+		this.compression = compression;
+		this.overflowDirectory = overflowDirectory;
+		this.blockSize = blockSize;
+		this.segmentBlockCount = segmentSize / blockSize;
+		this.maxSegmentCount = (int) Math.min(Integer.MAX_VALUE / segmentBlockCount, 
+				maxMemory / ((long) segmentBlockCount * blockSize));
+		
+		this.handles = new HashMap<>();
+		this.segments = new ArrayList<>();
+		this.freeBlocks = new int[segmentBlockCount];
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "OffHeapVirtualizerStore " + System.identityHashCode(this) + " with " + maxMemory + " bytes";
+	}
+
+	@Override
+	public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		synchronized (this)
+		{
+			if (handles.containsKey(uid))
+			{
+				if (log.isTraceEnabled())
+				{
+					log.trace("object " + uid + " already stored");
+				}
+				return false;
+			}
+		}
+		
+		try
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream(3000);
+			OutputStream out = compression == null ? bout : compression.compressedOutput(bout);
+			serializer.writeData(o, out);
+			out.close();
+			
+			byte[] data = bout.toByteArray();
+			Object handle;
+			synchronized (this)
+			{
+				handle = writeBlocks(data);
+				if (handle == null)
+				{
+					handle = overflowSwap().write(data);
+				}
+				handles.put(uid, handle);
+			}
+			
+			if (log.isTraceEnabled())
+			{
+				log.trace("stored " + data.length + " for object " + uid 
+						+ (handle instanceof JRSwapFile.SwapHandle ? " in " + overflowSwap : " off-heap"));
+			}
+			return true;
+		}
+		catch (IOException e)
+		{
+			log.error("Error virtualizing object " + uid + " to " + this, e);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		try
+		{
+			byte[] data;
+			synchronized (this)
+			{
+				Object handle = remove ? handles.remove(uid) : handles.get(uid);
+				if (handle == null)
+				{
+					log.error("No data found for " + uid + " in " + this);
+					throw 
+						new JRRuntimeException(
+							SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA,
+							(Object[])null);
+				}
+				
+				if (handle instanceof BlocksHandle)
+				{
+					data = readBlocks((BlocksHandle) handle, remove);
+				}
+				else
+				{
+					data = overflowSwap.read((JRSwapFile.SwapHandle) handle, remove);
+				}
+			}
+			
+			if (log.isTraceEnabled())
+			{
+				log.trace("read " + data.length + " for object " + uid + " from " + this);
+			}
+			
+			ByteArrayInputStream rawInput = new ByteArrayInputStream(data);
+			InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+			serializer.readData(o, input);
+			input.close();
+		}
+		catch (IOException e)
+		{
+			log.error("Error reading object data " + uid + " from " + this, e);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_DEVIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public synchronized void remove(String objectId)
+	{
+		Object handle = handles.remove(objectId);
+		if (handle instanceof BlocksHandle)
+		{
+			freeBlocks(((BlocksHandle) handle).blocks);
+		}
+		else if (handle != null)
+		{
+			overflowSwap.free((JRSwapFile.SwapHandle) handle);
+		}
+	}
+
+	/**
+	 * Returns the amount of direct memory allocated by the store.
+	 * 
+	 * @return the size of the allocated memory segments, in bytes
+	 */
+	public synchronized long getAllocatedMemory()
+	{
+		return (long) segments.size() * segmentBlockCount * blockSize;
+	}
+
+	/**
+	 * Releases the direct memory segments and disposes the overflow swap file.
+	 */
+	@Override
+	public synchronized void dispose()
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("disposing " + this + " with " + segments.size() + " segments");
+		}
+		
+		handles.clear();
+		// direct memory is released when the buffers are garbage collected
+		segments.clear();
+		freeBlockCount = 0;
+		
+		if (overflowSwap != null)
+		{
+			overflowSwap.dispose();
+			overflowSwap = null;
+		}
+	}
+	
+	protected JRSwapFile overflowSwap()
+	{
+		if (overflowSwap == null)
+		{
+			if (overflowDirectory == null)
+			{
+				throw 
+					new JRRuntimeException(
+						EXCEPTION_MESSAGE_KEY_MEMORY_EXCEEDED,
+						new Object[]{maxMemory});
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug(this + " exceeded memory, overflowing to " + overflowDirectory);
+			}
+			
+			overflowSwap = new JRSwapFile(overflowDirectory, blockSize, segmentBlockCount);
+		}
+		return overflowSwap;
+	}
+	
+	protected BlocksHandle writeBlocks(byte[] data)
+	{
+		int blockCount = Math.max(1, (data.length + blockSize - 1) / blockSize);
+		if (!ensureFreeBlocks(blockCount))
+		{
+			return null;
+		}
+		
+		int[] blocks = new int[blockCount];
+		for (int i = 0; i < blockCount; i++)
+		{
+			int block = freeBlocks[--freeBlockCount];
+			blocks[i] = block;
+			
+			int offset = i * blockSize;
+			ByteBuffer buffer = blockBuffer(block);
+			buffer.put(data, offset, Math.min(blockSize, data.length - offset));
+		}
+		return new BlocksHandle(blocks, data.length);
+	}
+	
+	protected byte[] readBlocks(BlocksHandle handle, boolean free)
+	{
+		byte[] data = new byte[handle.length];
+		int[] blocks = handle.blocks;
+		for (int i = 0; i < blocks.length; i++)
+		{
+			int offset = i * blockSize;
+			ByteBuffer buffer = blockBuffer(blocks[i]);
+			buffer.get(data, offset, Math.min(blockSize, data.length - offset));
+		}
+		
+		if (free)
+		{
+			freeBlocks(blocks);
+		}
+		return data;
+	}
+	
+	private ByteBuffer blockBuffer(int block)
+	{
+		ByteBuffer buffer = segments.get(block / segmentBlockCount).duplicate();
+		// cast for Java 8 compatibility, ByteBuffer.position(int) is covariant since Java 9
+		((Buffer) buffer).position((block % segmentBlockCount) * blockSize);
+		return buffer;
+	}
+	
+	private boolean ensureFreeBlocks(int blockCount)
+	{
+		while (freeBlockCount < blockCount)
+		{
+			if (segments.size() >= maxSegmentCount)
+			{
+				return false;
+			}
+			
+			int segmentIndex = segments.size();
+			if (log.isDebugEnabled())
+			{
+				log.debug(this + " allocating segment " + segmentIndex);
+			}
+			
+			segments.add(ByteBuffer.allocateDirect(segmentBlockCount * blockSize));
+			
+			// the free list needs to be able to hold all blocks
+			int totalBlockCount = (segmentIndex + 1) * segmentBlockCount;
+			if (freeBlocks.length < totalBlockCount)
+			{
+				int[] newFreeBlocks = new int[totalBlockCount];
+				System.arraycopy(freeBlocks, 0, newFreeBlocks, 0, freeBlockCount);
+				freeBlocks = newFreeBlocks;
+			}
+			
+			// pushing in reverse order so that blocks are used in sequence
+			int firstBlock = segmentIndex * segmentBlockCount;
+			for (int i = segmentBlockCount - 1; i >= 0; --i)
+			{
+				freeBlocks[freeBlockCount++] = firstBlock + i;
+			}
+		}
+		return true;
+	}
+	
+	private void freeBlocks(int[] blocks)
+	{
+		for (int i = blocks.length - 1; i >= 0; --i)
+		{
+			freeBlocks[freeBlockCount++] = blocks[i];
+		}
+	}
+	
+	protected static class BlocksHandle
+	{
+		private final int[] blocks;
+		private final int length;
+		
+		protected BlocksHandle(int[] blocks, int length)
+		{
+			this.blocks = blocks;
+			this.length = length;
+		}
+	}
+}
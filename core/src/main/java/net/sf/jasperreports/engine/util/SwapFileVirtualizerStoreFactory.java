@@ -36,11 +36,19 @@ public class SwapFileVirtualizerStoreFactory implements VirtualizerStoreFactory
 	private int blockSize = 4096;//default value
 	private int minGrowCount = 20;//default value
 	private StreamCompression compression;
+	private int writeBehindQueueSize;//default value, synchronous writes
+	private boolean lockFree;//default value
 	
 	@Override
 	public VirtualizerStore createStore(JRVirtualizationContext virtualizationContext)
 	{
-		JRSwapFile swapFile = new JRSwapFile(directory, blockSize, minGrowCount);
+		JRSwapFile swapFile = lockFree 
+				? new JRLockFreeSwapFile(directory, blockSize)
+				: new JRSwapFile(directory, blockSize, minGrowCount);
+		if (writeBehindQueueSize > 0)
+		{
+			return new WriteBehindSwapFileVirtualizerStore(swapFile, true, compression, writeBehindQueueSize);
+		}
 		return new SwapFileVirtualizerStore(swapFile, true, compression);
 	}
 
@@ -83,4 +91,41 @@ public class SwapFileVirtualizerStoreFactory implements VirtualizerStoreFactory
 	{
 		this.compression = compression;
 	}
+
+	public int getWriteBehindQueueSize()
+	{
+		return writeBehindQueueSize;
+	}
+
+	/**
+	 * Sets the number of objects that can wait to be written to the swap file 
+	 * by a background thread.
+	 * 
+	 * @param writeBehindQueueSize the queue size, 0 for synchronous writes
+	 * @see WriteBehindSwapFileVirtualizerStore
+	 */
+	public void setWriteBehindQueueSize(int writeBehindQueueSize)
+	{
+		this.writeBehindQueueSize = writeBehindQueueSize;
+	}
+
+	public boolean isLockFree()
+	{
+		return lockFree;
+	}
+
+	/**
+	 * Specifies whether the created stores use a {@link JRLockFreeSwapFile},
+	 * which performs positional I/O and allocates blocks without locking.
+	 * 
+	 * <p>
+	 * The minimum grow count does not apply to lock free swap files.
+	 * </p>
+	 * 
+	 * @param lockFree whether to use lock free swap files
+	 */
+	public void setLockFree(boolean lockFree)
+	{
+		this.lockFree = lockFree;
+	}
 }
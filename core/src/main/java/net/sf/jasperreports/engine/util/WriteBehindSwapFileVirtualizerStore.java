@@ -0,0 +1,414 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+
+/**
+ * Swap file virtualizer store that writes the data to the swap file asynchronously.
+ * <p>
+ * Objects are serialized by the calling (filling) thread and the resulting data is placed
+ * in a bounded queue, from which a background thread compresses it and writes it to the
+ * swap file.
+ * Data that is requested while still pending is read directly from memory, without
+ * reaching the swap file.
+ * When the queue is full, the calling thread blocks until the writer makes room, so that
+ * at most <code>queueSize</code> objects are kept in memory in serialized form.
+ * </p>
+ * 
+ * @see SwapFileVirtualizerStore
+ */
+public class WriteBehindSwapFileVirtualizerStore implements VirtualizerStore
+{
+	private static final Log log = LogFactory.getLog(WriteBehindSwapFileVirtualizerStore.class);
+	
+	private static final PendingData STOP = new PendingData(null, null);
+	
+	private final JRSwapFile swap;
+	private final boolean swapOwner;
+	private final StreamCompression compression;
+	
+	private final Object lock = new Object();
+	private final Map<String, PendingData> pending;
+	private final Map<String, JRSwapFile.SwapHandle> handles;
+	private final BlockingQueue<PendingData> queue;
+	
+	private Thread writerThread;
+	private volatile boolean disposed;
+	private volatile IOException writeError;
+
+	public WriteBehindSwapFileVirtualizerStore(JRSwapFile swap, boolean swapOwner, int queueSize)
+	{
+		this(swap, swapOwner, null, queueSize);
+	}
+
+	public WriteBehindSwapFileVirtualizerStore(JRSwapFile swap, boolean swapOwner, 
+			StreamCompression compression, int queueSize)
+	{
+		if (queueSize <= 0)
+		{
+			throw new IllegalArgumentException("Queue size must be positive");
+		}
+		
+		this.swap = swap;
+		this.swapOwner = swapOwner;
+		this.compression = compression;
+		this.pending = new HashMap<>();
+		this.handles = new HashMap<>();
+		// one extra slot so that the stop marker can always be queued
+		this.queue = new ArrayBlockingQueue<>(queueSize + 1);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "WriteBehindSwapFileVirtualizerStore " + swap.toString(); 
+	}
+
+	@Override
+	public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		synchronized (lock)
+		{
+			if (pending.containsKey(uid) || handles.containsKey(uid))
+			{
+				if (log.isTraceEnabled())
+				{
+					log.trace("object " + uid + " already stored");
+				}
+				return false;
+			}
+		}
+		
+		IOException error = writeError;
+		if (error != null)
+		{
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					error);
+		}
+		
+		byte[] data;
+		try
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream(3000);
+			serializer.writeData(o, bout);
+			data = bout.toByteArray();
+		}
+		catch (IOException e)
+		{
+			log.error("Error virtualizing object " + uid + " to " + swap, e);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+		
+		PendingData pendingData = new PendingData(uid, data);
+		synchronized (lock)
+		{
+			if (disposed)
+			{
+				throw new IllegalStateException("Store " + this + " has been disposed");
+			}
+			
+			pending.put(uid, pendingData);
+			ensureWriter();
+		}
+		
+		if (log.isTraceEnabled())
+		{
+			log.trace("queueing " + data.length + " for object " + uid + " to " + swap);
+		}
+		
+		try
+		{
+			// blocks while the queue is full
+			queue.put(pendingData);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			
+			// the data stays in memory and is still available
+			log.warn("Interrupted while queueing object " + uid + " for " + swap);
+		}
+		return true;
+	}
+	
+	private void ensureWriter()
+	{
+		if (writerThread == null)
+		{
+			writerThread = new Thread(this::writeQueued, "JRSwapFile writer " + swap);
+			writerThread.setDaemon(true);
+			writerThread.start();
+		}
+	}
+	
+	private void writeQueued()
+	{
+		while (true)
+		{
+			PendingData pendingData;
+			try
+			{
+				pendingData = queue.take();
+			}
+			catch (InterruptedException e)
+			{
+				break;
+			}
+			
+			if (pendingData == STOP)
+			{
+				break;
+			}
+			
+			if (!isPending(pendingData))
+			{
+				// removed or retrieved in the meantime, no need to write it
+				if (log.isTraceEnabled())
+				{
+					log.trace("object " + pendingData.uid + " no longer pending");
+				}
+				continue;
+			}
+			
+			try
+			{
+				write(pendingData);
+			}
+			catch (IOException e)
+			{
+				if (!disposed)
+				{
+					// the data remains in the pending map, subsequent store calls will fail
+					log.error("Error writing object " + pendingData.uid + " to " + swap, e);
+					writeError = e;
+				}
+			}
+		}
+	}
+	
+	private boolean isPending(PendingData pendingData)
+	{
+		synchronized (lock)
+		{
+			return pending.get(pendingData.uid) == pendingData;
+		}
+	}
+	
+	protected void write(PendingData pendingData) throws IOException
+	{
+		byte[] data = pendingData.data;
+		if (compression != null)
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream(data.length);
+			OutputStream out = compression.compressedOutput(bout);
+			out.write(data);
+			out.close();
+			data = bout.toByteArray();
+		}
+		
+		if (log.isTraceEnabled())
+		{
+			log.trace("writing " + data.length + " for object " + pendingData.uid + " to " + swap);
+		}
+		
+		JRSwapFile.SwapHandle handle = swap.write(data);
+		boolean stillPending;
+		synchronized (lock)
+		{
+			stillPending = pending.get(pendingData.uid) == pendingData;
+			if (stillPending)
+			{
+				pending.remove(pendingData.uid);
+				handles.put(pendingData.uid, handle);
+			}
+		}
+		
+		if (!stillPending)
+		{
+			swap.free(handle);
+		}
+	}
+
+	@Override
+	public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		PendingData pendingData;
+		JRSwapFile.SwapHandle handle = null;
+		synchronized (lock)
+		{
+			pendingData = remove ? pending.remove(uid) : pending.get(uid);
+			if (pendingData == null)
+			{
+				handle = remove ? handles.remove(uid) : handles.get(uid);
+			}
+		}
+		
+		try
+		{
+			if (pendingData != null)
+			{
+				if (log.isTraceEnabled())
+				{
+					log.trace("read pending " + pendingData.data.length + " for object " + uid);
+				}
+				
+				serializer.readData(o, new ByteArrayInputStream(pendingData.data));
+			}
+			else if (handle != null)
+			{
+				byte[] data = swap.read(handle, remove);
+				if (log.isTraceEnabled())
+				{
+					log.trace("read " + data.length + " for object " + uid + " from " + swap);
+				}
+				
+				ByteArrayInputStream rawInput = new ByteArrayInputStream(data);
+				InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+				serializer.readData(o, input);
+				input.close();
+			}
+			else
+			{
+				log.error("No data found for " + uid + " in " + this);
+				throw 
+					new JRRuntimeException(
+						SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA,
+						(Object[])null);
+			}
+		}
+		catch (IOException e)
+		{
+			log.error("Error reading object data " + uid + " from " + swap, e);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_DEVIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public void remove(String objectId)
+	{
+		JRSwapFile.SwapHandle handle;
+		synchronized (lock)
+		{
+			pending.remove(objectId);
+			handle = handles.remove(objectId);
+		}
+		
+		if (handle != null)
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("removing object " + objectId + " from " + swap);
+			}
+			
+			swap.free(handle);
+		}
+	}
+
+	/**
+	 * Stops the background writer and disposes the swap file if this store owns it.
+	 */
+	@Override
+	public void dispose()
+	{
+		Thread writer;
+		synchronized (lock)
+		{
+			disposed = true;
+			pending.clear();
+			handles.clear();
+			writer = writerThread;
+		}
+		
+		if (writer != null)
+		{
+			queue.clear();
+			if (queue.offer(STOP))
+			{
+				try
+				{
+					writer.join();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			else
+			{
+				writer.interrupt();
+			}
+		}
+		
+		if (swapOwner)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("disposing " + swap);
+			}
+			
+			swap.dispose();
+		}
+	}
+	
+	protected static class PendingData
+	{
+		private final String uid;
+		private final byte[] data;
+		
+		protected PendingData(String uid, byte[] data)
+		{
+			this.uid = uid;
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.util.List;
+
+import net.sf.jasperreports.engine.JRPrintPage;
+
+
+/**
+ * Page list of a report whose pages are handed to the exporter while the report is still being filled.
+ * <p>
+ * The total number of pages is not known before the fill ends, therefore {@link List#size()} waits for
+ * the fill to end. Exporters that export pages as they become available should iterate the pages
+ * using {@link #hasPage(List, int)} and {@link #getLastPageIndex(List)}, which work for regular page lists as well.
+ * </p>
+ * 
+ * @see net.sf.jasperreports.engine.fill.FillExportPipeline
+ */
+public interface StreamedPages
+{
+	
+	/**
+	 * Waits until a page has been generated or until the fill ends.
+	 * 
+	 * @param pageIndex the page index
+	 * @return whether the report has a page at the specified index
+	 */
+	boolean waitForPage(int pageIndex);
+
+	
+	/**
+	 * Determines whether a page list has a page at the specified index,
+	 * waiting for the page to be generated if the pages are streamed.
+	 * 
+	 * @param pages the page list
+	 * @param pageIndex the page index
+	 * @return whether the list has a page at the index
+	 */
+	static boolean hasPage(List<JRPrintPage> pages, int pageIndex)
+	{
+		return pages instanceof StreamedPages 
+				? ((StreamedPages) pages).waitForPage(pageIndex) 
+				: pageIndex < pages.size();
+	}
+
+	
+	/**
+	 * Returns the index of the last page that is exported when no explicit page range is specified.
+	 * <p>
+	 * For streamed pages the last page index is not known in advance and the method returns {@link Integer#MAX_VALUE},
+	 * relying on the exporter to check the page indexes with {@link #hasPage(List, int)}.
+	 * </p>
+	 * 
+	 * @param pages the page list
+	 * @return the last page index
+	 */
+	static int getLastPageIndex(List<JRPrintPage> pages)
+	{
+		return pages instanceof StreamedPages ? Integer.MAX_VALUE : pages.size() - 1;
+	}
+	
+}
@@ -0,0 +1,429 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPrintAnchorIndex;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.PrintBookmark;
+import net.sf.jasperreports.engine.PrintPageFormat;
+import net.sf.jasperreports.engine.PrintPart;
+import net.sf.jasperreports.engine.PrintParts;
+import net.sf.jasperreports.engine.type.OrientationEnum;
+
+
+/**
+ * Read only view of a report that is being filled, used to export the report while its pages are generated.
+ * <p>
+ * The report properties, styles, origins, parts and bookmarks are read from the filling report,
+ * and might not be complete before the fill ends.
+ * The pages are read from a {@link StreamedPages} list.
+ * </p>
+ * 
+ * @see net.sf.jasperreports.engine.fill.FillExportPipeline
+ */
+public class StreamingJasperPrint extends JasperPrint
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+	private final JasperPrint fillingJasperPrint;
+	private final List<JRPrintPage> pages;
+	
+	/**
+	 * Creates a report that reads the pages from a streamed page list.
+	 * 
+	 * @param fillingJasperPrint the report that is being filled
+	 * @param pages the streamed pages of the report
+	 */
+	public StreamingJasperPrint(JasperPrint fillingJasperPrint, List<JRPrintPage> pages)
+	{
+		this.fillingJasperPrint = fillingJasperPrint;
+		this.pages = pages;
+	}
+
+	@Override
+	public String getName()
+	{
+		return fillingJasperPrint.getName();
+	}
+		
+	@Override
+	public void setName(String name)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int getPageWidth()
+	{
+		return fillingJasperPrint.getPageWidth();
+	}
+		
+	@Override
+	public void setPageWidth(int pageWidth)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int getPageHeight()
+	{
+		return fillingJasperPrint.getPageHeight();
+	}
+		
+	@Override
+	public void setPageHeight(int pageHeight)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer getTopMargin()
+	{
+		return fillingJasperPrint.getTopMargin();
+	}
+		
+	@Override
+	public void setTopMargin(Integer topMargin)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer getLeftMargin()
+	{
+		return fillingJasperPrint.getLeftMargin();
+	}
+		
+	@Override
+	public void setLeftMargin(Integer leftMargin)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer getBottomMargin()
+	{
+		return fillingJasperPrint.getBottomMargin();
+	}
+		
+	@Override
+	public void setBottomMargin(Integer bottomMargin)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer getRightMargin()
+	{
+		return fillingJasperPrint.getRightMargin();
+	}
+		
+	@Override
+	public void setRightMargin(Integer rightMargin)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public OrientationEnum getOrientation()
+	{
+		return fillingJasperPrint.getOrientation();
+	}
+		
+	@Override
+	public void setOrientation(OrientationEnum orientation)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean hasProperties()
+	{
+		return fillingJasperPrint.hasProperties();
+	}
+	
+	@Override
+	public JRPropertiesMap getPropertiesMap()
+	{
+		return fillingJasperPrint.getPropertiesMap();
+	}
+
+	@Override
+	public JRPropertiesHolder getParentProperties()
+	{
+		return fillingJasperPrint.getParentProperties();
+	}
+	
+	@Override
+	public String[] getPropertyNames()
+	{
+		return fillingJasperPrint.getPropertyNames();
+	}
+
+	@Override
+	public String getProperty(String propName)
+	{
+		return fillingJasperPrint.getProperty(propName);
+	}
+
+	@Override
+	public void setProperty(String propName, String value)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void removeProperty(String propName)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public JRStyle getDefaultStyle()
+	{
+		return fillingJasperPrint.getDefaultStyle();
+	}
+
+	@Override
+	public synchronized void setDefaultStyle(JRStyle style)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public JRDefaultStyleProvider getDefaultStyleProvider()
+	{
+		return fillingJasperPrint.getDefaultStyleProvider();
+	}
+		
+	@Override
+	public JRStyle[] getStyles()
+	{
+		return fillingJasperPrint.getStyles();
+	}
+
+	@Override
+	public List<JRStyle> getStylesList()
+	{
+		return fillingJasperPrint.getStylesList();
+	}
+
+	@Override
+	public Map<String, JRStyle> getStylesMap()
+	{
+		return fillingJasperPrint.getStylesMap();
+	}
+
+	@Override
+	public synchronized void addStyle(JRStyle style) throws JRException
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized void addStyle(JRStyle style, boolean isIgnoreDuplicate) throws JRException
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized JRStyle removeStyle(String styleName)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized JRStyle removeStyle(JRStyle style)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public JROrigin[] getOrigins()
+	{
+		return fillingJasperPrint.getOrigins();
+	}
+
+	@Override
+	public List<JROrigin> getOriginsList()
+	{
+		return fillingJasperPrint.getOriginsList();
+	}
+
+	@Override
+	public Map<JROrigin, Integer> getOriginsMap()
+	{
+		return fillingJasperPrint.getOriginsMap();
+	}
+
+	@Override
+	public synchronized void addOrigin(JROrigin origin)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized JROrigin removeOrigin(JROrigin origin)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public PrintPageFormat getPageFormat(int pageIndex)
+	{
+		synchronized (fillingJasperPrint)
+		{
+			return fillingJasperPrint.getPageFormat(pageIndex);
+		}
+	}
+
+	@Override
+	public PrintPageFormat getPageFormat()
+	{
+		return fillingJasperPrint.getPageFormat();
+	}
+
+	@Override
+	public boolean hasParts()
+	{
+		synchronized (fillingJasperPrint)
+		{
+			return fillingJasperPrint.hasParts();
+		}
+	}
+
+	@Override
+	public PrintParts getParts()
+	{
+		return fillingJasperPrint.getParts();
+	}
+
+	@Override
+	public synchronized void addPart(int pageIndex, PrintPart part)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized PrintPart removePart(int pageIndex)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<JRPrintPage> getPages()
+	{
+		return pages;
+	}
+
+	@Override
+	public synchronized void addPage(JRPrintPage page)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized void addPage(int index, JRPrintPage page)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized JRPrintPage removePage(int index)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<PrintBookmark> getBookmarks()
+	{
+		return fillingJasperPrint.getBookmarks();
+	}
+
+	@Override
+	public synchronized void addBookmark(PrintBookmark bookmark)
+	{
+		throw new UnsupportedOperationException();
+	}
+	
+	@Override
+	public void setBookmarks(List<PrintBookmark> bookmarks)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Map<String,JRPrintAnchorIndex> getAnchorIndexes()
+	{
+		// the anchors are collected from the pages that are still retained by the filling report
+		return fillingJasperPrint.getAnchorIndexes();
+	}
+
+	@Override
+	public String getFormatFactoryClass()
+	{
+		return fillingJasperPrint.getFormatFactoryClass();
+	}
+
+	@Override
+	public void setFormatFactoryClass(String formatFactoryClass)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String getLocaleCode()
+	{
+		return fillingJasperPrint.getLocaleCode();
+	}
+
+	@Override
+	public void setLocaleCode(String localeCode)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String getTimeZoneId()
+	{
+		return fillingJasperPrint.getTimeZoneId();
+	}
+
+	@Override
+	public void setTimeZoneId(String timeZoneId)
+	{
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,401 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.geom.Dimension2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.ContextValues;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Size bounded cache of decoded and rasterized images, shared by the exports that run in a JasperReports context.
+ * <p>
+ * Within an export, renderers are kept by {@link RenderersCache}, which is created for each export.
+ * This cache keeps the expensive image artifacts across exports: AWT images decoded from image data
+ * and PNG data produced by rasterizing SVG and other images at a given size and resolution.
+ * Entries are keyed by a digest of the source image data, so that the same image is shared by
+ * different documents and by different renderer instances, together with the target dimension,
+ * resolution and background color for rasterized images.
+ * </p>
+ * <p>
+ * The cache size is measured in bytes, estimated from the pixel buffers of decoded images and from
+ * the length of rasterized image data. The least recently used entries are removed when the size exceeds the limit.
+ * Cached images and image data are shared and must not be modified by the callers.
+ * </p>
+ * <p>
+ * The cache is disabled by default and is enabled by setting {@link #PROPERTY_MAX_SIZE} to a positive value.
+ * </p>
+ */
+public class SharedImageCache
+{
+	private static final Log log = LogFactory.getLog(SharedImageCache.class);
+	
+	/**
+	 * Property that specifies the maximum size in bytes of the decoded and rasterized images kept by 
+	 * the cache shared by exports.
+	 * <p>
+	 * The default value is 0, which means that images are only cached for the duration of an export.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Long.class
+			)
+	public static final String PROPERTY_MAX_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "image.shared.cache.max.size";
+	
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	
+	/**
+	 * Creates an image artifact that is not found in the cache.
+	 */
+	@FunctionalInterface
+	public interface ImageLoader<T>
+	{
+		T load() throws JRException;
+	}
+	
+	private static final String CONTEXT_KEY_CACHE = "net.sf.jasperreports.renderers.shared.image.cache";
+
+	/**
+	 * Returns the cache used for a JasperReports context, or <code>null</code> if the cache is not enabled.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @return the cache for the context, or <code>null</code>
+	 */
+	public static SharedImageCache getInstance(JasperReportsContext jasperReportsContext)
+	{
+		long maxSize = JRPropertiesUtil.getInstance(jasperReportsContext).getLongProperty(PROPERTY_MAX_SIZE, 0L);
+		if (maxSize <= 0)
+		{
+			return null;
+		}
+		
+		return ContextValues.getOwnValue(jasperReportsContext, CONTEXT_KEY_CACHE, SharedImageCache.class, 
+				() -> new SharedImageCache(maxSize));
+	}
+	
+	/**
+	 * Computes the digest of image data, used to identify the data in the cache keys.
+	 * 
+	 * @param data the image data
+	 * @return the data digest
+	 */
+	public static String getDataDigest(byte[] data)
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+		
+		byte[] hash = digest.digest(data);
+		StringBuilder sb = new StringBuilder(hash.length * 2 + 12);
+		for (byte b : hash)
+		{
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		// the length makes collisions between data of different sizes impossible
+		sb.append('-').append(data.length);
+		return sb.toString();
+	}
+	
+	private final long maxSize;
+	private final Map<ImageKey, CachedImage> images;
+	private long size;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	public SharedImageCache(long maxSize)
+	{
+		this.maxSize = maxSize;
+		this.images = new LinkedHashMap<>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Returns the AWT image decoded from image data, decoding it if not found in the cache.
+	 * 
+	 * @param dataDigest the digest of the image data, as returned by {@link #getDataDigest(byte[])}
+	 * @param loader decodes the image when not cached
+	 * @return the decoded image
+	 * @throws JRException if the image fails to decode
+	 */
+	public Image getDecodedImage(String dataDigest, ImageLoader<Image> loader) throws JRException
+	{
+		ImageKey key = new ImageKey(ImageKind.DECODED, dataDigest, 0, 0, 0, null);
+		return get(key, Image.class, loader);
+	}
+	
+	/**
+	 * Returns the image data produced by rasterizing an image at a given dimension, resolution and background color,
+	 * rasterizing it if not found in the cache.
+	 * 
+	 * @param dataDigest the digest of the source image data, as returned by {@link #getDataDigest(byte[])}
+	 * @param dimension the dimension of the rasterized image, before applying the resolution
+	 * @param dpi the resolution of the rasterized image
+	 * @param backcolor the background color, <code>null</code> for transparent images
+	 * @param loader rasterizes the image when not cached
+	 * @return the rasterized image data
+	 * @throws JRException if the image fails to rasterize
+	 */
+	public byte[] getRasterizedImageData(String dataDigest, Dimension2D dimension, int dpi, Color backcolor, 
+			ImageLoader<byte[]> loader) throws JRException
+	{
+		ImageKey key = new ImageKey(ImageKind.RASTERIZED, dataDigest, 
+				dimension == null ? 0 : dimension.getWidth(), dimension == null ? 0 : dimension.getHeight(), 
+				dpi, backcolor);
+		return get(key, byte[].class, loader);
+	}
+	
+	protected <T> T get(ImageKey key, Class<T> type, ImageLoader<T> loader) throws JRException
+	{
+		CachedImage cached;
+		synchronized (images)
+		{
+			cached = images.get(key);
+		}
+		
+		if (cached != null)
+		{
+			hits.increment();
+			return type.cast(cached.image);
+		}
+		
+		misses.increment();
+		T image = loader.load();
+		if (image != null)
+		{
+			long imageSize = estimateSize(image);
+			if (imageSize <= maxSize)
+			{
+				put(key, new CachedImage(image, imageSize));
+			}
+			else if (log.isDebugEnabled())
+			{
+				log.debug("image of size " + imageSize + " exceeds the cache size " + maxSize);
+			}
+		}
+		return image;
+	}
+	
+	protected void put(ImageKey key, CachedImage cached)
+	{
+		synchronized (images)
+		{
+			CachedImage previous = images.put(key, cached);
+			if (previous != null)
+			{
+				// loaded concurrently by another export
+				size -= previous.size;
+			}
+			size += cached.size;
+			
+			for (Iterator<CachedImage> it = images.values().iterator(); size > maxSize && it.hasNext();)
+			{
+				CachedImage eldest = it.next();
+				it.remove();
+				size -= eldest.size;
+				evictions.increment();
+			}
+		}
+	}
+	
+	protected long estimateSize(Object image)
+	{
+		if (image instanceof byte[])
+		{
+			return ((byte[]) image).length;
+		}
+		
+		if (image instanceof BufferedImage)
+		{
+			DataBuffer buffer = ((BufferedImage) image).getRaster().getDataBuffer();
+			return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+		}
+		
+		if (image instanceof Image)
+		{
+			// assume 4 bytes per pixel for images of unknown type
+			Image awtImage = (Image) image;
+			return 4L * Math.max(awtImage.getWidth(null), 1) * Math.max(awtImage.getHeight(null), 1);
+		}
+		
+		return 0;
+	}
+
+	/**
+	 * Removes all images from the cache.
+	 */
+	public void clear()
+	{
+		synchronized (images)
+		{
+			images.clear();
+			size = 0;
+		}
+	}
+	
+	public int getImageCount()
+	{
+		synchronized (images)
+		{
+			return images.size();
+		}
+	}
+	
+	/**
+	 * Returns the estimated size in bytes of the cached images.
+	 */
+	public long getSize()
+	{
+		synchronized (images)
+		{
+			return size;
+		}
+	}
+	
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	/**
+	 * Returns the number of images that were removed from the cache to keep its size under the limit.
+	 */
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "SharedImageCache{images=" + getImageCount() + ", size=" + getSize() + ", maxSize=" + maxSize
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "}";
+	}
+	
+	protected static enum ImageKind
+	{
+		DECODED,
+		RASTERIZED
+	}
+	
+	protected static final class ImageKey
+	{
+		private final ImageKind kind;
+		private final String dataDigest;
+		private final double width;
+		private final double height;
+		private final int dpi;
+		private final Integer backcolor;
+		private final int hash;
+		
+		protected ImageKey(ImageKind kind, String dataDigest, double width, double height, int dpi, Color backcolor)
+		{
+			this.kind = kind;
+			this.dataDigest = dataDigest;
+			this.width = width;
+			this.height = height;
+			this.dpi = dpi;
+			this.backcolor = backcolor == null ? null : backcolor.getRGB();
+			this.hash = Arrays.hashCode(new Object[]{kind, dataDigest, width, height, dpi, this.backcolor});
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			
+			if (!(obj instanceof ImageKey))
+			{
+				return false;
+			}
+			
+			ImageKey key = (ImageKey) obj;
+			return kind == key.kind && dataDigest.equals(key.dataDigest)
+					&& width == key.width && height == key.height && dpi == key.dpi
+					&& (backcolor == null ? key.backcolor == null : backcolor.equals(key.backcolor));
+		}
+	}
+	
+	protected static class CachedImage
+	{
+		final Object image;
+		final long size;
+		
+		CachedImage(Object image, long size)
+		{
+			this.image = image;
+			this.size = size;
+		}
+	}
+}
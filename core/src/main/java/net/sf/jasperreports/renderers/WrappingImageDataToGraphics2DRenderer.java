@@ -74,12 +74,25 @@ public class WrappingImageDataToGraphics2DRenderer extends AbstractRenderer impl
 	 */
 	protected Image getImage(JasperReportsContext jasperReportsContext) throws JRException
 	{
-		if (awtImageRef == null || awtImageRef.get() == null)
+		Image awtImage = awtImageRef == null ? null : awtImageRef.get();
+		if (awtImage == null)
 		{
-			Image awtImage = JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(getData(jasperReportsContext));
+			byte[] data = getData(jasperReportsContext);
+			SharedImageCache sharedCache = SharedImageCache.getInstance(jasperReportsContext);
+			if (sharedCache == null)
+			{
+				awtImage = JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(data);
+			}
+			else
+			{
+				awtImage = sharedCache.getDecodedImage(
+					SharedImageCache.getDataDigest(data), 
+					() -> JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(data)
+					);
+			}
 			awtImageRef = new SoftReference<>(awtImage);
 		}
-		return awtImageRef.get();
+		return awtImage;
 	}
 
 
@@ -52,6 +52,7 @@ public class WrappingRenderToImageDataRenderer extends AbstractRenderToImageData
 	private final DimensionRenderable dimensionRenderer;
 	private final Dimension2D dimension;
 	private final Color backcolor;
+	private final String sourceDataDigest;
 
 	
 	/**
@@ -67,6 +68,28 @@ public class WrappingRenderToImageDataRenderer extends AbstractRenderToImageData
 		this.dimension = dimension;
 		this.dimensionRenderer = null;
 		this.backcolor = backcolor;
+		this.sourceDataDigest = null;
+	}
+
+	
+	/**
+	 * Creates a renderer whose image data is kept in the {@link SharedImageCache}, when the cache is enabled.
+	 * 
+	 * @param sourceDataDigest the digest of the data from which the wrapped renderer draws the image, 
+	 * as returned by {@link SharedImageCache#getDataDigest(byte[])}
+	 */
+	public WrappingRenderToImageDataRenderer(
+		Graphics2DRenderable renderer, 
+		Dimension2D dimension,
+		Color backcolor,
+		String sourceDataDigest
+		)
+	{
+		this.renderer = renderer;
+		this.dimension = dimension;
+		this.dimensionRenderer = null;
+		this.backcolor = backcolor;
+		this.sourceDataDigest = sourceDataDigest;
 	}
 
 	
@@ -83,6 +106,28 @@ public class WrappingRenderToImageDataRenderer extends AbstractRenderToImageData
 		this.dimension = null;
 		this.dimensionRenderer = dimensionRender;
 		this.backcolor = backcolor;
+		this.sourceDataDigest = null;
+	}
+
+	
+	/**
+	 * Creates a renderer whose image data is kept in the {@link SharedImageCache}, when the cache is enabled.
+	 * 
+	 * @param sourceDataDigest the digest of the data from which the wrapped renderer draws the image, 
+	 * as returned by {@link SharedImageCache#getDataDigest(byte[])}
+	 */
+	public WrappingRenderToImageDataRenderer(
+		Graphics2DRenderable renderer, 
+		DimensionRenderable dimensionRender,
+		Color backcolor,
+		String sourceDataDigest
+		)
+	{
+		this.renderer = renderer;
+		this.dimension = null;
+		this.dimensionRenderer = dimensionRender;
+		this.backcolor = backcolor;
+		this.sourceDataDigest = sourceDataDigest;
 	}
 
 	
@@ -129,6 +174,25 @@ public class WrappingRenderToImageDataRenderer extends AbstractRenderToImageData
 		return imageDimension;
 	}
 
+	@Override
+	public byte[] getData(JasperReportsContext jasperReportsContext) throws JRException
+	{
+		SharedImageCache sharedCache = sourceDataDigest == null ? null : SharedImageCache.getInstance(jasperReportsContext);
+		if (sharedCache == null)
+		{
+			return super.getData(jasperReportsContext);
+		}
+		
+		return 
+			sharedCache.getRasterizedImageData(
+				sourceDataDigest, 
+				getDimension(jasperReportsContext), 
+				getImageDataDPI(jasperReportsContext), 
+				backcolor, 
+				() -> super.getData(jasperReportsContext)
+				);
+	}
+
 	@Override
 	public Color getBackcolor()
 	{
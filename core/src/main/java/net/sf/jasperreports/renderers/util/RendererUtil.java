@@ -49,6 +49,7 @@ import net.sf.jasperreports.renderers.Graphics2DRenderable;
 import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.RenderersCache;
 import net.sf.jasperreports.renderers.ResourceRenderer;
+import net.sf.jasperreports.renderers.SharedImageCache;
 import net.sf.jasperreports.renderers.SimpleDataRenderer;
 import net.sf.jasperreports.renderers.WrappingRenderToImageDataRenderer;
 import net.sf.jasperreports.renderers.util.SvgDataSniffer.SvgInfo;
@@ -511,11 +512,17 @@ public class RendererUtil
 				boolean isSvgData = isSvgData((DataRenderable)renderer);
 				if (isSvgData)
 				{
+					JasperReportsContext jasperReportsContext = context.getJasperReportsContext();
+					String dataDigest = 
+						SharedImageCache.getInstance(jasperReportsContext) == null 
+						? null 
+						: SharedImageCache.getDataDigest(((DataRenderable)renderer).getData(jasperReportsContext));
 					imageRenderer =
 						new WrappingRenderToImageDataRenderer(
 							(Graphics2DRenderable)renderersCache.getWrappingRenderable(renderer.getId(), (DataRenderable)renderer), 
 							dimension, 
-							backcolor
+							backcolor,
+							dataDigest
 							);
 				}
 				else
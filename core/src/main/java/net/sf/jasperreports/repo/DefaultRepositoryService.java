@@ -192,19 +192,24 @@ public class DefaultRepositoryService implements StreamRepositoryService
 		File file = resolveFile(context, location);
 		if (file != null)
 		{
+			StandardResourceInfo resourceInfo;
 			try
 			{
 				//resolving to real path to eliminate .. and .
 				Path path = file.toPath().toRealPath();
-				return StandardResourceInfo.from(path);
+				resourceInfo = StandardResourceInfo.from(path);
+				resourceInfo.setResourceKey(path.toString());
 			}
 			catch (IOException e)
 			{
 				log.warn("Failed to resolve real path for file " + file, e);
 				
 				//using the paths as present in the File object
-				return StandardResourceInfo.from(file);
+				resourceInfo = StandardResourceInfo.from(file);
+				resourceInfo.setResourceKey(file.getAbsolutePath());
 			}
+			resourceInfo.setResourceVersion(StandardResourceInfo.fileVersion(file));
+			return resourceInfo;
 		}
 		
 		//TODO lucianc classloader resources
@@ -261,14 +261,22 @@ public class FileRepositoryService implements StreamRepositoryService
 			try
 			{
 				Path filePath = file.toPath().toRealPath();
+				StandardResourceInfo resourceInfo = null;
 				if (rootRealPath != null && filePath.startsWith(rootRealPath))
 				{
 					Path relativePath = rootRealPath.relativize(filePath);
-					return StandardResourceInfo.from(relativePath);
+					resourceInfo = StandardResourceInfo.from(relativePath);
 				}
 				else if(resolveAbsolutePath)
 				{
-					return StandardResourceInfo.from(filePath);
+					resourceInfo = StandardResourceInfo.from(filePath);
+				}
+				
+				if (resourceInfo != null)
+				{
+					resourceInfo.setResourceVersion(StandardResourceInfo.fileVersion(file));
+					resourceInfo.setResourceKey(filePath.toString());
+					return resourceInfo;
 				}
 			}
 			catch (IOException e)
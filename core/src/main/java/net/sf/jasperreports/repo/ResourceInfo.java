@@ -33,4 +33,27 @@ public interface ResourceInfo
 
 	String getRepositoryContextLocation();
 	
+	/**
+	 * Returns a stamp that changes when the resource is modified, such as the last modification time of a file.
+	 * 
+	 * @return the resource version, or <code>null</code> if the repository does not track resource versions
+	 * @see net.sf.jasperreports.engine.fill.FillResourceCache
+	 */
+	default String getResourceVersion()
+	{
+		return null;
+	}
+	
+	/**
+	 * Returns a key that identifies the resource independently of the repository root that was used to
+	 * resolve it, such as the real path of a file.
+	 * 
+	 * @return the resource key, or <code>null</code> if the repository does not provide one
+	 * @see net.sf.jasperreports.engine.fill.FillResourceCache
+	 */
+	default String getResourceKey()
+	{
+		return null;
+	}
+	
 }
@@ -49,10 +49,22 @@ public class StandardResourceInfo implements ResourceInfo
 		return info;
 	}
 	
+	/**
+	 * Returns a version stamp for a file, based on its last modification time and its length.
+	 */
+	public static String fileVersion(File file)
+	{
+		return file.lastModified() + "/" + file.length();
+	}
+	
 	private String resourceLocation;
 
 	private String contextLocation;
 	
+	private String resourceVersion;
+	
+	private String resourceKey;
+	
 	@Override
 	public String getRepositoryResourceLocation()
 	{
@@ -75,4 +87,26 @@ public class StandardResourceInfo implements ResourceInfo
 		this.contextLocation = contextLocation;
 	}
 
+	@Override
+	public String getResourceVersion()
+	{
+		return resourceVersion;
+	}
+
+	public void setResourceVersion(String resourceVersion)
+	{
+		this.resourceVersion = resourceVersion;
+	}
+
+	@Override
+	public String getResourceKey()
+	{
+		return resourceKey;
+	}
+
+	public void setResourceKey(String resourceKey)
+	{
+		this.resourceKey = resourceKey;
+	}
+
 }
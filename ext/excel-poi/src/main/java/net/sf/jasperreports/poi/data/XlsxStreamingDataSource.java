@@ -0,0 +1,970 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.poi.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.data.AbstractXlsDataSource;
+import net.sf.jasperreports.engine.util.FormatUtils;
+import net.sf.jasperreports.repo.RepositoryContext;
+import net.sf.jasperreports.repo.RepositoryUtil;
+import net.sf.jasperreports.repo.SimpleRepositoryContext;
+
+
+/**
+ * This data source implementation reads an XLSX stream using the POI event model, 
+ * without building a workbook object model.
+ * <p>
+ * Sheets are parsed by {@link XSSFSheetXMLHandler} on a separate reader thread, one row at a time. 
+ * Parsed rows are handed over through a bounded read-ahead buffer (see {@link #setReadAheadRows(int)}), 
+ * so that memory usage does not depend on the number of rows in the sheet. 
+ * Shared strings and cell styles are still loaded in memory. When the data source is created from 
+ * an input stream, POI keeps the zipped package entries in memory; creating it from a file reads 
+ * the entries directly from the file.
+ * <p>
+ * The field mapping is the same as in {@link ExcelDataSource}: the default naming convention is to name report 
+ * fields COLUMN_x and map each column with the field found at index x in each row (these indices start with 0). 
+ * To avoid this situation, users can either specify a collection of column names or set a flag to read 
+ * the column names from the first row of the XLSX file.
+ * Rows that are not present in the sheet data are skipped, and formula cells are read using 
+ * the cached results stored in the file.
+ * 
+ * @see XlsxStreamingDataSourceFactory
+ */
+public class XlsxStreamingDataSource extends AbstractXlsDataSource
+{
+	public static final String EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_ERROR = "data.xlsx.streaming.read.error";
+	public static final String EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_INTERRUPTED = "data.xlsx.streaming.read.interrupted";
+	
+	public static final int DEFAULT_READ_AHEAD_ROWS = 1000;
+	
+	private static final Row END_OF_DATA = new Row(null, -1, new Cell[0]);
+	private static final AtomicInteger readerThreadCount = new AtomicInteger();
+
+	private OPCPackage opcPackage;
+	private XSSFReader xssfReader;
+	private StylesTable styles;
+	private ReadOnlySharedStringsTable sharedStrings;
+	private boolean date1904;
+
+	private InputStream inputStream;
+	private boolean closeInputStream;
+
+	private int readAheadRows = DEFAULT_READ_AHEAD_ROWS;
+
+	private SheetReader reader;
+	private Row row;
+
+
+	/**
+	 * Creates a data source instance from an XLSX data input stream.
+	 * @param is an input stream containing XLSX data
+	 */
+	public XlsxStreamingDataSource(InputStream is) throws JRException, IOException
+	{
+		this(is, false);
+	}
+
+
+	/**
+	 * Creates a data source instance from an XLSX data input stream.
+	 * @param is an input stream containing XLSX data
+	 * @param closeInputStream whether the input stream should be closed when the data source is closed
+	 */
+	public XlsxStreamingDataSource(InputStream is, boolean closeInputStream) throws JRException, IOException
+	{
+		this.inputStream = is;
+		this.closeInputStream = closeInputStream;
+
+		try
+		{
+			open(OPCPackage.open(is));
+		}
+		catch (OpenXML4JException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+
+	/**
+	 * Creates a data source instance from an XLSX file.
+	 * @param file a file containing XLSX data
+	 */
+	public XlsxStreamingDataSource(File file) throws JRException, IOException
+	{
+		try
+		{
+			open(OPCPackage.open(file, PackageAccess.READ));
+		}
+		catch (OpenXML4JException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	
+	/**
+	 * Creates a data source instance that reads XLSX data from a given location.
+	 * @param jasperReportsContext the JasperReportsContext
+	 * @param location a String representing XLSX data source
+	 * @throws IOException 
+	 */
+	public XlsxStreamingDataSource(JasperReportsContext jasperReportsContext, String location) throws JRException, IOException
+	{
+		this(SimpleRepositoryContext.of(jasperReportsContext), location);
+	}
+
+	public XlsxStreamingDataSource(RepositoryContext context, String location) throws JRException, IOException
+	{
+		this(RepositoryUtil.getInstance(context).getInputStreamFromLocation(location), true);
+	}
+
+	
+	/**
+	 * @see #XlsxStreamingDataSource(JasperReportsContext, String)
+	 */
+	public XlsxStreamingDataSource(String location) throws JRException, IOException
+	{
+		this(DefaultJasperReportsContext.getInstance(), location);
+	}
+	
+	
+	private void open(OPCPackage opcPackage) throws JRException, IOException
+	{
+		this.opcPackage = opcPackage;
+		
+		try
+		{
+			xssfReader = new XSSFReader(opcPackage);
+			styles = xssfReader.getStylesTable();
+			sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+
+			try (InputStream workbookData = xssfReader.getWorkbookData())
+			{
+				CTWorkbookPr workbookPr = 
+					WorkbookDocument.Factory.parse(workbookData, POIXMLTypeLoader.DEFAULT_XML_OPTIONS).getWorkbook().getWorkbookPr();
+				date1904 = workbookPr != null && workbookPr.getDate1904();
+			}
+		}
+		catch (IOException e)
+		{
+			opcPackage.revert();
+			
+			throw e;
+		}
+		catch (OpenXML4JException | SAXException | XmlException e)
+		{
+			opcPackage.revert();
+			
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+
+	/**
+	 * Returns the maximum number of rows parsed ahead of the row that is currently read by the data source.
+	 */
+	public int getReadAheadRows()
+	{
+		return readAheadRows;
+	}
+
+
+	/**
+	 * Sets the maximum number of rows parsed ahead of the row that is currently read by the data source.
+	 * Defaults to {@link #DEFAULT_READ_AHEAD_ROWS}.
+	 */
+	public void setReadAheadRows(int readAheadRows)
+	{
+		checkReadStarted();
+		
+		this.readAheadRows = Math.max(1, readAheadRows);
+	}
+	
+
+	@Override
+	public boolean next() throws JRException
+	{
+		boolean isFirstRow = reader == null;
+		if (isFirstRow)
+		{
+			reader = new SheetReader(sheetSelection, readAheadRows);
+			reader.start();
+		}
+		
+		row = reader.nextRow();
+		if (row == null)
+		{
+			return false;
+		}
+		
+		if (isFirstRow && useFirstRowAsHeader)
+		{
+			readHeader();
+			row = reader.nextRow();
+		}
+		
+		return row != null;
+	}
+
+
+	@Override
+	public void moveFirst()
+	{
+		if (reader != null)
+		{
+			reader.stop();
+			reader = null;
+		}
+		row = null;
+	}
+
+
+	@Override
+	public Object getFieldValue(JRField jrField) throws JRException
+	{
+		Class<?> valueClass = jrField.getValueClass();
+		try 
+		{
+			Integer columnIndex = getColumnIndex(jrField);
+
+			Cell cell = row.getCell(columnIndex);
+			if (cell == null)
+			{
+				return null;
+			}
+			
+			if (valueClass.equals(String.class)) 
+			{
+				return cell.text;
+			}
+			if (valueClass.equals(Boolean.class)) 
+			{
+				if (cell.type == CellType.BOOLEAN)
+				{
+					return cell.booleanValue;
+				}
+				else 
+				{
+					String value = cell.text;
+					if (value == null || value.trim().length() == 0)
+					{
+						return null;
+					}
+					else
+					{
+						return convertStringValue(value, valueClass);
+					}					
+				}
+			}
+			else if (Number.class.isAssignableFrom(valueClass))
+			{
+				if (cell.type == CellType.NUMERIC)
+				{
+					return convertNumber(cell.numericValue, valueClass);
+				}
+				else
+				{
+					String value = cell.text;
+					if (value == null || value.trim().length() == 0)
+					{
+						return null;
+					}
+					else
+					{
+						if (numberFormat != null)
+						{
+							return FormatUtils.getFormattedNumber(numberFormat, value, valueClass);
+						}
+						else 
+						{
+							return convertStringValue(value, valueClass);
+						}
+					}					
+				}
+			}
+			else if (Date.class.isAssignableFrom(valueClass))
+			{
+				if (cell.type == CellType.NUMERIC)
+				{
+					return DateUtil.getJavaDate(cell.numericValue, date1904);
+				}
+				else
+				{
+					String value = cell.text;
+					if (value == null || value.trim().length() == 0)
+					{
+						return null;
+					}
+					else
+					{
+						if (dateFormat != null)
+						{
+							return FormatUtils.getFormattedDate(dateFormat, value, valueClass);
+						}
+						else 
+						{
+							return convertStringValue(value, valueClass);
+						}
+					}					
+				}
+			}
+			else
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_CANNOT_CONVERT_FIELD_TYPE,
+						new Object[]{jrField.getName(), valueClass.getName(), getRecordDescription()}
+						);
+			}
+		}
+		catch (Exception e) 
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_XLS_FIELD_VALUE_NOT_RETRIEVED,
+					new Object[]{jrField.getName(), valueClass.getName(), getRecordDescription()}, 
+					e
+					);
+		}
+	}
+
+
+	private String getRecordDescription()
+	{
+		return row == null ? null : "[Sheet:" + row.sheetName + ", Row:" + (row.rowNumber + 1) + "]";
+	}
+
+
+	/**
+	 *
+	 */
+	private void readHeader()
+	{
+		if (columnNames.size() == 0)
+		{
+			for (int columnIndex = 0; columnIndex < row.cells.length; columnIndex++)
+			{
+				Cell cell = row.cells[columnIndex];
+				if (cell != null)
+				{
+					columnNames.put(cell.text, columnIndex);
+				}
+				else
+				{
+					columnNames.put("COLUMN_" + columnIndex, columnIndex);
+				}
+			}
+		}
+		else
+		{
+			Map<String, Integer> newColumnNames = new LinkedHashMap<>();
+			for (Iterator<Integer> it = columnNames.values().iterator(); it.hasNext();)
+			{
+				Integer columnIndex = it.next();
+				Cell cell = row.getCell(columnIndex);
+				if (cell != null)
+				{
+					newColumnNames.put(cell.text, columnIndex);
+				}
+			}
+			columnNames = newColumnNames;
+		}
+	}
+
+
+	/**
+	 * Closes the reader. Users of this data source should close it after usage.
+	 */
+	@Override
+	public void close()
+	{
+		moveFirst();
+		
+		if (opcPackage != null)
+		{
+			opcPackage.revert();
+			opcPackage = null;
+		}
+
+		try
+		{
+			if (closeInputStream)
+			{
+				inputStream.close();
+			}
+		}
+		catch(IOException e)
+		{
+			//nothing to do
+		}
+	}
+
+
+	@Override
+	protected void checkReadStarted()
+	{
+		if (reader != null)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_CANNOT_MODIFY_PROPERTIES_AFTER_START,
+					(Object[])null);
+		}
+	}
+	
+	// only used in JSS, to guess field types
+	public String getStringFieldValue(JRField jrField) throws JRException
+	{
+		try
+		{
+			Integer columnIndex = getColumnIndex(jrField);
+			Cell cell = row.getCell(columnIndex);
+			return cell == null ? null : cell.text;
+		}
+		catch (Exception e)
+		{
+			throw
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_XLS_FIELD_VALUE_NOT_RETRIEVED,
+					new Object[]{jrField.getName(), String.class.getName(), getRecordDescription()},
+					e
+					);
+		}
+	}
+
+	// only used in JSS, to guess field types
+	public String getFieldFormatPattern(JRField jrField) throws JRException
+	{
+		try
+		{
+			Integer columnIndex = getColumnIndex(jrField);
+			Cell cell = row.getCell(columnIndex);
+			return cell == null ? null : cell.formatString;
+		}
+		catch (Exception e)
+		{
+			throw
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_XLS_FIELD_VALUE_NOT_RETRIEVED,
+					new Object[]{jrField.getName(), String.class.getName(), getRecordDescription()},
+					e
+					);
+		}
+	}
+	
+	
+	private static int getCellColumnIndex(String cellReference)
+	{
+		int columnIndex = 0;
+		for (int i = 0; i < cellReference.length(); i++)
+		{
+			char c = cellReference.charAt(i);
+			if (c < 'A' || c > 'Z')
+			{
+				break;
+			}
+			columnIndex = columnIndex * 26 + (c - 'A' + 1);
+		}
+		return columnIndex - 1;
+	}
+	
+	
+	private static enum CellType
+	{
+		STRING, NUMERIC, BOOLEAN, BLANK
+	}
+
+	
+	private static class Cell
+	{
+		private final CellType type;
+		private final String text;
+		private final double numericValue;
+		private final boolean booleanValue;
+		private final String formatString;
+		
+		private Cell(CellType type, String text, double numericValue, boolean booleanValue, String formatString)
+		{
+			this.type = type;
+			this.text = text;
+			this.numericValue = numericValue;
+			this.booleanValue = booleanValue;
+			this.formatString = formatString;
+		}
+	}
+
+	
+	private static class Row
+	{
+		private final String sheetName;
+		private final int rowNumber;
+		private final Cell[] cells;
+		
+		private Row(String sheetName, int rowNumber, Cell[] cells)
+		{
+			this.sheetName = sheetName;
+			this.rowNumber = rowNumber;
+			this.cells = cells;
+		}
+		
+		private Cell getCell(int columnIndex)
+		{
+			return columnIndex < cells.length ? cells[columnIndex] : null;
+		}
+	}
+	
+	
+	/**
+	 * Thrown from the sheet handler to abort parsing when the reader is stopped.
+	 */
+	private static class ReadStoppedException extends RuntimeException
+	{
+		private static final long serialVersionUID = 1L;
+
+		private ReadStoppedException()
+		{
+			super(null, null, false, false);
+		}
+	}
+	
+
+	/**
+	 * Parses the selected sheets on a separate thread and buffers the parsed rows.
+	 */
+	private class SheetReader implements Runnable, SheetContentsHandler
+	{
+		private final String selection;
+		private final BlockingQueue<Row> rows;
+		private final Thread thread;
+		
+		private volatile boolean stopped;
+		private volatile Throwable failure;
+		private boolean finished;
+		
+		private DataFormatter formatter;
+		private String sheetName;
+		private int rowNumber;
+		private Cell[] cells = new Cell[0];
+		private int cellCount;
+		private int lastColumnIndex;
+		
+		private String cellReference;
+		private String cellType;
+		private String cellStyle;
+		private final StringBuilder cellValue = new StringBuilder();
+		private boolean cellValueOpen;
+		private boolean cellOutput;
+		
+		private SheetReader(String selection, int readAheadRows)
+		{
+			this.selection = selection;
+			this.rows = new ArrayBlockingQueue<>(readAheadRows);
+			this.thread = new Thread(this, "XlsxStreamingDataSource reader " + readerThreadCount.incrementAndGet());
+			this.thread.setDaemon(true);
+		}
+		
+		private void start()
+		{
+			thread.start();
+		}
+		
+		private void stop()
+		{
+			stopped = true;
+			//not interrupting the thread as that could close the channel of a file based package;
+			//making room in the buffer wakes up the reader, which then stops at the next row
+			rows.clear();
+			try
+			{
+				thread.join();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		private Row nextRow() throws JRException
+		{
+			if (finished)
+			{
+				return null;
+			}
+			
+			Row nextRow;
+			try
+			{
+				nextRow = rows.take();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_INTERRUPTED,
+						(Object[])null,
+						e);
+			}
+			
+			if (nextRow == END_OF_DATA)
+			{
+				finished = true;
+				
+				Throwable error = failure;
+				if (error instanceof JRRuntimeException)
+				{
+					throw (JRRuntimeException)error;
+				}
+				if (error != null)
+				{
+					throw 
+						new JRException(
+							EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_ERROR,
+							(Object[])null,
+							error);
+				}
+				return null;
+			}
+			return nextRow;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				readSheets();
+			}
+			catch (Throwable t)
+			{
+				if (!stopped)
+				{
+					failure = t;
+				}
+			}
+			finally
+			{
+				if (!stopped)
+				{
+					try
+					{
+						rows.put(END_OF_DATA);
+					}
+					catch (InterruptedException e)
+					{
+						//the data source is being closed
+					}
+				}
+			}
+		}
+		
+		private void readSheets() throws Exception
+		{
+			Integer selectedIndex = null;
+			if (selection != null)
+			{
+				try
+				{
+					selectedIndex = Integer.parseInt(selection);
+				}
+				catch (NumberFormatException e)
+				{
+				}
+			}
+
+			Locale locale = getLocale();
+			formatter = locale == null ? new DataFormatter() : new DataFormatter(locale);
+			
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator)xssfReader.getSheetsData();
+			int sheetIndex = 0;
+			boolean found = false;
+			while (sheets.hasNext() && !stopped)
+			{
+				try (InputStream sheetData = sheets.next())
+				{
+					String name = sheets.getSheetName();
+					boolean selected = 
+						selection == null 
+						|| (selectedIndex == null ? selection.equals(name) : selectedIndex == sheetIndex);
+					if (selected)
+					{
+						found = true;
+						readSheet(name, sheetData);
+						if (selection != null)
+						{
+							break;
+						}
+					}
+				}
+				sheetIndex++;
+			}
+
+			if (selection != null && !found && !stopped)
+			{
+				if (selectedIndex == null)
+				{
+					throw 
+						new JRRuntimeException(
+							EXCEPTION_MESSAGE_KEY_XLS_SHEET_NOT_FOUND,
+							new Object[]{selection});
+				}
+				throw 
+					new JRRuntimeException(
+						EXCEPTION_MESSAGE_KEY_XLS_SHEET_INDEX_OUT_OF_RANGE,
+						new Object[]{selectedIndex, sheetIndex - 1});
+			}
+		}
+		
+		private void readSheet(String name, InputStream sheetData) throws Exception
+		{
+			sheetName = name;
+			
+			XMLReader parser = XMLHelper.newXMLReader();
+			parser.setContentHandler(new SheetHandler());
+			try
+			{
+				parser.parse(new InputSource(sheetData));
+			}
+			catch (ReadStoppedException e)
+			{
+				//the data source is being closed
+			}
+		}
+		
+		@Override
+		public void startRow(int rowNum)
+		{
+			rowNumber = rowNum;
+			cellCount = 0;
+			lastColumnIndex = -1;
+		}
+
+		@Override
+		public void endRow(int rowNum)
+		{
+			if (stopped)
+			{
+				throw new ReadStoppedException();
+			}
+			
+			Row parsedRow = new Row(sheetName, rowNumber, Arrays.copyOf(cells, cellCount));
+			Arrays.fill(cells, 0, cellCount, null);
+			try
+			{
+				rows.put(parsedRow);
+			}
+			catch (InterruptedException e)
+			{
+				throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_XLSX_STREAMING_READ_INTERRUPTED, (Object[])null, e);
+			}
+		}
+
+		@Override
+		public void cell(String cellRef, String formattedValue, XSSFComment comment)
+		{
+			cellOutput = true;
+			
+			Cell cell;
+			if ("b".equals(cellType))
+			{
+				boolean value = cellValue.length() > 0 && cellValue.charAt(0) == '1';
+				cell = new Cell(CellType.BOOLEAN, value ? "TRUE" : "FALSE", 0, value, null);
+			}
+			else if ("s".equals(cellType) || "inlineStr".equals(cellType))
+			{
+				cell = new Cell(CellType.STRING, formattedValue, 0, false, null);
+			}
+			else if ("str".equals(cellType) || "e".equals(cellType))
+			{
+				cell = new Cell(CellType.STRING, cellValue.toString(), 0, false, null);
+			}
+			else
+			{
+				String formatString = getFormatString();
+				try
+				{
+					double value = Double.parseDouble(cellValue.toString().trim());
+					cell = new Cell(CellType.NUMERIC, formattedValue, value, false, formatString);
+				}
+				catch (NumberFormatException e)
+				{
+					cell = new Cell(CellType.STRING, formattedValue, 0, false, formatString);
+				}
+			}
+			addCell(cell);
+		}
+		
+		private void blankCell()
+		{
+			addCell(new Cell(CellType.BLANK, "", 0, false, getFormatString()));
+		}
+		
+		private void addCell(Cell cell)
+		{
+			int columnIndex = cellReference == null ? lastColumnIndex + 1 : getCellColumnIndex(cellReference);
+			lastColumnIndex = columnIndex;
+			
+			if (columnIndex >= cells.length)
+			{
+				cells = Arrays.copyOf(cells, Math.max(columnIndex + 1, 2 * cells.length));
+			}
+			cells[columnIndex] = cell;
+			cellCount = Math.max(cellCount, columnIndex + 1);
+		}
+		
+		private String getFormatString()
+		{
+			if (styles == null)
+			{
+				return null;
+			}
+			
+			XSSFCellStyle style = null;
+			if (cellStyle != null)
+			{
+				style = styles.getStyleAt(Integer.parseInt(cellStyle));
+			}
+			else if (styles.getNumCellStyles() > 0)
+			{
+				style = styles.getStyleAt(0);
+			}
+			return style == null ? null : style.getDataFormatString();
+		}
+		
+		/**
+		 * Keeps track of the raw cell type and value, which are not passed to the contents handler.
+		 */
+		private class SheetHandler extends XSSFSheetXMLHandler
+		{
+			private SheetHandler()
+			{
+				super(styles, sharedStrings, SheetReader.this, formatter, false);
+			}
+
+			@Override
+			public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException
+			{
+				if (uri == null || uri.equals(XSSFRelation.NS_SPREADSHEETML))
+				{
+					if ("c".equals(localName))
+					{
+						cellReference = attributes.getValue("r");
+						cellType = attributes.getValue("t");
+						cellStyle = attributes.getValue("s");
+						cellValue.setLength(0);
+						cellOutput = false;
+					}
+					else if ("v".equals(localName))
+					{
+						cellValueOpen = true;
+					}
+				}
+				
+				super.startElement(uri, localName, qName, attributes);
+			}
+
+			@Override
+			public void endElement(String uri, String localName, String qName) throws SAXException
+			{
+				if (uri == null || uri.equals(XSSFRelation.NS_SPREADSHEETML))
+				{
+					if ("v".equals(localName))
+					{
+						cellValueOpen = false;
+					}
+					else if ("c".equals(localName) && !cellOutput)
+					{
+						blankCell();
+					}
+				}
+				
+				super.endElement(uri, localName, qName);
+			}
+
+			@Override
+			public void characters(char[] ch, int start, int length) throws SAXException
+			{
+				if (cellValueOpen)
+				{
+					cellValue.append(ch, start, length);
+				}
+				
+				super.characters(ch, start, length);
+			}
+		}
+	}
+}
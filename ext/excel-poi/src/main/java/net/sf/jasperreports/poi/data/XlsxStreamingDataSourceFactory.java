@@ -0,0 +1,55 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.poi.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.data.AbstractXlsDataSource;
+import net.sf.jasperreports.engine.data.XlsxDataSourceFactory;
+
+/**
+ * Creates {@link XlsxStreamingDataSource} instances, which read XLSX files row by row
+ * instead of loading the whole workbook in memory.
+ * <p>
+ * To be used as value of the {@link net.sf.jasperreports.poi.query.ExcelQueryExecuter#PROPERTY_XLSX_DATA_SOURCE_FACTORY} property.
+ * <p>
+ * The field values are the same as with {@link ExcelDataSource}, with the following differences:
+ * <ul>
+ * <li>rows that are missing from the sheet data are skipped, while {@link ExcelDataSource} fails 
+ * when it reaches such a row</li>
+ * <li>formula cells are read using the cached results stored in the file instead of being evaluated,
+ * and are converted to the field class like the other cells</li>
+ * <li>text fields of numeric cells get the formatted cell value, while {@link ExcelDataSource} fails</li>
+ * </ul>
+ */
+public class XlsxStreamingDataSourceFactory implements XlsxDataSourceFactory
+{
+	@Override
+	public AbstractXlsDataSource getDataSource(InputStream inputStream, boolean closeInputStream) throws JRException, IOException
+	{
+		return new XlsxStreamingDataSource(inputStream, closeInputStream);
+	}
+}
@@ -29,7 +29,7 @@ import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.data.HierarchicalDataSource;
-import net.sf.jasperreports.engine.fill.SortedDataSource;
+import net.sf.jasperreports.engine.fill.SortedRecordsDataSource;
 import net.sf.jasperreports.functions.AbstractFunctionSupport;
 import net.sf.jasperreports.functions.annotations.Function;
 import net.sf.jasperreports.functions.annotations.FunctionCategories;
@@ -63,9 +63,9 @@ public class ReportFunctions extends AbstractFunctionSupport
 	protected JRDataSource originalDataSource() throws JRException
 	{
 		JRDataSource dataSource = (JRDataSource) getContext().getParameterValue(JRParameter.REPORT_DATA_SOURCE);
-		if (dataSource instanceof SortedDataSource)
+		if (dataSource instanceof SortedRecordsDataSource)
 		{
-			dataSource = ((SortedDataSource) dataSource).getOriginalDataSource();
+			dataSource = ((SortedRecordsDataSource) dataSource).getOriginalDataSource();
 		}
 		return dataSource;
 	}
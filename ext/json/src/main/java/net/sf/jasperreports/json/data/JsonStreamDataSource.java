@@ -0,0 +1,319 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.json.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.StringTokenizer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.repo.RepositoryContext;
+import net.sf.jasperreports.repo.RepositoryUtil;
+import net.sf.jasperreports.repo.SimpleRepositoryContext;
+
+
+/**
+ * JSON data source implementation that reads the records incrementally from the JSON input 
+ * using the Jackson streaming parser, instead of building the whole JSON tree in memory
+ * as {@link JsonDataSource} does.
+ * <p/>
+ * Only the node of the current record is materialized, so large JSON arrays can be iterated
+ * with memory usage proportional to the size of a single record.
+ * Field expressions are evaluated on the current record node exactly as in {@link JsonDataSource}.
+ * <p/>
+ * Streaming is only possible for select expressions that consist of simple property names
+ * separated by dots (see {@link #isStreamable(String)}); the nodes that are not on the selected
+ * path are skipped without being materialized.
+ * When the select path crosses an array, the array elements are read one at a time and the rest
+ * of the expression is applied to each element in memory, producing the same records as
+ * {@link JsonDataSource} would.
+ * Only one element of the crossed array is materialized at a time, but an element that contains
+ * a nested array selected by the rest of the expression is read entirely.
+ * <p/>
+ * The data source can be iterated only once; it does not support rewinding after the 
+ * first record has been read.
+ * 
+ * @see JsonDataSource
+ */
+public class JsonStreamDataSource extends AbstractJsonDataSource {
+	
+	private static final Log log = LogFactory.getLog(JsonStreamDataSource.class);
+
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE = "data.json.stream.not.rewindable";
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_UNSUPPORTED_EXPRESSION = "data.json.stream.unsupported.expression";
+	
+	private static final String PROPERTY_SEPARATOR = ".";
+
+	private final String selectExpression;
+	
+	private final JsonParser parser;
+	
+	private boolean started;
+	
+	private boolean streamingArray;
+	
+	private String arrayElementPath;
+	
+	private JsonNode singleNode;
+	
+	private Iterator<JsonNode> elementNodesIterator;
+	
+	private boolean finished;
+	
+	/**
+	 * Creates a streaming data source that reads JSON data from an input stream.
+	 * The stream is closed when the data source is exhausted or closed.
+	 * 
+	 * @param jsonStream the JSON input stream
+	 * @param selectExpression a simple select expression, see {@link #isStreamable(String)}
+	 */
+	public JsonStreamDataSource(InputStream jsonStream, String selectExpression) throws JRException {
+		if (!isStreamable(selectExpression)) {
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_UNSUPPORTED_EXPRESSION,
+					new Object[]{selectExpression});
+		}
+		
+		this.selectExpression = selectExpression;
+		try {
+			this.parser = getMapper().getFactory().createParser(jsonStream);
+		} catch (IOException e) {
+			throw new JRException(e);
+		}
+	}
+	
+	/**
+	 * Creates a streaming data source that reads JSON data from a given location.
+	 * 
+	 * @param jasperReportsContext the JasperReportsContext
+	 * @param location a String representing JSON data source
+	 * @param selectExpression a simple select expression, see {@link #isStreamable(String)}
+	 */
+	public JsonStreamDataSource(JasperReportsContext jasperReportsContext, String location, String selectExpression) throws JRException {
+		this(SimpleRepositoryContext.of(jasperReportsContext), location, selectExpression);
+	}
+	
+	public JsonStreamDataSource(RepositoryContext repositoryContext, String location, String selectExpression) throws JRException {
+		this(RepositoryUtil.getInstance(repositoryContext).getInputStreamFromLocation(location), selectExpression);
+	}
+	
+	/**
+	 * Determines whether a select expression can be evaluated while streaming the JSON input.
+	 * 
+	 * @param selectExpression the select expression
+	 * @return <code>true</code> if the expression is empty or consists only of property names
+	 * separated by dots, without array indexes or attribute selections
+	 */
+	public static boolean isStreamable(String selectExpression) {
+		if (selectExpression == null) {
+			return true;
+		}
+		
+		for (int i = 0; i < selectExpression.length(); i++) {
+			switch (selectExpression.charAt(i)) {
+				case '[':
+				case ']':
+				case '(':
+				case ')':
+					return false;
+				default:
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Rewinding is only supported before the first record has been read.
+	 * 
+	 * @see net.sf.jasperreports.engine.JRRewindableDataSource#moveFirst()
+	 */
+	@Override
+	public void moveFirst() throws JRException {
+		if (started) {
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE,
+					(Object[])null);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.sf.jasperreports.engine.JRDataSource#next()
+	 */
+	@Override
+	public boolean next() throws JRException {
+		// release the previous record
+		currentJsonNode = null;
+		
+		if (finished) {
+			return false;
+		}
+		
+		try {
+			if (!started) {
+				started = true;
+				start();
+			}
+			
+			JsonNode node = null;
+			if (streamingArray) {
+				node = nextArrayRecord();
+			} else if (singleNode != null) {
+				node = singleNode;
+				singleNode = null;
+			}
+			
+			if (node == null) {
+				close();
+				return false;
+			}
+			
+			currentJsonNode = node;
+			return true;
+		} catch (IOException e) {
+			close();
+			throw new JRException(e);
+		}
+	}
+	
+	protected void start() throws IOException, JRException {
+		JsonToken token = parser.nextToken();
+		if (token == null) {
+			throw 
+				new JRException(
+					JsonDataSource.EXCEPTION_MESSAGE_KEY_NO_DATA,
+					(Object[])null);
+		}
+		
+		StringTokenizer tokenizer = selectExpression == null 
+				? null : new StringTokenizer(selectExpression, PROPERTY_SEPARATOR);
+		while (tokenizer != null && tokenizer.hasMoreTokens()) {
+			if (token == JsonToken.START_ARRAY) {
+				// the remaining path is spread over the array elements, 
+				// it is applied to each element as it is read
+				StringBuilder remainingPath = new StringBuilder(tokenizer.nextToken());
+				while (tokenizer.hasMoreTokens()) {
+					remainingPath.append(PROPERTY_SEPARATOR).append(tokenizer.nextToken());
+				}
+				
+				if (log.isDebugEnabled()) {
+					log.debug("selecting " + remainingPath + " from array elements");
+				}
+				
+				streamingArray = true;
+				arrayElementPath = remainingPath.toString();
+				return;
+			}
+			
+			if (token != JsonToken.START_OBJECT) {
+				// scalar value, nothing to select
+				return;
+			}
+			
+			String property = tokenizer.nextToken();
+			token = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.currentName();
+				JsonToken valueToken = parser.nextToken();
+				if (property.equals(fieldName)) {
+					token = valueToken;
+					break;
+				}
+				parser.skipChildren();
+			}
+			
+			if (token == null) {
+				// property not found
+				return;
+			}
+		}
+		
+		if (token == JsonToken.START_ARRAY) {
+			streamingArray = true;
+		} else if (token == JsonToken.START_OBJECT) {
+			singleNode = parser.readValueAsTree();
+		}
+	}
+	
+	/**
+	 * Returns the next record from the streamed array, or <code>null</code> when the array ends.
+	 * <p/>
+	 * Selecting a path from an array node concatenates the nodes selected from each element,
+	 * so the path is applied to a single element array for each element in turn.
+	 */
+	protected JsonNode nextArrayRecord() throws IOException, JRException {
+		while (true) {
+			if (elementNodesIterator != null && elementNodesIterator.hasNext()) {
+				return elementNodesIterator.next();
+			}
+			elementNodesIterator = null;
+			
+			JsonToken token = parser.nextToken();
+			if (token == null || token == JsonToken.END_ARRAY) {
+				return null;
+			}
+			
+			JsonNode element = parser.readValueAsTree();
+			if (arrayElementPath == null) {
+				return element;
+			}
+			
+			JsonNode result = getJsonData(getMapper().createArrayNode().add(element), arrayElementPath);
+			if (result != null && result.isArray()) {
+				elementNodesIterator = result.elements();
+			}
+		}
+	}
+
+	/**
+	 * Closes the JSON parser and the underlying input stream.
+	 */
+	public void close() {
+		if (!finished) {
+			finished = true;
+			streamingArray = false;
+			singleNode = null;
+			elementNodesIterator = null;
+			try {
+				parser.close();
+			} catch (IOException e) {
+				if (log.isWarnEnabled()) {
+					log.warn("Failed to close the JSON parser", e);
+				}
+			}
+		}
+	}
+}
@@ -78,6 +78,27 @@ public class JsonQueryExecuterFactory extends AbstractQueryExecuterFactory imple
 	//FIXME javadoc
 	public static final String JSON_SOURCES = JRPropertiesUtil.PROPERTY_PREFIX + "json.sources";
 	
+	/**
+	 * Property that specifies whether the JSON data should be read incrementally using a streaming parser,
+	 * instead of loading the entire JSON tree in memory.
+	 * <p/>
+	 * Streaming applies to data read from the {@link #JSON_INPUT_STREAM} parameter or from the {@link #JSON_SOURCE} 
+	 * parameter/property, when the query is empty or consists of simple property names separated by dots.
+	 * When the query path crosses an array, the elements of that array are read one at a time,
+	 * and each element is held in memory while the rest of the query is applied to it.
+	 * 
+	 * @see net.sf.jasperreports.json.data.JsonStreamDataSource
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			scopeQualifications = {JsonQueryExecuterFactory.JSON_QUERY_EXECUTER_NAME},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Boolean.class
+			)
+	public static final String JSON_STREAMING = JRPropertiesUtil.PROPERTY_PREFIX + "json.streaming";
+	
 	/**
 	 * Parameter/property holding the format pattern used to instantiate java.util.Date instances.
 	 */
@@ -93,6 +93,7 @@ import net.sf.jasperreports.engine.PrintPageFormat;
 import net.sf.jasperreports.engine.base.JRBaseFont;
 import net.sf.jasperreports.engine.base.JRBasePen;
 import net.sf.jasperreports.engine.base.JRBasePrintText;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
 import net.sf.jasperreports.engine.export.GenericElementHandlerEnviroment;
 import net.sf.jasperreports.engine.export.HyperlinkUtil;
 import net.sf.jasperreports.engine.export.JRExportProgressMonitor;
@@ -118,8 +119,10 @@ import net.sf.jasperreports.engine.util.JRStyledTextUtil;
 import net.sf.jasperreports.engine.util.JRTextAttribute;
 import net.sf.jasperreports.engine.util.JRTypeSniffer;
 import net.sf.jasperreports.engine.util.Pair;
+import net.sf.jasperreports.export.ExportInterruptedException;
 import net.sf.jasperreports.export.ExporterInputItem;
 import net.sf.jasperreports.export.OutputStreamExporterOutput;
+import net.sf.jasperreports.export.StreamedPages;
 import net.sf.jasperreports.pdf.classic.ClassicPdfProducer;
 import net.sf.jasperreports.pdf.common.FontRecipient;
 import net.sf.jasperreports.pdf.common.LineCapStyle;
@@ -155,6 +158,7 @@ import net.sf.jasperreports.renderers.Graphics2DRenderable;
 import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.RenderersCache;
 import net.sf.jasperreports.renderers.ResourceRenderer;
+import net.sf.jasperreports.renderers.SharedImageCache;
 import net.sf.jasperreports.renderers.WrappingImageDataToGraphics2DRenderer;
 import net.sf.jasperreports.renderers.WrappingRenderToImageDataRenderer;
 import net.sf.jasperreports.renderers.WrappingSvgDataToGraphics2DRenderer;
@@ -615,6 +619,9 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 	private boolean legacyTextMeasuringFix;
 
 	private PdfVersionEnum minimalVersion;
+	
+	private PdfPagePreloader pagePreloader;
+	private PdfPagePreloader.PreloadedPage preloadedPage;
 
 	/**
 	 * @see #JRPdfExporter(JasperReportsContext)
@@ -1061,6 +1068,12 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 			pdfContent = pdfProducer.createPdfContent();
 
 			tagHelper.init();
+			
+			Integer pagePreloadThreads = configuration.getPagePreloadThreads();
+			if (pagePreloadThreads != null && pagePreloadThreads > 0)
+			{
+				pagePreloader = new PdfPagePreloader(pagePreloadThreads, this::preloadPage);
+			}
 
 			List<ExporterInputItem> items = exporterInput.getItems();
 
@@ -1080,7 +1093,7 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 				
 				boolean pageExported = false;
 				List<JRPrintPage> pages = jasperPrint.getPages();
-				if (pages != null && pages.size() > 0)
+				if (pages != null && StreamedPages.hasPage(pages, 0))
 				{
 					if (items.size() > 1)
 					{
@@ -1101,9 +1114,17 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 
 					PageRange pageRange = getPageRange();
 					int startPageIndex = (pageRange == null || pageRange.getStartPageIndex() == null) ? 0 : pageRange.getStartPageIndex();
-					int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? (pages.size() - 1) : pageRange.getEndPageIndex();
+					int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? StreamedPages.getLastPageIndex(pages) : pageRange.getEndPageIndex();
+					
+					// virtual pages are not safe to preload on other threads
+					boolean preloadPages = pagePreloader != null 
+							&& !(pages.get(startPageIndex) instanceof JRVirtualPrintPage);
+					if (preloadPages)
+					{
+						pagePreloader.startReport(pages, startPageIndex, endPageIndex);
+					}
 
-					for (int pageIndex = startPageIndex; pageIndex <= endPageIndex; pageIndex++)
+					for (int pageIndex = startPageIndex; pageIndex <= endPageIndex && StreamedPages.hasPage(pages, pageIndex); pageIndex++)
 					{
 						checkInterrupted();
 
@@ -1124,9 +1145,15 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 						
 						crtDocumentPageNumber++;
 
+						if (preloadPages)
+						{
+							preloadedPage = takePreloadedPage(pageIndex);
+						}
+						
 						/*   */
 						exportPage(page);
 						pageExported = true;
+						preloadedPage = null;
 						
 						oldPageFormat = pageFormat;
 					}
@@ -1152,6 +1179,13 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 		}
 		finally
 		{
+			if (pagePreloader != null)
+			{
+				pagePreloader.dispose();
+				pagePreloader = null;
+				preloadedPage = null;
+			}
+			
 			if (closeDocuments) //only on exception
 			{
 				try
@@ -1169,6 +1203,99 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 	}
 
 
+	private PdfPagePreloader.PreloadedPage takePreloadedPage(int pageIndex) throws ExportInterruptedException
+	{
+		try
+		{
+			return pagePreloader.take(pageIndex);
+		}
+		catch (InterruptedException e)
+		{
+			throw new ExportInterruptedException();
+		}
+	}
+
+	/**
+	 * Parses the styled texts and loads the image data of a page, called on page preload threads.
+	 * Text layout and PDF content creation are still done by the exporting thread.
+	 */
+	protected PdfPagePreloader.PreloadedPage preloadPage(JRPrintPage page)
+	{
+		PdfPagePreloader.PreloadedPage preloaded = new PdfPagePreloader.PreloadedPage();
+		preloadElements(page.getElements(), preloaded);
+		return preloaded;
+	}
+
+	protected void preloadElements(Collection<JRPrintElement> elements, PdfPagePreloader.PreloadedPage preloaded)
+	{
+		if (elements == null)
+		{
+			return;
+		}
+		
+		for (JRPrintElement element : elements)
+		{
+			if (element instanceof JRPrintFrame)
+			{
+				preloadElements(((JRPrintFrame) element).getElements(), preloaded);
+			}
+			else if (element instanceof JRPrintText)
+			{
+				JRPrintText text = (JRPrintText) element;
+				preloaded.addStyledText(text, styledTextUtil.getProcessedStyledText(text, noBackcolorSelector, null));
+			}
+			else if (element instanceof JRPrintImage)
+			{
+				preloadImage((JRPrintImage) element, preloaded);
+			}
+		}
+	}
+
+	protected void preloadImage(JRPrintImage printImage, PdfPagePreloader.PreloadedPage preloaded)
+	{
+		Renderable renderer = printImage.getRenderer();
+		if (
+			renderer instanceof DataRenderable
+			&& !(renderer instanceof ResourceRenderer)
+			&& !(renderer instanceof Graphics2DRenderable)
+			&& !preloaded.hasImage((DataRenderable) renderer)
+			)
+		{
+			try
+			{
+				DataRenderable dataRenderer = (DataRenderable) renderer;
+				if (!getRendererUtil().isSvgData(dataRenderer))
+				{
+					byte[] data = getImageData(dataRenderer);
+					preloaded.addImage(dataRenderer, data, ImageUtil.getExifOrientation(data));
+				}
+			}
+			catch (Exception e)
+			{
+				// the image will be processed again while exporting the page, which handles the error
+				if (log.isDebugEnabled())
+				{
+					log.debug("Failed to preload image " + renderer.getId(), e);
+				}
+			}
+		}
+	}
+
+	protected byte[] getImageData(DataRenderable renderer) throws JRException
+	{
+		byte[] data = renderer.getData(jasperReportsContext);
+		
+		if (ImageTypeEnum.WEBP == JRTypeSniffer.getImageTypeValue(data))
+		{
+			WrappingImageDataToGraphics2DRenderer graphics2DRenderer = new WrappingImageDataToGraphics2DRenderer(renderer);
+			String dataDigest = SharedImageCache.getInstance(jasperReportsContext) == null ? null : SharedImageCache.getDataDigest(data);
+			data = new WrappingRenderToImageDataRenderer(graphics2DRenderer, graphics2DRenderer, null, dataDigest).getData(jasperReportsContext);
+		}
+		
+		return data;
+	}
+
+
 	protected void writePageAnchor(int pageIndex) 
 	{
 		Map<Attribute,Object> attributes = new HashMap<>();
@@ -1802,20 +1929,15 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 			}
 			else
 			{
-				byte[] data = renderer.getData(jasperReportsContext);
-				
-				if (ImageTypeEnum.WEBP == JRTypeSniffer.getImageTypeValue(data))
-				{
-					WrappingImageDataToGraphics2DRenderer graphics2DRenderer = new WrappingImageDataToGraphics2DRenderer(renderer);
-					data = new WrappingRenderToImageDataRenderer(graphics2DRenderer, graphics2DRenderer, null).getData(jasperReportsContext);
-				}
+				PdfPagePreloader.PreloadedImage preloadedImage = preloadedPage == null ? null : preloadedPage.getImage(renderer);
+				byte[] data = preloadedImage == null ? getImageData(renderer) : preloadedImage.data;
 				
 				try
 				{
 					imagePair = 
 						new Pair<>(
 							pdfProducer.createImage(data, true), 
-							ImageUtil.getExifOrientation(data)
+							preloadedImage == null ? ImageUtil.getExifOrientation(data) : preloadedImage.exifOrientation
 							);
 				}
 				catch (Exception e)
@@ -2537,7 +2659,9 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 	 */
 	public void exportText(JRPrintText text)
 	{
-		JRStyledText styledText = styledTextUtil.getProcessedStyledText(text, noBackcolorSelector, null);
+		JRStyledText styledText = preloadedPage != null && preloadedPage.hasStyledText(text)
+				? preloadedPage.getStyledText(text)
+				: styledTextUtil.getProcessedStyledText(text, noBackcolorSelector, null);
 
 		if (styledText == null)
 		{
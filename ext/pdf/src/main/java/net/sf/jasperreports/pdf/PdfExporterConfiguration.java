@@ -374,6 +374,23 @@ public interface PdfExporterConfiguration extends ExporterConfiguration
 			)
 	public static final String PROPERTY_JUSTIFIED_LETTER_SPACING = JRPropertiesUtil.PROPERTY_PREFIX + "export.pdf.justified.letter.spacing";
 	
+	/**
+	 * Property whose value is used as default for the {@link #getPagePreloadThreads()} export configuration setting.
+	 * <p>
+	 * By default the property is set to <code>0</code>, which means that pages are not preloaded.
+	 * </p>
+	 * 
+	 * @see JRPropertiesUtil
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PAGE_PRELOAD_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "export.pdf.page.preload.threads";
+	
 	/**
 	 * Returns a boolean value specifying  whether the PDF document should contain an outline section.
 	 * @see #PROPERTY_CREATE_BATCH_MODE_BOOKMARKS
@@ -580,4 +597,23 @@ public interface PdfExporterConfiguration extends ExporterConfiguration
 		booleanDefault=false
 		)
 	public Boolean isDisplayMetadataTitle();
+	
+	/**
+	 * Specifies the number of threads that preload upcoming pages while the current page is written to the document.
+	 * <p>
+	 * The page preload threads only parse styled texts and load image data. Text layout and the creation
+	 * of the PDF content are still done sequentially by the exporting thread, and the output is the same 
+	 * as when pages are not preloaded.
+	 * Values less than or equal to <code>0</code> disable page preloading.
+	 * </p>
+	 * <p>
+	 * Pages of virtualized reports are not thread safe and are never preloaded.
+	 * </p>
+	 * @see #PROPERTY_PAGE_PRELOAD_THREADS
+	 */
+	@ExporterProperty(
+		value=PROPERTY_PAGE_PRELOAD_THREADS, 
+		intDefault=0
+		)
+	public Integer getPagePreloadThreads();
 }
@@ -0,0 +1,199 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.pdf;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.util.ExifOrientationEnum;
+import net.sf.jasperreports.engine.util.JRStyledText;
+import net.sf.jasperreports.export.StreamedPages;
+import net.sf.jasperreports.renderers.DataRenderable;
+
+/**
+ * Parses the styled texts and loads the image data of upcoming pages on a pool of 
+ * worker threads while {@link JRPdfExporter} writes the current page.
+ * <p>
+ * Text layout, PDF chunk creation and everything else that depends on the PDF document
+ * state are still done by the exporter thread in page order, so the output is identical
+ * to the sequential export.
+ * </p>
+ * 
+ * @see PdfExporterConfiguration#getPagePreloadThreads()
+ */
+class PdfPagePreloader
+{
+	private static final Log log = LogFactory.getLog(PdfPagePreloader.class);
+	
+	private final ExecutorService executor;
+	private final int lookahead;
+	private final Function<JRPrintPage, PreloadedPage> preload;
+	private final Map<Integer, Future<PreloadedPage>> scheduled;
+	
+	private List<JRPrintPage> pages;
+	private int endPageIndex;
+	private int nextPageIndex;
+
+	PdfPagePreloader(int threadCount, Function<JRPrintPage, PreloadedPage> preload)
+	{
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threadCount, runnable ->
+		{
+			Thread thread = new Thread(runnable, "JRPdfExporter page preload " + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.lookahead = 2 * threadCount;
+		this.preload = preload;
+		this.scheduled = new HashMap<>();
+	}
+	
+	/**
+	 * Starts preloading pages of a report.
+	 */
+	void startReport(List<JRPrintPage> pages, int startPageIndex, int endPageIndex)
+	{
+		cancelScheduled();
+		
+		this.pages = pages;
+		this.endPageIndex = endPageIndex;
+		this.nextPageIndex = startPageIndex;
+	}
+	
+	/**
+	 * Returns the preloaded content of a page, waiting for the preload to finish
+	 * and scheduling the preload of the following pages.
+	 * 
+	 * @return the preloaded content, or <code>null</code> if the preload failed
+	 */
+	PreloadedPage take(int pageIndex) throws InterruptedException
+	{
+		while (nextPageIndex <= endPageIndex && nextPageIndex <= pageIndex + lookahead 
+				&& StreamedPages.hasPage(pages, nextPageIndex))
+		{
+			JRPrintPage page = pages.get(nextPageIndex);
+			scheduled.put(nextPageIndex, executor.submit(() -> preload.apply(page)));
+			++nextPageIndex;
+		}
+		
+		Future<PreloadedPage> future = scheduled.remove(pageIndex);
+		if (future == null)
+		{
+			return null;
+		}
+		
+		try
+		{
+			return future.get();
+		}
+		catch (ExecutionException e)
+		{
+			// the exporter will process the page itself and deal with the error
+			if (log.isDebugEnabled())
+			{
+				log.debug("Failed to preload page " + pageIndex, e.getCause());
+			}
+			return null;
+		}
+	}
+	
+	private void cancelScheduled()
+	{
+		for (Future<PreloadedPage> future : scheduled.values())
+		{
+			future.cancel(true);
+		}
+		scheduled.clear();
+	}
+	
+	void dispose()
+	{
+		cancelScheduled();
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Content preloaded for a page.
+	 */
+	static class PreloadedPage
+	{
+		private final Map<JRPrintText, JRStyledText> styledTexts = new IdentityHashMap<>();
+		private final Map<DataRenderable, PreloadedImage> images = new IdentityHashMap<>();
+		
+		void addStyledText(JRPrintText text, JRStyledText styledText)
+		{
+			styledTexts.put(text, styledText);
+		}
+		
+		boolean hasStyledText(JRPrintText text)
+		{
+			return styledTexts.containsKey(text);
+		}
+		
+		JRStyledText getStyledText(JRPrintText text)
+		{
+			return styledTexts.get(text);
+		}
+		
+		boolean hasImage(DataRenderable renderer)
+		{
+			return images.containsKey(renderer);
+		}
+		
+		void addImage(DataRenderable renderer, byte[] data, ExifOrientationEnum exifOrientation)
+		{
+			images.put(renderer, new PreloadedImage(data, exifOrientation));
+		}
+		
+		PreloadedImage getImage(DataRenderable renderer)
+		{
+			return images.get(renderer);
+		}
+	}
+	
+	static class PreloadedImage
+	{
+		final byte[] data;
+		final ExifOrientationEnum exifOrientation;
+		
+		PreloadedImage(byte[] data, ExifOrientationEnum exifOrientation)
+		{
+			this.data = data;
+			this.exifOrientation = exifOrientation;
+		}
+	}
+}
@@ -59,6 +59,7 @@ public class SimplePdfExporterConfiguration extends SimpleExporterConfiguration
 	private String metadataCreator;
 	private String metadataProducer;
 	private Boolean displayMetadataTitle;
+	private Integer pagePreloadThreads;
 
 	
 	/**
@@ -415,4 +416,18 @@ public class SimplePdfExporterConfiguration extends SimpleExporterConfiguration
 	public void setDisplayMetadataTitle(Boolean displayMetadataTitle) {
 		this.displayMetadataTitle = displayMetadataTitle;
 	}
+
+	@Override
+	public Integer getPagePreloadThreads()
+	{
+		return pagePreloadThreads;
+	}
+	
+	/**
+	 * 
+	 */
+	public void setPagePreloadThreads(Integer pagePreloadThreads)
+	{
+		this.pagePreloadThreads = pagePreloadThreads;
+	}
 }
@@ -0,0 +1,262 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.data.JRAbstractBeanDataSource;
+import net.sf.jasperreports.engine.data.JRBeanArrayDataSource;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+
+/**
+ * Checks the field values read by the bean data sources.
+ */
+public class BeanDataSourceTest
+{
+
+	@Test
+	public void simpleProperties() throws JRException
+	{
+		JRDesignField name = field("name", String.class);
+		JRDesignField count = field("count", Integer.class);
+		JRDesignField active = field("active", Boolean.class);
+		
+		JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(Arrays.asList(
+				new Item("a", 1, true), new Item("b", null, false), null, new SpecialItem("c", 3)));
+		
+		assert dataSource.next();
+		assert "a".equals(dataSource.getFieldValue(name));
+		assert Integer.valueOf(1).equals(dataSource.getFieldValue(count));
+		assert Boolean.TRUE.equals(dataSource.getFieldValue(active));
+		
+		// fields requested in a different order
+		assert dataSource.next();
+		assert Boolean.FALSE.equals(dataSource.getFieldValue(active));
+		assert dataSource.getFieldValue(count) == null;
+		assert "b".equals(dataSource.getFieldValue(name));
+		
+		// null bean
+		assert dataSource.next();
+		assert dataSource.getFieldValue(name) == null;
+		assert dataSource.getFieldValue(count) == null;
+		
+		// bean subclass with an overridden read method
+		assert dataSource.next();
+		assert "special c".equals(dataSource.getFieldValue(name));
+		assert Integer.valueOf(3).equals(dataSource.getFieldValue(count));
+		assert Boolean.TRUE.equals(dataSource.getFieldValue(active));
+		
+		assert !dataSource.next();
+	}
+
+	@Test
+	public void nestedProperties() throws JRException
+	{
+		JRDesignField parentName = field("parent.name", String.class);
+		JRDesignField firstChild = field("children[0].name", String.class);
+		JRDesignField attribute = field("attributes(color)", String.class);
+		
+		Item parent = new Item("parent", 0, true);
+		Item item = new Item("child", 1, true);
+		item.setParent(parent);
+		item.setChildren(Arrays.asList(new Item("first", 2, true), new Item("second", 3, true)));
+		item.getAttributes().put("color", "red");
+		
+		Item orphan = new Item("orphan", 4, false);
+		orphan.setChildren(Collections.singletonList(new Item("only", 5, false)));
+		
+		JRBeanArrayDataSource dataSource = new JRBeanArrayDataSource(new Object[]{item, orphan});
+		
+		assert dataSource.next();
+		assert "parent".equals(dataSource.getFieldValue(parentName));
+		assert "first".equals(dataSource.getFieldValue(firstChild));
+		assert "red".equals(dataSource.getFieldValue(attribute));
+		
+		assert dataSource.next();
+		// a null value in the path yields a null field value
+		assert dataSource.getFieldValue(parentName) == null;
+		assert "only".equals(dataSource.getFieldValue(firstChild));
+		assert dataSource.getFieldValue(attribute) == null;
+		
+		assert !dataSource.next();
+	}
+
+	@Test
+	public void currentBean() throws JRException
+	{
+		JRDesignField self = field(JRAbstractBeanDataSource.CURRENT_BEAN_MAPPING, Object.class);
+		
+		Item item = new Item("a", 1, true);
+		JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(Arrays.asList(item, "text", null));
+		
+		assert dataSource.next();
+		assert dataSource.getFieldValue(self) == item;
+		assert dataSource.next();
+		assert "text".equals(dataSource.getFieldValue(self));
+		assert dataSource.next();
+		assert dataSource.getFieldValue(self) == null;
+		assert !dataSource.next();
+	}
+
+	@Test
+	public void mapBeans() throws JRException
+	{
+		JRDesignField name = field("name", String.class);
+		
+		Map<String, Object> map = new HashMap<>();
+		map.put("name", "from map");
+		JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(Arrays.asList(
+				new Item("from bean", 1, true), map, new Item("bean again", 2, true)));
+		
+		assert dataSource.next();
+		assert "from bean".equals(dataSource.getFieldValue(name));
+		assert dataSource.next();
+		assert "from map".equals(dataSource.getFieldValue(name));
+		assert dataSource.next();
+		assert "bean again".equals(dataSource.getFieldValue(name));
+	}
+
+	@Test
+	public void missingProperty() throws JRException
+	{
+		JRDesignField missing = field("missing", String.class);
+		JRDesignField failing = field("failing", String.class);
+		
+		JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(
+				Collections.singletonList(new Item("a", 1, true)));
+		assert dataSource.next();
+		
+		checkFieldError(dataSource, missing, NoSuchMethodException.class);
+		checkFieldError(dataSource, failing, InvocationTargetException.class);
+	}
+	
+	protected void checkFieldError(JRBeanCollectionDataSource dataSource, JRDesignField field, 
+			Class<? extends Exception> causeType)
+	{
+		try
+		{
+			dataSource.getFieldValue(field);
+			assert false;
+		}
+		catch (JRException e)
+		{
+			assert JRAbstractBeanDataSource.EXCEPTION_MESSAGE_KEY_BEAN_FIELD_VALUE_NOT_RETRIEVED.equals(e.getMessageKey());
+			assert causeType.isInstance(e.getCause()) : e.getCause();
+		}
+	}
+	
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+	
+	public static class Item
+	{
+		private final String name;
+		private final Integer count;
+		private final boolean active;
+		private Item parent;
+		private List<Item> children = new ArrayList<>();
+		private final Map<String, String> attributes = new HashMap<>();
+		
+		public Item(String name, Integer count, boolean active)
+		{
+			this.name = name;
+			this.count = count;
+			this.active = active;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public Integer getCount()
+		{
+			return count;
+		}
+
+		public boolean isActive()
+		{
+			return active;
+		}
+
+		public Item getParent()
+		{
+			return parent;
+		}
+
+		public void setParent(Item parent)
+		{
+			this.parent = parent;
+		}
+
+		public List<Item> getChildren()
+		{
+			return children;
+		}
+
+		public void setChildren(List<Item> children)
+		{
+			this.children = children;
+		}
+
+		public Map<String, String> getAttributes()
+		{
+			return attributes;
+		}
+		
+		public String getFailing()
+		{
+			throw new IllegalStateException("failing property");
+		}
+	}
+	
+	public static class SpecialItem extends Item
+	{
+		public SpecialItem(String name, Integer count)
+		{
+			super(name, count, true);
+		}
+
+		@Override
+		public String getName()
+		{
+			return "special " + super.getName();
+		}
+	}
+}
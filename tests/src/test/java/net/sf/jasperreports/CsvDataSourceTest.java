@@ -34,6 +34,7 @@ import org.testng.annotations.Test;
 
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.data.JRCsvDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
@@ -74,6 +75,44 @@ public class CsvDataSourceTest
 		}
 	}
 	
+	@Test
+	public void readFieldValues() throws JRException
+	{
+		StringReader input = new StringReader("name,count,active\na,1,true\nb, 2 ,false\nc,,true\n");
+		JRCsvDataSource dataSource = new JRCsvDataSource(input);
+		dataSource.setUseFirstRowAsHeader(true);
+		
+		JRDesignField name = field("name", String.class);
+		JRDesignField count = field("count", Integer.class);
+		JRDesignField active = field("active", Boolean.class);
+		
+		assert dataSource.next();
+		assert "a".equals(dataSource.getFieldValue(name));
+		assert Integer.valueOf(1).equals(dataSource.getFieldValue(count));
+		assert Boolean.TRUE.equals(dataSource.getFieldValue(active));
+		
+		// fields requested in a different order
+		assert dataSource.next();
+		assert Boolean.FALSE.equals(dataSource.getFieldValue(active));
+		assert "b".equals(dataSource.getFieldValue(name));
+		assert Integer.valueOf(2).equals(dataSource.getFieldValue(count));
+		
+		assert dataSource.next();
+		assert "c".equals(dataSource.getFieldValue(name));
+		assert dataSource.getFieldValue(count) == null;
+		assert Boolean.TRUE.equals(dataSource.getFieldValue(active));
+		
+		assert !dataSource.next();
+	}
+	
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+	
 	private static final String COLUMN_0 = JRCsvDataSource.INDEXED_COLUMN_PREFIX + 0;
 	private static final String COLUMN_1 = JRCsvDataSource.INDEXED_COLUMN_PREFIX + 1;
 	private static final String COLUMN_2 = JRCsvDataSource.INDEXED_COLUMN_PREFIX + 2;
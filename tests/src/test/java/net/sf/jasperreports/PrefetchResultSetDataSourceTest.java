@@ -0,0 +1,275 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.NClob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.query.JRJdbcQueryExecuterFactory;
+import net.sf.jasperreports.engine.query.PrefetchResultSetDataSource;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Checks that reading a result set in advance with {@link PrefetchResultSetDataSource} produces
+ * the same values as reading it directly.
+ */
+public class PrefetchResultSetDataSourceTest
+{
+	
+	private static final int ROW_COUNT = 250;
+	
+	private static final String SELECT = "select * from PREFETCH_ROWS order by ID";
+	
+	private static final JRField[] FIELDS = {
+		field("ID", Integer.class),
+		field("NAME", String.class),
+		field("AMOUNT", BigDecimal.class),
+		field("RATIO", Double.class),
+		field("ACTIVE", Boolean.class),
+		field("CREATED", Timestamp.class),
+		field("NOTES", Clob.class),
+		field("DATA", Blob.class),
+		field("TAGS", Array.class),
+		field(JRResultSetDataSource.INDEXED_COLUMN_PREFIX + "2", Object.class),
+	};
+	
+	private Connection connection;
+
+	@BeforeClass
+	public void createDatabase() throws SQLException
+	{
+		connection = DriverManager.getConnection("jdbc:hsqldb:mem:prefetchResultSetDataSourceTest", "SA", "");
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("create table PREFETCH_ROWS (ID integer, NAME varchar(20), AMOUNT decimal(10, 2), "
+					+ "RATIO double, ACTIVE boolean, CREATED timestamp, NOTES clob, DATA blob, TAGS varchar(10) array)");
+		}
+		
+		try (PreparedStatement statement = connection.prepareStatement(
+				"insert into PREFETCH_ROWS values (?, ?, ?, ?, ?, ?, ?, ?, ?)"))
+		{
+			for (int i = 0; i < ROW_COUNT; i++)
+			{
+				// every seventh row has null values
+				boolean nulls = i % 7 == 3;
+				statement.setInt(1, i);
+				statement.setString(2, nulls ? null : "name " + (i % 13));
+				statement.setBigDecimal(3, nulls ? null : BigDecimal.valueOf(i * 101, 2));
+				statement.setObject(4, nulls ? null : i / 3d);
+				statement.setObject(5, nulls ? null : i % 2 == 0);
+				statement.setTimestamp(6, nulls ? null : new Timestamp(1600000000000L + i * 60000L));
+				statement.setString(7, nulls ? null : "notes for row " + i);
+				statement.setBytes(8, nulls ? null : new byte[]{(byte) i, (byte) (i >> 8), 1});
+				statement.setArray(9, nulls ? null : connection.createArrayOf("VARCHAR", new Object[]{"t" + i, "u"}));
+				statement.executeUpdate();
+			}
+		}
+	}
+	
+	@AfterClass
+	public void closeDatabase() throws SQLException
+	{
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("shutdown");
+		}
+		connection.close();
+	}
+	
+	@DataProvider
+	public Object[][] blockSizes()
+	{
+		return new Object[][] {{1}, {7}, {100}, {ROW_COUNT}, {ROW_COUNT + 1}};
+	}
+
+	@Test(dataProvider = "blockSizes")
+	public void sameValues(int blockSize) throws SQLException, JRException
+	{
+		List<List<Object>> directValues;
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			directValues = readValues(new JRResultSetDataSource(resultSet));
+		}
+		
+		List<List<Object>> prefetchedValues;
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			PrefetchResultSetDataSource dataSource = new PrefetchResultSetDataSource(
+					new JRResultSetDataSource(resultSet), FIELDS, blockSize);
+			prefetchedValues = readValues(dataSource);
+			dataSource.close();
+		}
+		
+		assert directValues.size() == ROW_COUNT;
+		assert prefetchedValues.equals(directValues);
+	}
+
+	@Test
+	public void closeBeforeEnd() throws SQLException, JRException
+	{
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			PrefetchResultSetDataSource dataSource = new PrefetchResultSetDataSource(
+					new JRResultSetDataSource(resultSet), FIELDS, 10);
+			for (int i = 0; i < 15; i++)
+			{
+				assert dataSource.next();
+				assert Integer.valueOf(i).equals(dataSource.getFieldValue(FIELDS[0]));
+			}
+			dataSource.close();
+		}
+	}
+
+	@Test
+	public void unsupportedTypes()
+	{
+		assert PrefetchResultSetDataSource.isPrefetchSupported(FIELDS);
+		assert !PrefetchResultSetDataSource.isPrefetchSupported(new JRField[]{
+				FIELDS[0], field("XML", SQLXML.class)});
+		assert !PrefetchResultSetDataSource.isPrefetchSupported(new JRField[]{field("NOTES", NClob.class)});
+	}
+
+	@Test
+	public void sameReport() throws JRException, IOException
+	{
+		JasperReport report;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream("net/sf/jasperreports/data/PrefetchReport.jrxml"))
+		{
+			report = JasperCompileManager.compileReport(JRXmlLoader.load(jrxmlInput));
+		}
+		
+		List<String> directTexts = fillTexts(report, 0);
+		List<String> prefetchedTexts = fillTexts(report, 16);
+		assert directTexts.size() == ROW_COUNT;
+		assert prefetchedTexts.equals(directTexts);
+	}
+	
+	protected List<String> fillTexts(JasperReport report, int blockSize) throws JRException
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		context.setProperty(JRJdbcQueryExecuterFactory.PROPERTY_JDBC_PREFETCH_BLOCK_SIZE, String.valueOf(blockSize));
+		
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_CONNECTION, connection);
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, params);
+		
+		List<String> texts = new ArrayList<>();
+		for (JRPrintPage page : print.getPages())
+		{
+			for (JRPrintElement element : page.getElements())
+			{
+				texts.add(((JRPrintText) element).getFullText());
+			}
+		}
+		return texts;
+	}
+	
+	/**
+	 * Reads all the rows, keeping the values as read and comparable copies of the LOB contents.
+	 */
+	protected List<List<Object>> readValues(JRDataSource dataSource) throws JRException, SQLException
+	{
+		List<List<Object>> rows = new ArrayList<>();
+		while (dataSource.next())
+		{
+			List<Object> values = new ArrayList<>();
+			for (JRField field : FIELDS)
+			{
+				Object value = dataSource.getFieldValue(field);
+				assert value == null || field.getValueClass().isInstance(value) : field.getName() + ": " + value;
+				values.add(comparableValue(value));
+			}
+			rows.add(values);
+		}
+		return rows;
+	}
+	
+	protected Object comparableValue(Object value) throws SQLException
+	{
+		if (value instanceof Clob)
+		{
+			Clob clob = (Clob) value;
+			return clob.getSubString(1, (int) clob.length());
+		}
+		if (value instanceof Blob)
+		{
+			Blob blob = (Blob) value;
+			return Arrays.toString(blob.getBytes(1, (int) blob.length()));
+		}
+		if (value instanceof Array)
+		{
+			return Arrays.asList((Object[]) ((Array) value).getArray());
+		}
+		return value;
+	}
+	
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+}
@@ -0,0 +1,406 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.query.JRJdbcQueryExecuterFactory;
+
+/**
+ * Checks the field values read by {@link JRResultSetDataSource} from an in-memory HSQLDB database.
+ */
+public class ResultSetDataSourceTest
+{
+	
+	private static final String SELECT = "select * from VALUE_TYPES order by ID";
+	
+	private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2021, 3, 4, 5, 6, 7, 123000000);
+	
+	private Connection connection;
+
+	@BeforeClass
+	public void createDatabase() throws SQLException
+	{
+		connection = DriverManager.getConnection("jdbc:hsqldb:mem:resultSetDataSourceTest", "SA", "");
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("create table VALUE_TYPES (ID integer, BOOL_VALUE boolean, BYTE_VALUE tinyint, "
+					+ "SHORT_VALUE smallint, LONG_VALUE bigint, DOUBLE_VALUE double, FLOAT_VALUE real, "
+					+ "DECIMAL_VALUE decimal(10, 2), STRING_VALUE varchar(20), CLOB_VALUE clob, BLOB_VALUE blob, "
+					+ "BINARY_VALUE varbinary(20), DATE_VALUE date, TIMESTAMP_VALUE timestamp, TIME_VALUE time)");
+		}
+		
+		try (PreparedStatement statement = connection.prepareStatement(
+				"insert into VALUE_TYPES values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"))
+		{
+			statement.setInt(1, 1);
+			statement.setBoolean(2, true);
+			statement.setByte(3, (byte) 7);
+			statement.setShort(4, (short) -3);
+			statement.setLong(5, 1L << 40);
+			statement.setDouble(6, 2.5);
+			statement.setFloat(7, 1.25f);
+			statement.setBigDecimal(8, new BigDecimal("12.34"));
+			statement.setString(9, "text");
+			statement.setString(10, "clob text");
+			statement.setBytes(11, new byte[]{1, 2, 3});
+			statement.setBytes(12, new byte[]{4, 5});
+			statement.setDate(13, java.sql.Date.valueOf("2020-02-29"));
+			statement.setTimestamp(14, Timestamp.valueOf(TIMESTAMP));
+			statement.setTime(15, Time.valueOf("08:09:10"));
+			statement.executeUpdate();
+			
+			statement.setInt(1, 2);
+			for (int i = 2; i <= 15; i++)
+			{
+				statement.setObject(i, null);
+			}
+			statement.executeUpdate();
+		}
+	}
+	
+	@AfterClass
+	public void closeDatabase() throws SQLException
+	{
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("shutdown");
+		}
+		connection.close();
+	}
+
+	@Test
+	public void valueTypes() throws SQLException, JRException, IOException
+	{
+		JRDesignField[] fields = {
+			column("BOOL_VALUE", Boolean.class),
+			column("BYTE_VALUE", Byte.class),
+			column("SHORT_VALUE", Short.class),
+			column("LONG_VALUE", Long.class),
+			column("DOUBLE_VALUE", Double.class),
+			column("FLOAT_VALUE", Float.class),
+			column("DECIMAL_VALUE", BigDecimal.class),
+			column("ID", Integer.class),
+			column("STRING_VALUE", String.class),
+			column("CLOB_VALUE", String.class),
+			column("DATE_VALUE", Date.class),
+			column("DATE_VALUE", java.sql.Date.class),
+			column("TIMESTAMP_VALUE", Timestamp.class),
+			column("TIME_VALUE", Time.class),
+			column("STRING_VALUE", Object.class),
+			column("DATE_VALUE", LocalDate.class),
+		};
+		Object[] expectedValues = {
+			true, (byte) 7, (short) -3, 1L << 40, 2.5d, 1.25f, new BigDecimal("12.34"), 1,
+			"text", "clob text",
+			java.sql.Date.valueOf("2020-02-29"), java.sql.Date.valueOf("2020-02-29"), 
+			Timestamp.valueOf(TIMESTAMP), Time.valueOf("08:09:10"),
+			"text", LocalDate.of(2020, 2, 29),
+		};
+		
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+			
+			assert dataSource.next();
+			for (int i = 0; i < fields.length; i++)
+			{
+				Object value = dataSource.getFieldValue(fields[i]);
+				assert expectedValues[i].equals(value) : fields[i].getName() + ": " + value;
+				assert fields[i].getValueClass().isInstance(value);
+			}
+			
+			// wasNull checks for all the types
+			assert dataSource.next();
+			for (int i = 0; i < fields.length; i++)
+			{
+				if (!fields[i].getName().startsWith("ID_"))
+				{
+					assert dataSource.getFieldValue(fields[i]) == null : fields[i].getName();
+				}
+			}
+			
+			assert !dataSource.next();
+		}
+	}
+
+	@Test
+	public void lobValues() throws SQLException, JRException, IOException
+	{
+		JRDesignField clobReader = column("CLOB_VALUE", Reader.class);
+		JRDesignField stringReader = column("STRING_VALUE", Reader.class);
+		JRDesignField clob = column("CLOB_VALUE", Clob.class);
+		JRDesignField blob = column("BLOB_VALUE", Blob.class);
+		JRDesignField blobBytes = column("BLOB_VALUE", byte[].class);
+		JRDesignField binaryBytes = column("BINARY_VALUE", byte[].class);
+		JRDesignField blobStream = column("BLOB_VALUE", InputStream.class);
+		JRDesignField binaryStream = column("BINARY_VALUE", InputStream.class);
+		
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+			
+			assert dataSource.next();
+			assert "clob text".equals(readText((Reader) dataSource.getFieldValue(clobReader)));
+			assert "text".equals(readText((Reader) dataSource.getFieldValue(stringReader)));
+			Clob clobValue = (Clob) dataSource.getFieldValue(clob);
+			assert "clob text".equals(clobValue.getSubString(1, (int) clobValue.length()));
+			Blob blobValue = (Blob) dataSource.getFieldValue(blob);
+			assert Arrays.equals(new byte[]{1, 2, 3}, blobValue.getBytes(1, (int) blobValue.length()));
+			assert Arrays.equals(new byte[]{1, 2, 3}, (byte[]) dataSource.getFieldValue(blobBytes));
+			assert Arrays.equals(new byte[]{4, 5}, (byte[]) dataSource.getFieldValue(binaryBytes));
+			assert Arrays.equals(new byte[]{1, 2, 3}, readBytes((InputStream) dataSource.getFieldValue(blobStream)));
+			assert Arrays.equals(new byte[]{4, 5}, readBytes((InputStream) dataSource.getFieldValue(binaryStream)));
+			
+			assert dataSource.next();
+			assert dataSource.getFieldValue(clobReader) == null;
+			assert dataSource.getFieldValue(stringReader) == null;
+			assert dataSource.getFieldValue(clob) == null;
+			assert dataSource.getFieldValue(blob) == null;
+			assert dataSource.getFieldValue(blobBytes) == null;
+			assert dataSource.getFieldValue(binaryBytes) == null;
+			assert dataSource.getFieldValue(blobStream) == null;
+			assert dataSource.getFieldValue(binaryStream) == null;
+		}
+	}
+
+	@Test
+	public void columnMapping() throws SQLException, JRException
+	{
+		JRDesignField byName = field("id", Integer.class);
+		JRDesignField byLabel = field("labelField", String.class);
+		byLabel.getPropertiesMap().setProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_LABEL, "string_value");
+		JRDesignField byColumnName = field("nameField", Short.class);
+		byColumnName.getPropertiesMap().setProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_NAME, "SHORT_VALUE");
+		JRDesignField byIndex = field("indexField", Byte.class);
+		byIndex.getPropertiesMap().setProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_INDEX, "3");
+		JRDesignField byIndexedName = field(JRResultSetDataSource.INDEXED_COLUMN_PREFIX + "5", Long.class);
+		JRDesignField unknown = field("UNKNOWN", String.class);
+		
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+			
+			assert dataSource.next();
+			assert Integer.valueOf(1).equals(dataSource.getFieldValue(byName));
+			assert "text".equals(dataSource.getFieldValue(byLabel));
+			assert Short.valueOf((short) -3).equals(dataSource.getFieldValue(byColumnName));
+			assert Byte.valueOf((byte) 7).equals(dataSource.getFieldValue(byIndex));
+			assert Long.valueOf(1L << 40).equals(dataSource.getFieldValue(byIndexedName));
+			
+			// fields read in a different order on the next row
+			assert dataSource.next();
+			assert dataSource.getFieldValue(byIndexedName) == null;
+			assert dataSource.getFieldValue(byLabel) == null;
+			assert Integer.valueOf(2).equals(dataSource.getFieldValue(byName));
+			
+			try
+			{
+				dataSource.getFieldValue(unknown);
+				assert false;
+			}
+			catch (JRException e)
+			{
+				assert JRResultSetDataSource.EXCEPTION_MESSAGE_KEY_RESULT_SET_UNKNOWN_COLUMN_NAME.equals(e.getMessageKey());
+			}
+		}
+	}
+
+	@Test
+	public void timeZones() throws SQLException, JRException
+	{
+		JRDesignField defaultZone = column("TIMESTAMP_VALUE", Timestamp.class);
+		JRDesignField tokyoZone = column("TIMESTAMP_VALUE", Timestamp.class);
+		tokyoZone.getPropertiesMap().setProperty(JRJdbcQueryExecuterFactory.PROPERTY_TIME_ZONE, "Asia/Tokyo");
+		JRDesignField reportZone = column("TIMESTAMP_VALUE", Timestamp.class);
+		reportZone.getPropertiesMap().setProperty(JRJdbcQueryExecuterFactory.PROPERTY_TIME_ZONE, 
+				JRParameter.REPORT_TIME_ZONE);
+		
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+			dataSource.setTimeZone(TimeZone.getTimeZone("UTC"), false);
+			dataSource.setReportTimeZone(TimeZone.getTimeZone("America/New_York"));
+			
+			assert dataSource.next();
+			assert epochMillis("UTC") == ((Timestamp) dataSource.getFieldValue(defaultZone)).getTime();
+			assert epochMillis("Asia/Tokyo") == ((Timestamp) dataSource.getFieldValue(tokyoZone)).getTime();
+			assert epochMillis("America/New_York") == ((Timestamp) dataSource.getFieldValue(reportZone)).getTime();
+		}
+		
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+			// the data source time zone overrides the field properties
+			dataSource.setTimeZone(TimeZone.getTimeZone("Europe/Bucharest"), true);
+			
+			assert dataSource.next();
+			assert epochMillis("Europe/Bucharest") == ((Timestamp) dataSource.getFieldValue(tokyoZone)).getTime();
+		}
+	}
+
+	@Test
+	public void metadataFailure() throws SQLException, JRException
+	{
+		JRDesignField string = column("STRING_VALUE", String.class);
+		JRDesignField integer = column("ID", Integer.class);
+		
+		try (Statement statement = connection.createStatement(); 
+				ResultSet resultSet = statement.executeQuery(SELECT))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(failingColumnTypes(resultSet));
+			
+			assert dataSource.next();
+			assert Integer.valueOf(1).equals(dataSource.getFieldValue(integer));
+			try
+			{
+				dataSource.getFieldValue(string);
+				assert false;
+			}
+			catch (JRException e)
+			{
+				// reported as when the column type was read for each row
+				assert JRResultSetDataSource.EXCEPTION_MESSAGE_KEY_RESULT_SET_FIELD_VALUE_NOT_RETRIEVED.equals(e.getMessageKey());
+				assert e.getCause() instanceof SQLException;
+			}
+		}
+	}
+	
+	protected static long epochMillis(String zoneId)
+	{
+		return TIMESTAMP.atZone(ZoneId.of(zoneId)).toInstant().toEpochMilli();
+	}
+	
+	protected static ResultSet failingColumnTypes(ResultSet resultSet) throws SQLException
+	{
+		ResultSetMetaData metaData = resultSet.getMetaData();
+		ResultSetMetaData failingMetaData = (ResultSetMetaData) Proxy.newProxyInstance(
+				ResultSetMetaData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, 
+				(proxy, method, args) -> 
+				{
+					if (method.getName().equals("getColumnType"))
+					{
+						throw new SQLException("column type not available");
+					}
+					return invoke(metaData, method, args);
+				});
+		return (ResultSet) Proxy.newProxyInstance(
+				ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, 
+				(proxy, method, args) -> method.getName().equals("getMetaData") 
+						? failingMetaData : invoke(resultSet, method, args));
+	}
+	
+	protected static Object invoke(Object target, Method method, Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+	
+	protected static String readText(Reader reader) throws IOException
+	{
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[64];
+		for (int read = reader.read(buffer); read > 0; read = reader.read(buffer))
+		{
+			text.append(buffer, 0, read);
+		}
+		return text.toString();
+	}
+	
+	protected static byte[] readBytes(InputStream input) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[64];
+		for (int read = input.read(buffer); read > 0; read = input.read(buffer))
+		{
+			bytes.write(buffer, 0, read);
+		}
+		return bytes.toByteArray();
+	}
+	
+	private static int fieldCount;
+	
+	/**
+	 * Creates a field mapped to a column by name, so that a column can be read as several types.
+	 */
+	private static JRDesignField column(String columnName, Class<?> valueClass)
+	{
+		JRDesignField field = field(columnName + "_" + (++fieldCount), valueClass);
+		field.getPropertiesMap().setProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_NAME, columnName);
+		return field;
+	}
+	
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		// array classes are written as in source code
+		field.setValueClassName(valueClass.isArray() 
+				? valueClass.getComponentType().getName() + "[]" : valueClass.getName());
+		return field;
+	}
+}
@@ -0,0 +1,335 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.data.excel.ExcelFormatEnum;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.data.AbstractXlsDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.poi.data.ExcelDataSource;
+import net.sf.jasperreports.poi.data.XlsxStreamingDataSource;
+
+/**
+ * Checks that {@link XlsxStreamingDataSource} produces the same values as {@link ExcelDataSource}.
+ */
+public class XlsxStreamingDataSourceTest
+{
+	
+	private static final String READER_THREAD_PREFIX = "XlsxStreamingDataSource reader";
+	
+	private byte[] workbook;
+	private byte[] workbook1904;
+	
+	@BeforeClass
+	public void createWorkbooks() throws IOException
+	{
+		workbook = createWorkbook(false);
+		workbook1904 = createWorkbook(true);
+	}
+	
+	protected byte[] createWorkbook(boolean date1904) throws IOException
+	{
+		try (XSSFWorkbook xlsx = new XSSFWorkbook())
+		{
+			if (date1904)
+			{
+				(xlsx.getCTWorkbook().isSetWorkbookPr() ? xlsx.getCTWorkbook().getWorkbookPr() 
+						: xlsx.getCTWorkbook().addNewWorkbookPr()).setDate1904(true);
+			}
+			
+			CellStyle dateStyle = xlsx.createCellStyle();
+			dateStyle.setDataFormat(xlsx.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+			CellStyle amountStyle = xlsx.createCellStyle();
+			amountStyle.setDataFormat(xlsx.getCreationHelper().createDataFormat().getFormat("#,##0.00"));
+			
+			for (int sheetIndex = 0; sheetIndex < 2; sheetIndex++)
+			{
+				Sheet sheet = xlsx.createSheet(sheetIndex == 0 ? "First" : "Second");
+				Row header = sheet.createRow(0);
+				String[] names = {"name", "amount", "date", "flag", "total", null, "positive", "label", 
+						"textNumber", "textDate"};
+				for (int column = 0; column < names.length; column++)
+				{
+					if (names[column] != null)
+					{
+						header.createCell(column).setCellValue(names[column]);
+					}
+				}
+				
+				for (int rowIndex = 1; rowIndex <= 3; rowIndex++)
+				{
+					int value = 10 * sheetIndex + rowIndex;
+					Row row = sheet.createRow(rowIndex);
+					row.createCell(0).setCellValue("name " + value);
+					row.createCell(1).setCellValue(value * 1.25);
+					row.getCell(1).setCellStyle(amountStyle);
+					
+					Calendar date = Calendar.getInstance();
+					date.clear();
+					date.set(2024, Calendar.MARCH, value, value, 30);
+					row.createCell(2).setCellValue(date.getTime());
+					row.getCell(2).setCellStyle(dateStyle);
+					
+					row.createCell(3).setCellValue(value % 2 == 0);
+					row.createCell(4).setCellFormula("B" + (rowIndex + 1) + "*2");
+					if (rowIndex != 2)
+					{
+						// blank cell with a style, the cell is missing on the second row
+						row.createCell(5).setCellStyle(dateStyle);
+					}
+					row.createCell(6).setCellFormula("B" + (rowIndex + 1) + ">2");
+					row.createCell(7).setCellFormula("A" + (rowIndex + 1) + "&\"!\"");
+					row.createCell(8).setCellValue("1,23" + value + ".5");
+					row.createCell(9).setCellValue("2023-12-" + (10 + value));
+				}
+			}
+			
+			// formula cells are read using the cached results
+			xlsx.getCreationHelper().createFormulaEvaluator().evaluateAll();
+			
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			xlsx.write(out);
+			return out.toByteArray();
+		}
+	}
+	
+	@DataProvider
+	public Object[][] sheetSettings()
+	{
+		return new Object[][] {
+			// 1904 dates, sheet selection, first row as header, column names, column indexes
+			{false, null, false, null, null},
+			{false, "Second", true, null, null},
+			{true, "Second", true, null, null},
+			{false, "0", true, null, null},
+			{true, "1", true, null, null},
+			{false, "0", true, null, new Integer[] {0, 1, 2, 8}},
+			{false, "1", false, new String[] {"name", "amount", "date", "flag", "total", "COLUMN_5", "positive", 
+					"label", "textNumber", "textDate"}, null},
+		};
+	}
+	
+	@Test(dataProvider = "sheetSettings")
+	public void compareFieldValues(boolean date1904, String sheetSelection, boolean firstRowAsHeader, 
+			String[] columnNames, Integer[] columnIndexes) throws JRException, IOException
+	{
+		Consumer<AbstractXlsDataSource> settings = dataSource -> 
+		{
+			dataSource.setSheetSelection(sheetSelection);
+			dataSource.setUseFirstRowAsHeader(firstRowAsHeader);
+			if (columnNames != null)
+			{
+				dataSource.setColumnNames(columnNames);
+			}
+			if (columnIndexes != null)
+			{
+				dataSource.setColumnIndexes(columnIndexes);
+			}
+			dataSource.setNumberFormat(new DecimalFormat("#,##0.##", DecimalFormatSymbols.getInstance(Locale.US)));
+			dataSource.setDateFormat(new SimpleDateFormat("yyyy-MM-dd"));
+		};
+		
+		JRDesignField[] fields;
+		if (firstRowAsHeader)
+		{
+			List<JRDesignField> namedFields = new ArrayList<>();
+			namedFields.add(field("name", String.class));
+			namedFields.add(field("amount", Double.class));
+			namedFields.add(field("amount", Integer.class));
+			namedFields.add(field("date", Date.class));
+			if (columnIndexes == null)
+			{
+				namedFields.add(field("flag", Boolean.class));
+				namedFields.add(field("total", Double.class));
+				namedFields.add(field("COLUMN_5", String.class));
+				namedFields.add(field("COLUMN_5", Double.class));
+				namedFields.add(field("COLUMN_5", Date.class));
+				namedFields.add(field("positive", Boolean.class));
+				namedFields.add(field("label", String.class));
+				namedFields.add(field("textDate", Date.class));
+			}
+			namedFields.add(field("textNumber", Double.class));
+			fields = namedFields.toArray(new JRDesignField[namedFields.size()]);
+		}
+		else
+		{
+			// the header rows are read as data
+			fields = columnNames == null 
+					? new JRDesignField[] {field("COLUMN_0", String.class)}
+					: new JRDesignField[] {field("name", String.class), field("label", String.class)};
+		}
+		
+		byte[] data = date1904 ? workbook1904 : workbook;
+		ExcelDataSource excelDataSource = new ExcelDataSource(new ByteArrayInputStream(data), ExcelFormatEnum.XLSX);
+		settings.accept(excelDataSource);
+		XlsxStreamingDataSource streamingDataSource = new XlsxStreamingDataSource(new ByteArrayInputStream(data));
+		settings.accept(streamingDataSource);
+		try
+		{
+			int count = 0;
+			while (excelDataSource.next())
+			{
+				++count;
+				assert streamingDataSource.next();
+				for (JRDesignField field : fields)
+				{
+					Object excelValue = excelDataSource.getFieldValue(field);
+					Object streamingValue = streamingDataSource.getFieldValue(field);
+					assert excelValue == null ? streamingValue == null : excelValue.equals(streamingValue) 
+							: field.getName() + " " + field.getValueClass().getName() + ": " 
+								+ excelValue + " vs " + streamingValue;
+				}
+				
+				if (count == 1 && firstRowAsHeader)
+				{
+					int value = "0".equals(sheetSelection) ? 1 : 11;
+					Calendar date = Calendar.getInstance();
+					date.clear();
+					date.set(2024, Calendar.MARCH, value, value, 30);
+					assert date.getTime().equals(streamingDataSource.getFieldValue(field("date", Date.class)));
+				}
+			}
+			assert !streamingDataSource.next();
+			assert count == (sheetSelection == null ? 8 : firstRowAsHeader ? 3 : 4) : count;
+			assert excelDataSource.getColumnNames().equals(streamingDataSource.getColumnNames()) 
+					: excelDataSource.getColumnNames() + " vs " + streamingDataSource.getColumnNames();
+		}
+		finally
+		{
+			excelDataSource.close();
+			streamingDataSource.close();
+		}
+	}
+	
+	@Test
+	public void missingRows() throws JRException, IOException
+	{
+		byte[] data;
+		try (XSSFWorkbook xlsx = new XSSFWorkbook())
+		{
+			Sheet sheet = xlsx.createSheet();
+			sheet.createRow(0).createCell(0).setCellValue("first");
+			sheet.createRow(3).createCell(0).setCellValue("second");
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			xlsx.write(out);
+			data = out.toByteArray();
+		}
+		
+		// unlike ExcelDataSource, which fails on the missing rows, the rows are skipped
+		XlsxStreamingDataSource dataSource = new XlsxStreamingDataSource(new ByteArrayInputStream(data));
+		try
+		{
+			JRDesignField field = field("COLUMN_0", String.class);
+			assert dataSource.next();
+			assert "first".equals(dataSource.getFieldValue(field));
+			assert dataSource.next();
+			assert "second".equals(dataSource.getFieldValue(field));
+			assert !dataSource.next();
+		}
+		finally
+		{
+			dataSource.close();
+		}
+	}
+	
+	@Test
+	public void stopReaderThread() throws JRException, IOException
+	{
+		byte[] data;
+		try (XSSFWorkbook xlsx = new XSSFWorkbook())
+		{
+			Sheet sheet = xlsx.createSheet();
+			for (int rowIndex = 0; rowIndex < 5000; rowIndex++)
+			{
+				sheet.createRow(rowIndex).createCell(0).setCellValue(rowIndex);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			xlsx.write(out);
+			data = out.toByteArray();
+		}
+		
+		JRDesignField field = field("COLUMN_0", Integer.class);
+		XlsxStreamingDataSource dataSource = new XlsxStreamingDataSource(new ByteArrayInputStream(data));
+		dataSource.setReadAheadRows(10);
+		try
+		{
+			assert readerThreadCount() == 0;
+			for (int rowIndex = 0; rowIndex < 100; rowIndex++)
+			{
+				assert dataSource.next();
+				assert Integer.valueOf(rowIndex).equals(dataSource.getFieldValue(field));
+			}
+			// the reader waits for room in the read-ahead buffer
+			assert readerThreadCount() == 1;
+			
+			dataSource.moveFirst();
+			assert readerThreadCount() == 0;
+			
+			assert dataSource.next();
+			assert Integer.valueOf(0).equals(dataSource.getFieldValue(field));
+			assert readerThreadCount() == 1;
+		}
+		finally
+		{
+			dataSource.close();
+		}
+		assert readerThreadCount() == 0;
+	}
+	
+	private static long readerThreadCount()
+	{
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.isAlive() && thread.getName().startsWith(READER_THREAD_PREFIX))
+				.count();
+	}
+	
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+}
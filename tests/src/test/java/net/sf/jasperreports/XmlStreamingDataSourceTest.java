@@ -0,0 +1,151 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.data.HierarchicalDataSource;
+import net.sf.jasperreports.engine.data.JRXmlDataSource;
+import net.sf.jasperreports.engine.data.StaxXmlDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+
+/**
+ * Checks that {@link StaxXmlDataSource} produces the same values as {@link JRXmlDataSource}.
+ */
+public class XmlStreamingDataSourceTest
+{
+	
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<orders>"
+			+ "<order id=\"1\"><customer><name>Ann</name></customer><total>10.5</total>"
+			+ "<item sku=\"a\">first</item><item sku=\"b\">second</item><note>n &amp; m</note><code><![CDATA[<x>]]></code></order>"
+			+ "<!-- comment --><order id=\"2\"><customer/><total> 7 </total><item>third</item></order>"
+			+ "<archive><order id=\"3\"><total>1</total></order></archive>"
+			+ "<order id=\"4\"><total>3</total><order id=\"5\"><total>2</total><item sku=\"c\">fourth</item>"
+			+ "<order id=\"6\"/></order><order id=\"7\"/></order>"
+			+ "</orders>";
+	
+	@DataProvider
+	public Object[][] selectExpressions()
+	{
+		return new Object[][] {
+			{"/orders/order", 3},
+			// nested records are selected after the enclosing record, as by XPath
+			{"//order", 7},
+			{"//order/order", 3},
+			{"//*/order", 7},
+			{"/orders/*", 4},
+		};
+	}
+	
+	@Test(dataProvider = "selectExpressions")
+	public void compareFieldValues(String selectExpression, int recordCount) throws JRException
+	{
+		JRDesignField[] fields = {
+			field("@id", String.class),
+			field("customer/name", String.class),
+			field("customer", String.class),
+			field("total", Double.class),
+			field("item", String.class),
+			field("item/@sku", String.class),
+			field("note/text()", String.class),
+			field("code", String.class),
+			field("missing", String.class),
+		};
+		
+		JRXmlDataSource domDataSource = new JRXmlDataSource(input(), selectExpression);
+		StaxXmlDataSource streamingDataSource = new StaxXmlDataSource(input(), selectExpression);
+		try
+		{
+			int count = compare(domDataSource, streamingDataSource, fields, "/order/item");
+			assert count == recordCount : count;
+		}
+		finally
+		{
+			streamingDataSource.close();
+		}
+	}
+	
+	@Test
+	public void supportedExpressions()
+	{
+		assert StaxXmlDataSource.isSupportedSelectExpression("/a/b");
+		assert StaxXmlDataSource.isSupportedSelectExpression("//b");
+		assert !StaxXmlDataSource.isSupportedSelectExpression("/a/b[@id > 1]");
+		assert !StaxXmlDataSource.isSupportedSelectExpression("a/b");
+		
+		assert StaxXmlDataSource.isSupportedFieldExpression("b/@id");
+		assert StaxXmlDataSource.isSupportedFieldExpression("text()");
+		assert !StaxXmlDataSource.isSupportedFieldExpression("count(b)");
+		assert !StaxXmlDataSource.isSupportedFieldExpression("../b");
+		assert !StaxXmlDataSource.isSupportedFieldExpression("child::b");
+	}
+	
+	protected <T extends JRDataSource & HierarchicalDataSource<?>> int compare(
+			JRDataSource domDataSource, T streamingDataSource, JRDesignField[] fields, String subSelect) throws JRException
+	{
+		int count = 0;
+		while (domDataSource.next())
+		{
+			++count;
+			assert streamingDataSource.next();
+			for (JRDesignField field : fields)
+			{
+				Object domValue = domDataSource.getFieldValue(field);
+				Object streamingValue = streamingDataSource.getFieldValue(field);
+				assert domValue == null ? streamingValue == null : domValue.equals(streamingValue) 
+						: field.getDescription() + ": " + domValue + " vs " + streamingValue;
+			}
+			
+			if (subSelect != null)
+			{
+				JRDesignField[] subFields = {field("@sku", String.class), field(".", String.class)};
+				compare(((JRXmlDataSource) domDataSource).subDataSource(subSelect), 
+						((StaxXmlDataSource) streamingDataSource).subDataSource(subSelect), subFields, null);
+			}
+		}
+		assert !streamingDataSource.next();
+		return count;
+	}
+	
+	private static ByteArrayInputStream input()
+	{
+		return new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static JRDesignField field(String expression, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(expression);
+		field.setDescription(expression);
+		field.setValueClass(valueClass);
+		return field;
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JRCompiler;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.design.ReportCompileCache;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Checks that compiled reports are stored in and loaded from the compile cache.
+ */
+public class ReportCompileCacheTest
+{
+	
+	private static final String REPORT = "net/sf/jasperreports/subreports/nested/NestedSubreportsReport.subreport.2.jrxml";
+	
+	private static class MapReportCompileCache implements ReportCompileCache
+	{
+		final Map<String, JasperReport> reports = new HashMap<>();
+		int hits;
+		
+		@Override
+		public JasperReport getReport(String key)
+		{
+			JasperReport report = reports.get(key);
+			if (report != null)
+			{
+				++hits;
+			}
+			return report;
+		}
+
+		@Override
+		public void putReport(String key, JasperReport report)
+		{
+			reports.put(key, report);
+		}
+	}
+
+	@Test
+	public void fileCache() throws JRException, IOException
+	{
+		File cacheDir = Files.createTempDirectory("jrcompilecache").toFile();
+		try
+		{
+			SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+			context.setProperty(JRCompiler.COMPILER_CACHE_DIR, cacheDir.getAbsolutePath());
+			JasperCompileManager compileManager = JasperCompileManager.getInstance(context);
+			
+			JasperReport report = compile(compileManager);
+			assert cacheEntries(cacheDir) == 1;
+			
+			JasperReport cachedReport = compile(compileManager);
+			assert cacheEntries(cacheDir) == 1;
+			assert cachedReport != report;
+			assert cachedReport.getName().equals(report.getName());
+			assert cachedReport.getCompilerClass().equals(report.getCompilerClass());
+			
+			// compiler properties are part of the cache key
+			context.setProperty("org.eclipse.jdt.core.compiler.problem.unusedImport", "ignore");
+			compile(compileManager);
+			assert cacheEntries(cacheDir) == 2;
+		}
+		finally
+		{
+			for (File file : cacheDir.listFiles())
+			{
+				file.delete();
+			}
+			cacheDir.delete();
+		}
+	}
+
+	@Test
+	public void extensionCache() throws JRException, IOException
+	{
+		MapReportCompileCache cache = new MapReportCompileCache();
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		context.setExtensions(ReportCompileCache.class, Collections.singletonList(cache));
+		JasperCompileManager compileManager = JasperCompileManager.getInstance(context);
+		
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(REPORT))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		
+		JasperReport report = compileManager.compile(design);
+		assert cache.reports.size() == 1;
+		assert cache.hits == 0;
+		
+		JasperReport cachedReport = compileManager.compile(design);
+		assert cachedReport == report;
+		assert cache.hits == 1;
+		
+		design.setName(design.getName() + "Changed");
+		compileManager.compile(design);
+		assert cache.reports.size() == 2;
+		assert cache.hits == 1;
+	}
+	
+	protected JasperReport compile(JasperCompileManager compileManager) throws JRException, IOException
+	{
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(REPORT))
+		{
+			return compileManager.compile(jrxmlInput);
+		}
+	}
+	
+	protected int cacheEntries(File cacheDir)
+	{
+		return cacheDir.listFiles((dir, name) -> name.endsWith(".jasper")).length;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.crosstabs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.crosstabs.fill.calculation.BucketingService;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.export.JRXmlExporter;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleXmlExporterOutput;
+
+/**
+ * Checks that crosstabs produce the same output with and without
+ * {@link BucketingService#PROPERTY_BUCKET_HASH_AGGREGATION}.
+ */
+public class CrosstabHashAggregationTest
+{
+
+	private static final String FOLDER = "net/sf/jasperreports/crosstabs/";
+	
+	@DataProvider
+	public Object[][] reports()
+	{
+		return new Object[][] {
+			{"CrosstabReport.1.jrxml"},
+			{"CrosstabReport.2.jrxml"},
+			{"CrosstabReport.3.jrxml"},
+			{"CrosstabStretchReport.1.jrxml"},
+			{"CrosstabStretchReport.2.jrxml"},
+			{"CrosstabStretchReport.3.jrxml"},
+			{"CrosstabStretchReport.4.jrxml"},
+			{"CrosstabStretchReport.5.jrxml"},
+			{"CrosstabStretchReport.6.jrxml"},
+			{"CrosstabStretchReport.7.jrxml"},
+		};
+	}
+	
+	@Test(dataProvider = "reports")
+	public void sameOutput(String jrxml) throws JRException, IOException
+	{
+		JasperReport report = compileReport(FOLDER + jrxml);
+		
+		JasperPrint sortedMapsPrint = fill(report, false);
+		JasperPrint hashAggregationPrint = fill(report, true);
+		assert xml(hashAggregationPrint).equals(xml(sortedMapsPrint));
+	}
+	
+	/**
+	 * Groups with comparators that treat unequal values as equal are only checked with hash aggregation,
+	 * the row totals of the sorted maps mode fail to look up such buckets.
+	 */
+	@Test
+	public void comparatorEqualBuckets() throws JRException, IOException
+	{
+		JasperReport report = compileReport(FOLDER + "CrosstabComparatorReport.jrxml");
+		
+		Set<String> texts = new HashSet<>();
+		for (JRPrintPage page : fill(report, true).getPages())
+		{
+			collectTexts(page.getElements(), texts);
+		}
+		
+		// buckets that differ only in case are merged, keeping the first collected value
+		assert texts.contains("Alpha") && texts.contains("Beta") && texts.contains("gamma");
+		assert !texts.contains("alpha") && !texts.contains("ALPHA") && !texts.contains("beta") && !texts.contains("Gamma");
+		assert texts.contains("X") && texts.contains("y") && texts.contains("z");
+		assert !texts.contains("x") && !texts.contains("Y");
+		// the grand total over all the records
+		assert texts.contains("5050/100/Alpha");
+	}
+	
+	protected JasperReport compileReport(String jrxml) throws JRException, IOException
+	{
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(jrxml))
+		{
+			return JasperCompileManager.compileReport(JRXmlLoader.load(jrxmlInput));
+		}
+	}
+	
+	protected JasperPrint fill(JasperReport report, boolean hashAggregation) throws JRException
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		context.setProperty(BucketingService.PROPERTY_BUCKET_HASH_AGGREGATION, String.valueOf(hashAggregation));
+		
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		params.put(JRParameter.REPORT_TIME_ZONE, TimeZone.getTimeZone("GMT"));
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, params);
+		assert !print.getPages().isEmpty();
+		return print;
+	}
+	
+	protected String xml(JasperPrint print) throws JRException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JRXmlExporter exporter = new JRXmlExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		SimpleXmlExporterOutput output = new SimpleXmlExporterOutput(out);
+		output.setEmbeddingImages(true);
+		exporter.setExporterOutput(output);
+		exporter.exportReport();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	protected void collectTexts(List<JRPrintElement> elements, Set<String> texts)
+	{
+		for (JRPrintElement element : elements)
+		{
+			if (element instanceof JRPrintText)
+			{
+				texts.add(((JRPrintText) element).getFullText());
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				collectTexts(((JRPrintFrame) element).getElements(), texts);
+			}
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+/**
+ * Checks the estimates of {@link ApproximateDistinctValues} and combining distinct value storages.
+ */
+public class DistinctValuesTest
+{
+
+	@DataProvider
+	public Object[][] cardinalities()
+	{
+		return new Object[][] {
+			{4, 1000}, 
+			{10, 100}, 
+			{10, 50000}, 
+			{14, 0}, 
+			{14, 1}, 
+			{14, 100}, 
+			{14, 10000}, 
+			{14, 200000}, 
+			{18, 300000},
+		};
+	}
+
+	@Test(dataProvider = "cardinalities")
+	public void estimateError(int precision, int cardinality)
+	{
+		ApproximateDistinctValues values = new ApproximateDistinctValues(precision);
+		for (int i = 0; i < cardinality; i++)
+		{
+			// adding each value twice, and values of several classes
+			values.add(value(i));
+			values.add(value(i));
+		}
+		
+		// allowing four standard errors
+		double maxError = 4 * 1.04 / Math.sqrt(1 << precision);
+		long estimate = values.count();
+		assert Math.abs(estimate - cardinality) <= 1 + maxError * cardinality 
+				: estimate + " estimated for " + cardinality + " values";
+		
+		if (cardinality > 0)
+		{
+			assert values.countWith(value(0)) == estimate;
+			assert values.countWith(value(cardinality)) >= estimate;
+		}
+	}
+
+	@Test
+	public void exactCount()
+	{
+		ExactDistinctValues values = new ExactDistinctValues();
+		for (int i = 0; i < 20000; i++)
+		{
+			values.add(value(i % 5000));
+		}
+		// equal dates of different classes
+		values.add(new java.sql.Date(((java.util.Date) value(2)).getTime()));
+		values.add(Integer.valueOf(0));
+		values.add(Long.valueOf(0));
+		values.add(Double.valueOf(-0d));
+		values.add(Double.valueOf(0d));
+		
+		assert values.count() == 5003 : values.count();
+		assert values.countWith(value(10)) == 5003;
+		assert values.countWith(value(5000)) == 5004;
+		assert values.countWith("other") == 5004;
+		
+		ExactDistinctValues otherValues = new ExactDistinctValues();
+		for (int i = 4000; i < 6000; i++)
+		{
+			otherValues.add(value(i));
+		}
+		values.addAll(otherValues);
+		assert values.count() == 6003;
+	}
+
+	@Test
+	public void combineApproximate()
+	{
+		ApproximateDistinctValues values = new ApproximateDistinctValues(12);
+		ApproximateDistinctValues otherValues = new ApproximateDistinctValues(12);
+		ApproximateDistinctValues allValues = new ApproximateDistinctValues(12);
+		ExactDistinctValues exactValues = new ExactDistinctValues();
+		for (int i = 0; i < 30000; i++)
+		{
+			(i % 3 == 0 ? values : i % 3 == 1 ? otherValues : exactValues).add(value(i));
+			allValues.add(value(i));
+		}
+		
+		values.addAll(otherValues);
+		values.addAll(exactValues);
+		// the sketch of the union is the same as the union of the sketches
+		assert values.count() == allValues.count();
+	}
+
+	@Test(expectedExceptions = JRRuntimeException.class)
+	public void combinePrecisions()
+	{
+		new ApproximateDistinctValues(12).addAll(new ApproximateDistinctValues(14));
+	}
+
+	@Test(expectedExceptions = JRRuntimeException.class)
+	public void combineExactApproximate()
+	{
+		new ExactDistinctValues().addAll(new ApproximateDistinctValues(14));
+	}
+
+	@Test
+	public void resetHolder()
+	{
+		DistinctCountHolder holder = new DistinctCountHolder();
+		holder.getDistinctValues().add("a");
+		holder.getDistinctValues().add("b");
+		DistinctCountHolder nextHolder = new DistinctCountHolder(holder, "c");
+		DistinctValues storage = nextHolder.getDistinctValues();
+		
+		nextHolder.init();
+		// the storage is reused after a reset
+		assert nextHolder.getDistinctValues() == storage;
+		assert nextHolder.getCount() == 1;
+		nextHolder.addLastValue();
+		assert nextHolder.getCount() == 1;
+	}
+
+	@Test
+	public void copyHolder()
+	{
+		DistinctCountHolder holder = new DistinctCountHolder();
+		holder.getDistinctValues().add("a");
+		holder.getDistinctValues().add("b");
+		DistinctCountHolder nextHolder = new DistinctCountHolder(holder, "c");
+		
+		DistinctCountHolder copy = nextHolder.copy();
+		assert copy.getDistinctValues() != nextHolder.getDistinctValues();
+		assert copy.getCount() == 3;
+		
+		// the copy keeps its values after the original holder is reset
+		nextHolder.init();
+		assert copy.getCount() == 3;
+		assert nextHolder.getCount() == 1;
+	}
+
+	protected Object value(int i)
+	{
+		switch (i % 4)
+		{
+			case 0:
+				return Long.valueOf(i);
+			case 1:
+				return Integer.valueOf(i);
+			case 2:
+				return new java.util.Date(i);
+			default:
+				return "value " + i;
+		}
+	}
+}
@@ -0,0 +1,450 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.components.list.ListComponent;
+import net.sf.jasperreports.engine.JRComponentElement;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRDataset;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRValueParameter;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.export.JRXmlExporter;
+import net.sf.jasperreports.engine.query.JRQueryExecuter;
+import net.sf.jasperreports.engine.query.QueryExecuterFactory;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleXmlExporterOutput;
+
+/**
+ * Checks that subreports and list dataset runs with {@link EagerDatasetInit#PROPERTY_EAGER_DATA_INIT} 
+ * produce the same output as without it, and that unused, failed and cancelled initializations are handled.
+ */
+public class EagerDataInitTest
+{
+	
+	private static final String QUERY_SUBREPORT = "subreport";
+	private static final String QUERY_LIST = "list";
+	
+	private JasperReport subreport;
+	private JasperReport eagerReport;
+	private JasperReport report;
+	
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		subreport = JasperCompileManager.compileReport(
+				loadDesign("net/sf/jasperreports/engine/fill/EagerDataInitSubreport.jrxml"));
+		eagerReport = compileReport(true);
+		report = compileReport(false);
+	}
+	
+	protected JasperDesign loadDesign(String jrxml) throws JRException, IOException
+	{
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(jrxml))
+		{
+			return JRXmlLoader.load(jrxmlInput);
+		}
+	}
+	
+	protected JasperReport compileReport(boolean eager) throws JRException, IOException
+	{
+		JasperDesign design = loadDesign("net/sf/jasperreports/engine/fill/EagerDataInitReport.jrxml");
+		if (eager)
+		{
+			JRPropertiesHolder subreportElement = 
+					(JRPropertiesHolder) design.getDetailSection().getBands()[0].getElementByKey("subreport");
+			subreportElement.getPropertiesMap().setProperty(EagerDatasetInit.PROPERTY_EAGER_DATA_INIT, "true");
+			
+			JRComponentElement listElement = 
+					(JRComponentElement) design.getDetailSection().getBands()[0].getElementByKey("list");
+			((ListComponent) listElement.getComponent()).getDatasetRun().getPropertiesMap().setProperty(
+					EagerDatasetInit.PROPERTY_EAGER_DATA_INIT, "true");
+		}
+		return JasperCompileManager.compileReport(design);
+	}
+	
+	@Test(timeOut = 120000)
+	public void sameOutput() throws JRException
+	{
+		Tracker tracker = new Tracker();
+		String output = exportXml(fill(report, tracker, 40));
+		assert tracker.threadNames.stream().noneMatch(name -> name.contains("eager data")) : tracker.threadNames;
+		
+		Tracker eagerTracker = new Tracker();
+		String eagerOutput = exportXml(fill(eagerReport, eagerTracker, 40));
+		assert !eagerTracker.threadNames.isEmpty();
+		assert eagerTracker.threadNames.stream().allMatch(name -> name.contains("eager data")) : eagerTracker.threadNames;
+		
+		assert output.contains("list 40.");
+		assert output.contains("subreport 40.");
+		assert eagerOutput.equals(output);
+	}
+	
+	@Test(timeOut = 120000)
+	public void discardedInitClosed() throws JRException
+	{
+		// the Prevent split band is refilled on the next page when the elements above the subreport and list stretch,
+		// which rewinds the subreport and reevaluates the list dataset run
+		Tracker tracker = new Tracker();
+		tracker.syncCreation = true;
+		fill(eagerReport, tracker, 40);
+		
+		for (String query : new String[] {QUERY_SUBREPORT, QUERY_LIST})
+		{
+			assert tracker.count(tracker.created, query) > 40 : query;
+			assert tracker.count(tracker.closed, query) == tracker.count(tracker.created, query) : query;
+			assert tracker.count(tracker.closedUnread, query) > 0 : query;
+		}
+	}
+	
+	@Test(timeOut = 120000)
+	public void initFailure()
+	{
+		Tracker tracker = new Tracker();
+		tracker.failKey = 3;
+		Exception failure = fillFailure(report, tracker);
+		assert !tracker.failureThread.contains("eager data") : tracker.failureThread;
+		
+		// the query failure is propagated when the filler joins the initialization, as if the query ran on the fill thread
+		Tracker eagerTracker = new Tracker();
+		eagerTracker.failKey = 3;
+		Exception eagerFailure = fillFailure(eagerReport, eagerTracker);
+		assert eagerTracker.failureThread.contains("eager data") : eagerTracker.failureThread;
+		assert eagerFailure.getClass() == failure.getClass() : eagerFailure;
+		assert eagerFailure.getCause().getMessage().equals(failure.getCause().getMessage()) : eagerFailure;
+	}
+	
+	protected Exception fillFailure(JasperReport jasperReport, Tracker tracker)
+	{
+		try
+		{
+			fill(jasperReport, tracker, 10);
+		}
+		catch (JRException | JRRuntimeException e)
+		{
+			assert "query failure".equals(e.getCause().getMessage()) : e;
+			return e;
+		}
+		throw new AssertionError("fill should fail");
+	}
+	
+	@Test(timeOut = 120000)
+	public void cancelQueries() throws JRException, InterruptedException
+	{
+		Tracker tracker = new Tracker();
+		tracker.blockKey = 1;
+		
+		FillHandle fillHandle = AsynchronousFillHandle.createHandle(new SimpleJasperReportsContext(), eagerReport, 
+				reportParams(tracker), dataSource(10));
+		CountDownLatch fillEnd = new CountDownLatch(1);
+		AtomicInteger cancelled = new AtomicInteger();
+		fillHandle.addListener(new AsynchronousFilllListener()
+		{
+			@Override
+			public void reportFinished(JasperPrint jasperPrint)
+			{
+				fillEnd.countDown();
+			}
+			
+			@Override
+			public void reportCancelled()
+			{
+				cancelled.incrementAndGet();
+				fillEnd.countDown();
+			}
+			
+			@Override
+			public void reportFillError(Throwable t)
+			{
+				fillEnd.countDown();
+			}
+		});
+		fillHandle.startFill();
+		
+		// the subreport and the list queries run concurrently on eager initialization threads
+		assert tracker.blocked.await(60, TimeUnit.SECONDS);
+		fillHandle.cancellFill();
+		
+		assert fillEnd.await(60, TimeUnit.SECONDS);
+		assert cancelled.get() == 1;
+		assert tracker.cancelled.get() == 2 : tracker.cancelled;
+	}
+	
+	protected JasperPrint fill(JasperReport jasperReport, Tracker tracker, int recordCount) throws JRException
+	{
+		return JasperFillManager.getInstance(new SimpleJasperReportsContext()).fill(jasperReport, reportParams(tracker), 
+				dataSource(recordCount));
+	}
+	
+	protected Map<String, Object> reportParams(Tracker tracker)
+	{
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		params.put(JRParameter.REPORT_TIME_ZONE, TimeZone.getTimeZone("GMT"));
+		params.put("TRACKER", tracker);
+		params.put("SUBREPORT", subreport);
+		return params;
+	}
+	
+	protected JRDataSource dataSource(int recordCount)
+	{
+		List<Map<String, ?>> records = new ArrayList<>();
+		for (int key = 1; key <= recordCount; ++key)
+		{
+			StringBuilder text = new StringBuilder("record " + key);
+			for (int line = 0; line < (key % 4) * 4; ++line)
+			{
+				text.append("\nline ").append(line);
+			}
+			
+			Map<String, Object> record = new HashMap<>();
+			record.put("key", key);
+			record.put("text", text.toString());
+			records.add(record);
+		}
+		return new JRMapCollectionDataSource(records);
+	}
+	
+	protected String exportXml(JasperPrint print) throws JRException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JRXmlExporter exporter = new JRXmlExporter(new SimpleJasperReportsContext());
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleXmlExporterOutput(out));
+		exporter.exportReport();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	public static Boolean awaitCreated(Object tracker)
+	{
+		((Tracker) tracker).awaitCreated();
+		return Boolean.FALSE;
+	}
+	
+	public static class Tracker
+	{
+		private final Map<String, AtomicInteger> created = new ConcurrentHashMap<>();
+		private final Map<String, AtomicInteger> closed = new ConcurrentHashMap<>();
+		private final Map<String, AtomicInteger> closedUnread = new ConcurrentHashMap<>();
+		private final Queue<String> threadNames = new ConcurrentLinkedQueue<>();
+		private final CountDownLatch blocked = new CountDownLatch(2);
+		private final AtomicInteger cancelled = new AtomicInteger();
+		private volatile int failKey;
+		private volatile int blockKey;
+		private volatile String failureThread;
+		private volatile boolean syncCreation;
+		private int evaluations;
+		
+		protected synchronized void increment(Map<String, AtomicInteger> counts, String query)
+		{
+			counts.computeIfAbsent(query, k -> new AtomicInteger()).incrementAndGet();
+			notifyAll();
+		}
+		
+		protected synchronized void awaitCreated()
+		{
+			if (!syncCreation)
+			{
+				return;
+			}
+			
+			// makes sure that the band initializations have started before the band is filled, 
+			// so that discarded initializations have created data sources
+			++evaluations;
+			long end = System.currentTimeMillis() + 60000;
+			while (count(created, QUERY_SUBREPORT) + count(created, QUERY_LIST) < 2 * evaluations
+					&& System.currentTimeMillis() < end)
+			{
+				try
+				{
+					wait(1000);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+		
+		protected int count(Map<String, AtomicInteger> counts, String query)
+		{
+			AtomicInteger count = counts.get(query);
+			return count == null ? 0 : count.get();
+		}
+	}
+	
+	/**
+	 * Factory for the <code>eagertest</code> query language, registered in the tests jasperreports.properties.
+	 */
+	public static class TestQueryExecuterFactory implements QueryExecuterFactory
+	{
+		@Override
+		public Object[] getBuiltinParameters()
+		{
+			return new Object[0];
+		}
+
+		@Override
+		public JRQueryExecuter createQueryExecuter(JasperReportsContext jasperReportsContext, JRDataset dataset,
+				Map<String, ? extends JRValueParameter> parameters) throws JRException
+		{
+			return new TestQueryExecuter(dataset.getQuery().getText(), 
+					(Tracker) parameters.get("TRACKER").getValue(), 
+					(Integer) parameters.get("KEY").getValue());
+		}
+
+		@Override
+		public boolean supportsQueryParameterType(String className)
+		{
+			return true;
+		}
+	}
+	
+	protected static class TestQueryExecuter implements JRQueryExecuter
+	{
+		private final String query;
+		private final Tracker tracker;
+		private final int key;
+		private final CountDownLatch cancelLatch = new CountDownLatch(1);
+		private TrackedDataSource dataSource;
+		
+		public TestQueryExecuter(String query, Tracker tracker, int key)
+		{
+			this.query = query;
+			this.tracker = tracker;
+			this.key = key;
+		}
+
+		@Override
+		public JRDataSource createDatasource() throws JRException
+		{
+			tracker.increment(tracker.created, query);
+			tracker.threadNames.add(Thread.currentThread().getName());
+			
+			if (key == tracker.failKey)
+			{
+				tracker.failureThread = Thread.currentThread().getName();
+				throw new JRException("query failure");
+			}
+			
+			if (key == tracker.blockKey)
+			{
+				tracker.blocked.countDown();
+				try
+				{
+					cancelLatch.await(60, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				throw new JRException("query cancelled");
+			}
+			
+			List<Map<String, ?>> records = new ArrayList<>();
+			for (int idx = 0; idx <= (key + query.length()) % 3; ++idx)
+			{
+				Map<String, Object> record = new HashMap<>();
+				record.put("value", query + " " + key + "." + idx);
+				records.add(record);
+			}
+			dataSource = new TrackedDataSource(records);
+			return dataSource;
+		}
+
+		@Override
+		public void close()
+		{
+			if (dataSource != null)
+			{
+				tracker.increment(tracker.closed, query);
+				if (!dataSource.read)
+				{
+					tracker.increment(tracker.closedUnread, query);
+				}
+				dataSource = null;
+			}
+		}
+
+		@Override
+		public boolean cancelQuery() throws JRException
+		{
+			tracker.cancelled.incrementAndGet();
+			cancelLatch.countDown();
+			return true;
+		}
+	}
+	
+	protected static class TrackedDataSource extends JRMapCollectionDataSource
+	{
+		private volatile boolean read;
+		
+		public TrackedDataSource(Collection<Map<String, ?>> collection)
+		{
+			super(collection);
+		}
+
+		@Override
+		public boolean next()
+		{
+			read = true;
+			return super.next();
+		}
+	}
+	
+}
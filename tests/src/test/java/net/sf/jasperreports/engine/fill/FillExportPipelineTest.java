@@ -0,0 +1,546 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.JRXmlExporter;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.export.Exporter;
+import net.sf.jasperreports.export.ExporterInput;
+import net.sf.jasperreports.export.PdfPagePreloadTest;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+import net.sf.jasperreports.export.SimpleXmlExporterOutput;
+import net.sf.jasperreports.pdf.JRPdfExporter;
+
+/**
+ * Checks that exporting through {@link FillExportPipeline} produces the same output as exporting the filled report,
+ * and that fill and export failures end both the fill and the export.
+ */
+public class FillExportPipelineTest
+{
+	
+	private static final int RECORDS_PER_PAGE = 39;
+	
+	private JasperReport firstJasper;
+	private JasperReport pipelineReport;
+
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		firstJasper = compile("net/sf/jasperreports/virtualization/FirstJasper.jrxml");
+		pipelineReport = compile("net/sf/jasperreports/engine/fill/FillExportPipelineReport.jrxml");
+	}
+	
+	protected JasperReport compile(String jrxml) throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(jrxml))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		return JasperCompileManager.compileReport(design);
+	}
+	
+	@DataProvider
+	public Object[][] pipelineSettings()
+	{
+		return new Object[][] {
+			// virtualized, max pages ahead, page release distance
+			{false, 32, 32},
+			{false, 1, 1},
+			{false, 0, -1},
+			{true, 2, 2},
+		};
+	}
+	
+	@Test(dataProvider = "pipelineSettings", timeOut = 120000)
+	public void samePdf(boolean virtualized, int maxPagesAhead, int releaseDistance) throws JRException
+	{
+		String filled = exportFilledReport(firstJasper, virtualized, PdfExport::new);
+		String pipelined = exportPipelined(firstJasper, virtualized, maxPagesAhead, releaseDistance, PdfExport::new);
+		assert filled.startsWith("%PDF");
+		assert pipelined.equals(filled);
+	}
+	
+	@Test(dataProvider = "pipelineSettings", timeOut = 120000)
+	public void sameCsv(boolean virtualized, int maxPagesAhead, int releaseDistance) throws JRException
+	{
+		String filled = exportFilledReport(firstJasper, virtualized, CsvExport::new);
+		String pipelined = exportPipelined(firstJasper, virtualized, maxPagesAhead, releaseDistance, CsvExport::new);
+		assert !filled.isEmpty();
+		assert pipelined.equals(filled);
+	}
+	
+	@DataProvider
+	public Object[][] totalPages()
+	{
+		return new Object[][] {{false}, {true}};
+	}
+	
+	@Test(dataProvider = "totalPages", timeOut = 120000)
+	public void sameCsvDelayedEvaluation(boolean totalPages) throws JRException
+	{
+		// with the total pages no page is final until the end of the fill, and the fill does not wait for the export
+		Map<String, Object> params = reportParams(false);
+		params.put("TotalPages", totalPages);
+		JasperPrint print = JasperFillManager.getInstance(new SimpleJasperReportsContext()).fill(
+				pipelineReport, params, new RecordsDataSource(1000));
+		CsvExport filled = new CsvExport(new SimpleJasperReportsContext());
+		filled.exporter.setExporterInput(new SimpleExporterInput(print));
+		filled.exporter.exportReport();
+		
+		CsvExport pipelined = new CsvExport(pipelineContext(1, 1));
+		params = reportParams(false);
+		params.put("TotalPages", totalPages);
+		createPipeline(pipelined.jasperReportsContext, pipelineReport, params, new RecordsDataSource(1000))
+				.export(pipelined.exporter);
+		
+		assert pipelined.getOutput().equals(filled.getOutput());
+		assert filled.getOutput().contains("999");
+		assert filled.getOutput().contains(totalPages ? " of 26" : "Page 26");
+	}
+	
+	@Test(timeOut = 120000)
+	public void exporterCountingPages() throws JRException
+	{
+		// the XML exporter gets the page count before exporting the pages
+		JasperPrint print = JasperFillManager.getInstance(new SimpleJasperReportsContext()).fill(
+				pipelineReport, reportParams(false), new RecordsDataSource(1000));
+		XmlExport filled = new XmlExport(new SimpleJasperReportsContext());
+		filled.exporter.setExporterInput(new SimpleExporterInput(print));
+		filled.exporter.exportReport();
+		
+		XmlExport pipelined = new XmlExport(pipelineContext(1, 1));
+		createPipeline(pipelined.jasperReportsContext, pipelineReport, reportParams(false), new RecordsDataSource(1000))
+				.export(pipelined.exporter);
+		
+		assert filled.getOutput().contains("<page");
+		assert pipelined.getOutput().equals(filled.getOutput());
+	}
+	
+	@Test(timeOut = 120000)
+	public void fillWaitsForExport() throws JRException
+	{
+		int maxPagesAhead = 2;
+		RecordsDataSource dataSource = new RecordsDataSource(2000);
+		AtomicInteger exportedPages = new AtomicInteger();
+		AtomicInteger maxRecordsAhead = new AtomicInteger();
+		SimpleJasperReportsContext jasperReportsContext = pipelineContext(maxPagesAhead, 1);
+		JRCsvExporter exporter = new JRCsvExporter(jasperReportsContext)
+		{
+			@Override
+			protected void exportPage(JRPrintPage page) throws IOException
+			{
+				int exportedRecords = exportedPages.incrementAndGet() * RECORDS_PER_PAGE;
+				maxRecordsAhead.accumulateAndGet(dataSource.getRecordCount() - exportedRecords, Math::max);
+				super.exportPage(page);
+			}
+		};
+		exporter.setExporterOutput(new SimpleWriterExporterOutput(new StringWriter()));
+		
+		createPipeline(jasperReportsContext, pipelineReport, reportParams(false), dataSource).export(exporter);
+		
+		assert exportedPages.get() == 52 : exportedPages;
+		// the page being filled and the generated pages waiting for the exporter
+		assert maxRecordsAhead.get() <= (maxPagesAhead + 2) * RECORDS_PER_PAGE : maxRecordsAhead;
+	}
+	
+	@Test(timeOut = 120000)
+	public void fillError()
+	{
+		RecordsDataSource dataSource = new RecordsDataSource(1000000);
+		dataSource.failAt = 500;
+		CsvExport export = new CsvExport(pipelineContext(1, 1));
+		try
+		{
+			createPipeline(export.jasperReportsContext, pipelineReport, reportParams(false), dataSource)
+					.export(export.exporter);
+			assert false : "export should fail";
+		}
+		catch (JRException e)
+		{
+			assert hasCause(e, "data source failure") : e;
+		}
+		assert dataSource.getRecordCount() == 500;
+	}
+	
+	@Test(timeOut = 120000)
+	public void fillCancelled() throws JRException, InterruptedException
+	{
+		RecordsDataSource dataSource = new RecordsDataSource(1000000);
+		CsvExport export = new CsvExport(pipelineContext(1, 1));
+		FillHandle fillHandle = AsynchronousFillHandle.createHandle(export.jasperReportsContext, pipelineReport, 
+				reportParams(false), dataSource);
+		FillEnd fillEnd = new FillEnd();
+		fillHandle.addListener(fillEnd);
+		dataSource.recordListener = record -> 
+		{
+			if (record == 300)
+			{
+				new Thread(() -> 
+				{
+					try
+					{
+						fillHandle.cancellFill();
+					}
+					catch (JRException e)
+					{
+						throw new RuntimeException(e);
+					}
+				}).start();
+			}
+		};
+		
+		try
+		{
+			new FillExportPipeline(export.jasperReportsContext, fillHandle).export(export.exporter);
+			assert false : "export should fail";
+		}
+		catch (JRException e)
+		{
+			assert hasMessageKey(e, FillExportPipeline.EXCEPTION_MESSAGE_KEY_FILL_CANCELLED) : e;
+		}
+		assert fillEnd.await();
+		assert fillEnd.cancelled;
+		assert dataSource.getRecordCount() < 1000000;
+	}
+	
+	@Test(timeOut = 120000)
+	public void exportErrorCancelsFill() throws InterruptedException, JRException
+	{
+		RecordsDataSource dataSource = new RecordsDataSource(1000000);
+		SimpleJasperReportsContext jasperReportsContext = pipelineContext(1, 1);
+		AtomicInteger exportedPages = new AtomicInteger();
+		JRCsvExporter exporter = new JRCsvExporter(jasperReportsContext)
+		{
+			@Override
+			protected void exportPage(JRPrintPage page) throws IOException
+			{
+				if (exportedPages.incrementAndGet() == 3)
+				{
+					throw new IOException("export failure");
+				}
+				super.exportPage(page);
+			}
+		};
+		exporter.setExporterOutput(new SimpleWriterExporterOutput(new StringWriter()));
+		
+		FillHandle fillHandle = AsynchronousFillHandle.createHandle(jasperReportsContext, pipelineReport, 
+				reportParams(false), dataSource);
+		FillEnd fillEnd = new FillEnd();
+		fillHandle.addListener(fillEnd);
+		try
+		{
+			new FillExportPipeline(jasperReportsContext, fillHandle).export(exporter);
+			assert false : "export should fail";
+		}
+		catch (JRException e)
+		{
+			assert hasCause(e, "export failure") : e;
+		}
+		assert fillEnd.await();
+		assert fillEnd.cancelled;
+		assert dataSource.getRecordCount() < 1000000;
+	}
+	
+	protected boolean hasCause(Throwable e, String message)
+	{
+		for (Throwable cause = e; cause != null; cause = cause.getCause())
+		{
+			if (message.equals(cause.getMessage()))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	protected boolean hasMessageKey(Throwable e, String messageKey)
+	{
+		for (Throwable cause = e; cause != null; cause = cause.getCause())
+		{
+			if (cause instanceof JRRuntimeException 
+					&& messageKey.equals(((JRRuntimeException) cause).getMessageKey()))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	protected String exportFilledReport(JasperReport report, boolean virtualized, 
+			Function<SimpleJasperReportsContext, ReportExport> exportFactory) throws JRException
+	{
+		Map<String, Object> params = reportParams(virtualized);
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		try
+		{
+			JasperPrint print = JasperFillManager.getInstance(jasperReportsContext).fill(report, params);
+			ReportExport export = exportFactory.apply(jasperReportsContext);
+			export.exporter.setExporterInput(new SimpleExporterInput(print));
+			export.exporter.exportReport();
+			return export.getOutput();
+		}
+		finally
+		{
+			cleanup(params);
+		}
+	}
+	
+	protected String exportPipelined(JasperReport report, boolean virtualized, int maxPagesAhead, int releaseDistance, 
+			Function<SimpleJasperReportsContext, ReportExport> exportFactory) throws JRException
+	{
+		Map<String, Object> params = reportParams(virtualized);
+		SimpleJasperReportsContext jasperReportsContext = pipelineContext(maxPagesAhead, releaseDistance);
+		try
+		{
+			ReportExport export = exportFactory.apply(jasperReportsContext);
+			new FillExportPipeline(jasperReportsContext, 
+					AsynchronousFillHandle.createHandle(jasperReportsContext, report, params))
+					.export(export.exporter);
+			return export.getOutput();
+		}
+		finally
+		{
+			cleanup(params);
+		}
+	}
+	
+	protected FillExportPipeline createPipeline(SimpleJasperReportsContext jasperReportsContext, JasperReport report, 
+			Map<String, Object> params, JRDataSource dataSource) throws JRException
+	{
+		return new FillExportPipeline(jasperReportsContext, 
+				AsynchronousFillHandle.createHandle(jasperReportsContext, report, params, dataSource));
+	}
+	
+	protected SimpleJasperReportsContext pipelineContext(int maxPagesAhead, int releaseDistance)
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(FillExportPipeline.PROPERTY_MAX_PAGES_AHEAD, String.valueOf(maxPagesAhead));
+		jasperReportsContext.setProperty(FillExportPipeline.PROPERTY_PAGE_RELEASE_DISTANCE, String.valueOf(releaseDistance));
+		return jasperReportsContext;
+	}
+	
+	protected Map<String, Object> reportParams(boolean virtualized)
+	{
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		params.put(JRParameter.REPORT_TIME_ZONE, TimeZone.getTimeZone("GMT"));
+		if (virtualized)
+		{
+			params.put(JRParameter.REPORT_VIRTUALIZER, new JRGzipVirtualizer(2));
+		}
+		return params;
+	}
+	
+	protected void cleanup(Map<String, Object> params)
+	{
+		JRGzipVirtualizer virtualizer = (JRGzipVirtualizer) params.get(JRParameter.REPORT_VIRTUALIZER);
+		if (virtualizer != null)
+		{
+			virtualizer.cleanup();
+		}
+	}
+	
+	protected abstract static class ReportExport
+	{
+		protected final SimpleJasperReportsContext jasperReportsContext;
+		protected Exporter<ExporterInput, ?, ?, ?> exporter;
+		
+		protected ReportExport(SimpleJasperReportsContext jasperReportsContext)
+		{
+			this.jasperReportsContext = jasperReportsContext;
+		}
+		
+		protected abstract String getOutput();
+	}
+	
+	protected static class PdfExport extends ReportExport
+	{
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		public PdfExport(SimpleJasperReportsContext jasperReportsContext)
+		{
+			super(jasperReportsContext);
+			JRPdfExporter pdfExporter = new JRPdfExporter(jasperReportsContext);
+			pdfExporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+			exporter = pdfExporter;
+		}
+
+		@Override
+		protected String getOutput()
+		{
+			return PdfPagePreloadTest.normalizePdf(out.toByteArray());
+		}
+	}
+	
+	protected static class CsvExport extends ReportExport
+	{
+		private final StringWriter out = new StringWriter();
+		
+		public CsvExport(SimpleJasperReportsContext jasperReportsContext)
+		{
+			super(jasperReportsContext);
+			JRCsvExporter csvExporter = new JRCsvExporter(jasperReportsContext);
+			csvExporter.setExporterOutput(new SimpleWriterExporterOutput(out));
+			exporter = csvExporter;
+		}
+
+		@Override
+		protected String getOutput()
+		{
+			return out.toString();
+		}
+	}
+	
+	protected static class XmlExport extends ReportExport
+	{
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		public XmlExport(SimpleJasperReportsContext jasperReportsContext)
+		{
+			super(jasperReportsContext);
+			JRXmlExporter xmlExporter = new JRXmlExporter(jasperReportsContext);
+			xmlExporter.setExporterOutput(new SimpleXmlExporterOutput(out));
+			exporter = xmlExporter;
+		}
+
+		@Override
+		protected String getOutput()
+		{
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+	
+	protected static class RecordsDataSource implements JRDataSource
+	{
+		private final int recordCount;
+		private final AtomicInteger record = new AtomicInteger();
+		protected int failAt = -1;
+		protected IntConsumer recordListener;
+		
+		public RecordsDataSource(int recordCount)
+		{
+			this.recordCount = recordCount;
+		}
+
+		@Override
+		public boolean next() throws JRException
+		{
+			int current = record.get();
+			if (current == failAt)
+			{
+				throw new JRException("data source failure");
+			}
+			
+			if (current >= recordCount)
+			{
+				return false;
+			}
+			
+			record.incrementAndGet();
+			if (recordListener != null)
+			{
+				recordListener.accept(current);
+			}
+			return true;
+		}
+
+		@Override
+		public Object getFieldValue(JRField jrField) throws JRException
+		{
+			return record.get() - 1;
+		}
+		
+		public int getRecordCount()
+		{
+			return record.get();
+		}
+	}
+	
+	protected static class FillEnd implements AsynchronousFilllListener
+	{
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private volatile boolean cancelled;
+
+		@Override
+		public void reportFinished(JasperPrint jasperPrint)
+		{
+			latch.countDown();
+		}
+
+		@Override
+		public void reportCancelled()
+		{
+			cancelled = true;
+			latch.countDown();
+		}
+
+		@Override
+		public void reportFillError(Throwable t)
+		{
+			latch.countDown();
+		}
+		
+		public boolean await() throws InterruptedException
+		{
+			return latch.await(60, TimeUnit.SECONDS);
+		}
+	}
+	
+}
@@ -0,0 +1,297 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.xml.sax.SAXException;
+
+import net.sf.jasperreports.engine.JRPrintHyperlink;
+import net.sf.jasperreports.engine.JRPrintHyperlinkParameter;
+import net.sf.jasperreports.engine.util.JRStyledText.Run;
+
+/**
+ * Checks that {@link JRStyledTextParser#parse(Map, String, Locale)} produces the same styled texts
+ * as the XML parsing, with and without the parse cache.
+ */
+public class StyledTextParserTest
+{
+
+	@DataProvider
+	public Object[][] texts()
+	{
+		return new Object[][] {
+			// plain text and nesting
+			{""},
+			{"plain text"},
+			{"<b>bold <i>bold italic</i></b> plain"},
+			{"<style isBold=\"true\" forecolor=\"#ff0000\">a<u>b<sup>c</sup><sub>d</sub></u>e</style>"},
+			{"<style fontName=\"DejaVu Serif\" size=\"12\" isItalic=\"true\" isUnderline=\"false\" isStrikeThrough=\"true\""
+				+ " backcolor=\"blue\" pdfFontName=\"Helvetica\" pdfEncoding=\"Cp1252\" isPdfEmbedded=\"false\">s</style>"},
+			{"<font size=\"14\" color=\"#00ff00\" face=\"Unknown, DejaVu Sans\">font</font>"},
+			{"<b><b>twice</b></b><i/>empty"},
+			// line breaks
+			{"a<br/>b"},
+			{"a<br>inside</br>b"},
+			{"<b>a<br/><br/>b</b>"},
+			{"a<BR/>b<Br/>c"},
+			// list items and lists
+			{"<li>one</li><li>two</li>"},
+			{"text <li noBullet=\"true\">no bullet</li> after"},
+			{"<ul><li>a</li><li>b<ol type=\"a\" start=\"3\"><li>c</li><li>d</li></ol></li></ul>after"},
+			{"<ol><li><b>bold item</b><br/>next line</li></ol>"},
+			{"<LI>upper</LI>"},
+			// entities and character references
+			{"&lt;tag&gt; &amp; &quot;quoted&quot; &apos;single&apos;"},
+			{"&#65;&#x42;&#x1F600;&#9731;"},
+			{"<style forecolor=\"&#x23;ff0000\">&lt;b&gt;</style>"},
+			// line ends and attribute values
+			{"a\r\nb\rc\nd"},
+			{"<style size = '10'\n\tisBold\r\n=\"true\" >x</style >"},
+			{"<font color=\"red\r\nblue\">x</font>"},
+			// tag and attribute name case
+			{"<B>b</B><I>i</I><U>u</U><Sup>sup</Sup><SUB>sub</SUB><Font size=\"9\">f</Font>"},
+			{"<font SIZE=\"20\" size=\"9\">attribute case</font>"},
+			{"<style ISBOLD=\"true\" isItalic=\"true\">attribute case</style>"},
+			{"<Style isBold=\"true\">style name case</Style>"},
+			{"<STYLE isBold=\"true\">style name case</STYLE>"},
+			{"<B>mismatched end tag case</b>"},
+			// hyperlinks
+			{"<a href=\"http://localhost/\" target=\"_blank\" type=\"Reference\">link</a> after"},
+			{"<A href=\"x\">upper</A>"},
+			{"<a href=\"x\"><param name=\"p\" valueClass=\"java.lang.Integer\">1</param>with param</a>"},
+			{"<a href=\"x\"><a href=\"y\">nested</a></a>"},
+			{"<param name=\"p\">outside link</param>"},
+			// other tags and XML constructs
+			{"<reference>r</reference><note>n</note>"},
+			{"<!-- comment -->text"},
+			{"<![CDATA[<b>not bold</b>]]>"},
+			{"<?pi data?>text"},
+			{"<unknown>x</unknown>"},
+			// malformed markup
+			{"<b>unclosed"},
+			{"</b>"},
+			{"<b>x</i>"},
+			{"a & b"},
+			{"&unknown;"},
+			{"&#0;"},
+			{"<b x=1>y</b>"},
+			{"<b a=\"1\" a=\"2\">x</b>"},
+			{"<font size=\"1\"size=\"2\">x</font>"},
+			{"<font size=\"<\">x</font>"},
+			{"text ]]> text"},
+			{"<b"},
+			{"<b/"},
+			{"< b>x</b>"},
+			{"<style size=\"big\">invalid number</style>"},
+		};
+	}
+
+	@Test(dataProvider = "texts")
+	public void sameStyledText(String text)
+	{
+		String expected = parseXml(new JRStyledTextParser(0), text);
+		
+		assert parse(new JRStyledTextParser(0), text).equals(expected) : text;
+		
+		JRStyledTextParser cachingParser = new JRStyledTextParser(10);
+		assert parse(cachingParser, text).equals(expected) : text;
+		// parsed again from the cache
+		assert parse(cachingParser, text).equals(expected) : text;
+	}
+
+	@Test
+	public void sameStyledTextSequence()
+	{
+		// the list attributes depend on the texts parsed before
+		List<String> texts = new ArrayList<>();
+		for (Object[] text : texts())
+		{
+			texts.add((String) text[0]);
+		}
+		
+		JRStyledTextParser xmlParser = new JRStyledTextParser(0);
+		JRStyledTextParser cachingParser = new JRStyledTextParser(1000);
+		for (int i = 0; i < 3; i++)
+		{
+			for (String text : texts)
+			{
+				assert parse(cachingParser, text).equals(parseXml(xmlParser, text)) : text;
+			}
+		}
+	}
+
+	@DataProvider
+	public Object[][] mutableAttributeTexts()
+	{
+		return new Object[][] {
+			{"<a href=\"http://localhost/\">link</a>", JRTextAttribute.HYPERLINK},
+			{"<li>one</li><li>two</li>", JRTextAttribute.HTML_LIST},
+			{"<ul><li>one</li></ul>", JRTextAttribute.HTML_LIST},
+			{"<li>one</li><li>two</li>", JRTextAttribute.HTML_LIST_ITEM},
+		};
+	}
+
+	@Test(dataProvider = "mutableAttributeTexts")
+	public void cachedMutableAttributes(String text, Attribute attribute) throws SAXException
+	{
+		// hyperlinks and list attributes are modified after parsing, and should not be shared by styled texts
+		JRStyledTextParser cachingParser = new JRStyledTextParser(10);
+		List<Object> values1 = attributeValues(cachingParser.parse(null, text, Locale.US), attribute);
+		List<Object> values2 = attributeValues(cachingParser.parse(null, text, Locale.US), attribute);
+		
+		assert !values1.isEmpty() && values1.size() == values2.size();
+		for (Object value1 : values1)
+		{
+			for (Object value2 : values2)
+			{
+				assert value1 != value2 : value1;
+			}
+		}
+	}
+
+	protected List<Object> attributeValues(JRStyledText styledText, Attribute attribute)
+	{
+		List<Object> values = new ArrayList<>();
+		for (Run run : styledText.getRuns())
+		{
+			Object value = run.attributes == null ? null : run.attributes.get(attribute);
+			if (value instanceof Object[])
+			{
+				values.addAll(Arrays.asList((Object[]) value));
+			}
+			else if (value != null && value != StyledTextListItemInfo.NO_LIST_ITEM_FILLER)
+			{
+				values.add(value);
+			}
+		}
+		return values;
+	}
+
+	protected String parse(JRStyledTextParser parser, String text)
+	{
+		try
+		{
+			return describe(parser.parse(null, text, Locale.US));
+		}
+		catch (SAXException | RuntimeException e)
+		{
+			return "error";
+		}
+	}
+
+	protected String parseXml(JRStyledTextParser parser, String text)
+	{
+		try
+		{
+			JRStyledText styledText = parser.parseXml(text, Locale.US);
+			// as done by parse()
+			styledText.setGlobalAttributes(null);
+			return describe(styledText);
+		}
+		catch (SAXException | RuntimeException e)
+		{
+			return "error";
+		}
+	}
+	
+	protected String describe(JRStyledText styledText)
+	{
+		StringBuilder description = new StringBuilder();
+		description.append(styledText.getText());
+		for (Run run : styledText.getRuns())
+		{
+			description.append('\n').append(run.startIndex).append('-').append(run.endIndex).append(':');
+			
+			Map<String, String> attributes = new TreeMap<>();
+			if (run.attributes != null)
+			{
+				for (Map.Entry<Attribute, Object> attribute : run.attributes.entrySet())
+				{
+					attributes.put(attribute.getKey().toString(), describeValue(attribute.getValue()));
+				}
+			}
+			description.append(attributes);
+		}
+		return description.toString();
+	}
+	
+	protected String describeValue(Object value)
+	{
+		if (value instanceof JRPrintHyperlink)
+		{
+			JRPrintHyperlink hyperlink = (JRPrintHyperlink) value;
+			StringBuilder description = new StringBuilder();
+			description.append(hyperlink.getHyperlinkType())
+				.append('|').append(hyperlink.getHyperlinkReference())
+				.append('|').append(hyperlink.getLinkType())
+				.append('|').append(hyperlink.getLinkTarget());
+			if (hyperlink.getHyperlinkParameters() != null)
+			{
+				for (JRPrintHyperlinkParameter parameter : hyperlink.getHyperlinkParameters().getParameters())
+				{
+					description.append('|').append(parameter.getName())
+						.append('=').append(parameter.getValueClass())
+						.append(':').append(parameter.getValue());
+				}
+			}
+			return description.toString();
+		}
+		
+		if (value instanceof StyledTextListInfo[])
+		{
+			StringBuilder description = new StringBuilder();
+			for (StyledTextListInfo list : (StyledTextListInfo[]) value)
+			{
+				description.append('[').append(list.ordered())
+					.append(',').append(list.getType())
+					.append(',').append(list.getStart())
+					.append(',').append(list.getCutStart())
+					.append(',').append(list.getItemIndex())
+					.append(',').append(list.hasParentLi())
+					.append(',').append(list.getItemCount())
+					.append(',').append(list.atLiStart())
+					.append(',').append(list.atLiEnd())
+					.append(']');
+			}
+			return description.toString();
+		}
+		
+		if (value instanceof StyledTextListItemInfo)
+		{
+			StyledTextListItemInfo item = (StyledTextListItemInfo) value;
+			return item.getItemIndex() + "," + item.noBullet();
+		}
+		
+		return String.valueOf(value);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.pdf.JRPdfExporter;
+import net.sf.jasperreports.pdf.SimplePdfExporterConfiguration;
+
+/**
+ * Checks that the PDF output is the same with and without page preloading.
+ */
+public class PdfPagePreloadTest
+{
+	
+	private Report report;
+	private Map<Integer, String> exports;
+
+	@BeforeClass
+	public void initReport()
+	{
+		report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", 
+				"net/sf/jasperreports/virtualization/FirstJasper.reference.jrpxml");
+		// exporting before the virtualizer is disposed
+		report.addPrintConsumer((report, print) -> 
+		{
+			for (int threads : new int[]{0, 1, 4})
+			{
+				exports.put(threads, exportPdf(print, threads));
+			}
+		});
+		report.init();
+	}
+	
+	@Test
+	public void sameOutput()
+	{
+		exports = new HashMap<>();
+		report.runReport(null);
+		checkExports();
+	}
+	
+	@Test
+	public void sameOutputVirtualized()
+	{
+		exports = new HashMap<>();
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_VIRTUALIZER, new JRGzipVirtualizer(2));
+		report.runReport(params);
+		checkExports();
+	}
+	
+	protected void checkExports()
+	{
+		String sequential = exports.get(0);
+		assert sequential.startsWith("%PDF");
+		assert exports.get(1).equals(sequential);
+		assert exports.get(4).equals(sequential);
+	}
+	
+	protected String exportPdf(JasperPrint print, int threads)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try
+		{
+			JRPdfExporter exporter = new JRPdfExporter(new SimpleJasperReportsContext());
+			exporter.setExporterInput(new SimpleExporterInput(print));
+			exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+			SimplePdfExporterConfiguration configuration = new SimplePdfExporterConfiguration();
+			configuration.setPagePreloadThreads(threads);
+			exporter.setConfiguration(configuration);
+			exporter.exportReport();
+		}
+		catch (JRException e)
+		{
+			throw new RuntimeException(e);
+		}
+		return normalizePdf(out.toByteArray());
+	}
+	
+	/**
+	 * Replaces the creation time, the document ID and the font subset tags, 
+	 * which differ for each export.
+	 */
+	public static String normalizePdf(byte[] pdf)
+	{
+		String content = new String(pdf, StandardCharsets.ISO_8859_1);
+		content = content.replaceAll("/(CreationDate|ModDate) ?\\(D:[^)]*\\)", "/$1(D:0)");
+		content = content.replaceAll("/ID ?\\[ ?<[0-9a-fA-F]*> ?<[0-9a-fA-F]*> ?\\]", "/ID[<0><0>]");
+		content = content.replaceAll("/[A-Z]{6}\\+", "/AAAAAA+");
+		return content;
+	}
+}
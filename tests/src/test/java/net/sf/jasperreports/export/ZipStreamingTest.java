@@ -0,0 +1,178 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.export.oasis.JROdsExporter;
+import net.sf.jasperreports.engine.export.oasis.JROdtExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRDocxExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRPptxExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.export.ooxml.XlsxMetadataExporter;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
+
+/**
+ * Checks that the documents exported with {@link AbstractZip#PROPERTY_STREAMING} 
+ * or {@link AbstractZip#PROPERTY_DEFLATE_THREADS} contain the same parts as the documents 
+ * exported without streaming and with sequential compression.
+ */
+public class ZipStreamingTest
+{
+	
+	private JasperPrint print;
+
+	@BeforeClass
+	public void fillReport()
+	{
+		Report report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", 
+				"net/sf/jasperreports/virtualization/FirstJasper.reference.jrpxml");
+		report.addPrintConsumer((r, jasperPrint) -> print = jasperPrint);
+		report.init();
+		report.runReport(null);
+		assert print != null;
+	}
+	
+	@DataProvider
+	public Object[][] formats()
+	{
+		return new Object[][] {
+			{"docx", "word/document.xml"}, 
+			{"pptx", "ppt/slides/slide"}, 
+			{"xlsx", "xl/worksheets/sheet"}, 
+			{"xlsx-metadata", "xl/worksheets/sheet"},
+			// ODF documents are not streamed
+			{"odt", null}, 
+			{"ods", null}, 
+		};
+	}
+	
+	@Test(dataProvider = "formats")
+	public void sameParts(String format, String streamedPart) throws JRException, IOException
+	{
+		Map<String, String> bufferedParts = readParts(export(format, false, 0));
+		Map<String, String> streamedParts = readParts(export(format, true, 0));
+		
+		assert !bufferedParts.isEmpty();
+		assert streamedParts.equals(bufferedParts) : streamedParts.keySet() + " vs " + bufferedParts.keySet();
+		
+		String firstStreamedPart = streamedParts.keySet().iterator().next();
+		if (streamedPart == null)
+		{
+			assert new ArrayList<>(streamedParts.keySet()).equals(new ArrayList<>(bufferedParts.keySet()));
+		}
+		else
+		{
+			// streamed parts are written first
+			assert firstStreamedPart.startsWith(streamedPart) : firstStreamedPart;
+		}
+	}
+	
+	@Test(dataProvider = "formats")
+	public void parallelDeflate(String format, String streamedPart) throws JRException, IOException
+	{
+		Map<String, String> sequentialParts = readParts(export(format, false, 0));
+		assert readParts(export(format, false, 3)).equals(sequentialParts);
+		assert readParts(export(format, true, 3)).equals(sequentialParts);
+	}
+	
+	protected byte[] export(String format, boolean streaming, int deflateThreads) throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(AbstractZip.PROPERTY_STREAMING, String.valueOf(streaming));
+		jasperReportsContext.setProperty(AbstractZip.PROPERTY_DEFLATE_THREADS, String.valueOf(deflateThreads));
+		
+		Exporter<ExporterInput, ?, ?, OutputStreamExporterOutput> exporter;
+		switch (format)
+		{
+		case "docx":
+			exporter = new JRDocxExporter(jasperReportsContext);
+			break;
+		case "pptx":
+			exporter = new JRPptxExporter(jasperReportsContext);
+			break;
+		case "xlsx":
+			exporter = new JRXlsxExporter(jasperReportsContext);
+			break;
+		case "xlsx-metadata":
+			exporter = new XlsxMetadataExporter(jasperReportsContext);
+			break;
+		case "odt":
+			exporter = new JROdtExporter(jasperReportsContext);
+			break;
+		case "ods":
+			exporter = new JROdsExporter(jasperReportsContext);
+			break;
+		default:
+			throw new IllegalArgumentException(format);
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+		exporter.exportReport();
+		return out.toByteArray();
+	}
+	
+	protected Map<String, String> readParts(byte[] document) throws IOException
+	{
+		Map<String, String> parts = new LinkedHashMap<>();
+		try (ZipInputStream zipInput = new ZipInputStream(new ByteArrayInputStream(document)))
+		{
+			ZipEntry entry;
+			while ((entry = zipInput.getNextEntry()) != null)
+			{
+				ByteArrayOutputStream data = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				int read;
+				while ((read = zipInput.read(buffer)) > 0)
+				{
+					data.write(buffer, 0, read);
+				}
+				
+				String content = new String(data.toByteArray(), StandardCharsets.ISO_8859_1);
+				// the document creation time differs for each export
+				content = content.replaceAll("(<dcterms:(created|modified)[^>]*>)[^<]*", "$1");
+				assert parts.put(entry.getName(), content) == null : "duplicate part " + entry.getName();
+			}
+		}
+		return parts;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.json.data.AbstractJsonDataSource;
+import net.sf.jasperreports.json.data.JsonDataSource;
+import net.sf.jasperreports.json.data.JsonStreamDataSource;
+
+/**
+ * Checks that {@link JsonStreamDataSource} produces the same records as {@link JsonDataSource}.
+ */
+public class JsonStreamDataSourceTest
+{
+
+	private static final String RESOURCES_PATH = "net/sf/jasperreports/json/";
+	
+	private static final JRField[] FIELDS = {
+			field("record", ".", Object.class),
+			field("id", "id", Integer.class),
+			field("name", "name", String.class),
+			field("sku", "sku", String.class),
+			field("qty", "qty", Integer.class),
+			field("customerName", "customer.name", String.class),
+			field("itemSkus", "items.sku", String.class),
+	};
+	
+	private static final String[] SUB_EXPRESSIONS = {null, "items", "children", "customer.orders", "phones"};
+	
+	@DataProvider
+	public Object[][] selectExpressions()
+	{
+		return new Object[][] {
+			{"StreamingData.json", null},
+			{"StreamingData.json", ""},
+			{"StreamingData.json", "store"},
+			{"StreamingData.json", "store.name"},
+			{"StreamingData.json", "store.missing"},
+			{"StreamingData.json", "store.orders"},
+			{"StreamingData.json", "store.orders.id"},
+			{"StreamingData.json", "store.orders.items"},
+			{"StreamingData.json", "store.orders.items.sku"},
+			{"StreamingData.json", "store.orders.items.tags"},
+			{"StreamingData.json", "store.orders.customer"},
+			{"StreamingData.json", "store.orders.customer.name"},
+			{"StreamingData.json", "store.orders.customer.orders"},
+			{"StreamingData.json", "store.orders.missing"},
+			{"StreamingData.json", "store.manager"},
+			{"StreamingData.json", "store.manager.phones"},
+			{"StreamingArray.json", null},
+			{"StreamingArray.json", "name"},
+			{"StreamingArray.json", "children"},
+			{"StreamingArray.json", "children.children"},
+			{"StreamingArray.json", "children.children.name"},
+		};
+	}
+	
+	@Test(dataProvider = "selectExpressions")
+	public void sameRecords(String resource, String selectExpression) throws JRException, IOException
+	{
+		List<List<Object>> treeRecords;
+		try (InputStream input = JRLoader.getResourceInputStream(RESOURCES_PATH + resource))
+		{
+			treeRecords = readRecords(new JsonDataSource(input, selectExpression), true);
+		}
+		
+		List<List<Object>> streamRecords;
+		try (InputStream input = JRLoader.getResourceInputStream(RESOURCES_PATH + resource))
+		{
+			JsonStreamDataSource dataSource = new JsonStreamDataSource(input, selectExpression);
+			streamRecords = readRecords(dataSource, true);
+			assert !dataSource.next();
+		}
+		
+		assert streamRecords.equals(treeRecords) 
+				: "records differ for " + selectExpression + ": " + streamRecords + " vs " + treeRecords;
+	}
+	
+	@Test
+	public void unsupportedExpression() throws IOException
+	{
+		assert !JsonStreamDataSource.isStreamable("store.orders[0]");
+		assert !JsonStreamDataSource.isStreamable("store.orders(id == 1)");
+		
+		try (InputStream input = JRLoader.getResourceInputStream(RESOURCES_PATH + "StreamingData.json"))
+		{
+			new JsonStreamDataSource(input, "store.orders[0]");
+			assert false;
+		}
+		catch (JRException e)
+		{
+			assert JsonStreamDataSource.EXCEPTION_MESSAGE_KEY_STREAM_UNSUPPORTED_EXPRESSION.equals(e.getMessageKey());
+		}
+	}
+	
+	@Test
+	public void notRewindable() throws JRException, IOException
+	{
+		try (InputStream input = JRLoader.getResourceInputStream(RESOURCES_PATH + "StreamingData.json"))
+		{
+			JsonStreamDataSource dataSource = new JsonStreamDataSource(input, "store.orders");
+			// rewinding before the first record is allowed
+			dataSource.moveFirst();
+			assert dataSource.next();
+			try
+			{
+				dataSource.moveFirst();
+				assert false;
+			}
+			catch (JRException e)
+			{
+				assert JsonStreamDataSource.EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE.equals(e.getMessageKey());
+			}
+			dataSource.close();
+			assert !dataSource.next();
+		}
+	}
+	
+	protected List<List<Object>> readRecords(AbstractJsonDataSource dataSource, boolean subDataSources) throws JRException
+	{
+		List<List<Object>> records = new ArrayList<>();
+		while (dataSource.next())
+		{
+			List<Object> record = new ArrayList<>();
+			for (JRField field : FIELDS)
+			{
+				record.add(fieldValue(dataSource, field));
+			}
+			
+			if (subDataSources)
+			{
+				for (String subExpression : SUB_EXPRESSIONS)
+				{
+					record.add(readRecords(subExpression == null ? dataSource.subDataSource() 
+							: dataSource.subDataSource(subExpression), false));
+				}
+			}
+			records.add(record);
+		}
+		return records;
+	}
+	
+	protected Object fieldValue(AbstractJsonDataSource dataSource, JRField field)
+	{
+		try
+		{
+			return dataSource.getFieldValue(field);
+		}
+		catch (JRException e)
+		{
+			// conversion failures must be the same for both data sources
+			return "error: " + Objects.toString(e.getMessageKey());
+		}
+	}
+	
+	protected static JRField field(String name, String description, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setDescription(description);
+		field.setValueClass(valueClass);
+		return field;
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.export.JRGraphics2DExporter;
+import net.sf.jasperreports.engine.export.JRRtfExporter;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleGraphics2DExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+
+/**
+ * Checks the keys, the size bound and the sharing across exports of {@link SharedImageCache}.
+ */
+public class SharedImageCacheTest
+{
+
+	private JasperReport report;
+
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream("net/sf/jasperreports/renderers/SharedImageCacheReport.jrxml"))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		report = JasperCompileManager.compileReport(design);
+	}
+
+	@Test
+	public void decodedImage() throws JRException
+	{
+		SharedImageCache cache = new SharedImageCache(1 << 20);
+		AtomicInteger loads = new AtomicInteger();
+		SharedImageCache.ImageLoader<Image> loader = () -> 
+		{
+			loads.incrementAndGet();
+			return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+		};
+
+		Image image = cache.getDecodedImage("a", loader);
+		assert cache.getDecodedImage("a", loader) == image;
+		assert loads.get() == 1;
+		assert cache.getDecodedImage("b", loader) != image;
+		assert loads.get() == 2;
+		assert cache.getHitCount() == 1 : cache;
+		assert cache.getMissCount() == 2 : cache;
+		assert cache.getSize() == 2 * 10 * 10 * 4 : cache;
+	}
+
+	@Test
+	public void rasterizedKey() throws JRException
+	{
+		SharedImageCache cache = new SharedImageCache(1 << 20);
+		AtomicInteger loads = new AtomicInteger();
+		SharedImageCache.ImageLoader<byte[]> loader = () -> new byte[]{(byte) loads.incrementAndGet()};
+		Dimension dimension = new Dimension(100, 50);
+
+		byte[] transparent = cache.getRasterizedImageData("a", dimension, 72, null, loader);
+		assert cache.getRasterizedImageData("a", dimension, 72, null, loader) == transparent;
+		assert loads.get() == 1;
+
+		byte[] highResolution = cache.getRasterizedImageData("a", dimension, 144, null, loader);
+		assert highResolution != transparent;
+		assert loads.get() == 2;
+
+		byte[] white = cache.getRasterizedImageData("a", dimension, 72, Color.WHITE, loader);
+		assert white != transparent;
+		assert loads.get() == 3;
+
+		byte[] red = cache.getRasterizedImageData("a", dimension, 72, Color.RED, loader);
+		assert red != white;
+		assert loads.get() == 4;
+
+		byte[] larger = cache.getRasterizedImageData("a", new Dimension(200, 50), 72, Color.WHITE, loader);
+		assert larger != white;
+		assert loads.get() == 5;
+
+		byte[] otherData = cache.getRasterizedImageData("b", dimension, 72, Color.WHITE, loader);
+		assert otherData != white;
+		assert loads.get() == 6;
+
+		assert cache.getRasterizedImageData("a", dimension, 144, null, loader) == highResolution;
+		assert cache.getRasterizedImageData("a", dimension, 72, new Color(255, 255, 255), loader) == white;
+		assert cache.getRasterizedImageData("a", dimension, 72, Color.RED, loader) == red;
+		assert loads.get() == 6;
+		assert cache.getImageCount() == 6 : cache;
+	}
+
+	@Test
+	public void sizeBound() throws JRException
+	{
+		SharedImageCache cache = new SharedImageCache(1000);
+		AtomicInteger loads = new AtomicInteger();
+		SharedImageCache.ImageLoader<byte[]> loader = () -> 
+		{
+			loads.incrementAndGet();
+			return new byte[400];
+		};
+		Dimension dimension = new Dimension(10, 10);
+
+		for (int i = 0; i < 4; i++)
+		{
+			cache.getRasterizedImageData("image" + i, dimension, 72, null, loader);
+			assert cache.getSize() <= cache.getMaxSize() : cache;
+		}
+		assert cache.getImageCount() == 2 : cache;
+		assert cache.getSize() == 800 : cache;
+		assert cache.getEvictionCount() == 2 : cache;
+
+		// the least recently used images were evicted
+		cache.getRasterizedImageData("image3", dimension, 72, null, loader);
+		assert loads.get() == 4;
+		cache.getRasterizedImageData("image0", dimension, 72, null, loader);
+		assert loads.get() == 5;
+		assert cache.getEvictionCount() == 3 : cache;
+
+		// images larger than the cache are not kept
+		cache.getRasterizedImageData("large", dimension, 72, null, () -> new byte[2000]);
+		assert cache.getImageCount() == 2 : cache;
+		assert cache.getSize() == 800 : cache;
+		assert cache.getEvictionCount() == 3 : cache;
+	}
+
+	@Test
+	public void disabledByDefault()
+	{
+		assert SharedImageCache.getInstance(new SimpleJasperReportsContext()) == null;
+	}
+
+	@Test
+	public void sharedAcrossExports() throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(SharedImageCache.PROPERTY_MAX_SIZE, String.valueOf(64L << 20));
+		SharedImageCache cache = SharedImageCache.getInstance(jasperReportsContext);
+		assert cache != null;
+		assert SharedImageCache.getInstance(jasperReportsContext) == cache;
+		assert SharedImageCache.getInstance(new SimpleJasperReportsContext(jasperReportsContext)) != cache;
+
+		JasperPrint print = JasperFillManager.getInstance(jasperReportsContext).fill(
+				report, new HashMap<>(), new JREmptyDataSource());
+
+		// the SVG images are rasterized at different background colors
+		String rtf = exportRtf(jasperReportsContext, print);
+		long misses = cache.getMissCount();
+		long hits = cache.getHitCount();
+		assert misses >= 2 : cache;
+		assert exportRtf(jasperReportsContext, print).equals(rtf);
+		assert cache.getMissCount() == misses : cache;
+		assert cache.getHitCount() >= hits + misses : cache;
+
+		// the PNG image is decoded
+		cache.clear();
+		long previousMisses = cache.getMissCount();
+		exportGraphics2D(jasperReportsContext, print);
+		misses = cache.getMissCount() - previousMisses;
+		hits = cache.getHitCount();
+		assert misses >= 1 : cache;
+		exportGraphics2D(jasperReportsContext, print);
+		assert cache.getMissCount() == previousMisses + misses : cache;
+		assert cache.getHitCount() >= hits + misses : cache;
+	}
+
+	protected String exportRtf(SimpleJasperReportsContext jasperReportsContext, JasperPrint print) throws JRException
+	{
+		StringWriter out = new StringWriter();
+		JRRtfExporter exporter = new JRRtfExporter(jasperReportsContext);
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleWriterExporterOutput(out));
+		exporter.exportReport();
+		return out.toString();
+	}
+
+	protected void exportGraphics2D(SimpleJasperReportsContext jasperReportsContext, JasperPrint print) throws JRException
+	{
+		BufferedImage image = new BufferedImage(print.getPageWidth(), print.getPageHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try
+		{
+			SimpleGraphics2DExporterOutput output = new SimpleGraphics2DExporterOutput();
+			output.setGraphics2D(graphics);
+			JRGraphics2DExporter exporter = new JRGraphics2DExporter(jasperReportsContext);
+			exporter.setExporterInput(new SimpleExporterInput(print));
+			exporter.setExporterOutput(output);
+			exporter.exportReport();
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.sort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRSortField;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.design.JRDesignSortField;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.DatasetSortUtil;
+import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.engine.type.SortOrderEnum;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Checks that sorting with primitive sort keys produces the same record order
+ * as the default comparator based sort, for random records and sort fields.
+ */
+public class PrimitiveSortKeysTest
+{
+
+	private static final String[] SORT_FIELDS = {"intValue", "longValue", "shortValue", "byteValue",
+			"doubleValue", "floatValue", "decimalValue", "booleanValue", "charValue",
+			"dateValue", "timeValue", "stringValue"};
+
+	private static final String[] STRINGS = {"a", "A", "á", "ä", "b", "B", "z", "Æ", "ae", "", " b"};
+
+	private static final double[] DOUBLES = {-1.5, 0d, -0d, 2.25, Double.NaN,
+			Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE};
+
+	private static final long[] LONGS = {Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE};
+
+	private JasperReport report;
+
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream("net/sf/jasperreports/sort/SortKeysReport.jrxml"))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		report = JasperCompileManager.compileReport(design);
+	}
+
+	@DataProvider
+	public Object[][] sortCases()
+	{
+		List<Object[]> cases = new ArrayList<>();
+		Locale[] locales = {Locale.US, Locale.GERMAN, new Locale("sv")};
+		for (int i = 0; i < 24; i++)
+		{
+			cases.add(new Object[]{i, 1000, locales[i % locales.length]});
+		}
+		// large enough for the parallel sort
+		cases.add(new Object[]{100, 20000, Locale.US});
+		return cases.toArray(new Object[cases.size()][]);
+	}
+
+	@Test(dataProvider = "sortCases")
+	public void sameOrder(int seed, int recordCount, Locale locale) throws JRException
+	{
+		Random random = new Random(seed);
+		List<Map<String, ?>> records = createRecords(random, recordCount);
+
+		List<JRSortField> sortFields = new ArrayList<>();
+		int sortFieldCount = 1 + random.nextInt(3);
+		for (int i = 0; i < sortFieldCount; i++)
+		{
+			sortFields.add(new JRDesignSortField(
+					SORT_FIELDS[random.nextInt(SORT_FIELDS.length)],
+					SortFieldTypeEnum.FIELD,
+					random.nextBoolean() ? SortOrderEnum.ASCENDING : SortOrderEnum.DESCENDING));
+		}
+
+		List<Integer> comparatorOrder = fillOrder(records, sortFields, locale, false);
+		List<Integer> primitiveKeysOrder = fillOrder(records, sortFields, locale, true);
+		assert primitiveKeysOrder.equals(comparatorOrder);
+	}
+
+	protected List<Map<String, ?>> createRecords(Random random, int recordCount)
+	{
+		List<Map<String, ?>> records = new ArrayList<>(recordCount);
+		for (int i = 0; i < recordCount; i++)
+		{
+			Map<String, Object> record = new HashMap<>();
+			record.put("seq", i);
+			// few distinct values so that there are ties, and some nulls
+			record.put("intValue", nullOr(random, random.nextInt(7) - 3));
+			record.put("longValue", nullOr(random, LONGS[random.nextInt(LONGS.length)]));
+			record.put("shortValue", nullOr(random, (short) (random.nextInt(5) - 2)));
+			record.put("byteValue", nullOr(random, (byte) (random.nextInt(5) - 2)));
+			record.put("doubleValue", nullOr(random, DOUBLES[random.nextInt(DOUBLES.length)]));
+			record.put("floatValue", nullOr(random, (float) DOUBLES[random.nextInt(DOUBLES.length)]));
+			record.put("decimalValue", nullOr(random, BigDecimal.valueOf(random.nextInt(5), random.nextInt(3))));
+			record.put("booleanValue", nullOr(random, random.nextBoolean()));
+			record.put("charValue", nullOr(random, (char) ('a' + random.nextInt(4))));
+			record.put("dateValue", nullOr(random, createDate(random)));
+			record.put("timeValue", nullOr(random, new Date(1000000000000L + 1000L * random.nextInt(4))));
+			record.put("stringValue", nullOr(random, STRINGS[random.nextInt(STRINGS.length)]));
+			records.add(record);
+		}
+		return records;
+	}
+
+	protected Object nullOr(Random random, Object value)
+	{
+		return random.nextInt(8) == 0 ? null : value;
+	}
+
+	protected Date createDate(Random random)
+	{
+		long time = 1000000000000L + 1000L * random.nextInt(4);
+		switch (random.nextInt(3))
+		{
+		case 0:
+			return new Date(time);
+		case 1:
+			// mixed date classes in the same column
+			Timestamp timestamp = new Timestamp(time);
+			timestamp.setNanos(random.nextInt(3) * 1000000);
+			return timestamp;
+		default:
+			return new java.sql.Date(time);
+		}
+	}
+
+	protected List<Integer> fillOrder(List<Map<String, ?>> records, List<JRSortField> sortFields,
+			Locale locale, boolean primitiveKeys) throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(DatasetSortUtil.PROPERTY_SORT_PRIMITIVE_KEYS, String.valueOf(primitiveKeys));
+
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, locale);
+		params.put(JRParameter.SORT_FIELDS, sortFields);
+		JasperPrint print = JasperFillManager.getInstance(jasperReportsContext).fill(report, params,
+				new JRMapCollectionDataSource(records));
+
+		List<Integer> order = new ArrayList<>(records.size());
+		for (JRPrintPage page : print.getPages())
+		{
+			for (JRPrintElement element : page.getElements())
+			{
+				order.add(Integer.valueOf(((JRPrintText) element).getFullText()));
+			}
+		}
+		assert order.size() == records.size();
+		return order;
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.sort;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.DatasetSortUtil;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Checks that sorting a dataset with records spilled to temporary files produces
+ * the same record order as the in-memory sort.
+ */
+public class SortSpillTest
+{
+
+	private static final String SORT_RUN_FILE_PREFIX = "jr.sort.run.";
+
+	private static final int RECORD_COUNT = 500;
+
+	private JasperReport report;
+	private List<Map<String, ?>> records;
+
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream("net/sf/jasperreports/sort/SortSpillReport.jrxml"))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		report = JasperCompileManager.compileReport(design);
+
+		Random random = new Random(17);
+		String[] names = {"alpha", "beta", "gamma", "delta", null};
+		records = new ArrayList<>(RECORD_COUNT);
+		for (int i = 0; i < RECORD_COUNT; i++)
+		{
+			Map<String, Object> record = new HashMap<>();
+			// few distinct keys and names so that there are many ties
+			record.put("key", random.nextInt(10) == 0 ? null : random.nextInt(12));
+			record.put("name", names[random.nextInt(names.length)]);
+			record.put("seq", i);
+			records.add(record);
+		}
+	}
+
+	@DataProvider
+	public Object[][] spillThresholds()
+	{
+		return new Object[][] {{3}, {64}, {RECORD_COUNT - 1}};
+	}
+
+	@Test(dataProvider = "spillThresholds")
+	public void spilledSort(int spillThreshold) throws JRException
+	{
+		List<Integer> inMemoryOrder = fillOrder(0, null);
+		checkStableOrder(inMemoryOrder);
+
+		int runFileCount = sortRunFileCount();
+		SpillCheckDataSource spillCheck = new SpillCheckDataSource();
+		List<Integer> spilledOrder = fillOrder(spillThreshold, spillCheck);
+
+		assert spillCheck.runFileCount > runFileCount : "no sort run files created";
+		assert spilledOrder.equals(inMemoryOrder);
+
+		// the run files are deleted when the dataset closes the sorted data source
+		assert sortRunFileCount() == runFileCount;
+	}
+
+	protected List<Integer> fillOrder(int spillThreshold, SpillCheckDataSource spillCheck) throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(DatasetSortUtil.PROPERTY_SORT_SPILL_THRESHOLD, String.valueOf(spillThreshold));
+
+		JRDataSource dataSource = new JRMapCollectionDataSource(records);
+		if (spillCheck != null)
+		{
+			spillCheck.dataSource = dataSource;
+			dataSource = spillCheck;
+		}
+
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		JasperPrint print = JasperFillManager.getInstance(jasperReportsContext).fill(report, params, dataSource);
+
+		List<Integer> order = new ArrayList<>(RECORD_COUNT);
+		for (JRPrintPage page : print.getPages())
+		{
+			for (JRPrintElement element : page.getElements())
+			{
+				order.add(Integer.valueOf(((JRPrintText) element).getFullText()));
+			}
+		}
+		assert order.size() == RECORD_COUNT;
+		return order;
+	}
+
+	protected void checkStableOrder(List<Integer> order)
+	{
+		for (int i = 1; i < order.size(); i++)
+		{
+			Map<String, ?> previous = records.get(order.get(i - 1));
+			Map<String, ?> current = records.get(order.get(i));
+			if (Objects.equals(previous.get("key"), current.get("key"))
+					&& Objects.equals(previous.get("name"), current.get("name")))
+			{
+				// equal records keep the original order
+				assert order.get(i - 1) < order.get(i);
+			}
+		}
+	}
+
+	protected static int sortRunFileCount()
+	{
+		String[] files = new File(System.getProperty("java.io.tmpdir")).list(
+				(dir, name) -> name.startsWith(SORT_RUN_FILE_PREFIX));
+		return files == null ? 0 : files.length;
+	}
+
+	/**
+	 * Counts the sort run files when the sort has read all the records.
+	 */
+	protected static class SpillCheckDataSource implements JRDataSource
+	{
+		private JRDataSource dataSource;
+		private int runFileCount = -1;
+
+		@Override
+		public boolean next() throws JRException
+		{
+			boolean next = dataSource.next();
+			if (!next && runFileCount < 0)
+			{
+				runFileCount = sortRunFileCount();
+			}
+			return next;
+		}
+
+		@Override
+		public Object getFieldValue(JRField jrField) throws JRException
+		{
+			return dataSource.getFieldValue(jrField);
+		}
+	}
+}
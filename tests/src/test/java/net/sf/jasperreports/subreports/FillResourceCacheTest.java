@@ -0,0 +1,257 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.subreports;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fill.FillResourceCache;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.repo.FileRepositoryPersistenceServiceFactory;
+import net.sf.jasperreports.repo.FileRepositoryService;
+import net.sf.jasperreports.repo.PersistenceServiceFactory;
+import net.sf.jasperreports.repo.RepositoryContext;
+import net.sf.jasperreports.repo.RepositoryService;
+import net.sf.jasperreports.repo.ResourceInfo;
+import net.sf.jasperreports.repo.StandardResourceInfo;
+
+/**
+ * Checks that subreports loaded from file repositories are shared by fills through {@link FillResourceCache}.
+ */
+public class FillResourceCacheTest
+{
+
+	private static final String RESOURCES_PATH = "net/sf/jasperreports/subreports/cache/";
+	private static final String SUBREPORT_NAME = "ResourceCacheSubreport.jasper";
+	
+	private JasperReport report;
+	private String subreportSource;
+	
+	private List<Path> roots;
+	
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(RESOURCES_PATH + "ResourceCacheReport.jrxml"))
+		{
+			report = JasperCompileManager.compileReport(JRXmlLoader.load(jrxmlInput));
+		}
+		subreportSource = new String(JRLoader.loadBytesFromResource(RESOURCES_PATH + "ResourceCacheSubreport.jrxml"), 
+				StandardCharsets.UTF_8);
+	}
+	
+	@BeforeMethod
+	public void createRoots()
+	{
+		roots = new ArrayList<>();
+	}
+	
+	@AfterMethod
+	public void deleteRoots() throws IOException
+	{
+		for (Path root : roots)
+		{
+			Files.deleteIfExists(root.resolve(SUBREPORT_NAME));
+			Files.deleteIfExists(root);
+		}
+	}
+
+	@Test
+	public void cacheHit() throws JRException, IOException
+	{
+		Path root = createRoot();
+		writeSubreport(root, "Cached subreport", 1000000000000L);
+		
+		SimpleJasperReportsContext context = createContext();
+		setRepositoryRoot(context, root);
+		assert "Cached subreport".equals(fillText(context));
+		assert "Cached subreport".equals(fillText(context));
+		
+		FillResourceCache cache = FillResourceCache.getInstance(context);
+		assert cache.getMissCount() == 1;
+		assert cache.getHitCount() == 1;
+		assert cache.getInvalidationCount() == 0;
+		assert cache.size() == 1;
+	}
+
+	@Test
+	public void versionChange() throws JRException, IOException
+	{
+		Path root = createRoot();
+		writeSubreport(root, "Old subreport", 1000000000000L);
+		
+		SimpleJasperReportsContext context = createContext();
+		setRepositoryRoot(context, root);
+		assert "Old subreport".equals(fillText(context));
+		
+		writeSubreport(root, "New subreport", 1000000010000L);
+		assert "New subreport".equals(fillText(context));
+		
+		FillResourceCache cache = FillResourceCache.getInstance(context);
+		assert cache.getMissCount() == 2;
+		assert cache.getHitCount() == 0;
+		assert cache.getInvalidationCount() == 1;
+	}
+
+	@Test
+	public void separateRoots() throws JRException, IOException
+	{
+		// same relative location, same length and same modification time in both roots
+		Path root1 = createRoot();
+		writeSubreport(root1, "Subreport A", 1000000000000L);
+		Path root2 = createRoot();
+		writeSubreport(root2, "Subreport B", 1000000000000L);
+		
+		SimpleJasperReportsContext context = createContext();
+		setRepositoryRoot(context, root1);
+		assert "Subreport A".equals(fillText(context));
+		
+		setRepositoryRoot(context, root2);
+		assert "Subreport B".equals(fillText(context));
+		
+		setRepositoryRoot(context, root1);
+		assert "Subreport A".equals(fillText(context));
+		
+		FillResourceCache cache = FillResourceCache.getInstance(context);
+		assert cache.getMissCount() == 2;
+		assert cache.getHitCount() == 1;
+		assert cache.size() == 2;
+	}
+
+	@Test
+	public void unversionedResource() throws JRException, IOException
+	{
+		Path root = createRoot();
+		writeSubreport(root, "Unversioned subreport", 1000000000000L);
+		
+		SimpleJasperReportsContext context = createContext();
+		FileRepositoryService repositoryService = new FileRepositoryService(context, root.toString(), false)
+		{
+			@Override
+			public ResourceInfo getResourceInfo(RepositoryContext context, String location)
+			{
+				ResourceInfo resourceInfo = super.getResourceInfo(context, location);
+				return resourceInfo == null ? null : StandardResourceInfo.from(
+						new File(resourceInfo.getRepositoryResourceLocation()));
+			}
+		};
+		context.setExtensions(RepositoryService.class, Collections.singletonList(repositoryService));
+		assert "Unversioned subreport".equals(fillText(context));
+		
+		// the subreport is not cached, so that changes are always seen
+		writeSubreport(root, "Modified subreport", 1000000000000L);
+		assert "Modified subreport".equals(fillText(context));
+		
+		FillResourceCache cache = FillResourceCache.getInstance(context);
+		assert cache.size() == 0;
+		assert cache.getMissCount() == 0;
+	}
+	
+	protected SimpleJasperReportsContext createContext()
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		context.setProperty(FillResourceCache.PROPERTY_CACHE_SIZE, "10");
+		context.setExtensions(PersistenceServiceFactory.class, 
+				Collections.singletonList(FileRepositoryPersistenceServiceFactory.getInstance()));
+		return context;
+	}
+	
+	protected void setRepositoryRoot(SimpleJasperReportsContext context, Path root)
+	{
+		context.setExtensions(RepositoryService.class, 
+				Collections.singletonList(new FileRepositoryService(context, root.toString(), false)));
+	}
+	
+	protected Path createRoot() throws IOException
+	{
+		Path root = Files.createTempDirectory("jr.resource.cache.");
+		roots.add(root);
+		return root;
+	}
+	
+	protected void writeSubreport(Path root, String label, long lastModified) throws JRException, IOException
+	{
+		JasperReport subreport;
+		try (InputStream jrxmlInput = new ByteArrayInputStream(
+				subreportSource.replace("@LABEL@", label).getBytes(StandardCharsets.UTF_8)))
+		{
+			subreport = JasperCompileManager.compileReport(JRXmlLoader.load(jrxmlInput));
+		}
+		File file = root.resolve(SUBREPORT_NAME).toFile();
+		JRSaver.saveObject(subreport, file);
+		assert file.setLastModified(lastModified);
+	}
+	
+	protected String fillText(SimpleJasperReportsContext context) throws JRException
+	{
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, null, new JREmptyDataSource(1));
+		StringBuilder text = new StringBuilder();
+		for (JRPrintPage page : print.getPages())
+		{
+			collectText(page.getElements(), text);
+		}
+		return text.toString();
+	}
+	
+	protected void collectText(List<JRPrintElement> elements, StringBuilder text)
+	{
+		for (JRPrintElement element : elements)
+		{
+			if (element instanceof JRPrintText)
+			{
+				text.append(((JRPrintText) element).getFullText());
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				collectText(((JRPrintFrame) element).getElements(), text);
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.subreports;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fill.JRContinuationSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.JRThreadSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.ThreadPoolSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.VirtualThreadSubreportRunnerFactory;
+
+/**
+ * Measures the fill times of the report with two levels of nested subreports used by {@link SubreportRunnersTest}
+ * for each subreport runner factory, with sequential and with concurrent fills.
+ * <p/>
+ * The benchmark is not part of the regular test run, it is executed with
+ * <code>mvn test -Dtest=SubreportRunnersBenchmark</code> in the tests module and logs the results at info level.
+ * The continuation based runner is only measured when the Javaflow instrumented library 
+ * (<code>jasperreports-javaflow</code>, built by <code>core/pom-javaflow.xml</code>) replaces the core library 
+ * on the test classpath, otherwise it is skipped.
+ */
+public class SubreportRunnersBenchmark
+{
+	
+	private static final Log log = LogFactory.getLog(SubreportRunnersBenchmark.class);
+	
+	private static final String REPORT = "net/sf/jasperreports/subreports/nested/NestedSubreportsReport.jrxml";
+	
+	private static final int WARMUP_FILL_COUNT = 20;
+	
+	private static final int FILL_COUNT = 50;
+	
+	private SubreportRunnersTest reports;
+	private JasperReport report;
+	private String referenceDigest;
+
+	@BeforeClass
+	public void init() throws Exception
+	{
+		reports = new SubreportRunnersTest();
+		report = reports.compileReport(REPORT);
+		referenceDigest = reports.xmlDigest(fill(new SimpleJasperReportsContext()));
+	}
+	
+	@DataProvider
+	public Object[][] runnerFactories()
+	{
+		return new Object[][] {
+			{JRThreadSubreportRunnerFactory.class.getName()},
+			{ThreadPoolSubreportRunnerFactory.class.getName()},
+			{VirtualThreadSubreportRunnerFactory.class.getName()},
+			{JRContinuationSubreportRunnerFactory.class.getName()},
+		};
+	}
+	
+	@Test(dataProvider = "runnerFactories", timeOut = 600000)
+	public void fillNestedSubreports(String runnerFactory) throws Exception
+	{
+		SimpleJasperReportsContext jasperReportsContext = reports.runnerContext(runnerFactory);
+		if (!isAvailable(jasperReportsContext))
+		{
+			log.info(runnerFactory + " is not available");
+			throw new SkipException(runnerFactory + " is not available");
+		}
+		
+		for (int i = 0; i < WARMUP_FILL_COUNT; i++)
+		{
+			fill(jasperReportsContext);
+		}
+		
+		long start = System.nanoTime();
+		for (int i = 0; i < FILL_COUNT; i++)
+		{
+			fill(jasperReportsContext);
+		}
+		long sequentialTime = System.nanoTime() - start;
+		
+		int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try
+		{
+			start = System.nanoTime();
+			List<Future<JasperPrint>> fills = new ArrayList<>(FILL_COUNT);
+			for (int i = 0; i < FILL_COUNT; i++)
+			{
+				fills.add(executor.submit(() -> fill(jasperReportsContext)));
+			}
+			for (Future<JasperPrint> fill : fills)
+			{
+				fill.get();
+			}
+			long concurrentTime = System.nanoTime() - start;
+			
+			log.info(runnerFactory + ": " + FILL_COUNT + " sequential fills took " + (sequentialTime / 1000000) + " ms, "
+					+ String.format("%.2f", FILL_COUNT * 1e9 / sequentialTime) + " fills/s; "
+					+ FILL_COUNT + " fills on " + threadCount + " threads took " + (concurrentTime / 1000000) + " ms, "
+					+ String.format("%.2f", FILL_COUNT * 1e9 / concurrentTime) + " fills/s");
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Checks that the runner produces the same output as the default runner, 
+	 * the continuation runner fails or does not suspend the subreports without the instrumented classes.
+	 */
+	protected boolean isAvailable(SimpleJasperReportsContext jasperReportsContext)
+	{
+		try
+		{
+			return reports.xmlDigest(fill(jasperReportsContext)).equals(referenceDigest);
+		}
+		catch (Exception | LinkageError e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill failed", e);
+			}
+			return false;
+		}
+	}
+	
+	protected JasperPrint fill(SimpleJasperReportsContext jasperReportsContext) throws JRException
+	{
+		return JasperFillManager.getInstance(jasperReportsContext).fill(report, reports.fillParams());
+	}
+}
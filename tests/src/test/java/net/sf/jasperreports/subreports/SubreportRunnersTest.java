@@ -0,0 +1,289 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.subreports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.export.JRXmlExporter;
+import net.sf.jasperreports.engine.fill.AsynchronousFillHandle;
+import net.sf.jasperreports.engine.fill.AsynchronousFilllListener;
+import net.sf.jasperreports.engine.fill.JRSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.JRThreadSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.ThreadPoolSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.VirtualThreadSubreportRunnerFactory;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleXmlExporterOutput;
+
+/**
+ * Fills a report with two levels of nested subreports using each subreport runner factory
+ * and checks that the runners produce identical output, fill the subreports on separate threads
+ * and end the subreport threads when the fill is cancelled.
+ * <p/>
+ * The continuation based runner is not included because it requires the Javaflow instrumented library.
+ */
+public class SubreportRunnersTest
+{
+	
+	private static final String REPORT = "net/sf/jasperreports/subreports/nested/NestedSubreportsReport.jrxml";
+	
+	private final Map<String, JasperReport> compiledReports = new ConcurrentHashMap<>();
+	
+	private String referenceDigest;
+	
+	private final Set<Thread> fillThreads = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger fillThreadCalls = new AtomicInteger();
+	private volatile CountDownLatch cancelRequest;
+	private volatile CountDownLatch cancelIssued;
+
+	@BeforeClass
+	public void fillReference() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		// filled with the default runner factory
+		JasperPrint print = JasperFillManager.getInstance(new SimpleJasperReportsContext()).fill(
+				compileReport(REPORT), fillParams());
+		assert print.getPages().size() > 1;
+		referenceDigest = xmlDigest(print);
+	}
+
+	public JasperReport compileReport(String jrxml)
+	{
+		return compiledReports.computeIfAbsent(jrxml, this::doCompileReport);
+	}
+	
+	protected JasperReport doCompileReport(String jrxml)
+	{
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(jrxml))
+		{
+			JasperDesign design = JRXmlLoader.load(jrxmlInput);
+			return JasperCompileManager.compileReport(design);
+		}
+		catch (JRException | IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Called from the innermost subreport to record the filling thread.
+	 */
+	public String fillThread()
+	{
+		fillThreads.add(Thread.currentThread());
+		
+		CountDownLatch request = cancelRequest;
+		if (request != null && fillThreadCalls.incrementAndGet() == 50)
+		{
+			request.countDown();
+			try
+			{
+				// keeping the fill running until it is cancelled
+				cancelIssued.await(30, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		return null;
+	}
+	
+	@DataProvider
+	public Object[][] runnerFactories()
+	{
+		return new Object[][] {
+			{JRThreadSubreportRunnerFactory.class.getName()},
+			{ThreadPoolSubreportRunnerFactory.class.getName()},
+			{VirtualThreadSubreportRunnerFactory.class.getName()},
+		};
+	}
+	
+	@Test(dataProvider = "runnerFactories", timeOut = 60000)
+	public void fillNestedSubreports(String runnerFactory) throws JRException, NoSuchAlgorithmException, IOException
+	{
+		fillThreads.clear();
+		JasperPrint print = JasperFillManager.getInstance(runnerContext(runnerFactory)).fill(
+				compileReport(REPORT), fillParams());
+		assert xmlDigest(print).equals(referenceDigest);
+		
+		assert !fillThreads.isEmpty();
+		assert !fillThreads.contains(Thread.currentThread());
+		if (VirtualThreadSubreportRunnerFactory.class.getName().equals(runnerFactory)
+				&& VirtualThreadSubreportRunnerFactory.isVirtualThreadsAvailable())
+		{
+			for (Thread thread : fillThreads)
+			{
+				assert isVirtual(thread) : thread;
+			}
+		}
+	}
+	
+	@Test(dataProvider = "runnerFactories", timeOut = 60000)
+	public void cancelNestedSubreports(String runnerFactory) throws JRException, InterruptedException
+	{
+		fillThreads.clear();
+		fillThreadCalls.set(0);
+		cancelRequest = new CountDownLatch(1);
+		cancelIssued = new CountDownLatch(1);
+		try
+		{
+			AsynchronousFillHandle fillHandle = AsynchronousFillHandle.createHandle(runnerContext(runnerFactory), 
+					compileReport(REPORT), fillParams());
+			CountDownLatch fillEnd = new CountDownLatch(1);
+			AtomicBoolean cancelled = new AtomicBoolean();
+			fillHandle.addListener(new AsynchronousFilllListener()
+			{
+				@Override
+				public void reportFinished(JasperPrint jasperPrint)
+				{
+					fillEnd.countDown();
+				}
+				
+				@Override
+				public void reportFillError(Throwable t)
+				{
+					fillEnd.countDown();
+				}
+				
+				@Override
+				public void reportCancelled()
+				{
+					cancelled.set(true);
+					fillEnd.countDown();
+				}
+			});
+			fillHandle.startFill();
+			
+			assert cancelRequest.await(30, TimeUnit.SECONDS);
+			fillHandle.cancellFill();
+			cancelIssued.countDown();
+			
+			assert fillEnd.await(30, TimeUnit.SECONDS);
+			assert cancelled.get();
+			
+			for (Thread thread : fillThreads)
+			{
+				// the subreport threads end, the thread pools are shut down at the end of the fill
+				thread.join(30000);
+				assert !thread.isAlive() : thread + " " + thread.getState();
+			}
+		}
+		finally
+		{
+			cancelRequest = null;
+			cancelIssued.countDown();
+		}
+	}
+	
+	protected SimpleJasperReportsContext runnerContext(String runnerFactory)
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(JRSubreportRunnerFactory.SUBREPORT_RUNNER_FACTORY, runnerFactory);
+		return jasperReportsContext;
+	}
+	
+	protected boolean isVirtual(Thread thread)
+	{
+		try
+		{
+			return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return false;
+		}
+	}
+	
+	protected Map<String, Object> fillParams()
+	{
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		params.put(JRParameter.REPORT_TIME_ZONE, TimeZone.getTimeZone("GMT"));
+		params.put("TEST", this);
+		return params;
+	}
+	
+	protected String xmlDigest(JasperPrint print) throws JRException, NoSuchAlgorithmException, IOException
+	{
+		MessageDigest digest = MessageDigest.getInstance("SHA-1");
+		try (OutputStream out = new DigestOutputStream(new NullOutputStream(), digest))
+		{
+			JRXmlExporter exporter = new JRXmlExporter();
+			exporter.setExporterInput(new SimpleExporterInput(print));
+			exporter.setExporterOutput(new SimpleXmlExporterOutput(out));
+			exporter.exportReport();
+		}
+		
+		StringBuilder digestString = new StringBuilder();
+		for (byte b : digest.digest())
+		{
+			digestString.append(String.format("%02x", b));
+		}
+		return digestString.toString();
+	}
+	
+	private static class NullOutputStream extends OutputStream
+	{
+		@Override
+		public void write(int b)
+		{
+			// NOP
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+			// NOP
+		}
+	}
+}
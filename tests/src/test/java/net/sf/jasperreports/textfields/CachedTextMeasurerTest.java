@@ -0,0 +1,159 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.textfields;
+
+import java.awt.font.TextAttribute;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JRDesignTextField;
+import net.sf.jasperreports.engine.fill.CachingTextMeasurer;
+import net.sf.jasperreports.engine.fill.CachingTextMeasurerFactory;
+import net.sf.jasperreports.engine.fill.JRMeasuredText;
+import net.sf.jasperreports.engine.fill.MeasuredTextCache;
+import net.sf.jasperreports.engine.fill.TextMeasurer;
+import net.sf.jasperreports.engine.fonts.FontUtil;
+import net.sf.jasperreports.engine.util.JRStyledText;
+import net.sf.jasperreports.engine.util.JRTextMeasurerUtil;
+
+/**
+ * Runs the text fields reports twice with the cached text measurer factory,
+ * the second run using cached measuring results, and compares cached measuring
+ * results with the ones produced by {@link TextMeasurer}.
+ */
+public class CachedTextMeasurerTest extends TextFieldsTest
+{
+	private static final Log log = LogFactory.getLog(CachedTextMeasurerTest.class);
+	
+	@BeforeClass
+	public void initTextMeasurerFactory()
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(JRTextMeasurerUtil.PROPERTY_TEXT_MEASURER_FACTORY, "cached");
+		setJasperReportsContext(jasperReportsContext);
+	}
+	
+	@Override
+	protected void runReport(String folderName, String jrxmlFileName, String referenceFileNamePrefix)
+			throws JRException, IOException, NoSuchAlgorithmException, FileNotFoundException
+	{
+		super.runReport(folderName, jrxmlFileName, referenceFileNamePrefix);
+		super.runReport(folderName, jrxmlFileName, referenceFileNamePrefix);
+	}
+	
+	@Test
+	public void cachedMeasurements()
+	{
+		FontUtil fontUtil = FontUtil.getInstance(getJasperReportsContext());
+		// the first two elements are identical and share the cached results
+		JRDesignTextField[] elements = {textField(100), textField(100), textField(60)};
+		String[] texts = {"", "short", "A longer text that is wrapped on a few lines of the text field", 
+				"tab\tseparated\nlines", "\u05e9\u05dc\u05d5\u05dd mixed direction"};
+		int[] stretchHeights = {0, 40};
+		
+		MeasuredTextCache cache = new MeasuredTextCache(1000);
+		int rounds = 3;
+		for (int round = 0; round < rounds; round++)
+		{
+			for (JRDesignTextField element : elements)
+			{
+				for (String text : texts)
+				{
+					for (int stretchHeight : stretchHeights)
+					{
+						JRMeasuredText measured = new TextMeasurer(fontUtil, element)
+								.measure(styledText(text), 0, stretchHeight, false, true);
+						JRMeasuredText cached = new CachingTextMeasurer(new TextMeasurer(fontUtil, element), 
+								element, cache, 1000).measure(styledText(text), 0, stretchHeight, false, true);
+						assertSame(cached, measured);
+					}
+				}
+			}
+		}
+		
+		int distinctCount = 2 * texts.length * stretchHeights.length;
+		int measureCount = rounds * elements.length * texts.length * stretchHeights.length;
+		assert cache.getMissCount() == distinctCount : cache;
+		assert cache.getHitCount() == measureCount - distinctCount : cache;
+		assert cache.size() == distinctCount;
+	}
+	
+	protected JRDesignTextField textField(int width)
+	{
+		JRDesignTextField textField = new JRDesignTextField();
+		textField.setWidth(width);
+		textField.setHeight(20);
+		textField.setFontName("DejaVu Sans");
+		textField.setFontSize(10f);
+		return textField;
+	}
+	
+	protected JRStyledText styledText(String text)
+	{
+		Map<Attribute, Object> attributes = new HashMap<>();
+		attributes.put(TextAttribute.FAMILY, "DejaVu Sans");
+		attributes.put(TextAttribute.SIZE, 10f);
+		return new JRStyledText(Locale.US, text, attributes);
+	}
+	
+	protected void assertSame(JRMeasuredText cached, JRMeasuredText measured)
+	{
+		assert cached.getLeadingOffset() == measured.getLeadingOffset();
+		assert cached.getLineSpacingFactor() == measured.getLineSpacingFactor();
+		assert cached.getTextWidth() == measured.getTextWidth();
+		assert cached.getAverageCharWidth() == measured.getAverageCharWidth();
+		assert cached.getTextHeight() == measured.getTextHeight();
+		assert cached.getTextOffset() == measured.getTextOffset();
+		assert cached.isLeftToRight() == measured.isLeftToRight();
+		assert cached.isParagraphCut() == measured.isParagraphCut();
+		assert Objects.equals(cached.getTextSuffix(), measured.getTextSuffix());
+		assert Arrays.equals(cached.getLineBreakOffsets(), measured.getLineBreakOffsets());
+	}
+	
+	@AfterClass
+	public void checkCacheStatistics()
+	{
+		MeasuredTextCache cache = CachingTextMeasurerFactory.getCache(getJasperReportsContext());
+		log.info(cache);
+		
+		// the second run of each report finds the results of the first run
+		assert cache.getHitCount() > 0;
+		assert cache.getHitCount() >= cache.getMissCount() : cache;
+	}
+}
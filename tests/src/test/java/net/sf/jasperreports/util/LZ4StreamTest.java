@@ -0,0 +1,198 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.util.LZ4BlockInputStream;
+import net.sf.jasperreports.engine.util.LZ4BlockOutputStream;
+
+public class LZ4StreamTest
+{
+	private static final String TEXT = "<jr:element kind=\"textField\" x=\"10\" y=\"20\" width=\"100\" height=\"15\">";
+	
+	@Test(dataProvider = "streamParameters")
+	public void roundTrip(String kind, int blockSize, int length) throws IOException
+	{
+		Random random = new Random(length * 31L + blockSize);
+		byte[] data = createData(kind, length, random);
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (LZ4BlockOutputStream out = new LZ4BlockOutputStream(bout, blockSize))
+		{
+			int offset = 0;
+			while (offset < data.length)
+			{
+				if (random.nextInt(4) == 0)
+				{
+					out.write(data[offset++]);
+				}
+				else
+				{
+					int count = Math.min(data.length - offset, 1 + random.nextInt(2 * blockSize));
+					out.write(data, offset, count);
+					offset += count;
+				}
+			}
+		}
+		byte[] compressed = bout.toByteArray();
+		
+		// blocks that do not compress are stored, with 8 bytes of block header and 4 bytes of end marker
+		int blockCount = (length + blockSize - 1) / blockSize;
+		assert compressed.length <= length + 8 * blockCount + 4 : compressed.length + " bytes for " + length;
+		if ("zeros".equals(kind) && length >= 2 * blockSize && blockSize >= 64)
+		{
+			assert compressed.length < length / 4 : compressed.length + " bytes for " + length;
+		}
+		
+		assert Arrays.equals(readBulk(compressed, random), data);
+		assert Arrays.equals(readBytes(compressed), data);
+	}
+	
+	@Test
+	public void compressBlock()
+	{
+		byte[] data = createData("text", 5000, new Random(7));
+		int[] hashTable = new int[1 << 12];
+		byte[] compressed = new byte[LZ4BlockOutputStream.maxCompressedLength(data.length) + 3];
+		int compressedLength = LZ4BlockOutputStream.compress(data, 0, data.length, compressed, 3, hashTable);
+		assert compressedLength < data.length;
+		
+		byte[] decompressed = new byte[data.length + 5];
+		try
+		{
+			int length = LZ4BlockInputStream.decompress(compressed, 3, compressedLength, decompressed, 5, data.length);
+			assert length == data.length;
+		}
+		catch (IOException e)
+		{
+			throw new AssertionError(e);
+		}
+		assert Arrays.equals(Arrays.copyOfRange(decompressed, 5, decompressed.length), data);
+	}
+	
+	@Test(expectedExceptions = IOException.class)
+	public void truncatedStream() throws IOException
+	{
+		byte[] data = createData("text", 3000, new Random(11));
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (LZ4BlockOutputStream out = new LZ4BlockOutputStream(bout, 1024))
+		{
+			out.write(data);
+		}
+		byte[] compressed = bout.toByteArray();
+		
+		readBytes(Arrays.copyOf(compressed, compressed.length - 20));
+	}
+	
+	protected byte[] createData(String kind, int length, Random random)
+	{
+		byte[] data = new byte[length];
+		switch (kind)
+		{
+		case "random":
+			// compressible with some noise
+			for (int i = 0; i < length; i++)
+			{
+				data[i] = random.nextInt(8) == 0 ? (byte) random.nextInt(256) : (byte) TEXT.charAt(i % TEXT.length());
+			}
+			break;
+		case "incompressible":
+			random.nextBytes(data);
+			break;
+		case "zeros":
+			// long matches that overlap the copied data
+			break;
+		default:
+			for (int i = 0; i < length; i++)
+			{
+				data[i] = (byte) TEXT.charAt((i + i / 500) % TEXT.length());
+			}
+			break;
+		}
+		return data;
+	}
+	
+	protected byte[] readBulk(byte[] compressed, Random random) throws IOException
+	{
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		try (InputStream in = new LZ4BlockInputStream(new ByteArrayInputStream(compressed)))
+		{
+			byte[] buffer = new byte[1 + random.nextInt(5000)];
+			int read;
+			while ((read = in.read(buffer, 0, 1 + random.nextInt(buffer.length))) >= 0)
+			{
+				data.write(buffer, 0, read);
+			}
+			assert in.read() == -1;
+		}
+		return data.toByteArray();
+	}
+	
+	protected byte[] readBytes(byte[] compressed) throws IOException
+	{
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		try (InputStream in = new LZ4BlockInputStream(new ByteArrayInputStream(compressed)))
+		{
+			int b;
+			while ((b = in.read()) >= 0)
+			{
+				data.write(b);
+			}
+		}
+		return data.toByteArray();
+	}
+
+	@DataProvider
+	public Object[][] streamParameters()
+	{
+		String[] kinds = {"text", "random", "incompressible", "zeros"};
+		int[] blockSizes = {16, 1024, LZ4BlockOutputStream.DEFAULT_BLOCK_SIZE};
+		List<Object[]> parameters = new ArrayList<>();
+		for (String kind : kinds)
+		{
+			for (int blockSize : blockSizes)
+			{
+				int[] lengths = {0, 1, 4, 12, 13, 17, 
+						blockSize - 1, blockSize, blockSize + 1, 
+						2 * blockSize, 3 * blockSize + 7, 200000};
+				for (int length : lengths)
+				{
+					parameters.add(new Object[]{kind, blockSize, length});
+				}
+			}
+		}
+		return parameters.toArray(new Object[parameters.size()][]);
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.export.zip.ParallelDeflateZipOutputStream;
+
+public class ParallelDeflateZipOutputStreamTest
+{
+	@Test(dataProvider = "zipParameters")
+	public void roundTrip(int threads, int blockSize, int[] entrySizes) throws IOException
+	{
+		Random random = new Random(entrySizes.length * 31 + blockSize);
+		List<byte[]> entriesData = new ArrayList<>();
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zipos = new ParallelDeflateZipOutputStream(out, threads, blockSize))
+		{
+			for (int i = 0; i < entrySizes.length; i++)
+			{
+				byte[] data = new byte[entrySizes[i]];
+				for (int j = 0; j < data.length; j++)
+				{
+					data[j] = random.nextInt(8) == 0 ? (byte) random.nextInt(256) : (byte) "<row><c><v>1</v></c></row>".charAt(j % 26);
+				}
+				entriesData.add(data);
+				
+				zipos.putNextEntry(new ZipEntry("entry" + i + ".xml"));
+				int offset = 0;
+				while (offset < data.length)
+				{
+					int count = Math.min(data.length - offset, 1 + random.nextInt(50000));
+					zipos.write(data, offset, count);
+					offset += count;
+				}
+			}
+		}
+		
+		try (ZipInputStream zipis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray())))
+		{
+			int index = 0;
+			ZipEntry entry;
+			while ((entry = zipis.getNextEntry()) != null)
+			{
+				assert entry.getName().equals("entry" + index + ".xml");
+				
+				ByteArrayOutputStream data = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				int count;
+				while ((count = zipis.read(buffer)) > 0)
+				{
+					data.write(buffer, 0, count);
+				}
+				assert Arrays.equals(data.toByteArray(), entriesData.get(index));
+				++index;
+			}
+			assert index == entrySizes.length;
+		}
+	}
+	
+	@DataProvider
+	public Object[][] zipParameters()
+	{
+		return new Object[][] {
+			{1, ParallelDeflateZipOutputStream.DEFAULT_BLOCK_SIZE, new int[]{}},
+			{2, ParallelDeflateZipOutputStream.DEFAULT_BLOCK_SIZE, new int[]{0, 10, 1000}},
+			{4, ParallelDeflateZipOutputStream.DEFAULT_BLOCK_SIZE, new int[]{500000, 131072, 262144, 3}},
+			{3, 40000, new int[]{1000000, 39999, 40000, 40001}},
+		};
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.variables;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JRDistinctCountIncrementerFactory;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Checks the values of distinct count variables with exact and approximate counts.
+ */
+public class DistinctCountTest
+{
+
+	private JasperReport report;
+
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream("net/sf/jasperreports/variables/DistinctCountReport.jrxml"))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		report = JasperCompileManager.compileReport(design);
+	}
+
+	@DataProvider
+	public Object[][] seeds()
+	{
+		return new Object[][] {{1}, {2}, {3}};
+	}
+
+	@Test(dataProvider = "seeds")
+	public void exactCounts(int seed) throws JRException
+	{
+		Random random = new Random(seed);
+		List<Map<String, ?>> records = new ArrayList<>();
+		List<Long> groupCounts = new ArrayList<>();
+		List<Long> reportCounts = new ArrayList<>();
+		createRecords(random, 30, 50, records, groupCounts, reportCounts);
+		
+		Map<String, List<Long>> counts = fillCounts(records, false);
+		assert counts.get("GroupDistinct").equals(groupCounts);
+		assert counts.get("ReportDistinct").equals(reportCounts);
+	}
+
+	@Test(dataProvider = "seeds")
+	public void approximateCounts(int seed) throws JRException
+	{
+		Random random = new Random(seed);
+		List<Map<String, ?>> records = new ArrayList<>();
+		List<Long> groupCounts = new ArrayList<>();
+		List<Long> reportCounts = new ArrayList<>();
+		createRecords(random, 20, 2000, records, groupCounts, reportCounts);
+		
+		Map<String, List<Long>> counts = fillCounts(records, true);
+		checkApproximate(counts.get("GroupDistinct"), groupCounts);
+		checkApproximate(counts.get("ReportDistinct"), reportCounts);
+	}
+
+	protected void checkApproximate(List<Long> counts, List<Long> expectedCounts)
+	{
+		assert counts.size() == expectedCounts.size();
+		for (int i = 0; i < counts.size(); i++)
+		{
+			long expected = expectedCounts.get(i);
+			long count = counts.get(i);
+			// the relative standard error for the default precision is 0.81%
+			assert Math.abs(count - expected) <= 1 + 0.03 * expected : count + " != " + expected;
+		}
+	}
+
+	protected void createRecords(Random random, int groupCount, int maxGroupSize, 
+			List<Map<String, ?>> records, List<Long> groupCounts, List<Long> reportCounts)
+	{
+		Set<Object> reportValues = new HashSet<>();
+		for (int key = 0; key < groupCount; key++)
+		{
+			Set<Object> groupValues = new HashSet<>();
+			int groupSize = 1 + random.nextInt(maxGroupSize);
+			for (int i = 0; i < groupSize; i++)
+			{
+				Object value = createValue(random, maxGroupSize);
+				if (value != null)
+				{
+					groupValues.add(value);
+					reportValues.add(value);
+				}
+				
+				Map<String, Object> record = new HashMap<>();
+				record.put("key", key);
+				record.put("value", value);
+				records.add(record);
+			}
+			groupCounts.add((long) groupValues.size());
+			reportCounts.add((long) reportValues.size());
+		}
+	}
+	
+	protected Object createValue(Random random, int range)
+	{
+		int value = random.nextInt(range);
+		// values of different classes are distinct even if they have the same numeric value
+		switch (random.nextInt(6))
+		{
+			case 0:
+				return null;
+			case 1:
+				return value;
+			case 2:
+				return (long) value;
+			case 3:
+				return (double) value / 2;
+			case 4:
+				return new Date(1000000000000L + value);
+			default:
+				return "value " + value;
+		}
+	}
+
+	protected Map<String, List<Long>> fillCounts(List<Map<String, ?>> records, boolean approximate) throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(JRDistinctCountIncrementerFactory.PROPERTY_PREFIX_APPROXIMATE + "GroupDistinct", 
+				String.valueOf(approximate));
+		jasperReportsContext.setProperty(JRDistinctCountIncrementerFactory.PROPERTY_PREFIX_APPROXIMATE + "ReportDistinct", 
+				String.valueOf(approximate));
+
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		JasperPrint print = JasperFillManager.getInstance(jasperReportsContext).fill(report, params,
+				new JRMapCollectionDataSource(records));
+
+		Map<String, List<Long>> counts = new HashMap<>();
+		for (JRPrintPage page : print.getPages())
+		{
+			for (JRPrintElement element : page.getElements())
+			{
+				counts.computeIfAbsent(element.getKey(), key -> new ArrayList<>())
+					.add(Long.valueOf(((JRPrintText) element).getFullText().replace(",", "")));
+			}
+		}
+		return counts;
+	}
+}
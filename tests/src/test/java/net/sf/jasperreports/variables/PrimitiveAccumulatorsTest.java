@@ -0,0 +1,174 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.variables;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JRCalculator;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Checks that variables accumulated as primitive values have the same values as the variables
+ * calculated by the default incrementers.
+ */
+public class PrimitiveAccumulatorsTest
+{
+
+	// the order of the text fields in the report bands
+	private static final String[] COLUMNS = {"SumDouble", "AverageDouble", "VarianceDouble", "StandardDeviationDouble", 
+			"CountDouble", "SumLong", "CountInteger", "SumInteger"};
+	
+	private JasperReport report;
+
+	@BeforeClass
+	public void init() throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream("net/sf/jasperreports/variables/AccumulatorsReport.jrxml"))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		report = JasperCompileManager.compileReport(design);
+	}
+
+	@DataProvider
+	public Object[][] records()
+	{
+		List<Object[]> cases = new ArrayList<>();
+		for (int seed = 0; seed < 10; seed++)
+		{
+			cases.add(new Object[]{"random " + seed, createRecords(new Random(seed), 200)});
+		}
+		cases.add(new Object[]{"single row", Collections.singletonList(record(1, 2.5d, 3L, 4))});
+		cases.add(new Object[]{"single null row", Collections.singletonList(record(1, null, null, null))});
+		
+		List<Map<String, ?>> nulls = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			nulls.add(record(i / 3, null, null, null));
+		}
+		cases.add(new Object[]{"null values", nulls});
+		
+		List<Map<String, ?>> leadingNulls = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			leadingNulls.add(i % 5 < 2 ? record(i / 5, null, null, null) : record(i / 5, i * 1.25d, (long) i, i));
+		}
+		cases.add(new Object[]{"leading null values", leadingNulls});
+		return cases.toArray(new Object[cases.size()][]);
+	}
+
+	@Test(dataProvider = "records")
+	public void sameValues(String name, List<Map<String, ?>> records) throws JRException
+	{
+		List<String> incrementerValues = fillValues(records, false);
+		List<String> accumulatorValues = fillValues(records, true);
+		assert accumulatorValues.size() == incrementerValues.size() : name;
+		
+		for (int i = 0; i < incrementerValues.size(); i++)
+		{
+			String column = COLUMNS[i % COLUMNS.length];
+			String expected = incrementerValues.get(i);
+			String actual = accumulatorValues.get(i);
+			assert expected.equals(actual) : name + " " + column + ": " + expected + " != " + actual;
+		}
+	}
+
+	protected List<Map<String, ?>> createRecords(Random random, int recordCount)
+	{
+		List<Map<String, ?>> records = new ArrayList<>(recordCount);
+		int key = 0;
+		for (int i = 0; i < recordCount; i++)
+		{
+			// groups of various sizes, including single records
+			if (random.nextInt(6) == 0)
+			{
+				++key;
+			}
+			
+			records.add(record(key, 
+					random.nextInt(5) == 0 ? null : (random.nextDouble() - 0.3) * 1000,
+					random.nextInt(5) == 0 ? null : (long) random.nextInt(1000000),
+					random.nextInt(5) == 0 ? null : random.nextInt(1000) - 500));
+		}
+		return records;
+	}
+	
+	protected Map<String, ?> record(int key, Double doubleValue, Long longValue, Integer intValue)
+	{
+		Map<String, Object> record = new HashMap<>();
+		record.put("key", key);
+		record.put("doubleValue", doubleValue);
+		record.put("longValue", longValue);
+		record.put("intValue", intValue);
+		return record;
+	}
+
+	protected List<String> fillValues(List<Map<String, ?>> records, boolean primitiveAccumulators) throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(JRCalculator.PROPERTY_PRIMITIVE_ACCUMULATORS, String.valueOf(primitiveAccumulators));
+
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		JasperPrint print = JasperFillManager.getInstance(jasperReportsContext).fill(report, params,
+				new JRMapCollectionDataSource(records));
+
+		List<String> values = new ArrayList<>();
+		for (JRPrintPage page : print.getPages())
+		{
+			for (JRPrintElement element : page.getElements())
+			{
+				values.add(((JRPrintText) element).getFullText());
+			}
+		}
+		assert !values.isEmpty();
+		return values;
+	}
+}
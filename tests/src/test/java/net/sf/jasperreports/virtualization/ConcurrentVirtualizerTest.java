@@ -0,0 +1,236 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fill.ConcurrentStoreVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+import net.sf.jasperreports.engine.util.JRLockFreeSwapFile;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.SwapFileVirtualizerStore;
+import net.sf.jasperreports.engine.util.WriteBehindSwapFileVirtualizerStore;
+
+/**
+ * Fills a report concurrently with a shared {@link ConcurrentStoreVirtualizer}
+ * with synchronous and with write-behind swap file stores, checking that the output
+ * is the same as with {@link JRSwapFileVirtualizer} and that the number of paged in 
+ * objects stays within the virtualizer size.
+ * The fill throughput is logged for one thread and for all available processors.
+ */
+public class ConcurrentVirtualizerTest
+{
+	
+	private static final Log log = LogFactory.getLog(ConcurrentVirtualizerTest.class);
+	
+	private static final int FILL_COUNT = 24;
+	
+	private static final int MAX_SIZE = 4;
+	
+	private Report report;
+	private volatile String swapFileDigest;
+
+	@BeforeClass
+	public void initReport()
+	{
+		report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", 
+				"net/sf/jasperreports/virtualization/FirstJasper.reference.jrpxml")
+		{
+			@Override
+			protected void reportComplete(Map<String, Object> params, JasperPrint print)
+			{
+				assert !print.getPages().isEmpty();
+				
+				// the virtualizer is shared, not cleaning it up
+				checkDigest(print);
+				
+				String digest = digest(print);
+				if (params.get(JRParameter.REPORT_VIRTUALIZER) instanceof JRSwapFileVirtualizer)
+				{
+					swapFileDigest = digest;
+				}
+				else
+				{
+					assert digest.equals(swapFileDigest);
+				}
+			}
+			
+			protected String digest(JasperPrint print)
+			{
+				try
+				{
+					return xmlDigest(print);
+				}
+				catch (Exception e)
+				{
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		report.init();
+		
+		JRSwapFileVirtualizer swapFileVirtualizer = new JRSwapFileVirtualizer(MAX_SIZE, 
+				new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 64));
+		try
+		{
+			Map<String, Object> params = new HashMap<>();
+			params.put(JRParameter.REPORT_VIRTUALIZER, swapFileVirtualizer);
+			report.runReport(params);
+		}
+		finally
+		{
+			swapFileVirtualizer.cleanup();
+		}
+		assert swapFileDigest != null;
+	}
+	
+	@Test
+	public void singleThreadFills() throws InterruptedException, ExecutionException
+	{
+		runFills(1);
+	}
+	
+	@Test
+	public void concurrentFills() throws InterruptedException, ExecutionException
+	{
+		runFills(Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+	
+	@Test
+	public void writeBehindConcurrentFills() throws InterruptedException, ExecutionException
+	{
+		JRSwapFile swapFile = new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 64);
+		runFills(Math.max(2, Runtime.getRuntime().availableProcessors()), 
+				new WriteBehindSwapFileVirtualizerStore(swapFile, true, 16));
+	}
+	
+	@Test
+	public void lockFreeSwapFileConcurrentFills() throws InterruptedException, ExecutionException
+	{
+		JRSwapFile swapFile = new JRLockFreeSwapFile(System.getProperty("java.io.tmpdir"), 4096);
+		runFills(Math.max(2, Runtime.getRuntime().availableProcessors()), 
+				new SwapFileVirtualizerStore(swapFile, true));
+	}
+	
+	protected void runFills(int threadCount) throws InterruptedException, ExecutionException
+	{
+		JRSwapFile swapFile = new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 64);
+		runFills(threadCount, new SwapFileVirtualizerStore(swapFile, true));
+	}
+	
+	protected void runFills(int threadCount, VirtualizerStore store) throws InterruptedException, ExecutionException
+	{
+		CountingVirtualizer virtualizer = new CountingVirtualizer(store);
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try
+		{
+			long start = System.nanoTime();
+			
+			List<Future<?>> fills = new ArrayList<>(FILL_COUNT);
+			for (int i = 0; i < FILL_COUNT; i++)
+			{
+				fills.add(executor.submit(() -> 
+				{
+					Map<String, Object> params = new HashMap<>();
+					params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+					report.runReport(params);
+				}));
+			}
+			
+			for (Future<?> fill : fills)
+			{
+				fill.get();
+			}
+			
+			long time = System.nanoTime() - start;
+			
+			// the last objects of the contexts are not evicted, as in the other virtualizers;
+			// concurrent fills can register objects before evicting
+			int maxPagedIn = threadCount == 1 ? MAX_SIZE : MAX_SIZE + threadCount;
+			assert virtualizer.maxPagedInCount.get() > 0;
+			assert virtualizer.maxPagedInCount.get() <= maxPagedIn 
+					: "paged in " + virtualizer.maxPagedInCount.get() + " evictable objects";
+			assert virtualizer.getPagedInCount() - virtualizer.getPinnedCount() <= maxPagedIn;
+			
+			log.info(FILL_COUNT + " fills with " + threadCount + " threads and " + store + " took " + (time / 1000000) + " ms, " 
+					+ String.format("%.2f", FILL_COUNT * 1e9 / time) + " fills/s");
+		}
+		finally
+		{
+			executor.shutdown();
+			virtualizer.cleanup();
+		}
+	}
+	
+	/**
+	 * Records the highest number of paged in objects, not counting the last objects
+	 * of the contexts, seen after an object is registered or paged in.
+	 */
+	protected static class CountingVirtualizer extends ConcurrentStoreVirtualizer
+	{
+		private final AtomicInteger maxPagedInCount = new AtomicInteger();
+		
+		public CountingVirtualizer(VirtualizerStore store)
+		{
+			super(MAX_SIZE, store);
+		}
+		
+		@Override
+		public void registerObject(JRVirtualizable o)
+		{
+			super.registerObject(o);
+			countPagedIn();
+		}
+		
+		@Override
+		public void requestData(JRVirtualizable o)
+		{
+			super.requestData(o);
+			countPagedIn();
+		}
+		
+		protected void countPagedIn()
+		{
+			maxPagedInCount.accumulateAndGet(getPagedInCount() - getPinnedCount(), Math::max);
+		}
+	}
+}
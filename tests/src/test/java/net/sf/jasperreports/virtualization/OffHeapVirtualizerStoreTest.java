@@ -0,0 +1,163 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.fill.StoreVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.LZ4StreamCompression;
+import net.sf.jasperreports.engine.util.OffHeapVirtualizerStore;
+
+/**
+ * Checks that filling with {@link OffHeapVirtualizerStore} produces the same output
+ * as {@link JRSwapFileVirtualizer}, and that the direct memory is released on dispose.
+ */
+public class OffHeapVirtualizerStoreTest
+{
+	
+	private static final int MAX_SIZE = 3;
+	
+	private Report report;
+	private String digest;
+
+	@BeforeClass
+	public void initReport()
+	{
+		report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", 
+				"net/sf/jasperreports/virtualization/FirstJasper.reference.jrpxml")
+		{
+			@Override
+			protected void reportComplete(Map<String, Object> params, JasperPrint print)
+			{
+				try
+				{
+					digest = xmlDigest(print);
+				}
+				catch (Exception e)
+				{
+					throw new RuntimeException(e);
+				}
+				super.reportComplete(params, print);
+			}
+		};
+		report.init();
+	}
+	
+	protected String fillDigest(JRVirtualizer virtualizer)
+	{
+		digest = null;
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		report.runReport(params);
+		assert digest != null;
+		return digest;
+	}
+	
+	protected String swapFileDigest()
+	{
+		JRSwapFile swapFile = new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 16);
+		return fillDigest(new JRSwapFileVirtualizer(MAX_SIZE, swapFile, true));
+	}
+	
+	@Test
+	public void sameOutput()
+	{
+		OffHeapVirtualizerStore store = new OffHeapVirtualizerStore(1 << 24, null);
+		assert fillDigest(new StoreVirtualizer(MAX_SIZE, store)).equals(swapFileDigest());
+	}
+	
+	@Test
+	public void sameOutputUncompressed()
+	{
+		OffHeapVirtualizerStore store = new OffHeapVirtualizerStore(1 << 24, null, null, 512, 1 << 16);
+		assert fillDigest(new StoreVirtualizer(MAX_SIZE, store)).equals(swapFileDigest());
+	}
+	
+	@Test
+	public void sameOutputWithOverflow()
+	{
+		// a single small segment, the rest of the data goes to the swap file
+		OffHeapVirtualizerStore store = new OffHeapVirtualizerStore(4096, new LZ4StreamCompression(), 
+				System.getProperty("java.io.tmpdir"), 256, 4096);
+		assert fillDigest(new StoreVirtualizer(MAX_SIZE, store)).equals(swapFileDigest());
+	}
+	
+	@Test
+	public void memoryReleased() throws InterruptedException
+	{
+		BufferPoolMXBean directPool = directBufferPool();
+		long initialMemory = directPool.getMemoryUsed();
+		
+		long[] allocatedMemory = new long[1];
+		OffHeapVirtualizerStore store = new OffHeapVirtualizerStore(1 << 26, null, null, 4096, 1 << 22);
+		StoreVirtualizer virtualizer = new StoreVirtualizer(MAX_SIZE, store)
+		{
+			@Override
+			public void cleanup()
+			{
+				allocatedMemory[0] = store.getAllocatedMemory();
+				super.cleanup();
+			}
+		};
+		fillDigest(virtualizer);
+		
+		assert allocatedMemory[0] > 0;
+		assert store.getAllocatedMemory() == 0;
+		
+		// the segments are freed when garbage collected
+		long usedMemory = directPool.getMemoryUsed();
+		for (int i = 0; i < 20 && usedMemory > initialMemory + allocatedMemory[0] / 2; i++)
+		{
+			System.gc();
+			Thread.sleep(100);
+			usedMemory = directPool.getMemoryUsed();
+		}
+		assert usedMemory <= initialMemory + allocatedMemory[0] / 2 
+				: "direct memory used " + usedMemory + ", initially " + initialMemory;
+	}
+	
+	protected BufferPoolMXBean directBufferPool()
+	{
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+		{
+			if ("direct".equals(pool.getName()))
+			{
+				return pool;
+			}
+		}
+		throw new IllegalStateException("No direct buffer pool");
+	}
+}